@@ -1,9 +1,9 @@
 // Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.angular2.entities.metadata.stubs;
 
-import com.intellij.json.psi.JsonObject;
 import com.intellij.lang.javascript.index.flags.BooleanStructureElement;
 import com.intellij.lang.javascript.index.flags.FlagsStructure;
+import com.intellij.openapi.project.ProjectManager;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiFileFactory;
@@ -17,6 +17,7 @@ import org.angular2.entities.metadata.Angular2MetadataElementTypes;
 import org.angular2.entities.metadata.psi.Angular2MetadataComponent;
 import org.angular2.lang.html.Angular2HtmlLanguage;
 import org.angular2.lang.html.psi.Angular2HtmlRecursiveElementWalkingVisitor;
+import org.angular2.lang.metadata.json.MetadataJsonObject;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -42,10 +43,10 @@ public class Angular2MetadataComponentStub extends Angular2MetadataDirectiveStub
 
   public Angular2MetadataComponentStub(@Nullable String memberName,
                                        @Nullable StubElement parent,
-                                       @NotNull JsonObject source,
-                                       @NotNull JsonObject decoratorSource) {
+                                       @NotNull MetadataJsonObject source,
+                                       @NotNull MetadataJsonObject decoratorSource) {
     super(memberName, parent, source, decoratorSource, Angular2MetadataElementTypes.COMPONENT);
-    JsonObject initializer = getDecoratorInitializer(decoratorSource, JsonObject.class);
+    MetadataJsonObject initializer = getDecoratorInitializer(decoratorSource, MetadataJsonObject.class);
     String template;
     if (initializer == null
         || (template = readStringPropertyValue(initializer.findProperty(TEMPLATE_PROP))) == null
@@ -53,7 +54,8 @@ public class Angular2MetadataComponentStub extends Angular2MetadataDirectiveStub
       myNgContentSelectors = Collections.emptyList();
       return;
     }
-    PsiFile file = PsiFileFactory.getInstance(source.getProject())
+    // stubs don't depend on a project, the template is parsed only to read its PSI
+    PsiFile file = PsiFileFactory.getInstance(ProjectManager.getInstance().getDefaultProject())
       .createFileFromText(Angular2HtmlLanguage.INSTANCE, template);
     myNgContentSelectors = new SmartList<>();
     if (file != null) {
@@ -1,7 +1,6 @@
 // Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.angular2.entities.metadata.stubs;
 
-import com.intellij.json.psi.*;
 import com.intellij.lang.javascript.index.flags.BooleanStructureElement;
 import com.intellij.lang.javascript.index.flags.FlagsStructure;
 import com.intellij.openapi.util.Pair;
@@ -16,6 +15,7 @@ import one.util.streamex.StreamEx;
 import org.angular2.entities.Angular2EntityUtils;
 import org.angular2.entities.metadata.psi.Angular2MetadataDirectiveBase;
 import org.angular2.index.Angular2MetadataDirectiveIndex;
+import org.angular2.lang.metadata.json.*;
 import org.angular2.lang.metadata.psi.MetadataElementType;
 import org.angular2.lang.metadata.stubs.MetadataElementStub;
 import org.jetbrains.annotations.NotNull;
@@ -27,8 +27,6 @@ import java.util.Map.Entry;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
-import static com.intellij.util.ObjectUtils.doIfNotNull;
-import static com.intellij.util.ObjectUtils.tryCast;
 import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.toMap;
 import static org.angular2.Angular2DecoratorUtil.*;
@@ -53,13 +51,13 @@ public abstract class Angular2MetadataDirectiveStubBase<Psi extends Angular2Meta
 
   public Angular2MetadataDirectiveStubBase(@Nullable String memberName,
                                            @Nullable StubElement parent,
-                                           @NotNull JsonObject source,
-                                           @NotNull JsonObject decoratorSource,
+                                           @NotNull MetadataJsonObject source,
+                                           @NotNull MetadataJsonObject decoratorSource,
                                            @NotNull MetadataElementType elementType) {
     super(memberName, parent, source, elementType);
     myAttributes = loadAttributesMapping(source);
 
-    JsonObject initializer = getDecoratorInitializer(decoratorSource, JsonObject.class);
+    MetadataJsonObject initializer = getDecoratorInitializer(decoratorSource, MetadataJsonObject.class);
 
     if (initializer == null) {
       mySelector = null;
@@ -125,23 +123,23 @@ public abstract class Angular2MetadataDirectiveStubBase<Psi extends Angular2Meta
     return FLAGS_STRUCTURE;
   }
 
-  private static @NotNull Map<String, Integer> loadAttributesMapping(final @NotNull JsonObject source) {
-    return StreamEx.ofNullable(getPropertyValue(source.findProperty(MEMBERS), JsonObject.class))
-      .map(toPropertyValue(CONSTRUCTOR, JsonArray.class))
+  private static @NotNull Map<String, Integer> loadAttributesMapping(final @NotNull MetadataJsonObject source) {
+    return StreamEx.ofNullable(getPropertyValue(source.findProperty(MEMBERS), MetadataJsonObject.class))
+      .map(toPropertyValue(CONSTRUCTOR, MetadataJsonArray.class))
       .nonNull()
-      .flatCollection(JsonArray::getValueList)
-      .select(JsonObject.class)
-      .map(toPropertyValue(PARAMETER_DECORATORS, JsonArray.class))
+      .flatCollection(MetadataJsonArray::getValueList)
+      .select(MetadataJsonObject.class)
+      .map(toPropertyValue(PARAMETER_DECORATORS, MetadataJsonArray.class))
       .nonNull()
       .findFirst()
       .map(Angular2MetadataDirectiveStubBase::buildAttributesMapping)
       .orElse(emptyMap());
   }
 
-  private static @NotNull Map<String, Integer> buildAttributesMapping(final @NotNull JsonArray paramDecorators) {
+  private static @NotNull Map<String, Integer> buildAttributesMapping(final @NotNull MetadataJsonArray paramDecorators) {
     // Checks if the input object represents the @Attribute decorator
-    final Predicate<JsonObject> isAttributeDecorator = object -> {
-      final JsonObject expr = getPropertyValue(object.findProperty(EXPRESSION), JsonObject.class);
+    final Predicate<MetadataJsonObject> isAttributeDecorator = object -> {
+      final MetadataJsonObject expr = getPropertyValue(object.findProperty(EXPRESSION), MetadataJsonObject.class);
       final String decoratorName = expr != null
                                    ? readStringPropertyValue(expr.findProperty(REFERENCE_NAME))
                                    : null;
@@ -149,27 +147,27 @@ public abstract class Angular2MetadataDirectiveStubBase<Psi extends Angular2Meta
     };
 
     return EntryStream.of(paramDecorators.getValueList())
-      .selectValues(JsonArray.class)
+      .selectValues(MetadataJsonArray.class)
       .flatMapValues(a -> a.getValueList().stream())
-      .selectValues(JsonObject.class)
+      .selectValues(MetadataJsonObject.class)
       .filterValues(isAttributeDecorator)
-      .mapValues(toPropertyValue(ARGUMENTS, JsonArray.class))
+      .mapValues(toPropertyValue(ARGUMENTS, MetadataJsonArray.class))
       .nonNullValues()
       .mapValues(o -> o.getValueList().get(0))
-      .selectValues(JsonStringLiteral.class)
-      .mapValues(JsonStringLiteral::getValue)
+      .selectValues(MetadataJsonStringLiteral.class)
+      .mapValues(MetadataJsonStringLiteral::getValue)
       .filterValues(s -> !s.trim().isEmpty())
       .collect(toMap(Entry::getValue, Entry::getKey, (i, __) -> i));
   }
 
   private void loadAdditionalBindingMappings(@NotNull Map<String, String> mappings,
-                                             @NotNull JsonObject initializer,
+                                             @NotNull MetadataJsonObject initializer,
                                              @NotNull String propertyName) {
-    JsonArray list = tryCast(doIfNotNull(initializer.findProperty(propertyName), JsonProperty::getValue), JsonArray.class);
-    if (list != null && ContainerUtil.all(list.getValueList(), JsonStringLiteral.class::isInstance)) {
-      for (JsonValue v : list.getValueList()) {
-        if (v instanceof JsonStringLiteral) {
-          String value = ((JsonStringLiteral)v).getValue();
+    MetadataJsonArray list = getPropertyValue(initializer.findProperty(propertyName), MetadataJsonArray.class);
+    if (list != null && ContainerUtil.all(list.getValueList(), MetadataJsonStringLiteral.class::isInstance)) {
+      for (MetadataJsonValue v : list.getValueList()) {
+        if (v instanceof MetadataJsonStringLiteral) {
+          String value = ((MetadataJsonStringLiteral)v).getValue();
           Pair<String, String> p = Angular2EntityUtils.parsePropertyMapping(value);
           mappings.putIfAbsent(p.first, p.second);
         }
@@ -180,7 +178,7 @@ public abstract class Angular2MetadataDirectiveStubBase<Psi extends Angular2Meta
     }
   }
 
-  private static <T extends JsonValue> Function<JsonObject, T> toPropertyValue(final @NotNull String property,
+  private static <T extends MetadataJsonValue> Function<MetadataJsonObject, T> toPropertyValue(final @NotNull String property,
                                                                                final @NotNull Class<T> clazz) {
     return o -> getPropertyValue(o.findProperty(property), clazz);
   }
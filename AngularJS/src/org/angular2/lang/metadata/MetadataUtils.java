@@ -1,11 +1,11 @@
 // Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.angular2.lang.metadata;
 
-import com.intellij.json.psi.JsonObject;
-import com.intellij.json.psi.JsonProperty;
-import com.intellij.json.psi.JsonStringLiteral;
-import com.intellij.json.psi.JsonValue;
 import com.intellij.openapi.util.Pair;
+import org.angular2.lang.metadata.json.MetadataJsonObject;
+import org.angular2.lang.metadata.json.MetadataJsonProperty;
+import org.angular2.lang.metadata.json.MetadataJsonStringLiteral;
+import org.angular2.lang.metadata.json.MetadataJsonValue;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -16,28 +16,28 @@ import static com.intellij.util.ObjectUtils.tryCast;
 
 public final class MetadataUtils {
 
-  public static @NotNull Stream<JsonProperty> streamObjectProperty(@Nullable JsonProperty property) {
-    if (property == null || !(property.getValue() instanceof JsonObject)) {
+  public static @NotNull Stream<MetadataJsonProperty> streamObjectProperty(@Nullable MetadataJsonProperty property) {
+    if (property == null || !(property.getValue() instanceof MetadataJsonObject)) {
       return Stream.empty();
     }
-    return ((JsonObject)property.getValue()).getPropertyList().stream();
+    return ((MetadataJsonObject)property.getValue()).getPropertyList().stream();
   }
 
-  public static @Nullable Pair<String, String> readStringProperty(@Nullable JsonProperty property) {
-    if (property != null && property.getValue() instanceof JsonStringLiteral) {
-      return pair(property.getName(), ((JsonStringLiteral)property.getValue()).getValue());
+  public static @Nullable Pair<String, String> readStringProperty(@Nullable MetadataJsonProperty property) {
+    if (property != null && property.getValue() instanceof MetadataJsonStringLiteral) {
+      return pair(property.getName(), ((MetadataJsonStringLiteral)property.getValue()).getValue());
     }
     return null;
   }
 
-  public static @Nullable String readStringPropertyValue(@Nullable JsonProperty property) {
-    if (property != null && property.getValue() instanceof JsonStringLiteral) {
-      return ((JsonStringLiteral)property.getValue()).getValue();
+  public static @Nullable String readStringPropertyValue(@Nullable MetadataJsonProperty property) {
+    if (property != null && property.getValue() instanceof MetadataJsonStringLiteral) {
+      return ((MetadataJsonStringLiteral)property.getValue()).getValue();
     }
     return null;
   }
 
-  public static @Nullable <T extends JsonValue> T getPropertyValue(@Nullable JsonProperty property, Class<T> valueClass) {
+  public static @Nullable <T extends MetadataJsonValue> T getPropertyValue(@Nullable MetadataJsonProperty property, Class<T> valueClass) {
     return property != null ? tryCast(property.getValue(), valueClass) : null;
   }
 }
@@ -0,0 +1,12 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.angular2.lang.metadata.json;
+
+/**
+ * A number, boolean or null literal. Metadata stubs never read such values, so only their presence is kept.
+ */
+public final class MetadataJsonLiteral extends MetadataJsonValue {
+  static final MetadataJsonLiteral INSTANCE = new MetadataJsonLiteral();
+
+  private MetadataJsonLiteral() {
+  }
+}
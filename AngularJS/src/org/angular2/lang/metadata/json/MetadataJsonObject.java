@@ -0,0 +1,28 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.angular2.lang.metadata.json;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+public final class MetadataJsonObject extends MetadataJsonValue {
+  private final List<MetadataJsonProperty> myProperties;
+
+  MetadataJsonObject(@NotNull List<MetadataJsonProperty> properties) {
+    myProperties = properties;
+  }
+
+  public @NotNull List<MetadataJsonProperty> getPropertyList() {
+    return myProperties;
+  }
+
+  public @Nullable MetadataJsonProperty findProperty(@NotNull String name) {
+    for (MetadataJsonProperty property : myProperties) {
+      if (name.equals(property.getName())) {
+        return property;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,276 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.angular2.lang.metadata.json;
+
+import com.intellij.json.JsonLanguage;
+import com.intellij.json.psi.*;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.util.SmartList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Reads metadata JSON files into a {@link MetadataJsonValue} tree in a single pass over the text, without building JSON PSI.
+ * <p>
+ * Numbers, booleans and nulls are not materialized. Values of root object properties rejected by the root property filter
+ * are skipped without allocating anything. A root object is the top-level object, or an object directly in the top-level array.
+ * <p>
+ * The reader is strict. Malformed files are rare, for them {@link #parseWithJsonPsi} builds the same tree from error-tolerant JSON PSI.
+ */
+public final class MetadataJsonParser {
+
+  private final CharSequence myText;
+  private final int myLength;
+  private int myOffset;
+
+  private MetadataJsonParser(@NotNull CharSequence text) {
+    myText = text;
+    myLength = text.length();
+  }
+
+  /**
+   * @return the top-level value, or {@code null} if the text is not a well-formed JSON
+   */
+  public static @Nullable MetadataJsonValue parse(@NotNull CharSequence text, @Nullable Predicate<String> rootPropertyFilter) {
+    MetadataJsonParser parser = new MetadataJsonParser(text);
+    try {
+      MetadataJsonValue result = parser.parseValue(rootPropertyFilter, true);
+      parser.skipWhitespace();
+      return parser.myOffset == parser.myLength ? result : null;
+    }
+    catch (MalformedJsonException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Builds the tree from JSON PSI, which recovers from errors: the well-formed entries of a malformed file are kept,
+   * properties without a value are dropped. Much slower than {@link #parse} and allocates the whole PSI.
+   *
+   * @return the top-level value, or {@code null} if there is none
+   */
+  public static @Nullable MetadataJsonValue parseWithJsonPsi(@NotNull CharSequence text, @Nullable Predicate<String> rootPropertyFilter) {
+    // stubs don't depend on a project, and the file is used only to read its PSI
+    PsiFile file = PsiFileFactory.getInstance(ProjectManager.getInstance().getDefaultProject())
+      .createFileFromText(JsonLanguage.INSTANCE, text);
+    JsonValue root = file instanceof JsonFile ? ((JsonFile)file).getTopLevelValue() : null;
+    return root != null ? fromPsi(root, text, rootPropertyFilter, true) : null;
+  }
+
+  private static @NotNull MetadataJsonValue fromPsi(@NotNull JsonValue value,
+                                                    @NotNull CharSequence text,
+                                                    @Nullable Predicate<String> propertyFilter,
+                                                    boolean topLevel) {
+    if (value instanceof JsonObject) {
+      List<MetadataJsonProperty> properties = new SmartList<>();
+      for (JsonProperty property : ((JsonObject)value).getPropertyList()) {
+        JsonValue propertyValue = property.getValue();
+        if (propertyValue == null || (propertyFilter != null && !propertyFilter.test(property.getName()))) {
+          continue;
+        }
+        TextRange range = property.getTextRange();
+        properties.add(new MetadataJsonProperty(property.getName(), fromPsi(propertyValue, text, null, false),
+                                                text, range.getStartOffset(), range.getEndOffset()));
+      }
+      return new MetadataJsonObject(properties);
+    }
+    if (value instanceof JsonArray) {
+      List<MetadataJsonValue> values = new ArrayList<>();
+      for (JsonValue element : ((JsonArray)value).getValueList()) {
+        values.add(fromPsi(element, text, topLevel ? propertyFilter : null, false));
+      }
+      return new MetadataJsonArray(values);
+    }
+    if (value instanceof JsonStringLiteral) {
+      return new MetadataJsonStringLiteral(((JsonStringLiteral)value).getValue());
+    }
+    return MetadataJsonLiteral.INSTANCE;
+  }
+
+  private @NotNull MetadataJsonValue parseValue(@Nullable Predicate<String> propertyFilter, boolean topLevel)
+    throws MalformedJsonException {
+    skipWhitespace();
+    switch (peek()) {
+      case '{':
+        return parseObject(propertyFilter);
+      case '[':
+        return parseArray(topLevel ? propertyFilter : null);
+      case '"':
+      case '\'':
+        return new MetadataJsonStringLiteral(readString());
+      default:
+        skipLiteral();
+        return MetadataJsonLiteral.INSTANCE;
+    }
+  }
+
+  private @NotNull MetadataJsonObject parseObject(@Nullable Predicate<String> propertyFilter) throws MalformedJsonException {
+    myOffset++;
+    List<MetadataJsonProperty> properties = null;
+    skipWhitespace();
+    while (peek() != '}') {
+      int start = myOffset;
+      String name = readString();
+      skipWhitespace();
+      expect(':');
+      if (propertyFilter != null && !propertyFilter.test(name)) {
+        skipValue();
+      }
+      else {
+        MetadataJsonValue value = parseValue(null, false);
+        if (properties == null) {
+          properties = new SmartList<>();
+        }
+        properties.add(new MetadataJsonProperty(name, value, myText, start, myOffset));
+      }
+      if (!skipSeparator('}')) break;
+    }
+    expect('}');
+    return new MetadataJsonObject(properties != null ? properties : Collections.emptyList());
+  }
+
+  private @NotNull MetadataJsonArray parseArray(@Nullable Predicate<String> elementPropertyFilter) throws MalformedJsonException {
+    myOffset++;
+    List<MetadataJsonValue> values = null;
+    skipWhitespace();
+    while (peek() != ']') {
+      MetadataJsonValue value = parseValue(elementPropertyFilter, false);
+      if (values == null) {
+        values = new ArrayList<>();
+      }
+      values.add(value);
+      if (!skipSeparator(']')) break;
+    }
+    expect(']');
+    return new MetadataJsonArray(values != null ? values : Collections.emptyList());
+  }
+
+  /**
+   * Skips a comma between elements, if there is one, and whitespace around it.
+   *
+   * @return whether another element follows
+   */
+  private boolean skipSeparator(char closingBracket) throws MalformedJsonException {
+    skipWhitespace();
+    if (peek() != ',') {
+      return false;
+    }
+    myOffset++;
+    skipWhitespace();
+    return peek() != closingBracket;
+  }
+
+  private void skipValue() throws MalformedJsonException {
+    skipWhitespace();
+    char c = peek();
+    if (c == '"' || c == '\'') {
+      skipString();
+      return;
+    }
+    if (c != '{' && c != '[') {
+      skipLiteral();
+      return;
+    }
+    int depth = 0;
+    do {
+      c = peek();
+      switch (c) {
+        case '{':
+        case '[':
+          depth++;
+          myOffset++;
+          break;
+        case '}':
+        case ']':
+          depth--;
+          myOffset++;
+          break;
+        case '"':
+        case '\'':
+          skipString();
+          break;
+        default:
+          myOffset++;
+      }
+    }
+    while (depth > 0);
+  }
+
+  private @NotNull String readString() throws MalformedJsonException {
+    int start = myOffset;
+    boolean escaped = skipString();
+    CharSequence content = myText.subSequence(start + 1, myOffset - 1);
+    return escaped ? StringUtil.unescapeStringCharacters(content.toString()) : content.toString();
+  }
+
+  /**
+   * @return whether the string contains escape sequences
+   */
+  private boolean skipString() throws MalformedJsonException {
+    char quote = peek();
+    if (quote != '"' && quote != '\'') {
+      throw new MalformedJsonException();
+    }
+    boolean escaped = false;
+    for (int i = myOffset + 1; i < myLength; i++) {
+      char c = myText.charAt(i);
+      if (c == quote) {
+        myOffset = i + 1;
+        return escaped;
+      }
+      if (c == '\\') {
+        escaped = true;
+        i++;
+      }
+    }
+    throw new MalformedJsonException();
+  }
+
+  private void skipLiteral() throws MalformedJsonException {
+    int start = myOffset;
+    while (myOffset < myLength) {
+      char c = myText.charAt(myOffset);
+      if (c == ',' || c == '}' || c == ']' || c == ':' || Character.isWhitespace(c)) {
+        break;
+      }
+      myOffset++;
+    }
+    if (start == myOffset) {
+      throw new MalformedJsonException();
+    }
+  }
+
+  private void skipWhitespace() {
+    while (myOffset < myLength && Character.isWhitespace(myText.charAt(myOffset))) {
+      myOffset++;
+    }
+  }
+
+  private char peek() throws MalformedJsonException {
+    if (myOffset >= myLength) {
+      throw new MalformedJsonException();
+    }
+    return myText.charAt(myOffset);
+  }
+
+  private void expect(char c) throws MalformedJsonException {
+    if (peek() != c) {
+      throw new MalformedJsonException();
+    }
+    myOffset++;
+  }
+
+  private static final class MalformedJsonException extends Exception {
+    private MalformedJsonException() {
+      super(null, null, false, false);
+    }
+  }
+}
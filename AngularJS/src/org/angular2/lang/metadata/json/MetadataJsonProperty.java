@@ -0,0 +1,39 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.angular2.lang.metadata.json;
+
+import org.jetbrains.annotations.NotNull;
+
+public final class MetadataJsonProperty {
+  private final String myName;
+  private final MetadataJsonValue myValue;
+  private final CharSequence myFileText;
+  private final int myStartOffset;
+  private final int myEndOffset;
+
+  MetadataJsonProperty(@NotNull String name,
+                       @NotNull MetadataJsonValue value,
+                       @NotNull CharSequence fileText,
+                       int startOffset,
+                       int endOffset) {
+    myName = name;
+    myValue = value;
+    myFileText = fileText;
+    myStartOffset = startOffset;
+    myEndOffset = endOffset;
+  }
+
+  public @NotNull String getName() {
+    return myName;
+  }
+
+  public @NotNull MetadataJsonValue getValue() {
+    return myValue;
+  }
+
+  /**
+   * @return source text of the property, from the beginning of its name to the end of its value
+   */
+  public @NotNull String getText() {
+    return myFileText.subSequence(myStartOffset, myEndOffset).toString();
+  }
+}
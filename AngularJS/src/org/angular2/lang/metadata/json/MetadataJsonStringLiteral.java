@@ -0,0 +1,16 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.angular2.lang.metadata.json;
+
+import org.jetbrains.annotations.NotNull;
+
+public final class MetadataJsonStringLiteral extends MetadataJsonValue {
+  private final String myValue;
+
+  MetadataJsonStringLiteral(@NotNull String value) {
+    myValue = value;
+  }
+
+  public @NotNull String getValue() {
+    return myValue;
+  }
+}
@@ -0,0 +1,11 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.angular2.lang.metadata.json;
+
+/**
+ * A value of a lightweight JSON tree built by {@link MetadataJsonParser}. Unlike JSON PSI it keeps only the data
+ * which is needed to build metadata stubs.
+ */
+public abstract class MetadataJsonValue {
+  MetadataJsonValue() {
+  }
+}
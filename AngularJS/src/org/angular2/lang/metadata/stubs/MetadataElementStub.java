@@ -1,7 +1,6 @@
 // Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.angular2.lang.metadata.stubs;
 
-import com.intellij.json.psi.*;
 import com.intellij.lang.javascript.index.flags.BooleanStructureElement;
 import com.intellij.lang.javascript.index.flags.FlagsStructure;
 import com.intellij.lang.javascript.index.flags.FlagsStructureElement;
@@ -12,6 +11,7 @@ import com.intellij.openapi.util.io.DataInputOutputUtilRt;
 import com.intellij.psi.stubs.*;
 import com.intellij.util.io.DataInputOutputUtil;
 import com.intellij.util.io.StringRef;
+import org.angular2.lang.metadata.json.*;
 import org.angular2.lang.metadata.psi.MetadataElement;
 import org.angular2.lang.metadata.psi.MetadataElementType;
 import org.jetbrains.annotations.NonNls;
@@ -24,8 +24,8 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static com.intellij.util.ObjectUtils.doIfNotNull;
 import static com.intellij.util.ObjectUtils.tryCast;
+import static org.angular2.lang.metadata.MetadataUtils.getPropertyValue;
 import static org.angular2.lang.metadata.MetadataUtils.readStringPropertyValue;
 
 public abstract class MetadataElementStub<Psi extends MetadataElement> extends StubBase<Psi> {
@@ -118,20 +118,20 @@ public abstract class MetadataElementStub<Psi extends MetadataElement> extends S
     return FLAGS_STRUCTURE;
   }
 
-  protected void loadMemberProperty(@NotNull JsonProperty p) {
+  protected void loadMemberProperty(@NotNull MetadataJsonProperty p) {
     createMember(p.getName(), p.getValue());
   }
 
-  protected void createMember(@Nullable String name, @Nullable JsonValue member) {
+  protected void createMember(@Nullable String name, @Nullable MetadataJsonValue member) {
     ConstructorFromJsonValue constructor = null;
-    if (member instanceof JsonArray) {
+    if (member instanceof MetadataJsonArray) {
       constructor = getTypeFactory().get(ARRAY_TYPE);
     }
-    else if (member instanceof JsonObject) {
-      String type = readStringPropertyValue(((JsonObject)member).findProperty(SYMBOL_TYPE));
+    else if (member instanceof MetadataJsonObject) {
+      String type = readStringPropertyValue(((MetadataJsonObject)member).findProperty(SYMBOL_TYPE));
       constructor = getTypeFactory().get(type == null ? OBJECT_TYPE : type);
     }
-    else if (member instanceof JsonStringLiteral) {
+    else if (member instanceof MetadataJsonStringLiteral) {
       constructor = getTypeFactory().get(STRING_TYPE);
     }
     if (constructor != null) {
@@ -172,30 +172,33 @@ public abstract class MetadataElementStub<Psi extends MetadataElement> extends S
     return DataInputOutputUtilRt.readMap(stream, stream::readNameString, stream::readVarInt);
   }
 
-  protected static @NotNull Stream<Pair<String, JsonObject>> streamDecorators(@NotNull JsonObject sourceClass) {
-    JsonArray list = tryCast(doIfNotNull(sourceClass.findProperty(DECORATORS), JsonProperty::getValue), JsonArray.class);
+  protected static @NotNull Stream<Pair<String, MetadataJsonObject>> streamDecorators(@NotNull MetadataJsonObject sourceClass) {
+    MetadataJsonArray list = getPropertyValue(sourceClass.findProperty(DECORATORS), MetadataJsonArray.class);
     if (list == null) {
       return Stream.empty();
     }
     return list.getValueList().stream()
-      .map(v -> tryCast(v, JsonObject.class))
+      .map(v -> tryCast(v, MetadataJsonObject.class))
       .filter(obj -> obj != null
                      && SYMBOL_CALL.equals(readStringPropertyValue(obj.findProperty(SYMBOL_TYPE))))
-      .map(obj -> tryCast(doIfNotNull(obj.findProperty(EXPRESSION), JsonProperty::getValue), JsonObject.class))
-      .filter(obj -> obj != null
-                     && SYMBOL_REFERENCE.equals(readStringPropertyValue(obj.findProperty(SYMBOL_TYPE))))
-      .map(obj -> Pair.create(readStringPropertyValue(obj.findProperty(REFERENCE_NAME)), (JsonObject)obj.getParent().getParent()))
-      .filter(pair -> pair.first != null);
-  }
-
-  protected static @Nullable <T extends JsonValue> T getDecoratorInitializer(@NotNull JsonObject decorator, Class<T> initializerClass) {
-    JsonArray args = tryCast(doIfNotNull(decorator.findProperty(ARGUMENTS), JsonProperty::getValue), JsonArray.class);
+      .map(obj -> {
+        MetadataJsonObject expression = getPropertyValue(obj.findProperty(EXPRESSION), MetadataJsonObject.class);
+        return expression != null && SYMBOL_REFERENCE.equals(readStringPropertyValue(expression.findProperty(SYMBOL_TYPE)))
+               ? Pair.create(readStringPropertyValue(expression.findProperty(REFERENCE_NAME)), obj)
+               : null;
+      })
+      .filter(pair -> pair != null && pair.first != null);
+  }
+
+  protected static @Nullable <T extends MetadataJsonValue> T getDecoratorInitializer(@NotNull MetadataJsonObject decorator,
+                                                                                     Class<T> initializerClass) {
+    MetadataJsonArray args = getPropertyValue(decorator.findProperty(ARGUMENTS), MetadataJsonArray.class);
     return args != null && args.getValueList().size() == 1 ? tryCast(args.getValueList().get(0), initializerClass) : null;
   }
 
   protected interface ConstructorFromJsonValue {
     MetadataElementStub construct(@Nullable String memberName,
-                                  @NotNull JsonValue source,
+                                  @NotNull MetadataJsonValue source,
                                   @Nullable StubElement parent);
   }
 }
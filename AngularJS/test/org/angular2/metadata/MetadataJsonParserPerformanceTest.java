@@ -0,0 +1,75 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.angular2.metadata;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.angular2.entities.metadata.stubs.Angular2MetadataNodeModuleStub;
+import org.angular2.lang.metadata.json.MetadataJsonParser;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MetadataJsonParserPerformanceTest extends BasePlatformTestCase {
+  private static final int ITERATIONS = 20;
+
+  public void testParseMetadataFiles() throws IOException {
+    List<String> texts = loadMetadataFiles();
+    PlatformTestUtil.startPerformanceTest(getTestName(false), 500, () -> {
+      for (String text : texts) {
+        assertNotNull(MetadataJsonParser.parse(text, Angular2MetadataNodeModuleStub.ROOT_PROPERTIES::contains));
+      }
+    }).attempts(3).assertTiming();
+  }
+
+  public void testParseComparedToJsonPsi() throws IOException {
+    List<String> texts = loadMetadataFiles();
+    Runnable psi = () -> {
+      for (String text : texts) {
+        assertNotNull(MetadataJsonParser.parseWithJsonPsi(text, Angular2MetadataNodeModuleStub.ROOT_PROPERTIES::contains));
+      }
+    };
+    Runnable parser = () -> {
+      for (String text : texts) {
+        assertNotNull(MetadataJsonParser.parse(text, Angular2MetadataNodeModuleStub.ROOT_PROPERTIES::contains));
+      }
+    };
+    // warm up both paths
+    psi.run();
+    parser.run();
+
+    long[] psiCost = measure(psi);
+    long[] parserCost = measure(parser);
+    System.out.printf("%d metadata files x %d: JSON PSI %d ms, %d KB allocated; parser %d ms, %d KB allocated%n",
+                      texts.size(), ITERATIONS, psiCost[0], psiCost[1] / 1024, parserCost[0], parserCost[1] / 1024);
+    assertTrue("parser: " + parserCost[0] + " ms, JSON PSI: " + psiCost[0] + " ms", parserCost[0] < psiCost[0]);
+    assertTrue("parser: " + parserCost[1] + " bytes, JSON PSI: " + psiCost[1] + " bytes", parserCost[1] < psiCost[1]);
+  }
+
+  /**
+   * @return elapsed milliseconds and bytes allocated by the current thread
+   */
+  private static long[] measure(@NotNull Runnable runnable) {
+    com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    long allocated = bean.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      runnable.run();
+    }
+    long elapsed = (System.nanoTime() - start) / 1_000_000;
+    return new long[]{elapsed, bean.getThreadAllocatedBytes(threadId) - allocated};
+  }
+
+  private static @NotNull List<String> loadMetadataFiles() throws IOException {
+    List<String> texts = new ArrayList<>();
+    for (File file : MetadataJsonParserTest.getMetadataFiles()) {
+      texts.add(FileUtil.loadFile(file));
+    }
+    return texts;
+  }
+}
@@ -0,0 +1,145 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.angular2.metadata;
+
+import com.intellij.json.JsonLanguage;
+import com.intellij.json.psi.*;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.angular2.entities.metadata.stubs.Angular2MetadataNodeModuleStub;
+import org.angular2.lang.metadata.json.*;
+import org.angularjs.AngularTestUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that {@link MetadataJsonParser} reads metadata files the same way as JSON PSI, which was used to build metadata stubs before.
+ */
+public class MetadataJsonParserTest extends BasePlatformTestCase {
+
+  public void testMatchesJsonPsi() throws IOException {
+    for (File file : getMetadataFiles()) {
+      String text = FileUtil.loadFile(file);
+      assertSameTree(file.getName(), parsePsi(text), MetadataJsonParser.parse(text, null));
+    }
+  }
+
+  public void testSkippedRootProperties() throws IOException {
+    for (File file : getMetadataFiles()) {
+      String text = FileUtil.loadFile(file);
+      MetadataJsonValue root = MetadataJsonParser.parse(text, Angular2MetadataNodeModuleStub.ROOT_PROPERTIES::contains);
+      JsonValue psiRoot = parsePsi(text);
+      if (root instanceof MetadataJsonArray) {
+        assertTrue(file.getName(), psiRoot instanceof JsonArray);
+        assertSize(((JsonArray)psiRoot).getValueList().size(), ((MetadataJsonArray)root).getValueList());
+        root = ((MetadataJsonArray)root).getValueList().get(0);
+        psiRoot = ((JsonArray)psiRoot).getValueList().get(0);
+      }
+      assertTrue(file.getName(), root instanceof MetadataJsonObject);
+      for (JsonProperty property : ((JsonObject)psiRoot).getPropertyList()) {
+        MetadataJsonProperty lightProperty = ((MetadataJsonObject)root).findProperty(property.getName());
+        if (Angular2MetadataNodeModuleStub.ROOT_PROPERTIES.contains(property.getName())) {
+          assertNotNull(file.getName() + ": " + property.getName(), lightProperty);
+          assertSameTree(file.getName() + ": " + property.getName(), property.getValue(), lightProperty.getValue());
+        }
+        else {
+          assertNull(file.getName() + ": " + property.getName(), lightProperty);
+        }
+      }
+    }
+  }
+
+  public void testEscapes() {
+    MetadataJsonObject root = (MetadataJsonObject)MetadataJsonParser.parse(
+      "{\"a\\\"b\": \"c\\nd\\u0041\", \"e\": [1, true, null, \"f\",], }", null);
+    assertNotNull(root);
+    assertEquals("c\ndA", ((MetadataJsonStringLiteral)root.findProperty("a\"b").getValue()).getValue());
+    List<MetadataJsonValue> values = ((MetadataJsonArray)root.findProperty("e").getValue()).getValueList();
+    assertSize(4, values);
+    assertSame(MetadataJsonLiteral.class, values.get(2).getClass());
+    assertEquals("\"e\": [1, true, null, \"f\",]", root.findProperty("e").getText());
+  }
+
+  public void testMalformed() {
+    assertNull(MetadataJsonParser.parse("{\"a\": [1, 2}", null));
+    assertNull(MetadataJsonParser.parse("{\"a\": \"b", null));
+    assertNull(MetadataJsonParser.parse("{\"a\": 1} 2", null));
+    assertNull(MetadataJsonParser.parse("", null));
+  }
+
+  public void testPsiFallbackMatchesParser() throws IOException {
+    for (File file : getMetadataFiles()) {
+      String text = FileUtil.loadFile(file);
+      assertSameTree(file.getName(), parsePsi(text), MetadataJsonParser.parseWithJsonPsi(text, null));
+    }
+  }
+
+  public void testPsiFallbackRecoversEntries() {
+    String text = "{\"a\": \"b\", \"c\": , \"d\": [\"e\", 1], \"f\": \"g\"}";
+    assertNull(MetadataJsonParser.parse(text, null));
+    MetadataJsonObject root = (MetadataJsonObject)MetadataJsonParser.parseWithJsonPsi(text, name -> !name.equals("f"));
+    assertNotNull(root);
+    assertEquals("b", ((MetadataJsonStringLiteral)root.findProperty("a").getValue()).getValue());
+    assertNull(root.findProperty("c"));
+    assertNull(root.findProperty("f"));
+    assertNotNull(root.findProperty("d"));
+    assertEquals("e", ((MetadataJsonStringLiteral)((MetadataJsonArray)root.findProperty("d").getValue()).getValueList().get(0)).getValue());
+  }
+
+  static @Nullable JsonValue parsePsi(@NotNull String text) {
+    JsonFile file = (JsonFile)PsiFileFactory.getInstance(ProjectManager.getInstance().getDefaultProject()).createFileFromText(JsonLanguage.INSTANCE, text);
+    return file.getTopLevelValue();
+  }
+
+  private static void assertSameTree(@NotNull String path, @Nullable JsonValue expected, @Nullable MetadataJsonValue actual) {
+    if (expected instanceof JsonObject) {
+      assertTrue(path, actual instanceof MetadataJsonObject);
+      List<JsonProperty> expectedProperties = ((JsonObject)expected).getPropertyList();
+      List<MetadataJsonProperty> actualProperties = ((MetadataJsonObject)actual).getPropertyList();
+      assertEquals(path, expectedProperties.size(), actualProperties.size());
+      for (int i = 0; i < expectedProperties.size(); i++) {
+        JsonProperty expectedProperty = expectedProperties.get(i);
+        MetadataJsonProperty actualProperty = actualProperties.get(i);
+        String propertyPath = path + "." + expectedProperty.getName();
+        assertEquals(propertyPath, expectedProperty.getName(), actualProperty.getName());
+        assertEquals(propertyPath, expectedProperty.getText(), actualProperty.getText());
+        assertSameTree(propertyPath, expectedProperty.getValue(), actualProperty.getValue());
+      }
+    }
+    else if (expected instanceof JsonArray) {
+      assertTrue(path, actual instanceof MetadataJsonArray);
+      List<JsonValue> expectedValues = ((JsonArray)expected).getValueList();
+      List<MetadataJsonValue> actualValues = ((MetadataJsonArray)actual).getValueList();
+      assertEquals(path, expectedValues.size(), actualValues.size());
+      for (int i = 0; i < expectedValues.size(); i++) {
+        assertSameTree(path + "[" + i + "]", expectedValues.get(i), actualValues.get(i));
+      }
+    }
+    else if (expected instanceof JsonStringLiteral) {
+      assertTrue(path, actual instanceof MetadataJsonStringLiteral);
+      assertEquals(path, ((JsonStringLiteral)expected).getValue(), ((MetadataJsonStringLiteral)actual).getValue());
+    }
+    else {
+      assertNotNull(path, expected);
+      assertTrue(path, actual instanceof MetadataJsonLiteral);
+    }
+  }
+
+  static @NotNull List<File> getMetadataFiles() {
+    List<File> result = new ArrayList<>();
+    FileUtil.processFilesRecursively(new File(AngularTestUtil.getBaseTestDataPath(MetadataJsonParserTest.class)), file -> {
+      if (file.getName().endsWith(".metadata.json")) {
+        result.add(file);
+      }
+      return true;
+    });
+    assertNotEmpty(result);
+    return result;
+  }
+}
@@ -1,8 +1,10 @@
 // Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package com.intellij.coldFusion.model.info;
 
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.util.ArrayUtil;
 import com.intellij.util.ArrayUtilRt;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.regex.Pattern;
@@ -11,16 +13,23 @@ import java.util.regex.Pattern;
  * @author vnikolaenko
  */
 public class CfmlAttributeDescription implements Comparable<CfmlAttributeDescription> {
-  private final Pattern myNamePattern;
-  // private String myName;
+  private static final String REGEXP_META_CHARS = "\\[](){}.*+?^$|";
+
+  // a regexp, almost always a plain name which doesn't need to be compiled
+  private final String myName;
+  private final boolean myPlainName;
+  private Pattern myNamePattern;
   private final int myType;
   private final boolean myRequired;
   private String myDescription;
+  private CfmlDictionaryStrings myDescriptionStrings;
+  private int myDescriptionIndex;
   private String myCompletionExample = null;
   private String[] myValues = null;
 
   public CfmlAttributeDescription(String name, int type, boolean required, String description) {
-    myNamePattern = Pattern.compile(name);
+    myName = name;
+    myPlainName = !StringUtil.containsAnyChar(name, REGEXP_META_CHARS);
     myType = type;
     myRequired = required;
     myDescription = description;
@@ -38,8 +47,18 @@ public class CfmlAttributeDescription implements Comparable<CfmlAttributeDescrip
     myValues = ArrayUtil.append(myValues, value);
   }
 
+  void setValues(String @Nullable [] values) {
+    myValues = values;
+  }
+
   public void setDescription(String description) {
     myDescription = description;
+    myDescriptionStrings = null;
+  }
+
+  void setDescription(@NotNull CfmlDictionaryStrings strings, int index) {
+    myDescriptionStrings = strings;
+    myDescriptionIndex = index;
   }
 
   public String @Nullable [] getValues() {
@@ -47,15 +66,33 @@ public class CfmlAttributeDescription implements Comparable<CfmlAttributeDescrip
   }
 
   public String getName() {
-    return myNamePattern.matcher(myNamePattern.pattern()).matches() ? myNamePattern.pattern() : myCompletionExample;
+    return myPlainName || getNamePattern().matcher(myName).matches() ? myName : myCompletionExample;
+  }
+
+  String getNameRegexp() {
+    return myName;
+  }
+
+  @Nullable
+  String getCompletionExample() {
+    return myCompletionExample;
   }
 
   public String getDescription() {
-    return myDescription;
+    return myDescriptionStrings != null ? myDescriptionStrings.get(myDescriptionIndex) : myDescription;
   }
 
   public boolean acceptName(String name) {
-    return myNamePattern.matcher(name).matches();
+    return myPlainName ? myName.equals(name) : getNamePattern().matcher(name).matches();
+  }
+
+  private Pattern getNamePattern() {
+    Pattern pattern = myNamePattern;
+    if (pattern == null) {
+      pattern = Pattern.compile(myName);
+      myNamePattern = pattern;
+    }
+    return pattern;
   }
 
   public int getType() {
@@ -68,13 +105,13 @@ public class CfmlAttributeDescription implements Comparable<CfmlAttributeDescrip
 
   @Override
   public int compareTo(CfmlAttributeDescription o) {
-    return myNamePattern.pattern().compareTo(o.myNamePattern.pattern());
+    return myName.compareTo(o.myName);
   }
 
   @Override
   public String toString() {
     return "" +
-           myNamePattern.pattern() +
+           myName +
            "</div>" +
            "" +
            getDescription() +
@@ -0,0 +1,41 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.coldFusion.model.info;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * String table of a precompiled dictionary, see {@link CfmlLangDictionaryFormat}.
+ * Strings are kept as UTF-8 bytes and decoded on first access, most of them are descriptions which are only needed for documentation.
+ */
+final class CfmlDictionaryStrings {
+  private final byte[] myBytes;
+  private final int[] myOffsets;
+  private final String[] myDecoded;
+
+  /**
+   * @param offsets start of each string in {@code bytes} followed by the end of the last string
+   */
+  CfmlDictionaryStrings(byte[] bytes, int[] offsets) {
+    myBytes = bytes;
+    myOffsets = offsets;
+    myDecoded = new String[offsets.length - 1];
+  }
+
+  /**
+   * @return {@code null} for a negative index which stands for absent value
+   */
+  @Nullable
+  String get(int index) {
+    if (index < 0) return null;
+
+    // races are harmless here: a string may be decoded twice, but Strings are safely published anyway
+    String result = myDecoded[index];
+    if (result == null) {
+      result = new String(myBytes, myOffsets[index], myOffsets[index + 1] - myOffsets[index], StandardCharsets.UTF_8);
+      myDecoded[index] = result;
+    }
+    return result;
+  }
+}
@@ -15,6 +15,8 @@
  */
 package com.intellij.coldFusion.model.info;
 
+import org.jetbrains.annotations.NotNull;
+
 import java.util.LinkedList;
 import java.util.List;
 
@@ -25,6 +27,8 @@ public class CfmlFunctionDescription {
   private final String myName;
   private final String myReturnType;
   private String myDescription;
+  private CfmlDictionaryStrings myDescriptionStrings;
+  private int myDescriptionIndex;
   private final List<CfmlParameterDescription> myParameters = new LinkedList<>();
 
   public CfmlFunctionDescription(String name, String returnType) {
@@ -49,11 +53,17 @@ public class CfmlFunctionDescription {
   }
 
   public String getDescription() {
-    return myDescription;
+    return myDescriptionStrings != null ? myDescriptionStrings.get(myDescriptionIndex) : myDescription;
   }
 
   public void setDescription(String description) {
     myDescription = description;
+    myDescriptionStrings = null;
+  }
+
+  void setDescription(@NotNull CfmlDictionaryStrings strings, int index) {
+    myDescriptionStrings = strings;
+    myDescriptionIndex = index;
   }
 
   public static class CfmlParameterDescription {
@@ -0,0 +1,252 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.coldFusion.model.info;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.ArrayUtilRt;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Precompiled form of the {@code *_tags.xml} dictionaries, which is loaded without XML parsing when the first CFML file is opened.
+ * Only the binary form is shipped; the XML dictionaries are kept in the {@code dictionaries} directory of the plugin sources.
+ * <p>
+ * The file consists of a string table, where every string (names, types, descriptions) is stored once as UTF-8 bytes,
+ * followed by tag, function and predefined variable records referring to the strings by index, -1 meaning {@code null}.
+ * Only names are decoded on load, descriptions are decoded on first access.
+ * <p>
+ * Binary dictionaries are generated from the XML ones by {@code CfmlLangDictionaryGenerator}; {@code CfmlLangDictionaryTest}
+ * fails if they are out of date.
+ */
+public final class CfmlLangDictionaryFormat {
+  private static final Logger LOG = Logger.getInstance(CfmlLangDictionaryFormat.class);
+
+  private static final int MAGIC = 0x43464d44; // "CFMD"
+  private static final int VERSION = 1;
+
+  private static final int SINGLE_FLAG = 1;
+  private static final int END_TAG_REQUIRED_FLAG = 2;
+
+  private CfmlLangDictionaryFormat() {
+  }
+
+  @NotNull
+  public static String getBinaryFileName(@NotNull String tagsFileName) {
+    return StringUtil.trimEnd(tagsFileName, ".xml") + ".bin";
+  }
+
+  public static void parseXml(InputStream xml, @NotNull CfmlTagsDescriptionsParser parser) throws IOException, SAXException {
+    XMLReader xr = XMLReaderFactory.createXMLReader();
+    xr.setContentHandler(parser);
+    xr.parse(new InputSource(xml));
+  }
+
+  /**
+   * Reads the binary dictionary into {@code dictionary}. Scopes are not part of the binary dictionary.
+   *
+   * @return false if there is no binary dictionary with the given name or it has an unsupported format
+   */
+  static boolean load(@NotNull String binaryFileName, @NotNull CfmlLangInfo.CfmlLangDictionary dictionary) {
+    InputStream stream = CfmlLangInfo.class.getResourceAsStream(binaryFileName);
+    if (stream == null) return false;
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        LOG.warn("Unsupported format of " + binaryFileName);
+        return false;
+      }
+
+      int[] offsets = new int[in.readInt() + 1];
+      for (int i = 1; i < offsets.length; i++) {
+        offsets[i] = in.readInt();
+      }
+      byte[] bytes = new byte[offsets[offsets.length - 1]];
+      in.readFully(bytes);
+      CfmlDictionaryStrings strings = new CfmlDictionaryStrings(bytes, offsets);
+
+      dictionary.myOnlineDocumentationLink = strings.get(in.readInt());
+
+      int tagCount = in.readInt();
+      Map<String, CfmlTagDescription> tags = new HashMap<>(tagCount);
+      for (int i = 0; i < tagCount; i++) {
+        String name = strings.get(in.readInt());
+        int flags = in.readByte();
+        CfmlTagDescription tag = new CfmlTagDescription(name, (flags & SINGLE_FLAG) != 0, (flags & END_TAG_REQUIRED_FLAG) != 0);
+        tag.setDescription(strings, in.readInt());
+
+        int attributeCount = in.readInt();
+        for (int j = 0; j < attributeCount; j++) {
+          String attributeName = strings.get(in.readInt());
+          int type = in.readByte();
+          boolean required = in.readBoolean();
+          String completionExample = strings.get(in.readInt());
+          CfmlAttributeDescription attribute = new CfmlAttributeDescription(attributeName, type, required, null, completionExample);
+          attribute.setDescription(strings, in.readInt());
+          attribute.setValues(readStrings(in, strings));
+          tag.addAttribute(attribute);
+        }
+        tags.put(name, tag);
+      }
+
+      int functionCount = in.readInt();
+      Map<String, CfmlFunctionDescription> functions = new HashMap<>(functionCount);
+      for (int i = 0; i < functionCount; i++) {
+        String key = strings.get(in.readInt());
+        CfmlFunctionDescription function = new CfmlFunctionDescription(strings.get(in.readInt()), strings.get(in.readInt()));
+        function.setDescription(strings, in.readInt());
+
+        int parameterCount = in.readInt();
+        for (int j = 0; j < parameterCount; j++) {
+          String parameterName = strings.get(in.readInt());
+          String type = strings.get(in.readInt());
+          function.addParameter(new CfmlFunctionDescription.CfmlParameterDescription(parameterName, type, in.readBoolean()));
+        }
+        functions.put(key, function);
+      }
+
+      String[] functionNames = readStrings(in, strings);
+
+      int variableCount = in.readInt();
+      Map<String, Integer> variables = new HashMap<>(variableCount);
+      for (int i = 0; i < variableCount; i++) {
+        variables.put(strings.get(in.readInt()), (int)in.readByte());
+      }
+
+      dictionary.myTagAttributes = tags;
+      dictionary.myFunctionParameters = functions;
+      dictionary.myPredefinedFunctions = functionNames != null ? functionNames : ArrayUtilRt.EMPTY_STRING_ARRAY;
+      dictionary.myPredefinedFunctionsInLowCase = ArrayUtilRt.toStringArray(functions.keySet());
+      dictionary.myPredefinedVariables = variables;
+      return true;
+    }
+    catch (IOException e) {
+      LOG.error("Cannot read " + binaryFileName, e);
+      return false;
+    }
+  }
+
+  /**
+   * Output is deterministic, so that the generated files only change together with the XML dictionaries.
+   */
+  public static byte @NotNull [] write(@NotNull CfmlTagsDescriptionsParser parsed) throws IOException {
+    StringTable strings = new StringTable();
+    ByteArrayOutputStream records = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(records);
+
+    out.writeInt(strings.indexOf(parsed.getOnlineDocumentationLink()));
+
+    Map<String, CfmlTagDescription> tags = new TreeMap<>(parsed.getTags());
+    out.writeInt(tags.size());
+    for (CfmlTagDescription tag : tags.values()) {
+      out.writeInt(strings.indexOf(tag.getName()));
+      out.writeByte((tag.isSingle() ? SINGLE_FLAG : 0) | (tag.isEndTagRequired() ? END_TAG_REQUIRED_FLAG : 0));
+      out.writeInt(strings.indexOf(tag.getDescription()));
+
+      out.writeInt(tag.getAttributes().size());
+      for (CfmlAttributeDescription attribute : tag.getAttributes()) {
+        out.writeInt(strings.indexOf(attribute.getNameRegexp()));
+        out.writeByte(attribute.getType());
+        out.writeBoolean(attribute.isRequired());
+        out.writeInt(strings.indexOf(attribute.getCompletionExample()));
+        out.writeInt(strings.indexOf(attribute.getDescription()));
+        writeStrings(out, strings, attribute.getValues());
+      }
+    }
+
+    Map<String, CfmlFunctionDescription> functions = new TreeMap<>(parsed.getFunctions());
+    out.writeInt(functions.size());
+    for (Map.Entry<String, CfmlFunctionDescription> entry : functions.entrySet()) {
+      CfmlFunctionDescription function = entry.getValue();
+      out.writeInt(strings.indexOf(entry.getKey()));
+      out.writeInt(strings.indexOf(function.getName()));
+      out.writeInt(strings.indexOf(function.getReturnType()));
+      out.writeInt(strings.indexOf(function.getDescription()));
+
+      out.writeInt(function.getParameters().size());
+      for (CfmlFunctionDescription.CfmlParameterDescription parameter : function.getParameters()) {
+        out.writeInt(strings.indexOf(parameter.getName()));
+        out.writeInt(strings.indexOf(parameter.getType()));
+        out.writeBoolean(parameter.isRequired());
+      }
+    }
+
+    // the original order of function names is kept, it is visible in completion
+    writeStrings(out, strings, parsed.getFunctionsList());
+
+    Map<String, Integer> variables = new TreeMap<>(parsed.getPredefinedVariables());
+    out.writeInt(variables.size());
+    for (Map.Entry<String, Integer> entry : variables.entrySet()) {
+      out.writeInt(strings.indexOf(entry.getKey()));
+      out.writeByte(entry.getValue());
+    }
+    out.flush();
+
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    DataOutputStream resultOut = new DataOutputStream(result);
+    resultOut.writeInt(MAGIC);
+    resultOut.writeInt(VERSION);
+    strings.write(resultOut);
+    records.writeTo(resultOut);
+    resultOut.flush();
+    return result.toByteArray();
+  }
+
+  private static void writeStrings(@NotNull DataOutputStream out, @NotNull StringTable strings, String @Nullable [] values)
+    throws IOException {
+    if (values == null) {
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(values.length);
+    for (String value : values) {
+      out.writeInt(strings.indexOf(value));
+    }
+  }
+
+  private static String @Nullable [] readStrings(@NotNull DataInputStream in, @NotNull CfmlDictionaryStrings strings) throws IOException {
+    int count = in.readInt();
+    if (count < 0) return null;
+
+    String[] result = new String[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = strings.get(in.readInt());
+    }
+    return result;
+  }
+
+  private static final class StringTable {
+    private final Map<String, Integer> myIndices = new HashMap<>();
+    private final ByteArrayOutputStream myBytes = new ByteArrayOutputStream();
+    private final List<Integer> myEndOffsets = new ArrayList<>();
+
+    int indexOf(@Nullable String s) {
+      if (s == null) return -1;
+
+      Integer index = myIndices.get(s);
+      if (index == null) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        myBytes.write(bytes, 0, bytes.length);
+        index = myEndOffsets.size();
+        myEndOffsets.add(myBytes.size());
+        myIndices.put(s, index);
+      }
+      return index;
+    }
+
+    void write(@NotNull DataOutputStream out) throws IOException {
+      out.writeInt(myEndOffsets.size());
+      for (int offset : myEndOffsets) {
+        out.writeInt(offset);
+      }
+      myBytes.writeTo(out);
+    }
+  }
+}
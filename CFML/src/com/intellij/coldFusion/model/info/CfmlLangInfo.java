@@ -8,26 +8,27 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.reference.SoftReference;
+import com.intellij.util.ArrayUtilRt;
 import com.intellij.util.text.LineReader;
 import org.jetbrains.annotations.Nullable;
-import org.xml.sax.InputSource;
-import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.XMLReaderFactory;
 
 import java.io.InputStream;
 import java.lang.ref.Reference;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author vnikolaenko
  */
 public class CfmlLangInfo {
+  // Dictionaries don't depend on a project, so they are shared by language level. Loading isn't guarded by a lock:
+  // a dictionary requested concurrently by several threads is loaded more than once, which is cheaper than blocking them.
+  private static final Map<String, Reference<CfmlLangDictionary>> ourDictionaries = new ConcurrentHashMap<>();
+
   private final Project myProject;
-  private Reference<CfmlLangDictionary> myCFDictionary;
-  private String myCFDictionaryLevel;
 
   private static final class InstanceWithoutApplication {
     static CfmlLangInfo instanceWithoutApplication = new CfmlLangInfo(null);
@@ -53,50 +54,27 @@ public class CfmlLangInfo {
       }
       myVariableScopes = readStringsFromFile(scopesFileName);
 
-      final CfmlTagsDescriptionsParser cfmlTagsParser = new CfmlTagsDescriptionsParser();
-      try {
-        XMLReader xr = XMLReaderFactory.createXMLReader();
-        xr.setContentHandler(cfmlTagsParser);
-        xr.parse(new InputSource(CfmlLangInfo.class.getResourceAsStream(tagsFileName)));
-      }
-      catch (Exception e) {
-        LOG.error(e);
+      if (!CfmlLangDictionaryFormat.load(CfmlLangDictionaryFormat.getBinaryFileName(tagsFileName), this)) {
+        LOG.error("Cannot load CFML dictionary " + tagsFileName);
       }
-      myTagAttributes = cfmlTagsParser.getTags();
-      myFunctionParameters = cfmlTagsParser.getFunctions();
-      myPredefinedFunctions = cfmlTagsParser.getFunctionsList();
-      myPredefinedFunctionsInLowCase = cfmlTagsParser.getFunctionsListLowerCased();
-      myPredefinedVariables = cfmlTagsParser.getPredefinedVariables();
-      myOnlineDocumentationLink = cfmlTagsParser.getOnlineDocumentationLink();
     }
 
-    public String[] myPredefinedFunctions;
-    public Map<String, Integer> myPredefinedVariables;
-    public String[] myPredefinedFunctionsInLowCase;
+    public String[] myPredefinedFunctions = ArrayUtilRt.EMPTY_STRING_ARRAY;
+    public Map<String, Integer> myPredefinedVariables = Collections.emptyMap();
+    public String[] myPredefinedFunctionsInLowCase = ArrayUtilRt.EMPTY_STRING_ARRAY;
     public String[] myVariableScopes;
-    public Map<String, CfmlTagDescription> myTagAttributes;
-    public Map<String, CfmlFunctionDescription> myFunctionParameters;
+    public Map<String, CfmlTagDescription> myTagAttributes = Collections.emptyMap();
+    public Map<String, CfmlFunctionDescription> myFunctionParameters = Collections.emptyMap();
     public String myOnlineDocumentationLink;
   }
 
   private CfmlLangDictionary getProjectDictionary() {
     String languageLevel = getLanguageLevel();
-    CfmlLangDictionary dictionary;
-
-    if (Objects.equals(myCFDictionaryLevel, languageLevel)) {
-      dictionary = SoftReference.dereference(myCFDictionary);
-      if (dictionary != null) return dictionary;
+    CfmlLangDictionary dictionary = SoftReference.dereference(ourDictionaries.get(languageLevel));
+    if (dictionary == null) {
+      dictionary = new CfmlLangDictionary("scopes.txt", languageLevel);
+      ourDictionaries.put(languageLevel, new SoftReference<>(dictionary));
     }
-
-    synchronized (CfmlLangInfo.class) {
-      dictionary = SoftReference.dereference(myCFDictionary);
-      if (dictionary == null || !Objects.equals(myCFDictionaryLevel, languageLevel)) {
-        dictionary = new CfmlLangDictionary("scopes.txt", languageLevel);
-        myCFDictionary = new SoftReference<>(dictionary);
-        myCFDictionaryLevel = languageLevel;
-      }
-    }
-
     return dictionary;
   }
 
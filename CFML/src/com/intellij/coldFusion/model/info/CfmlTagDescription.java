@@ -15,6 +15,8 @@
  */
 package com.intellij.coldFusion.model.info;
 
+import org.jetbrains.annotations.NotNull;
+
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -25,6 +27,8 @@ import java.util.Set;
  */
 public class CfmlTagDescription {
   private String myDescription = "";
+  private CfmlDictionaryStrings myDescriptionStrings;
+  private int myDescriptionIndex;
   private final Collection<CfmlAttributeDescription> myAttributes = new LinkedList<>();
   private final Set<String> myAttributesNames = new HashSet<>();
   private boolean myIsSingle = false;
@@ -42,7 +46,7 @@ public class CfmlTagDescription {
   }
 
   public String getDescription() {
-    return myDescription;
+    return myDescriptionStrings != null ? myDescriptionStrings.get(myDescriptionIndex) : myDescription;
   }
 
   public Collection<CfmlAttributeDescription> getAttributes() {
@@ -68,5 +72,11 @@ public class CfmlTagDescription {
 
   public void setDescription(String description) {
     myDescription = description;
+    myDescriptionStrings = null;
+  }
+
+  void setDescription(@NotNull CfmlDictionaryStrings strings, int index) {
+    myDescriptionStrings = strings;
+    myDescriptionIndex = index;
   }
 }
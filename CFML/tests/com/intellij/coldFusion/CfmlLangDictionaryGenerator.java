@@ -0,0 +1,49 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.coldFusion;
+
+import com.intellij.coldFusion.model.CfmlLanguage;
+import com.intellij.coldFusion.model.info.CfmlLangDictionaryFormat;
+import com.intellij.coldFusion.model.info.CfmlTagsDescriptionsParser;
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+/**
+ * Regenerates the binary CFML dictionaries shipped with the plugin from the XML ones in the {@code dictionaries} directory.
+ */
+public final class CfmlLangDictionaryGenerator {
+  static final String[] LANGUAGE_LEVELS = {
+    CfmlLanguage.CF8, CfmlLanguage.CF9, CfmlLanguage.CF10, CfmlLanguage.CF11, CfmlLanguage.RAILO, CfmlLanguage.LUCEE
+  };
+
+  private CfmlLangDictionaryGenerator() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    for (String languageLevel : LANGUAGE_LEVELS) {
+      FileUtil.writeToFile(getBinaryFile(languageLevel), CfmlLangDictionaryFormat.write(parseXml(languageLevel)));
+    }
+  }
+
+  @NotNull
+  static CfmlTagsDescriptionsParser parseXml(@NotNull String languageLevel) throws Exception {
+    CfmlTagsDescriptionsParser parser = new CfmlTagsDescriptionsParser();
+    try (InputStream stream = new FileInputStream(new File(getPluginDir(), "dictionaries/" + languageLevel))) {
+      CfmlLangDictionaryFormat.parseXml(stream, parser);
+    }
+    return parser;
+  }
+
+  @NotNull
+  static File getBinaryFile(@NotNull String languageLevel) {
+    return new File(getPluginDir(), "src/com/intellij/coldFusion/model/info/" + CfmlLangDictionaryFormat.getBinaryFileName(languageLevel));
+  }
+
+  @NotNull
+  private static File getPluginDir() {
+    return new File(CfmlTestUtil.BASE_TEST_DATA_PATH).getParentFile().getParentFile();
+  }
+}
@@ -0,0 +1,55 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.coldFusion;
+
+import com.intellij.coldFusion.model.info.CfmlLangDictionaryGenerator;
+import com.intellij.coldFusion.model.info.CfmlLangInfo;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.util.concurrent.TimeUnit;
+
+public class CfmlLangDictionaryPerformanceTest extends BasePlatformTestCase {
+  private static final String[] LANGUAGE_LEVELS = CfmlLangDictionaryGenerator.LANGUAGE_LEVELS;
+
+  public void testLoading() {
+    PlatformTestUtil.startPerformanceTest("Loading CFML dictionaries", 300, () -> {
+      for (String languageLevel : LANGUAGE_LEVELS) {
+        CfmlLangInfo.CfmlLangDictionary dictionary = new CfmlLangInfo.CfmlLangDictionary("scopes.txt", languageLevel);
+        assertNotEmpty(dictionary.myTagAttributes.keySet());
+      }
+    }).attempts(3).assertTiming();
+  }
+
+  /**
+   * Compares loading the binary dictionaries with SAX-parsing the XML descriptions they are generated from.
+   */
+  public void testLoadingComparedToXml() throws Exception {
+    // warm up both paths
+    loadBinary();
+    parseXml();
+
+    long start = System.nanoTime();
+    loadBinary();
+    long binaryTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    parseXml();
+    long xmlTime = System.nanoTime() - start;
+
+    System.out.printf("CFML dictionaries, %d language levels: binary %d ms, XML %d ms%n", LANGUAGE_LEVELS.length,
+                      TimeUnit.NANOSECONDS.toMillis(binaryTime), TimeUnit.NANOSECONDS.toMillis(xmlTime));
+    assertTrue("binary " + binaryTime + " ns, XML " + xmlTime + " ns", binaryTime < xmlTime);
+  }
+
+  private static void loadBinary() {
+    for (String languageLevel : LANGUAGE_LEVELS) {
+      assertNotEmpty(new CfmlLangInfo.CfmlLangDictionary("scopes.txt", languageLevel).myTagAttributes.keySet());
+    }
+  }
+
+  private static void parseXml() throws Exception {
+    for (String languageLevel : LANGUAGE_LEVELS) {
+      assertNotEmpty(CfmlLangDictionaryTest.parseXml(languageLevel).getTags().keySet());
+    }
+  }
+}
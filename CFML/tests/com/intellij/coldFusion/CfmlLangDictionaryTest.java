@@ -0,0 +1,66 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.coldFusion;
+
+import com.intellij.coldFusion.model.info.*;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+public class CfmlLangDictionaryTest extends BasePlatformTestCase {
+  private static final String[] LANGUAGE_LEVELS = CfmlLangDictionaryGenerator.LANGUAGE_LEVELS;
+
+  public void testBinaryDictionariesUpToDate() throws Exception {
+    StringBuilder outdated = new StringBuilder();
+    for (String languageLevel : LANGUAGE_LEVELS) {
+      byte[] expected = CfmlLangDictionaryFormat.write(parseXml(languageLevel));
+      File binaryFile = CfmlLangDictionaryGenerator.getBinaryFile(languageLevel);
+      if (!binaryFile.isFile() || !Arrays.equals(expected, FileUtil.loadFileBytes(binaryFile))) {
+        outdated.append(binaryFile.getPath()).append('\n');
+      }
+    }
+    assertTrue("Binary dictionaries are out of date, run CfmlLangDictionaryGenerator:\n" + outdated, outdated.length() == 0);
+  }
+
+  public void testBinaryDictionariesMatchXml() throws Exception {
+    for (String languageLevel : LANGUAGE_LEVELS) {
+      CfmlTagsDescriptionsParser xml = parseXml(languageLevel);
+      CfmlLangInfo.CfmlLangDictionary dictionary = new CfmlLangInfo.CfmlLangDictionary("scopes.txt", languageLevel);
+
+      assertEquals(xml.getOnlineDocumentationLink(), dictionary.myOnlineDocumentationLink);
+      assertOrderedEquals(dictionary.myPredefinedFunctions, xml.getFunctionsList());
+      assertSameElements(dictionary.myPredefinedFunctionsInLowCase, xml.getFunctionsListLowerCased());
+      assertEquals(xml.getPredefinedVariables(), dictionary.myPredefinedVariables);
+
+      assertSameElements(dictionary.myTagAttributes.keySet(), xml.getTags().keySet());
+      for (CfmlTagDescription expected : xml.getTags().values()) {
+        CfmlTagDescription actual = dictionary.myTagAttributes.get(expected.getName());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.isSingle(), actual.isSingle());
+        assertEquals(expected.isEndTagRequired(), actual.isEndTagRequired());
+        assertEquals(expected.getAttributes().size(), actual.getAttributes().size());
+
+        Iterator<CfmlAttributeDescription> actualAttributes = actual.getAttributes().iterator();
+        for (CfmlAttributeDescription expectedAttribute : expected.getAttributes()) {
+          CfmlAttributeDescription actualAttribute = actualAttributes.next();
+          assertEquals(expectedAttribute.toString(), actualAttribute.toString());
+          assertTrue(Arrays.equals(expectedAttribute.getValues(), actualAttribute.getValues()));
+        }
+      }
+
+      assertSameElements(dictionary.myFunctionParameters.keySet(), xml.getFunctions().keySet());
+      for (Map.Entry<String, CfmlFunctionDescription> entry : xml.getFunctions().entrySet()) {
+        CfmlFunctionDescription actual = dictionary.myFunctionParameters.get(entry.getKey());
+        assertEquals(entry.getValue().getPresentableText(), actual.getPresentableText());
+        assertEquals(entry.getValue().getDescription(), actual.getDescription());
+      }
+    }
+  }
+
+  static CfmlTagsDescriptionsParser parseXml(String languageLevel) throws Exception {
+    return CfmlLangDictionaryGenerator.parseXml(languageLevel);
+  }
+}
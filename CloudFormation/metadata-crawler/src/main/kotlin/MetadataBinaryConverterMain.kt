@@ -0,0 +1,25 @@
+import com.intellij.aws.cloudformation.metadata.MetadataBinarySerializer
+import com.intellij.aws.cloudformation.metadata.MetadataSerializer
+import com.intellij.aws.cloudformation.tests.TestUtil
+
+/**
+ * Regenerates binary metadata resources from the XML ones without crawling AWS documentation again
+ */
+object MetadataBinaryConverterMain {
+  @JvmStatic fun main(args: Array<String>) {
+    val metadata = TestUtil.getTestDataFile("../src/main/resources/cloudformation-metadata.xml")
+      .inputStream().use { MetadataSerializer.metadataFromXML(it) }
+    TestUtil.getTestDataFile("../src/main/resources/cloudformation-metadata.bin")
+      .outputStream().buffered().use { MetadataBinarySerializer.toBinary(metadata, it) }
+
+    val descriptionsFile = TestUtil.getTestDataFile("../src/main/resources/cloudformation-descriptions.xml")
+    if (!descriptionsFile.exists()) {
+      println("$descriptionsFile is not found, skipping descriptions")
+      return
+    }
+
+    val descriptions = descriptionsFile.inputStream().use { MetadataSerializer.descriptionsFromXML(it) }
+    TestUtil.getTestDataFile("../src/main/resources/cloudformation-descriptions.bin")
+      .outputStream().buffered().use { MetadataBinarySerializer.toBinary(descriptions, it) }
+  }
+}
@@ -86,6 +86,11 @@ object ResourceTypesSaver {
       .outputStream().use { outputStream -> MetadataSerializer.toXML(metadata, outputStream) }
     TestUtil.getTestDataFile("../src/main/resources/cloudformation-descriptions.xml")
       .outputStream().use { outputStream -> MetadataSerializer.toXML(descriptions, outputStream) }
+
+    TestUtil.getTestDataFile("../src/main/resources/cloudformation-metadata.bin")
+      .outputStream().buffered().use { outputStream -> MetadataBinarySerializer.toBinary(metadata, outputStream) }
+    TestUtil.getTestDataFile("../src/main/resources/cloudformation-descriptions.bin")
+      .outputStream().buffered().use { outputStream -> MetadataBinarySerializer.toBinary(descriptions, outputStream) }
   }
 
   private fun downloadDocumentHandlingPartialFiles(url: URL): Document {
@@ -55,11 +55,8 @@ class CloudFormationCompletionProvider : CompletionProvider<CompletionParameters
 
             val resourceTypeValuePositionMatch = ResourceTypeValueMatch.match(parent, parsed)
             if (resourceTypeValuePositionMatch != null) {
-              CloudFormationMetadataProvider.METADATA.resourceTypes.values.forEach { resourceType ->
-                if (resourceType.transform == null ||
-                    parsed.root.transformValues.any { resourceType.transform == it }) {
-                  rs.addElement(createLookupElement(resourceType.name, quote))
-                }
+              CloudFormationMetadataProvider.METADATA.findResourceTypeNames(parsed.root).forEach { resourceTypeName ->
+                rs.addElement(createLookupElement(resourceTypeName, quote))
               }
 
               return
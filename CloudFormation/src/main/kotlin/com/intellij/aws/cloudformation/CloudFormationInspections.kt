@@ -23,10 +23,16 @@ import org.jetbrains.annotations.Nls
 import org.jetbrains.yaml.psi.impl.YAMLScalarImpl
 import java.util.regex.Pattern
 
-class CloudFormationInspections private constructor(val parsed: CloudFormationParsedFile): CfnVisitor() {
+class CloudFormationInspections private constructor(
+    val parsed: CloudFormationParsedFile,
+    private val previousResourceResults: Map<CfnResourceNode, ResourceInspectionResult>): CfnVisitor() {
   val problems: MutableList<CloudFormationProblem> = mutableListOf()
   val references: Multimap<PsiElement, CloudFormationReferenceBase> = ArrayListMultimap.create()
 
+  private val resourceResults = hashMapOf<CfnResourceNode, ResourceInspectionResult>()
+  private val resolvedResources = hashMapOf<String, CfnResourceNode?>()
+  private val resolvedMappings = hashMapOf<String, CfnFirstLevelMappingNode?>()
+
   private val numbersPattern = Pattern.compile("^[0-9]+$")!!
 
   private fun addReference(reference: CloudFormationReferenceBase) {
@@ -48,6 +54,18 @@ class CloudFormationInspections private constructor(val parsed: CloudFormationPa
     addReference(entityReference)
   }
 
+  private fun resolveResource(resourceName: String): CfnResourceNode? {
+    val resource = CloudFormationResolve.resolveResource(parsed, resourceName)
+    resolvedResources[resourceName] = resource
+    return resource
+  }
+
+  private fun resolveMapping(mappingName: String): CfnFirstLevelMappingNode? {
+    val mapping = CloudFormationResolve.resolveMapping(parsed, mappingName)
+    resolvedMappings[mappingName] = mapping
+    return mapping
+  }
+
 /*
   private fun addProblem(element: PsiElement, description: String) {
     problems.add(Problem(element, description))
@@ -88,8 +106,7 @@ class CloudFormationInspections private constructor(val parsed: CloudFormationPa
         }
         else {
           val arg0WithoutVersionOrAlias = arg0.value.removeSuffix(".Version").removeSuffix(".Alias")
-          val resourceNodeWithoutVersionOrAlias = CloudFormationResolve.resolveResource(
-            parsed, arg0WithoutVersionOrAlias)
+          val resourceNodeWithoutVersionOrAlias = resolveResource(arg0WithoutVersionOrAlias)
 
           val resourceNodeParent = function.parentOfType<CfnResourceNode>(parsed)
           val excluded = resourceNodeParent?.let { it.name?.value }?.let { listOf(it) } ?: emptyList()
@@ -142,7 +159,7 @@ class CloudFormationInspections private constructor(val parsed: CloudFormationPa
           if (mappingName is CfnScalarValueNode) {
             addEntityReference(mappingName, CloudFormationSection.MappingsSingletonList)
 
-            val mapping = CloudFormationResolve.resolveMapping(parsed, mappingName.value)
+            val mapping = resolveMapping(mappingName.value)
             if (mapping != null && firstLevelKey is CfnScalarValueNode) {
               val firstLevelKeyPsiElement = parsed.getPsiElement(firstLevelKey)
               addReference(CloudFormationMappingFirstLevelKeyReference(firstLevelKeyPsiElement, mappingName.value))
@@ -193,13 +210,13 @@ class CloudFormationInspections private constructor(val parsed: CloudFormationPa
           val resourceNodeParent = function.parentOfType<CfnResourceNode>(parsed)
           val excluded = resourceNodeParent?.let { it.name?.value }?.let { listOf(it) } ?: emptyList()
 
-          val resource = CloudFormationResolve.resolveResource(parsed, resourceName)
+          val resource = resolveResource(resourceName)
 
           // From https://github.com/awslabs/serverless-application-model/blob/master/versions/2016-10-31.md#awsserverlessfunction
           // Role: ARN of an IAM role to use as this function's execution role. If omitted, a default role is created for this function.
           // Here we handle this implicitly created role
           val resourceNameWithoutRoleSuffix = resourceName.removeSuffix("Role")
-          val resourceWithoutRoleSuffix = CloudFormationResolve.resolveResource(parsed, resourceNameWithoutRoleSuffix)
+          val resourceWithoutRoleSuffix = resolveResource(resourceNameWithoutRoleSuffix)
           if (resource == null && resourceWithoutRoleSuffix?.typeName == awsServerlessFunction.name) {
             addEntityReference(arg0 as CfnScalarValueNode, CloudFormationSection.ResourcesSingletonList,
                                excludeFromCompletion = excluded, referenceValue = resourceNameWithoutRoleSuffix)
@@ -645,7 +662,19 @@ class CloudFormationInspections private constructor(val parsed: CloudFormationPa
       return
     }
 
-    super.resources(resources)
+    resources.resources.forEach { resource ->
+      val result = previousResourceResults[resource]?.takeIf { it.isUpToDate(parsed) } ?: inspectResource(resource)
+
+      problems.addAll(result.problems)
+      references.putAll(result.references)
+      resourceResults[resource] = result
+    }
+  }
+
+  private fun inspectResource(resource: CfnResourceNode): ResourceInspectionResult {
+    val inspections = CloudFormationInspections(parsed, emptyMap())
+    inspections.resource(resource)
+    return ResourceInspectionResult(inspections.problems, inspections.references, inspections.resolvedResources, inspections.resolvedMappings)
   }
 
   override fun metadata(metadata: CfnMetadataNode) {
@@ -694,11 +723,36 @@ class CloudFormationInspections private constructor(val parsed: CloudFormationPa
     super.root(root)
   }
 
+  /**
+   * Problems and references of a single resource. They stay valid for later parses of the file as long as the resource node
+   * is reused and the resources and mappings it refers to resolve to the same nodes.
+   */
+  class ResourceInspectionResult(
+      val problems: List<CloudFormationProblem>,
+      val references: Multimap<PsiElement, CloudFormationReferenceBase>,
+      private val resolvedResources: Map<String, CfnResourceNode?>,
+      private val resolvedMappings: Map<String, CfnFirstLevelMappingNode?>
+  ) {
+    fun isUpToDate(parsed: CloudFormationParsedFile): Boolean =
+        resolvedResources.all { (name, resource) -> CloudFormationResolve.resolveResource(parsed, name) === resource } &&
+        resolvedMappings.all { (name, mapping) -> CloudFormationResolve.resolveMapping(parsed, name) === mapping }
+  }
+
   class InspectionResult(
       val problems: List<CloudFormationProblem>,
       val references: Multimap<PsiElement, CloudFormationReferenceBase>,
-      val fileModificationStamp: Long
-  )
+      val fileModificationStamp: Long,
+      private val resourceResults: Map<CfnResourceNode, ResourceInspectionResult>,
+      private val transformValues: List<String>,
+      private val globalsNode: CfnGlobalsNode?
+  ) {
+    /**
+     * Resource results which may be reused for [root]. Metadata lookups depend on transforms and required properties
+     * depend on globals, so any change there invalidates all of them.
+     */
+    fun getResourceResults(root: CfnRootNode): Map<CfnResourceNode, ResourceInspectionResult> =
+        if (transformValues == root.transformValues && globalsNode === root.globalsNode) resourceResults else emptyMap()
+  }
 
   companion object {
     private val ANALYZED_KEY = Key.create<InspectionResult>("CFN_ANALYZED_FILE")
@@ -709,9 +763,10 @@ class CloudFormationInspections private constructor(val parsed: CloudFormationPa
         return cached
       }
 
-      val inspections = CloudFormationInspections(parsed)
+      val inspections = CloudFormationInspections(parsed, cached?.getResourceResults(parsed.root) ?: emptyMap())
       inspections.root(parsed.root)
-      val inspectionResult = InspectionResult(inspections.problems, inspections.references, parsed.psiFile.modificationStamp)
+      val inspectionResult = InspectionResult(inspections.problems, inspections.references, parsed.psiFile.modificationStamp,
+                                              inspections.resourceResults, parsed.root.transformValues, parsed.root.globalsNode)
 
       parsed.psiFile.putUserData(ANALYZED_KEY, inspectionResult)
 
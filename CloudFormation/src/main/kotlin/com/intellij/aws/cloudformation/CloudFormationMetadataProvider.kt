@@ -2,10 +2,27 @@ package com.intellij.aws.cloudformation
 
 import com.intellij.aws.cloudformation.metadata.CloudFormationMetadata
 import com.intellij.aws.cloudformation.metadata.CloudFormationResourceTypesDescription
+import com.intellij.aws.cloudformation.metadata.MetadataBinarySerializer
 import com.intellij.aws.cloudformation.metadata.MetadataSerializer
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.util.io.FileUtil
+import java.io.File
+import java.io.IOException
+import java.net.URL
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
 
 object CloudFormationMetadataProvider {
+  private val LOG = Logger.getInstance(CloudFormationMetadataProvider::class.java)
+
   val METADATA: CloudFormationMetadata by lazy {
+    val binary = mapResource("cloudformation-metadata.bin")
+    if (binary != null) {
+      return@lazy MetadataBinarySerializer.metadataFromBinary(binary)
+    }
+
     val stream = CloudFormationMetadataProvider::class.java.classLoader.getResourceAsStream("cloudformation-metadata.xml")
         ?: throw RuntimeException("Metadata resource is not found")
 
@@ -15,6 +32,11 @@ object CloudFormationMetadataProvider {
   }
 
   val DESCRIPTIONS: CloudFormationResourceTypesDescription by lazy {
+    val binary = mapResource("cloudformation-descriptions.bin")
+    if (binary != null) {
+      return@lazy MetadataBinarySerializer.descriptionsFromBinary(binary)
+    }
+
     val stream = CloudFormationMetadataProvider::class.java.classLoader.getResourceAsStream("cloudformation-descriptions.xml")
         ?: throw RuntimeException("Descriptions resource is not found")
 
@@ -22,4 +44,36 @@ object CloudFormationMetadataProvider {
       MetadataSerializer.descriptionsFromXML(stream)
     }
   }
+
+  /**
+   * Maps a binary resource into memory, so only the pages of looked up resource types are read.
+   * A resource packed into the plugin jar can't be mapped, it is extracted to the system directory once per plugin version.
+   */
+  private fun mapResource(name: String): ByteBuffer? {
+    val url = CloudFormationMetadataProvider::class.java.classLoader.getResource(name) ?: return null
+    try {
+      val file = if (url.protocol == "file") File(url.toURI()) else extractResource(url, name)
+      return FileChannel.open(file.toPath(), StandardOpenOption.READ).use { it.map(FileChannel.MapMode.READ_ONLY, 0, it.size()) }
+    }
+    catch (e: Exception) {
+      LOG.warn("Cannot map $url, reading it into memory", e)
+      return ByteBuffer.wrap(url.openStream().use { it.readBytes() })
+    }
+  }
+
+  private fun extractResource(url: URL, name: String): File {
+    val connection = url.openConnection()
+    val length = connection.contentLengthLong
+    val lastModified = connection.lastModified
+    val file = File(PathManager.getSystemPath(), "cloudformation/$name")
+    if (file.length() == length && file.lastModified() == lastModified) {
+      return file
+    }
+
+    val temp = FileUtil.createTempFile(file.parentFile, name, ".tmp", true, true)
+    connection.getInputStream().use { input -> temp.outputStream().use { input.copyTo(it) } }
+    if (!temp.setLastModified(lastModified)) throw IOException("Cannot set modification time of $temp")
+    FileUtil.rename(temp, file)
+    return file
+  }
 }
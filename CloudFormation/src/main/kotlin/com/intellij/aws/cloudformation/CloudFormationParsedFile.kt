@@ -2,6 +2,7 @@ package com.intellij.aws.cloudformation
 
 import com.google.common.collect.Multimap
 import com.intellij.aws.cloudformation.model.CfnNode
+import com.intellij.aws.cloudformation.model.CfnResourceNode
 import com.intellij.aws.cloudformation.model.CfnRootNode
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiFile
@@ -11,8 +12,24 @@ class CloudFormationParsedFile(val problems: List<CloudFormationProblem>,
                                private val psi2node: Multimap<PsiElement, CfnNode>,
                                val root: CfnRootNode,
                                val psiFile: PsiFile,
-                               val fileModificationStamp: Long) {
+                               val fileModificationStamp: Long,
+                               private val fragments: Map<PsiElement, CloudFormationParsedFragment> = emptyMap()) {
+
+  private val resourcesByName: Map<String, CfnResourceNode> by lazy {
+    val result = hashMapOf<String, CfnResourceNode>()
+    root.resourcesNode?.resources?.forEach { resource ->
+      resource.name?.value?.let { result.putIfAbsent(it, resource) }
+    }
+    result
+  }
 
   fun getCfnNodes(psiElement: PsiElement): Collection<CfnNode> = psi2node.get(psiElement)
   fun getPsiElement(node: CfnNode): PsiElement = node2psi[node]!!
+
+  fun getFragment(psiElement: PsiElement): CloudFormationParsedFragment? = fragments[psiElement]
+
+  /**
+   * First resource with the given name, as it is declared in the template
+   */
+  fun findResource(resourceName: String): CfnResourceNode? = resourcesByName[resourceName]
 }
@@ -0,0 +1,75 @@
+package com.intellij.aws.cloudformation
+
+import com.google.common.collect.ArrayListMultimap
+import com.google.common.collect.Multimap
+import com.intellij.aws.cloudformation.model.CfnNode
+import com.intellij.aws.cloudformation.model.CfnRootNode
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+
+/**
+ * Collects nodes, their PSI elements and problems while a file is parsed.
+ * Fragments of the previous parse are taken as is when their PSI subtrees were not modified since.
+ */
+class CloudFormationParsedFileBuilder(private val previous: CloudFormationParsedFile?) {
+  val problems = ArrayList<CloudFormationProblem>()
+  val node2psi = mutableMapOf<CfnNode, PsiElement>()
+  val psi2node: Multimap<PsiElement, CfnNode> = ArrayListMultimap.create()
+
+  private val nodes = ArrayList<CfnNode>()
+  private val fragments = ArrayList<CloudFormationParsedFragment>()
+
+  fun register(node: CfnNode, psiElement: PsiElement) {
+    psi2node.put(psiElement, node)
+    node2psi[node] = psiElement
+    nodes.add(node)
+  }
+
+  fun <T : CfnNode> fragment(psiElement: PsiElement, build: () -> T): T {
+    val cached = previous?.getFragment(psiElement)
+    if (cached != null && cached.isUpToDate()) {
+      reuse(cached)
+
+      @Suppress("UNCHECKED_CAST")
+      return cached.node as T
+    }
+
+    val modificationCount = CloudFormationParsedFragment.getModificationCount(psiElement) ?: return build()
+
+    val nodesStart = nodes.size
+    val problemsStart = problems.size
+    val fragmentsStart = fragments.size
+
+    val node = build()
+
+    val fragmentNodes = ArrayList(nodes.subList(nodesStart, nodes.size))
+    fragments.add(CloudFormationParsedFragment(
+        node,
+        psiElement,
+        modificationCount,
+        fragmentNodes,
+        fragmentNodes.map { node2psi[it]!! },
+        ArrayList(problems.subList(problemsStart, problems.size)),
+        ArrayList(fragments.subList(fragmentsStart, fragments.size))
+    ))
+
+    return node
+  }
+
+  private fun reuse(fragment: CloudFormationParsedFragment) {
+    for (i in fragment.nodes.indices) {
+      register(fragment.nodes[i], fragment.nodeElements[i])
+    }
+    problems.addAll(fragment.problems)
+
+    addFragments(fragment)
+  }
+
+  private fun addFragments(fragment: CloudFormationParsedFragment) {
+    fragment.fragments.forEach { addFragments(it) }
+    fragments.add(fragment)
+  }
+
+  fun build(root: CfnRootNode, psiFile: PsiFile): CloudFormationParsedFile =
+      CloudFormationParsedFile(problems, node2psi, psi2node, root, psiFile, psiFile.modificationStamp, fragments.associateBy { it.psiElement })
+}
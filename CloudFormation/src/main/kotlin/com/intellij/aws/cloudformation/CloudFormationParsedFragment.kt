@@ -0,0 +1,27 @@
+package com.intellij.aws.cloudformation
+
+import com.intellij.aws.cloudformation.model.CfnNode
+import com.intellij.psi.PsiElement
+import com.intellij.psi.impl.source.tree.CompositeElement
+
+/**
+ * Nodes built from a single PSI subtree: a template section or a resource.
+ * The next parse of the file takes them as is while the subtree stays unmodified.
+ */
+class CloudFormationParsedFragment(val node: CfnNode,
+                                   val psiElement: PsiElement,
+                                   private val modificationCount: Int,
+                                   val nodes: List<CfnNode>,
+                                   val nodeElements: List<PsiElement>,
+                                   val problems: List<CloudFormationProblem>,
+                                   val fragments: List<CloudFormationParsedFragment>) {
+  fun isUpToDate(): Boolean = psiElement.isValid && modificationCount == getModificationCount(psiElement)
+
+  companion object {
+    /**
+     * Modification count of the PSI subtree, it changes on every change inside the subtree.
+     * Null for leaf elements, they are not worth caching.
+     */
+    fun getModificationCount(psiElement: PsiElement): Int? = (psiElement.node as? CompositeElement)?.modificationCount
+  }
+}
@@ -32,7 +32,7 @@ object CloudFormationResolve {
           .toSet()
 
   fun resolveResource(parsed: CloudFormationParsedFile, resourceName: String): CfnResourceNode? =
-      parsed.root.resourcesNode?.resources?.firstOrNull { it.name?.value == resourceName }
+      parsed.findResource(resourceName)
 
   fun resolveMapping(parsed: CloudFormationParsedFile, mappingName: String): CfnFirstLevelMappingNode? =
       parsed.root.mappingsNode?.mappings?.firstOrNull { it.name?.value == mappingName }
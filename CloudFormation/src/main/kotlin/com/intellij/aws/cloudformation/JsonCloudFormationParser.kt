@@ -1,32 +1,26 @@
 package com.intellij.aws.cloudformation
 
-import com.google.common.collect.ArrayListMultimap
-import com.google.common.collect.Multimap
 import com.intellij.aws.cloudformation.model.*
 import com.intellij.json.psi.*
 import com.intellij.openapi.util.text.StringUtil
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiFile
 import org.jetbrains.annotations.Nls
-import java.util.*
 
-class JsonCloudFormationParser private constructor () {
-  private val myProblems = ArrayList<CloudFormationProblem>()
-  private val node2psi = mutableMapOf<CfnNode, PsiElement>()
-  private val psi2node: Multimap<PsiElement, CfnNode> = ArrayListMultimap.create()
+class JsonCloudFormationParser private constructor (previous: CloudFormationParsedFile?) {
+  private val builder = CloudFormationParsedFileBuilder(previous)
 
   private fun <T : CfnNode> T.registerNode(psiElement: PsiElement): T {
-    assert(!psi2node.containsKey(psiElement)) { "Psi Elements map already has $psiElement" } // No known exceptions in JSON
-    assert(!node2psi.containsKey(this)) { "Nodes map already has $psiElement" }
+    assert(!builder.psi2node.containsKey(psiElement)) { "Psi Elements map already has $psiElement" } // No known exceptions in JSON
+    assert(!builder.node2psi.containsKey(this)) { "Nodes map already has $psiElement" }
 
-    psi2node.put(psiElement, this)
-    node2psi[this] = psiElement
+    builder.register(this, psiElement)
 
     return this
   }
 
   private fun addProblem(element: PsiElement, @Nls description: String) {
-    myProblems.add(CloudFormationProblem(element, description))
+    builder.problems.add(CloudFormationProblem(element, description))
   }
 
   private fun addProblemOnNameElement(property: JsonProperty, @Nls description: String) {
@@ -50,12 +44,12 @@ class JsonCloudFormationParser private constructor () {
         CloudFormationSection.FormatVersion -> { formatVersion(value); null }
         CloudFormationSection.Transform -> transform(property)
         CloudFormationSection.Description -> { checkAndGetUnquotedStringText(value); null }
-        CloudFormationSection.Parameters -> parameters(property)
-        CloudFormationSection.Resources -> resources(property)
-        CloudFormationSection.Conditions -> conditions(property)
+        CloudFormationSection.Parameters -> builder.fragment(property) { parameters(property) }
+        CloudFormationSection.Resources -> builder.fragment(property) { resources(property) }
+        CloudFormationSection.Conditions -> builder.fragment(property) { conditions(property) }
         CloudFormationSection.Metadata -> metadata(property)
-        CloudFormationSection.Outputs -> outputs(property)
-        CloudFormationSection.Mappings -> mappings(property)
+        CloudFormationSection.Outputs -> builder.fragment(property) { outputs(property) }
+        CloudFormationSection.Mappings -> builder.fragment(property) { mappings(property) }
         else -> {
           addProblemOnNameElement(
               property,
@@ -161,7 +155,7 @@ class JsonCloudFormationParser private constructor () {
 
   private fun resources(resources: JsonProperty): CfnResourcesNode = parseNameValues(
       resources,
-      { resource -> resource(resource) },
+      { resource -> builder.fragment(resource) { resource(resource) } },
       { nameNode, list -> CfnResourcesNode(nameNode, list) }
   )
 
@@ -374,11 +368,11 @@ class JsonCloudFormationParser private constructor () {
   }
 
   companion object {
-    fun parse(psiFile: PsiFile): CloudFormationParsedFile {
-      val parser = JsonCloudFormationParser()
+    fun parse(psiFile: PsiFile, previous: CloudFormationParsedFile?): CloudFormationParsedFile {
+      val parser = JsonCloudFormationParser(previous)
       val rootNode = parser.file(psiFile)
 
-      return CloudFormationParsedFile(parser.myProblems, parser.node2psi, parser.psi2node, rootNode, psiFile, psiFile.modificationStamp)
+      return parser.builder.build(rootNode, psiFile)
     }
   }
 }
@@ -1,7 +1,5 @@
 package com.intellij.aws.cloudformation
 
-import com.google.common.collect.ArrayListMultimap
-import com.google.common.collect.Multimap
 import com.intellij.aws.cloudformation.CloudFormationBundle.message
 import com.intellij.aws.cloudformation.model.*
 import com.intellij.openapi.util.text.StringUtil
@@ -13,12 +11,11 @@ import org.jetbrains.yaml.psi.impl.YAMLBlockMappingImpl
 import org.jetbrains.yaml.psi.impl.YAMLCompoundValueImpl
 import java.util.*
 
-class YamlCloudFormationParser private constructor () {
-  private val myProblems = ArrayList<CloudFormationProblem>()
-  private val node2psi = mutableMapOf<CfnNode, PsiElement>()
-  private val psi2node: Multimap<PsiElement, CfnNode> = ArrayListMultimap.create()
+class YamlCloudFormationParser private constructor (previous: CloudFormationParsedFile?) {
+  private val builder = CloudFormationParsedFileBuilder(previous)
 
   private fun <T : CfnNode> T.registerNode(psiElement: PsiElement): T {
+    val psi2node = builder.psi2node
     if (psi2node.containsKey(psiElement)) {
       if (psi2node.get(psiElement).singleOrNull() is CfnScalarValueNode && this is CfnFunctionNode) {
         // known exception: !Ref "xxx" or !Sub "xxx"
@@ -31,16 +28,15 @@ class YamlCloudFormationParser private constructor () {
       }
     }
 
-    assert(!node2psi.containsKey(this)) { "Nodes map already has $psiElement" }
+    assert(!builder.node2psi.containsKey(this)) { "Nodes map already has $psiElement" }
 
-    psi2node.put(psiElement, this)
-    node2psi[this] = psiElement
+    builder.register(this, psiElement)
 
     return this
   }
 
   private fun addProblem(element: PsiElement, @Nls description: String) {
-    myProblems.add(CloudFormationProblem(element, description))
+    builder.problems.add(CloudFormationProblem(element, description))
   }
 
   private fun addProblemOnNameElement(element: PsiElement, @Nls description: String) {
@@ -63,13 +59,13 @@ class YamlCloudFormationParser private constructor () {
         CloudFormationSection.FormatVersion -> { formatVersion(value); null }
         CloudFormationSection.Transform -> transform(property)
         CloudFormationSection.Description -> { checkAndGetStringValue(value); null }
-        CloudFormationSection.Parameters -> parameters(property)
-        CloudFormationSection.Resources -> resources(property)
-        CloudFormationSection.Conditions -> conditions(property)
+        CloudFormationSection.Parameters -> builder.fragment(property.owner) { parameters(property) }
+        CloudFormationSection.Resources -> builder.fragment(property.owner) { resources(property) }
+        CloudFormationSection.Conditions -> builder.fragment(property.owner) { conditions(property) }
         CloudFormationSection.Metadata -> metadata(property)
-        CloudFormationSection.Globals -> globals(property)
-        CloudFormationSection.Outputs -> outputs(property)
-        CloudFormationSection.Mappings -> mappings(property)
+        CloudFormationSection.Globals -> builder.fragment(property.owner) { globals(property) }
+        CloudFormationSection.Outputs -> builder.fragment(property.owner) { outputs(property) }
+        CloudFormationSection.Mappings -> builder.fragment(property.owner) { mappings(property) }
         else -> {
           addProblemOnNameElement(
             property.owner,
@@ -190,7 +186,7 @@ class YamlCloudFormationParser private constructor () {
 
   private fun resources(resources: CfnKeyValue): CfnResourcesNode = parseNameValues(
       resources,
-      { resource -> resource(resource) },
+      { resource -> builder.fragment(resource.owner) { resource(resource) } },
       { nameNode, list -> CfnResourcesNode(nameNode, list) }
   )
 
@@ -526,11 +522,11 @@ class YamlCloudFormationParser private constructor () {
   }
 
   companion object {
-    fun parse(psiFile: PsiFile): CloudFormationParsedFile {
-      val parser = YamlCloudFormationParser()
+    fun parse(psiFile: PsiFile, previous: CloudFormationParsedFile?): CloudFormationParsedFile {
+      val parser = YamlCloudFormationParser(previous)
       val rootNode = parser.file(psiFile)
 
-      return CloudFormationParsedFile(parser.myProblems, parser.node2psi, parser.psi2node, rootNode, psiFile, psiFile.modificationStamp)
+      return parser.builder.build(rootNode, psiFile)
     }
   }
 }
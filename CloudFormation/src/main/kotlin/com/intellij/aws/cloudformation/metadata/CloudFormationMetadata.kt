@@ -1,20 +1,32 @@
 package com.intellij.aws.cloudformation.metadata
 
 import com.intellij.aws.cloudformation.model.CfnRootNode
-import java.util.TreeMap
 
 data class CloudFormationMetadata(
-    val resourceTypes: TreeMap<String, CloudFormationResourceType>,
+    val resourceTypes: Map<String, CloudFormationResourceType>,
     val predefinedParameters: List<String>,
     val limits: CloudFormationLimits) {
 
   fun findResourceType(name: String, context: CfnRootNode): CloudFormationResourceType? {
-    val resourceType = resourceTypes[name]
-    if (resourceType?.transform != null &&
-        context.transformValues.all { resourceType.transform != it }) {
+    if (!isAvailable(name, context)) {
       return null
     }
 
-    return resourceType
+    return resourceTypes[name]
+  }
+
+  /**
+   * Names of resource types which may be used in the template, their metadata is not loaded for that
+   */
+  fun findResourceTypeNames(context: CfnRootNode): List<String> = resourceTypes.keys.filter { isAvailable(it, context) }
+
+  private fun isAvailable(name: String, context: CfnRootNode): Boolean {
+    val transform = getTransform(name)
+    return transform == null || context.transformValues.any { transform == it }
+  }
+
+  private fun getTransform(name: String): String? {
+    val types = resourceTypes
+    return if (types is MetadataBinarySerializer.LazyResourceTypes) types.getTransform(name) else types[name]?.transform
   }
 }
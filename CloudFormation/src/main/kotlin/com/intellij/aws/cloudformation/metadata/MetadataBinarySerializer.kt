@@ -0,0 +1,349 @@
+package com.intellij.aws.cloudformation.metadata
+
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+
+/**
+ * Compact binary form of [CloudFormationMetadata] and [CloudFormationResourceTypesDescription].
+ * The metadata crawler produces it next to the XML form.
+ *
+ * Both forms start with a directory of resource types sorted by name, pointing to per-type records. Reading is lazy:
+ * - a metadata record is decoded when its resource type is first looked up;
+ * - a description record is decoded on every lookup and is not retained.
+ * Metadata strings are stored once in a string table and are referenced by index.
+ */
+object MetadataBinarySerializer {
+  private const val METADATA_MAGIC = 0x43464e4d // "CFNM"
+  private const val DESCRIPTIONS_MAGIC = 0x43464e44 // "CFND"
+  private const val VERSION = 1
+
+  private const val NO_STRING = -1
+
+  // name, transform, record offset
+  private const val METADATA_ENTRY_SIZE = 12
+  // name, record offset
+  private const val DESCRIPTIONS_ENTRY_SIZE = 8
+
+  fun toBinary(metadata: CloudFormationMetadata, output: OutputStream) {
+    val strings = StringTableBuilder()
+    val names = metadata.resourceTypes.keys.sorted()
+
+    val records = ByteArrayOutputStream()
+    val recordsOut = DataOutputStream(records)
+    val directory = IntArray(names.size * 3)
+    names.forEachIndexed { i, name ->
+      val resourceType = metadata.resourceTypes.getValue(name)
+      directory[i * 3] = strings.indexOf(name)
+      directory[i * 3 + 1] = strings.indexOf(resourceType.transform)
+      directory[i * 3 + 2] = recordsOut.size()
+
+      recordsOut.writeInt(strings.indexOf(resourceType.name))
+      recordsOut.writeInt(strings.indexOf(resourceType.url))
+      recordsOut.writeInt(resourceType.properties.size)
+      for ((key, property) in resourceType.properties) {
+        recordsOut.writeInt(strings.indexOf(key))
+        recordsOut.writeInt(strings.indexOf(property.name))
+        recordsOut.writeInt(strings.indexOf(property.type))
+        recordsOut.writeBoolean(property.required)
+        recordsOut.writeInt(strings.indexOf(property.url))
+        recordsOut.writeInt(strings.indexOf(property.updateRequires))
+      }
+      recordsOut.writeInt(resourceType.attributes.size)
+      for ((key, attribute) in resourceType.attributes) {
+        recordsOut.writeInt(strings.indexOf(key))
+        recordsOut.writeInt(strings.indexOf(attribute.name))
+      }
+    }
+    val predefinedParameters = metadata.predefinedParameters.map { strings.indexOf(it) }
+
+    val out = DataOutputStream(output)
+    out.writeInt(METADATA_MAGIC)
+    out.writeInt(VERSION)
+    out.writeInt(metadata.limits.maxParameters)
+    out.writeInt(metadata.limits.maxOutputs)
+    out.writeInt(metadata.limits.maxMappings)
+    strings.write(out)
+    out.writeInt(predefinedParameters.size)
+    predefinedParameters.forEach { out.writeInt(it) }
+    out.writeInt(names.size)
+    directory.forEach { out.writeInt(it) }
+    records.writeTo(out)
+    out.flush()
+  }
+
+  fun toBinary(descriptions: CloudFormationResourceTypesDescription, output: OutputStream) {
+    val names = StringTableBuilder()
+    val sortedNames = descriptions.resourceTypes.keys.sorted()
+
+    val records = ByteArrayOutputStream()
+    val recordsOut = DataOutputStream(records)
+    val directory = IntArray(sortedNames.size * 2)
+    sortedNames.forEachIndexed { i, name ->
+      val description = descriptions.resourceTypes.getValue(name)
+      directory[i * 2] = names.indexOf(name)
+      directory[i * 2 + 1] = recordsOut.size()
+
+      writeString(recordsOut, description.description)
+      writeStringMap(recordsOut, description.properties)
+      writeStringMap(recordsOut, description.attributes)
+    }
+
+    val out = DataOutputStream(output)
+    out.writeInt(DESCRIPTIONS_MAGIC)
+    out.writeInt(VERSION)
+    names.write(out)
+    out.writeInt(sortedNames.size)
+    directory.forEach { out.writeInt(it) }
+    records.writeTo(out)
+    out.flush()
+  }
+
+  fun metadataFromBinary(bytes: ByteArray): CloudFormationMetadata = metadataFromBinary(ByteBuffer.wrap(bytes))
+
+  /**
+   * @param buffer heap or memory-mapped buffer, it is read with absolute reads only after the header and must not be modified
+   */
+  fun metadataFromBinary(buffer: ByteBuffer): CloudFormationMetadata {
+    checkHeader(buffer, METADATA_MAGIC)
+    val limits = CloudFormationLimits(maxParameters = buffer.int, maxOutputs = buffer.int, maxMappings = buffer.int)
+    val strings = StringTable(buffer)
+    val predefinedParameters = List(buffer.int) { strings[buffer.int] }
+    return CloudFormationMetadata(BinaryResourceTypes(buffer, strings), predefinedParameters, limits)
+  }
+
+  fun descriptionsFromBinary(bytes: ByteArray): CloudFormationResourceTypesDescription = descriptionsFromBinary(ByteBuffer.wrap(bytes))
+
+  fun descriptionsFromBinary(buffer: ByteBuffer): CloudFormationResourceTypesDescription {
+    checkHeader(buffer, DESCRIPTIONS_MAGIC)
+    return CloudFormationResourceTypesDescription(BinaryResourceTypeDescriptions(buffer, StringTable(buffer)))
+  }
+
+  private fun checkHeader(buffer: ByteBuffer, magic: Int) {
+    if (buffer.int != magic) throw IOException("Not a CloudFormation metadata file")
+    val version = buffer.int
+    if (version != VERSION) throw IOException("Unsupported CloudFormation metadata version: $version")
+  }
+
+  private fun writeString(out: DataOutputStream, value: String) {
+    val bytes = value.toByteArray(StandardCharsets.UTF_8)
+    out.writeInt(bytes.size)
+    out.write(bytes)
+  }
+
+  private fun writeStringMap(out: DataOutputStream, map: Map<String, String>) {
+    out.writeInt(map.size)
+    for ((key, value) in map) {
+      writeString(out, key)
+      writeString(out, value)
+    }
+  }
+
+  private fun decodeString(buffer: ByteBuffer, start: Int, length: Int): String {
+    if (buffer.hasArray()) {
+      return String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8)
+    }
+    val bytes = ByteArray(length)
+    val view = buffer.duplicate()
+    view.position(start)
+    view.get(bytes)
+    return String(bytes, StandardCharsets.UTF_8)
+  }
+
+  private class StringTableBuilder {
+    private val indices = HashMap<String, Int>()
+    private val strings = ArrayList<String>()
+
+    fun indexOf(value: String?): Int {
+      if (value == null) return NO_STRING
+      return indices.getOrPut(value) {
+        strings.add(value)
+        strings.size - 1
+      }
+    }
+
+    fun write(out: DataOutputStream) {
+      val encoded = strings.map { it.toByteArray(StandardCharsets.UTF_8) }
+      out.writeInt(encoded.size)
+      var offset = 0
+      for (bytes in encoded) {
+        out.writeInt(offset)
+        offset += bytes.size
+      }
+      out.writeInt(offset)
+      encoded.forEach { out.write(it) }
+    }
+  }
+
+  /**
+   * Strings are decoded on first access and cached
+   */
+  private class StringTable(private val buffer: ByteBuffer) {
+    private val size = buffer.int
+    private val offsetsStart = buffer.position()
+    private val dataStart = offsetsStart + (size + 1) * 4
+    private val strings = arrayOfNulls<String>(size)
+
+    init {
+      buffer.position(dataStart + offsetAt(size))
+    }
+
+    operator fun get(index: Int): String {
+      strings[index]?.let { return it }
+      val start = dataStart + offsetAt(index)
+      val string = decodeString(buffer, start, dataStart + offsetAt(index + 1) - start)
+      strings[index] = string
+      return string
+    }
+
+    fun getOrNull(index: Int): String? = if (index == NO_STRING) null else get(index)
+
+    private fun offsetAt(index: Int): Int = buffer.getInt(offsetsStart + index * 4)
+  }
+
+  /**
+   * Reads consecutive values of a record, starting at the given offset. Reads are absolute, so records may be decoded concurrently.
+   */
+  private class RecordReader(private val buffer: ByteBuffer, private var position: Int) {
+    fun readInt(): Int {
+      val value = buffer.getInt(position)
+      position += 4
+      return value
+    }
+
+    fun readBoolean(): Boolean = buffer.get(position++).toInt() != 0
+
+    fun readString(): String {
+      val length = readInt()
+      val value = decodeString(buffer, position, length)
+      position += length
+      return value
+    }
+
+    fun readStringMap(): Map<String, String> {
+      val size = readInt()
+      val result = LinkedHashMap<String, String>(size)
+      repeat(size) {
+        val key = readString()
+        result[key] = readString()
+      }
+      return result
+    }
+  }
+
+  /**
+   * Read-only map over a directory of resource types sorted by name. Keys are decoded without decoding the values.
+   */
+  private abstract class BinaryDirectoryMap<V : Any>(
+      protected val buffer: ByteBuffer,
+      protected val strings: StringTable,
+      private val entrySize: Int) : AbstractMap<String, V>() {
+    final override val size: Int = buffer.int
+    protected val directoryStart: Int = buffer.position()
+    protected val recordsStart: Int = directoryStart + size * entrySize
+
+    protected abstract fun valueAt(index: Int): V
+
+    protected fun nameAt(index: Int): String = strings[buffer.getInt(directoryStart + index * entrySize)]
+
+    protected fun indexOf(name: String): Int {
+      var low = 0
+      var high = size - 1
+      while (low <= high) {
+        val mid = (low + high).ushr(1)
+        val cmp = nameAt(mid).compareTo(name)
+        when {
+          cmp < 0 -> low = mid + 1
+          cmp > 0 -> high = mid - 1
+          else -> return mid
+        }
+      }
+      return -1
+    }
+
+    override fun containsKey(key: String): Boolean = indexOf(key) >= 0
+
+    override fun get(key: String): V? {
+      val index = indexOf(key)
+      return if (index < 0) null else valueAt(index)
+    }
+
+    override val keys: Set<String>
+      get() = object : AbstractSet<String>() {
+        override val size: Int get() = this@BinaryDirectoryMap.size
+        override fun iterator(): Iterator<String> = (0 until size).asSequence().map { nameAt(it) }.iterator()
+      }
+
+    override val entries: Set<Map.Entry<String, V>>
+      get() = object : AbstractSet<Map.Entry<String, V>>() {
+        override val size: Int get() = this@BinaryDirectoryMap.size
+        override fun iterator(): Iterator<Map.Entry<String, V>> =
+          (0 until size).asSequence().map { java.util.AbstractMap.SimpleImmutableEntry(nameAt(it), valueAt(it)) }.iterator()
+      }
+  }
+
+  /**
+   * Resource types map read from the binary form
+   */
+  internal interface LazyResourceTypes {
+    /**
+     * @return transform of a resource type without decoding its record
+     */
+    fun getTransform(name: String): String?
+  }
+
+  private class BinaryResourceTypes(buffer: ByteBuffer, strings: StringTable)
+    : BinaryDirectoryMap<CloudFormationResourceType>(buffer, strings, METADATA_ENTRY_SIZE), LazyResourceTypes {
+    private val decoded = arrayOfNulls<CloudFormationResourceType>(size)
+
+    override fun getTransform(name: String): String? {
+      val index = indexOf(name)
+      return if (index < 0) null else strings.getOrNull(buffer.getInt(directoryStart + index * METADATA_ENTRY_SIZE + 4))
+    }
+
+    override fun valueAt(index: Int): CloudFormationResourceType {
+      decoded[index]?.let { return it }
+      val entry = directoryStart + index * METADATA_ENTRY_SIZE
+      val transform = strings.getOrNull(buffer.getInt(entry + 4))
+      val reader = RecordReader(buffer, recordsStart + buffer.getInt(entry + 8))
+
+      val name = strings[reader.readInt()]
+      val url = strings[reader.readInt()]
+      val propertiesCount = reader.readInt()
+      val properties = LinkedHashMap<String, CloudFormationResourceProperty>(propertiesCount)
+      repeat(propertiesCount) {
+        val key = strings[reader.readInt()]
+        val propertyName = strings[reader.readInt()]
+        val type = strings[reader.readInt()]
+        val required = reader.readBoolean()
+        val propertyUrl = strings[reader.readInt()]
+        val updateRequires = strings[reader.readInt()]
+        properties[key] = CloudFormationResourceProperty(propertyName, type, required, propertyUrl, updateRequires)
+      }
+      val attributesCount = reader.readInt()
+      val attributes = LinkedHashMap<String, CloudFormationResourceAttribute>(attributesCount)
+      repeat(attributesCount) {
+        val key = strings[reader.readInt()]
+        attributes[key] = CloudFormationResourceAttribute(strings[reader.readInt()])
+      }
+
+      val resourceType = CloudFormationResourceType(name, transform, url, properties, attributes)
+      decoded[index] = resourceType
+      return resourceType
+    }
+  }
+
+  private class BinaryResourceTypeDescriptions(buffer: ByteBuffer, names: StringTable)
+    : BinaryDirectoryMap<CloudFormationResourceTypeDescription>(buffer, names, DESCRIPTIONS_ENTRY_SIZE) {
+    override fun valueAt(index: Int): CloudFormationResourceTypeDescription {
+      val reader = RecordReader(buffer, recordsStart + buffer.getInt(directoryStart + index * DESCRIPTIONS_ENTRY_SIZE + 4))
+      val description = reader.readString()
+      val properties = reader.readStringMap()
+      val attributes = reader.readStringMap()
+      return CloudFormationResourceTypeDescription(description, properties, attributes)
+    }
+  }
+}
@@ -9,6 +9,7 @@ import java.io.InputStream
 import java.io.OutputStream
 import java.io.OutputStreamWriter
 import java.io.Writer
+import java.util.*
 
 object MetadataSerializer {
   private class CDataPrettyPrintWriter(out: Writer): PrettyPrintWriter(out) {
@@ -59,6 +60,9 @@ object MetadataSerializer {
     xstream.allowTypes(mapping.map { it.value }.toTypedArray())
     mapping.forEach { (tag, clazz) -> xstream.alias(tag, clazz) }
 
+    // Resource types are declared as Map to allow lazily decoded binary maps, but are still sorted maps in XML
+    xstream.addDefaultImplementation(TreeMap::class.java, Map::class.java)
+
     return xstream
   }
 }
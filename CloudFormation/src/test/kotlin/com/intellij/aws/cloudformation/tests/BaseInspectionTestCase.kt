@@ -27,6 +27,7 @@ abstract class BaseInspectionTestCase(private val folder: String) : CodeInsightF
     }
 
     val parsed = CloudFormationParser.parse(psiFile)
+    TestUtil.assertAllNodesAreMapped(parsed)
     if (parsed.root.resourcesNode == null) {
       return "Resources node"
     }
@@ -0,0 +1,57 @@
+package com.intellij.aws.cloudformation.tests
+
+import com.intellij.aws.cloudformation.CloudFormationInspections
+import com.intellij.aws.cloudformation.CloudFormationParser
+import com.intellij.testFramework.LightPlatformCodeInsightTestCase
+import com.intellij.testFramework.PlatformTestUtil
+
+class IncrementalParsingPerformanceTest : LightPlatformCodeInsightTestCase() {
+  fun testTypingIntoLargeTemplate() {
+    configureFromFileText("template.yaml", IncrementalParsingTest.generateTemplate(1000))
+    CloudFormationInspections.inspectFile(CloudFormationParser.parse(file))
+
+    PlatformTestUtil.startPerformanceTest("CloudFormation parse and inspect after a keystroke", 200) {
+      IncrementalParsingTest.typeAfter(editor, IncrementalParsingTest.LARGE_TEMPLATE_ANCHOR, "1")
+      CloudFormationInspections.inspectFile(CloudFormationParser.parse(file))
+    }.attempts(3).assertTiming()
+
+    IncrementalParsingTest.assertSameAsFreshParse(file)
+  }
+
+  /**
+   * Compares parsing and inspecting the whole template, as it is done for a copy with no cached results,
+   * with reparsing it after a keystroke in a single resource.
+   */
+  fun testIncrementalIsFasterThanFullParse() {
+    configureFromFileText("template.yaml", IncrementalParsingTest.generateTemplate(1000))
+    println("Template lines: ${editor.document.lineCount}")
+
+    val fullParses = 5
+    var fullTime = 0L
+    repeat(fullParses) {
+      val fresh = IncrementalParsingTest.createFreshCopy(file)
+      val start = System.nanoTime()
+      CloudFormationInspections.inspectFile(CloudFormationParser.parse(fresh))
+      fullTime += System.nanoTime() - start
+    }
+    CloudFormationInspections.inspectFile(CloudFormationParser.parse(file))
+
+    val keystrokes = 50
+    var incrementalTime = 0L
+    repeat(keystrokes) {
+      IncrementalParsingTest.typeAfter(editor, IncrementalParsingTest.LARGE_TEMPLATE_ANCHOR, "1")
+
+      val start = System.nanoTime()
+      CloudFormationInspections.inspectFile(CloudFormationParser.parse(file))
+      incrementalTime += System.nanoTime() - start
+    }
+
+    val fullAverage = fullTime / fullParses
+    val incrementalAverage = incrementalTime / keystrokes
+    println("Parse and inspect: full ${fullAverage / 1000000} ms on average over $fullParses parses, " +
+            "per keystroke ${incrementalAverage / 1000000} ms on average over $keystrokes keystrokes")
+    assertTrue("full $fullAverage ns, per keystroke $incrementalAverage ns", incrementalAverage < fullAverage)
+
+    IncrementalParsingTest.assertSameAsFreshParse(file)
+  }
+}
@@ -0,0 +1,117 @@
+package com.intellij.aws.cloudformation.tests
+
+import com.intellij.aws.cloudformation.CloudFormationInspections
+import com.intellij.aws.cloudformation.CloudFormationParser
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.editor.Editor
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiFileFactory
+import com.intellij.testFramework.LightPlatformCodeInsightTestCase
+import org.apache.commons.lang.SystemUtils
+
+class IncrementalParsingTest : LightPlatformCodeInsightTestCase() {
+  fun testUnmodifiedResourcesAreReused() {
+    configureFromFileText("template.yaml", generateTemplate(10))
+
+    val before = CloudFormationParser.parse(file)
+    CloudFormationInspections.inspectFile(before)
+
+    typeAfter("Queue5:\n    Type: AWS::SQS::Queue\n    Properties:\n      DelaySeconds: 0", "1")
+
+    val after = CloudFormationParser.parse(file)
+    TestUtil.assertAllNodesAreMapped(after)
+
+    val resourcesBefore = before.root.resourcesNode!!.resources.associateBy { it.name!!.value }
+    for (resource in after.root.resourcesNode!!.resources) {
+      val name = resource.name!!.value
+      if (name == "Queue5") {
+        assertNotSame(resourcesBefore[name], resource)
+      } else {
+        assertSame(name, resourcesBefore[name], resource)
+      }
+    }
+    assertSame(before.root.parametersNode, after.root.parametersNode)
+    assertSame(before.root.outputsNode, after.root.outputsNode)
+    assertNotSame(before.root.resourcesNode, after.root.resourcesNode)
+
+    assertSameAsFreshParse()
+  }
+
+  fun testDependentResourcesAreReinspected() {
+    configureFromFileText("template.yaml", generateTemplate(10))
+    CloudFormationInspections.inspectFile(CloudFormationParser.parse(file))
+
+    // Topic3 is not modified, but GetAtt Queue3.Arn becomes an unknown attribute
+    val offset = file.text.indexOf("Queue3:\n    Type: AWS::SQS::Queue") + "Queue3:\n    Type: AWS::".length
+    WriteCommandAction.runWriteCommandAction(project) {
+      editor.document.replaceString(offset, offset + "SQS::Queue".length, "SNS::Topic")
+    }
+    PsiDocumentManager.getInstance(project).commitAllDocuments()
+
+    val problems = CloudFormationInspections.inspectFile(CloudFormationParser.parse(file)).problems
+    assertTrue(problems.any { it.description.contains("Arn") })
+
+    assertSameAsFreshParse()
+  }
+
+  fun testRepeatedTypingMatchesFreshParse() {
+    configureFromFileText("template.yaml", generateTemplate(100))
+    CloudFormationInspections.inspectFile(CloudFormationParser.parse(file))
+
+    repeat(20) {
+      typeAfter(editor, "Queue50:\n    Type: AWS::SQS::Queue\n    Properties:\n      DelaySeconds: 0", "1")
+      CloudFormationInspections.inspectFile(CloudFormationParser.parse(file))
+    }
+
+    assertSameAsFreshParse()
+  }
+
+  private fun typeAfter(anchor: String, text: String) = typeAfter(editor, anchor, text)
+
+  private fun assertSameAsFreshParse() = assertSameAsFreshParse(file)
+
+  companion object {
+    const val LARGE_TEMPLATE_ANCHOR = "Queue500:\n    Type: AWS::SQS::Queue\n    Properties:\n      DelaySeconds: 0"
+
+    fun typeAfter(editor: Editor, anchor: String, text: String) {
+      val project = editor.project!!
+      val offset = editor.document.text.indexOf(anchor)
+      assertTrue(anchor, offset >= 0)
+
+      WriteCommandAction.runWriteCommandAction(project) {
+        editor.document.insertString(offset + anchor.length, text)
+      }
+      PsiDocumentManager.getInstance(project).commitAllDocuments()
+    }
+
+    fun createFreshCopy(file: PsiFile): PsiFile =
+      PsiFileFactory.getInstance(file.project).createFileFromText("fresh.yaml", file.fileType, file.text)
+
+    fun assertSameAsFreshParse(file: PsiFile) {
+      assertEquals(render(createFreshCopy(file)), render(file))
+    }
+
+    private fun render(psiFile: PsiFile): String {
+      val parsed = CloudFormationParser.parse(psiFile)
+      val inspected = CloudFormationInspections.inspectFile(parsed)
+      return TestUtil.renderProblems(psiFile, parsed.problems + inspected.problems) + SystemUtils.LINE_SEPARATOR +
+             TestUtil.nodeToString(parsed.root) + SystemUtils.LINE_SEPARATOR +
+             inspected.references.values().map { "${it.element.textOffset}: ${it.element.text}" }.sorted().joinToString("\n")
+    }
+
+    fun generateTemplate(resourceCount: Int): String {
+      val builder = StringBuilder()
+      builder.append("AWSTemplateFormatVersion: '2010-09-09'\n")
+      builder.append("Parameters:\n  Prefix:\n    Type: String\n")
+      builder.append("Resources:\n")
+      for (i in 0 until resourceCount) {
+        builder.append("  Queue$i:\n    Type: AWS::SQS::Queue\n    Properties:\n      DelaySeconds: 0\n      QueueName: !Ref Prefix\n")
+        builder.append("  Topic$i:\n    Type: AWS::SNS::Topic\n    Properties:\n      Subscription:\n")
+        builder.append("        - Endpoint: !GetAtt Queue$i.Arn\n          Protocol: sqs\n")
+      }
+      builder.append("Outputs:\n  FirstQueue:\n    Value: !Ref Queue0\n")
+      return builder.toString()
+    }
+  }
+}
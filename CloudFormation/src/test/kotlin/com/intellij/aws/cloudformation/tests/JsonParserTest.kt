@@ -11,6 +11,7 @@ class JsonParserTest : LightPlatformCodeInsightTestCase() {
   private fun runTest(name: String) {
     configureByFile("$name.template")
     val parsed = CloudFormationParser.parse(file)
+    TestUtil.assertAllNodesAreMapped(parsed)
     TestUtil.checkContent(
         File(testDataPath, "$name.expected"),
         TestUtil.renderProblems(file, parsed.problems)
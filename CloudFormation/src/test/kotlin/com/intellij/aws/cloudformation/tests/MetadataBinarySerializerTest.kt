@@ -0,0 +1,70 @@
+package com.intellij.aws.cloudformation.tests
+
+import com.intellij.aws.cloudformation.CloudFormationMetadataProvider
+import com.intellij.aws.cloudformation.metadata.MetadataBinarySerializer
+import com.intellij.aws.cloudformation.metadata.MetadataSerializer
+import junit.framework.TestCase
+import java.io.ByteArrayOutputStream
+
+class MetadataBinarySerializerTest : TestCase() {
+  fun testMetadataRoundTrip() {
+    val xmlBytes = loadResource("cloudformation-metadata.xml")!!
+    val metadata = MetadataSerializer.metadataFromXML(xmlBytes.inputStream())
+
+    val output = ByteArrayOutputStream()
+    MetadataBinarySerializer.toBinary(metadata, output)
+    val binaryBytes = output.toByteArray()
+
+    val binary = MetadataBinarySerializer.metadataFromBinary(binaryBytes)
+    assertEquals(metadata.predefinedParameters, binary.predefinedParameters)
+    assertEquals(metadata.limits, binary.limits)
+    assertEquals(metadata.resourceTypes.keys.toList(), binary.resourceTypes.keys.toList())
+    for ((name, resourceType) in metadata.resourceTypes) {
+      assertTrue(name, binary.resourceTypes.containsKey(name))
+      assertEquals(name, resourceType.transform, (binary.resourceTypes as MetadataBinarySerializer.LazyResourceTypes).getTransform(name))
+      assertEquals(name, resourceType, binary.resourceTypes[name])
+    }
+    assertNull(binary.resourceTypes["AWS::Unknown::Type"])
+    assertEquals(metadata, binary)
+  }
+
+  fun testDescriptionsRoundTrip() {
+    val xmlBytes = loadResource("cloudformation-descriptions.xml") ?: return
+    val descriptions = MetadataSerializer.descriptionsFromXML(xmlBytes.inputStream())
+
+    val output = ByteArrayOutputStream()
+    MetadataBinarySerializer.toBinary(descriptions, output)
+
+    val binary = MetadataBinarySerializer.descriptionsFromBinary(output.toByteArray())
+    assertEquals(descriptions.resourceTypes.keys.sorted(), binary.resourceTypes.keys.toList())
+    for ((name, description) in descriptions.resourceTypes) {
+      assertEquals(name, description, binary.resourceTypes[name])
+    }
+  }
+
+  fun testMetadataBinaryUpToDate() {
+    val metadata = loadResource("cloudformation-metadata.xml")!!.inputStream().use { MetadataSerializer.metadataFromXML(it) }
+    assertBinaryUpToDate("cloudformation-metadata.bin") { MetadataBinarySerializer.toBinary(metadata, it) }
+  }
+
+  fun testDescriptionsBinaryUpToDate() {
+    val xmlBytes = loadResource("cloudformation-descriptions.xml") ?: return
+    val descriptions = MetadataSerializer.descriptionsFromXML(xmlBytes.inputStream())
+    assertBinaryUpToDate("cloudformation-descriptions.bin") { MetadataBinarySerializer.toBinary(descriptions, it) }
+  }
+
+  fun testProviderUsesBinary() {
+    assertTrue(CloudFormationMetadataProvider.METADATA.resourceTypes is MetadataBinarySerializer.LazyResourceTypes)
+  }
+
+  private fun assertBinaryUpToDate(name: String, write: (ByteArrayOutputStream) -> Unit) {
+    val expected = ByteArrayOutputStream()
+    write(expected)
+    val actual = loadResource(name)
+    assertNotNull("$name is not found, run MetadataBinaryConverterMain", actual)
+    assertTrue("$name is stale, run MetadataBinaryConverterMain", expected.toByteArray().contentEquals(actual!!))
+  }
+
+  private fun loadResource(name: String): ByteArray? =
+    MetadataBinarySerializerTest::class.java.classLoader.getResourceAsStream(name)?.use { it.readBytes() }
+}
@@ -1,6 +1,7 @@
 package com.intellij.aws.cloudformation.tests
 
 import com.intellij.aws.cloudformation.CloudFormationInspections
+import com.intellij.aws.cloudformation.CloudFormationParsedFile
 import com.intellij.aws.cloudformation.CloudFormationParser
 import com.intellij.aws.cloudformation.CloudFormationProblem
 import com.intellij.aws.cloudformation.model.CfnNode
@@ -13,6 +14,9 @@ import junit.framework.TestCase
 import java.io.File
 import java.io.IOException
 import java.io.StringWriter
+import java.lang.reflect.AccessibleObject
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
 
 object TestUtil {
   fun getTestDataPath(relativePath: String): String {
@@ -48,6 +52,41 @@ object TestUtil {
 
   fun nodeToString(node: CfnNode): String = MyToStringStyle.toString(node, arrayOf("allTopLevelProperties", "functionId"))
 
+  fun assertAllNodesAreMapped(parsed: CloudFormationParsedFile) {
+    fun isGoodField(field: Field): Boolean =
+      field.name.indexOf('$') == -1 && !Modifier.isTransient(field.modifiers) && !Modifier.isStatic(field.modifiers)
+
+    val seen = mutableSetOf<Any>()
+
+    fun processInstance(obj: Any, parent: Any) {
+      if (seen.contains(obj)) return
+      seen.add(obj)
+
+      if (obj is CfnNode) {
+        try {
+          parsed.getPsiElement(obj)
+        } catch (t: Throwable) {
+          error("Node $obj under $parent is not mapped")
+        }
+      }
+
+      if (obj is Collection<*>) {
+        obj.forEach { it?.let { processInstance(it, parent) } }
+        return
+      }
+
+      val fields = obj.javaClass.declaredFields
+      AccessibleObject.setAccessible(fields, true)
+
+      fields
+          .filter { isGoodField(it) }
+          .mapNotNull { it.get(obj) }
+          .forEach { processInstance(it, obj) }
+    }
+
+    processInstance(parsed.root, parsed.root)
+  }
+
   fun checkContent(expectFile: File, actualContent: String) {
     val normalizedLines = actualContent
         .lines()
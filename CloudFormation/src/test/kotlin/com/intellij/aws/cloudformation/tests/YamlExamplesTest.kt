@@ -54,6 +54,7 @@ class YamlExamplesTest : LightPlatformCodeInsightTestCase() {
     configureByFile(fileName)
 
     val parsed = CloudFormationParser.parse(file)
+    TestUtil.assertAllNodesAreMapped(parsed)
     val inspected = CloudFormationInspections.inspectFile(parsed)
 
     val unresolvedReferenceProblems = YamlUnresolvedReferencesInspection()
@@ -17,6 +17,7 @@ class YamlParserTest : LightPlatformCodeInsightTestCase() {
   fun runTest(name: String) {
     configureByFile("$name.yaml")
     val parsed = CloudFormationParser.parse(file)
+    TestUtil.assertAllNodesAreMapped(parsed)
     TestUtil.checkContent(
         File(testDataPath, "$name.expected"),
         TestUtil.renderProblems(file, parsed.problems) + SystemUtils.LINE_SEPARATOR + TestUtil.nodeToString(parsed.root)
@@ -753,12 +753,12 @@ public final class DartAnalysisServerService implements Disposable {
   }
 
   @Nullable
-  public AvailableSuggestionSet getAvailableSuggestionSet(int id) {
+  public DartAvailableSuggestionSetIndex getAvailableSuggestionSet(int id) {
     return myServerData.getAvailableSuggestionSet(id);
   }
 
   @Nullable
-  public Map<String, Map<String, Set<String>>> getExistingImports(@Nullable String filePathSD) {
+  public DartExistingImports getExistingImports(@Nullable String filePathSD) {
     return myServerData.getExistingImports(filePathSD);
   }
 
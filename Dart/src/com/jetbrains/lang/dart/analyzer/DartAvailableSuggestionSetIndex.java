@@ -0,0 +1,180 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.analyzer;
+
+import com.intellij.codeInsight.completion.PrefixMatcher;
+import com.intellij.codeInsight.completion.impl.CamelHumpMatcher;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.Processor;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.dartlang.analysis.server.protocol.AvailableSuggestion;
+import org.dartlang.analysis.server.protocol.AvailableSuggestionSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lookup structure over the items of an {@link AvailableSuggestionSet}, built once when the set is received from the Analysis Server.
+ * <p>
+ * Distinct labels are stored in an array sorted by label, so matching suggestions are reported in the label order. For every ASCII letter
+ * or digit two lists of label positions are precomputed: labels having a word starting with it (the first character, any upper case letter,
+ * any letter or digit following another kind of character) and labels containing it anywhere. The first character of a short prefix has to
+ * start a word of a matching label, prefixes of {@link #MIDDLE_MATCHING_LENGTH} or more characters may also match in the middle of a word
+ * ({@code ture} matches {@code Future}), so for them the first character only has to be contained in the label. Every label also has a
+ * bit set of the letters and digits it contains, so labels missing any other character of the prefix are skipped without calling
+ * the matcher.
+ */
+public final class DartAvailableSuggestionSetIndex {
+  /**
+   * the shortest prefix which {@link CamelHumpMatcher} matches in the middle of a word
+   */
+  private static final int MIDDLE_MATCHING_LENGTH = 3;
+  private static final int CHAR_COUNT = 26 + 10;
+
+  @NotNull private final AvailableSuggestionSet mySuggestionSet;
+  @NotNull private final String[] myLabels;
+  /**
+   * indices of items in {@link AvailableSuggestionSet#getItems()} for each label in {@link #myLabels}
+   */
+  @NotNull private final int[][] myItemIndices;
+  /**
+   * bit set of the characters of each label in {@link #myLabels}, see {@link #getCharBit(char)}
+   */
+  private final long @NotNull [] myLabelChars;
+  /**
+   * character bit -> sorted indices in {@link #myLabels} of labels having a word starting with the character
+   */
+  private final int @NotNull [][] myLabelsByWordStart = new int[CHAR_COUNT][];
+  /**
+   * character bit -> sorted indices in {@link #myLabels} of labels containing the character
+   */
+  private final int @NotNull [][] myLabelsByChar = new int[CHAR_COUNT][];
+
+  public DartAvailableSuggestionSetIndex(@NotNull AvailableSuggestionSet suggestionSet) {
+    mySuggestionSet = suggestionSet;
+
+    final List<AvailableSuggestion> items = suggestionSet.getItems();
+    final TreeMap<String, List<Integer>> itemsByLabel = new TreeMap<>();
+    for (int i = 0; i < items.size(); i++) {
+      itemsByLabel.computeIfAbsent(items.get(i).getLabel(), label -> new ArrayList<>(1)).add(i);
+    }
+
+    myLabels = ArrayUtil.toStringArray(itemsByLabel.keySet());
+    myItemIndices = new int[myLabels.length][];
+    myLabelChars = new long[myLabels.length];
+
+    final IntArrayList[] labelsByWordStart = new IntArrayList[CHAR_COUNT];
+    final IntArrayList[] labelsByChar = new IntArrayList[CHAR_COUNT];
+    int labelIndex = 0;
+    for (Map.Entry<String, List<Integer>> entry : itemsByLabel.entrySet()) {
+      myItemIndices[labelIndex] = ArrayUtil.toIntArray(entry.getValue());
+
+      final String label = entry.getKey();
+      long wordStarts = 0;
+      for (int i = 0; i < label.length(); i++) {
+        final char c = label.charAt(i);
+        final int bit = getCharBit(c);
+        if (bit < 0) continue;
+        myLabelChars[labelIndex] |= 1L << bit;
+        if (i == 0 ||
+            Character.isUpperCase(c) ||
+            !Character.isLetterOrDigit(label.charAt(i - 1)) ||
+            Character.isDigit(c) != Character.isDigit(label.charAt(i - 1))) {
+          wordStarts |= 1L << bit;
+        }
+      }
+      addLabel(labelsByChar, myLabelChars[labelIndex], labelIndex);
+      addLabel(labelsByWordStart, wordStarts, labelIndex);
+      labelIndex++;
+    }
+
+    for (int bit = 0; bit < CHAR_COUNT; bit++) {
+      myLabelsByWordStart[bit] = labelsByWordStart[bit] != null ? labelsByWordStart[bit].toIntArray() : ArrayUtil.EMPTY_INT_ARRAY;
+      myLabelsByChar[bit] = labelsByChar[bit] != null ? labelsByChar[bit].toIntArray() : ArrayUtil.EMPTY_INT_ARRAY;
+    }
+  }
+
+  private static void addLabel(IntArrayList @NotNull [] labelsByChar, long chars, int labelIndex) {
+    for (int bit = 0; bit < CHAR_COUNT; bit++) {
+      if ((chars & (1L << bit)) != 0) {
+        if (labelsByChar[bit] == null) {
+          labelsByChar[bit] = new IntArrayList();
+        }
+        labelsByChar[bit].add(labelIndex);
+      }
+    }
+  }
+
+  @NotNull
+  public AvailableSuggestionSet getSuggestionSet() {
+    return mySuggestionSet;
+  }
+
+  /**
+   * Passes to the {@code processor} the suggestions whose labels are accepted by the {@code matcher}, ordered by label.
+   */
+  public void processMatchingSuggestions(@NotNull PrefixMatcher matcher, @NotNull Processor<? super AvailableSuggestion> processor) {
+    final String prefix = matcher.getPrefix();
+    final int[] candidates = getCandidateLabels(matcher);
+    final int count = candidates == null ? myLabels.length : candidates.length;
+    final long prefixChars = candidates == null ? 0 : getChars(prefix.substring(1));
+    // a typo tolerant matcher accepts one wrong character after the first one
+    final int allowedMissingChars = candidates != null && ((CamelHumpMatcher)matcher).isTypoTolerant() ? 1 : 0;
+
+    final List<AvailableSuggestion> items = mySuggestionSet.getItems();
+    for (int i = 0; i < count; i++) {
+      final int labelIndex = candidates == null ? i : candidates[i];
+      if (Long.bitCount(prefixChars & ~myLabelChars[labelIndex]) > allowedMissingChars) continue;
+      if (!matcher.prefixMatches(myLabels[labelIndex])) continue;
+
+      for (int itemIndex : myItemIndices[labelIndex]) {
+        if (!processor.process(items.get(itemIndex))) return;
+      }
+    }
+  }
+
+  /**
+   * @return indices of labels which may match the prefix, {@code null} if all labels need to be checked
+   */
+  private int @Nullable [] getCandidateLabels(@NotNull PrefixMatcher matcher) {
+    // other matchers may match differently
+    if (!(matcher instanceof CamelHumpMatcher)) return null;
+
+    final String prefix = matcher.getPrefix();
+    if (prefix.isEmpty()) return null;
+    for (int i = 0; i < prefix.length(); i++) {
+      // the matcher may fix keyboard layout, don't try to guess
+      if (prefix.charAt(i) > 127) return null;
+    }
+
+    // wildcards and word separators don't have to be in the label
+    final int bit = getCharBit(prefix.charAt(0));
+    if (bit < 0) return null;
+
+    return prefix.length() < MIDDLE_MATCHING_LENGTH ? myLabelsByWordStart[bit] : myLabelsByChar[bit];
+  }
+
+  private static long getChars(@NotNull String text) {
+    long result = 0;
+    for (int i = 0; i < text.length(); i++) {
+      final int bit = getCharBit(text.charAt(i));
+      if (bit >= 0) {
+        result |= 1L << bit;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return position of the ASCII letter (ignoring case) or digit in the bit sets, -1 for other characters
+   */
+  private static int getCharBit(char c) {
+    if (c >= 'a' && c <= 'z') return c - 'a';
+    if (c >= 'A' && c <= 'Z') return c - 'A';
+    if (c >= '0' && c <= '9') return 26 + c - '0';
+    return -1;
+  }
+}
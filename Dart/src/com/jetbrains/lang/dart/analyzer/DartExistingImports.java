@@ -0,0 +1,42 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.analyzer;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Names imported into a library, as reported by the {@code completion.existingImports} notification,
+ * keyed by the library declaring them so that a not-yet-imported suggestion is checked with a single lookup.
+ */
+public final class DartExistingImports {
+  /**
+   * declaring library URI -> name -> URIs of imported libraries which export this name
+   */
+  @NotNull private final Map<String, Map<String, Set<String>>> myImportingLibraries = new HashMap<>();
+
+  /**
+   * @param existingImports imported library URI -> declaring library URI -> names, as received from the Analysis Server
+   */
+  DartExistingImports(@NotNull Map<String, Map<String, Set<String>>> existingImports) {
+    for (Map.Entry<String, Map<String, Set<String>>> importedLibrary : existingImports.entrySet()) {
+      final String importedLibraryUri = importedLibrary.getKey();
+      for (Map.Entry<String, Set<String>> declaringLibrary : importedLibrary.getValue().entrySet()) {
+        final Map<String, Set<String>> names = myImportingLibraries.computeIfAbsent(declaringLibrary.getKey(), uri -> new HashMap<>());
+        for (String name : declaringLibrary.getValue()) {
+          names.computeIfAbsent(name, n -> new HashSet<>(1)).add(importedLibraryUri);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return URIs of already imported libraries which export {@code name} declared in {@code declaringLibraryUri}
+   */
+  @NotNull
+  public Set<String> getImportedLibraries(@NotNull String declaringLibraryUri, @NotNull String name) {
+    final Map<String, Set<String>> names = myImportingLibraries.get(declaringLibraryUri);
+    final Set<String> result = names != null ? names.get(name) : null;
+    return result != null ? result : Collections.emptySet();
+  }
+}
@@ -37,8 +37,8 @@ public final class DartServerData {
   private final Map<String, List<DartRegion>> myImplementedClassData = Collections.synchronizedMap(new HashMap<>());
   private final Map<String, List<DartRegion>> myImplementedMemberData = Collections.synchronizedMap(new HashMap<>());
   private final Map<String, Outline> myOutlineData = Collections.synchronizedMap(new HashMap<>());
-  private final Map<Integer, AvailableSuggestionSet> myAvailableSuggestionSetMap = Collections.synchronizedMap(new HashMap<>());
-  private final Map<String, Map<String, Map<String, Set<String>>>> myExistingImports = Collections.synchronizedMap(new HashMap<>());
+  private final Map<Integer, DartAvailableSuggestionSetIndex> myAvailableSuggestionSetMap = Collections.synchronizedMap(new HashMap<>());
+  private final Map<String, DartExistingImports> myExistingImports = Collections.synchronizedMap(new HashMap<>());
 
   private final Set<String> myFilePathsWithUnsentChanges = Sets.newConcurrentHashSet();
 
@@ -134,7 +134,7 @@ public final class DartServerData {
       myAvailableSuggestionSetMap.remove(id);
     }
     for (AvailableSuggestionSet suggestionSet : changed) {
-      myAvailableSuggestionSetMap.put(suggestionSet.getId(), suggestionSet);
+      myAvailableSuggestionSetMap.put(suggestionSet.getId(), new DartAvailableSuggestionSetIndex(suggestionSet));
     }
   }
 
@@ -144,7 +144,7 @@ public final class DartServerData {
       return;
     }
 
-    myExistingImports.put(filePathSD, existingImports);
+    myExistingImports.put(filePathSD, new DartExistingImports(existingImports));
   }
 
   @NotNull
@@ -283,7 +283,7 @@ public final class DartServerData {
   }
 
   @Nullable
-  AvailableSuggestionSet getAvailableSuggestionSet(int id) {
+  DartAvailableSuggestionSetIndex getAvailableSuggestionSet(int id) {
     return myAvailableSuggestionSetMap.get(id);
   }
 
@@ -299,7 +299,7 @@ public final class DartServerData {
   }
 
   @Nullable
-  Map<String, Map<String, Set<String>>> getExistingImports(@Nullable String filePathSD) {
+  DartExistingImports getExistingImports(@Nullable String filePathSD) {
     if (filePathSD == null) return null;
     return myExistingImports.get(filePathSD);
   }
@@ -38,6 +38,8 @@ import com.intellij.util.PlatformIcons;
 import com.intellij.util.ProcessingContext;
 import com.jetbrains.lang.dart.DartLanguage;
 import com.jetbrains.lang.dart.analyzer.DartAnalysisServerService;
+import com.jetbrains.lang.dart.analyzer.DartAvailableSuggestionSetIndex;
+import com.jetbrains.lang.dart.analyzer.DartExistingImports;
 import com.jetbrains.lang.dart.assists.AssistUtils;
 import com.jetbrains.lang.dart.assists.DartSourceEditException;
 import com.jetbrains.lang.dart.ide.codeInsight.DartCodeInsightSettings;
@@ -149,43 +151,37 @@ public class DartServerCompletionContributor extends CompletionContributor {
                    return;
                  }
 
-                 final AvailableSuggestionSet suggestionSet = das.getAvailableSuggestionSet(includedSet.getId());
-                 if (suggestionSet == null) {
+                 final DartAvailableSuggestionSetIndex suggestionSetIndex = das.getAvailableSuggestionSet(includedSet.getId());
+                 if (suggestionSetIndex == null) {
                    return;
                  }
 
-                 Map<String, Map<String, Set<String>>> existingImports = das.getExistingImports(libraryFilePathSD);
-                 for (AvailableSuggestion suggestion : suggestionSet.getItems()) {
+                 final AvailableSuggestionSet suggestionSet = suggestionSetIndex.getSuggestionSet();
+                 final DartExistingImports existingImports = das.getExistingImports(libraryFilePathSD);
+                 final String displayUri = includedSet.getDisplayUri() != null ? includedSet.getDisplayUri() : suggestionSet.getUri();
+                 suggestionSetIndex.processMatchingSuggestions(resultSet.getPrefixMatcher(), suggestion -> {
                    final String kind = suggestion.getElement().getKind();
                    if (!includedKinds.contains(kind)) {
-                     continue;
+                     return true;
                    }
 
-                   Set<String> importedLibraries = new HashSet<>();
                    if (existingImports != null) {
-                     for (Map.Entry<String, Map<String, Set<String>>> entry : existingImports.entrySet()) {
-                       String importedLibraryUri = entry.getKey();
-                       Map<String, Set<String>> importedLibrary = entry.getValue();
-                       Set<String> names = importedLibrary.get(suggestion.getDeclaringLibraryUri());
-                       if (names != null && names.contains(suggestion.getLabel())) {
-                         importedLibraries.add(importedLibraryUri);
-                       }
+                     Set<String> importedLibraries =
+                       existingImports.getImportedLibraries(suggestion.getDeclaringLibraryUri(), suggestion.getLabel());
+                     if (!importedLibraries.isEmpty() && !importedLibraries.contains(suggestionSet.getUri())) {
+                       // If some library exports this label but the current suggestion set does not, we should filter.
+                       return true;
                      }
                    }
 
-                   if (!importedLibraries.isEmpty() && !importedLibraries.contains(suggestionSet.getUri())) {
-                     // If some library exports this label but the current suggestion set does not, we should filter.
-                     continue;
-                   }
-
                    CompletionSuggestion completionSuggestion =
                      createCompletionSuggestionFromAvailableSuggestion(suggestion, includedSet.getRelevance(), includedRelevanceTags);
-                   String displayUri = includedSet.getDisplayUri() != null ? includedSet.getDisplayUri() : suggestionSet.getUri();
                    LookupElementBuilder lookupElement =
                      createLookupElement(project, completionSuggestion, suggestionSet.getId(), targetFile, true, displayUri);
 
                    resultSet.addElement(lookupElement);
-                 }
+                   return true;
+                 });
                });
              }
            });
@@ -136,6 +136,18 @@ public class DartProblem {
                                                                      : ("[" + dartPackageName + "] " + presentableFilePath);
   }
 
+  /**
+   * Reuses the location computed for another problem in the same file, to avoid looking for the Dart package root once per problem.
+   */
+  void copyLocationFrom(@NotNull DartProblem problemInSameFile) {
+    if (!getSystemIndependentPath().equals(problemInSameFile.getSystemIndependentPath())) return;
+
+    problemInSameFile.ensureInitialized();
+    myFile = problemInSameFile.myFile;
+    myPackageRoot = problemInSameFile.myPackageRoot;
+    myContentRoot = problemInSameFile.myContentRoot;
+    myPresentableLocationWithoutLineNumber = problemInSameFile.myPresentableLocationWithoutLineNumber;
+  }
 
   /**
    * Returns Dart package name in brackets and relative path form Dart package root to the file.
@@ -62,8 +62,21 @@ class DartProblemsTableModel extends ListTableModel<DartProblem> {
   private final @NotNull DartProblemsPresentationHelper myPresentationHelper;
 
   // Kind of hack to keep a reference to the live collection used in a super class, but it allows improving performance greatly.
-  // Having it in hand we can do bulk rows removal with a single fireTableRowsDeleted() call afterwards
-  private final List<DartProblem> myItems = new ArrayList<>();
+  // Having it in hand we can rebuild all rows with a single fireTableDataChanged() call afterwards
+  private final ArrayList<DartProblem> myItems = new ArrayList<>();
+
+  // Problems of each file, sorted in the row order. Rows in myItems are merged from these runs lazily, when the table first asks for
+  // them after an update batch, so that an update doesn't need to look for the rows of the updated files and the row sorter gets
+  // already sorted rows. Unless the row order changes, the merge only removes the replaced rows and merges in the runs of the updated
+  // files, which are kept in myAddedRuns and myRemovedRows meanwhile.
+  private final Map<String, FileProblems> myFileProblems = new HashMap<>();
+  private @Nullable RowSorter.SortKey myFileProblemsSortKey;
+  private boolean myFileProblemsGroupedBySeverity;
+  private @NotNull Comparator<DartProblem> myRowOrderComparator;
+  private boolean myRowsMerged = true;
+  private boolean myFullMergeNeeded;
+  private final Set<FileProblems> myAddedRuns = new LinkedHashSet<>();
+  private final Set<DartProblem> myRemovedRows = Collections.newSetFromMap(new IdentityHashMap<>());
 
   private RowSorter.SortKey mySortKey = new RowSorter.SortKey(1, SortOrder.ASCENDING);
 
@@ -84,6 +97,7 @@ class DartProblemsTableModel extends ListTableModel<DartProblem> {
     setColumnInfos(new ColumnInfo[]{createDescriptionColumn(), createLocationColumn()});
     setItems(myItems);
     setSortable(true);
+    myRowOrderComparator = getRowOrderComparator();
   }
 
   private @NotNull ColumnInfo<DartProblem, DartProblem> createDescriptionColumn() {
@@ -144,23 +158,42 @@ class DartProblemsTableModel extends ListTableModel<DartProblem> {
     return false;
   }
 
-  private void removeRows(int firstRow, int lastRow) {
-    assert lastRow >= firstRow;
+  @Override
+  public int getRowCount() {
+    ensureRowsMerged();
+    return super.getRowCount();
+  }
 
-    for (int i = lastRow; i >= firstRow; i--) {
-      DartProblem removed = myItems.remove(i);
+  @Override
+  public @NotNull List<DartProblem> getItems() {
+    ensureRowsMerged();
+    return super.getItems();
+  }
 
-      if (AnalysisErrorSeverity.ERROR.equals(removed.getSeverity())) myErrorCount--;
-      if (AnalysisErrorSeverity.WARNING.equals(removed.getSeverity())) myWarningCount--;
-      if (AnalysisErrorSeverity.INFO.equals(removed.getSeverity())) myHintCount--;
-      updateProblemsCountAfterFilter(removed, -1);
-    }
+  @Override
+  public DartProblem getItem(int rowIndex) {
+    ensureRowsMerged();
+    return super.getItem(rowIndex);
+  }
+
+  @Override
+  public DartProblem getRowValue(int row) {
+    ensureRowsMerged();
+    return super.getRowValue(row);
+  }
 
-    fireTableRowsDeleted(firstRow, lastRow);
+  @Override
+  public Object getValueAt(int rowIndex, int columnIndex) {
+    ensureRowsMerged();
+    return super.getValueAt(rowIndex, columnIndex);
   }
 
   void removeAll() {
     int rowCount = getRowCount();
+    myFileProblems.clear();
+    myAddedRuns.clear();
+    myRemovedRows.clear();
+    myFullMergeNeeded = false;
     if (rowCount > 0) {
       myItems.clear();
       fireTableRowsDeleted(0, rowCount - 1);
@@ -175,121 +208,197 @@ class DartProblemsTableModel extends ListTableModel<DartProblem> {
   }
 
   /**
-   * If {@code selectedProblem} was removed and similar one added again then this method returns the added one,
-   * so that the caller could update selected row in the table
+   * Creates problems for the files reported by the Analysis Server. Expected to be called in a background thread under read action:
+   * resolving files and Dart packages of the problems is not cheap, doing it here saves the EDT from doing it while sorting the table.
+   * Files without problems are included in the result with an empty list, so that their old problems are removed from the table.
    */
-  @Nullable
-  DartProblem setProblemsAndReturnReplacementForSelection(@NotNull Map<String, List<? extends AnalysisError>> filePathToErrors,
-                                                          @Nullable DartProblem selectedProblem) {
-    boolean selectedProblemRemoved = removeRowsForFilesInSet(filePathToErrors.keySet(), selectedProblem);
-    return addErrorsAndReturnReplacementForSelection(filePathToErrors, selectedProblemRemoved ? selectedProblem : null);
-  }
-
-  private boolean removeRowsForFilesInSet(@NotNull Set<String> filePaths, @Nullable DartProblem selectedProblem) {
-    // Looks for regions in table items that should be removed and removes them.
-    // For performance reasons we try to call removeRows() as rare as possible, that means with regions as big as possible.
-    // Logic is based on the fact that all errors for each particular file are stored continuously in the myItems model
-
-    boolean selectedProblemRemoved = false;
-
-    int matchedFilesCount = 0;
-
-    for (int i = getRowCount() - 1; i >= 0; i--) {
-      final DartProblem problem = getItem(i);
-      if (filePaths.contains(problem.getSystemIndependentPath())) {
-        matchedFilesCount++;
-        final int lastRowToDelete = i;
+  static @NotNull List<FileProblems> createFileProblems(@NotNull Project project,
+                                                        @NotNull DartProblemsViewSettings.ScopedAnalysisMode scopedAnalysisMode,
+                                                        @NotNull Map<String, List<? extends AnalysisError>> filePathToErrors) {
+    List<FileProblems> result = new ArrayList<>(filePathToErrors.size());
+    for (Map.Entry<String, List<? extends AnalysisError>> entry : filePathToErrors.entrySet()) {
+      String filePath = entry.getKey();
+      VirtualFile vFile = LocalFileSystem.getInstance().findFileByPath(filePath);
+      boolean fileOk = vFile != null && (scopedAnalysisMode != DartProblemsViewSettings.ScopedAnalysisMode.All ||
+                                         ProjectFileIndex.getInstance(project).isInContent(vFile));
+      List<? extends AnalysisError> errors = fileOk ? entry.getValue() : AnalysisError.EMPTY_LIST;
 
-        if (problem == selectedProblem) {
-          selectedProblemRemoved = true;
+      List<DartProblem> problems = new ArrayList<>(errors.size());
+      for (AnalysisError analysisError : errors) {
+        DartProblem problem = new DartProblem(project, analysisError);
+        if (problems.isEmpty()) {
+          problem.getPresentableLocationWithoutLineNumber();
         }
+        else {
+          problem.copyLocationFrom(problems.get(0));
+        }
+        problems.add(problem);
+      }
+      result.add(new FileProblems(filePath, problems));
+    }
+    return result;
+  }
 
-        DartProblem lastProblemForCurrentFile = problem;
-
-        int j = i - 1;
-        while (j >= 0) {
-          final DartProblem previousProblem = getItem(j);
-
-          if (previousProblem.getSystemIndependentPath().equals(lastProblemForCurrentFile.getSystemIndependentPath())) {
-            // previousProblem should be removed from the table as well
-            j--;
-
-            if (previousProblem == selectedProblem) {
-              selectedProblemRemoved = true;
-            }
+  /**
+   * Replaces problems of the files in {@code update} and notifies about the change of table rows with a single table change event,
+   * the rows are merged when they are asked for.
+   * As this event drops table selection, returns the problem that should be selected afterwards: {@code selectedProblem} itself if it
+   * is still in the table, or if it was removed and similar one added again then the added one.
+   */
+  @Nullable
+  DartProblem setProblemsAndReturnNewSelection(@NotNull List<FileProblems> update, @Nullable DartProblem selectedProblem) {
+    ApplicationManager.getApplication().assertIsDispatchThread();
+    if (update.isEmpty()) return selectedProblem;
 
-            continue;
-          }
+    Comparator<DartProblem> comparator = getRowOrderComparator();
+    if (ensureFileProblemsSorted(comparator)) {
+      myFullMergeNeeded = true;
+    }
+    myRowOrderComparator = comparator;
+
+    DartProblem newSelectedProblem = selectedProblem;
+    for (FileProblems fileProblems : update) {
+      FileProblems oldFileProblems = fileProblems.myProblems.isEmpty()
+                                     ? myFileProblems.remove(fileProblems.myFilePath)
+                                     : myFileProblems.put(fileProblems.myFilePath, fileProblems);
+      if (oldFileProblems != null) {
+        updateProblemsCount(oldFileProblems, -1);
+        if (!myAddedRuns.remove(oldFileProblems)) {
+          myRemovedRows.addAll(oldFileProblems.myProblems);
+        }
+        if (selectedProblem != null && oldFileProblems.myProblems.contains(selectedProblem)) {
+          newSelectedProblem = findReplacement(fileProblems, selectedProblem);
+        }
+      }
 
-          if (filePaths.contains(previousProblem.getSystemIndependentPath())) {
-            matchedFilesCount++;
-            // continue iterating the table because we met a range of problems for another file that also should be removed
-            lastProblemForCurrentFile = previousProblem;
-            j--;
+      fileProblems.myProblems.sort(comparator);
+      updateProblemsCount(fileProblems, +1);
+      if (!fileProblems.myProblems.isEmpty()) {
+        myAddedRuns.add(fileProblems);
+      }
+    }
 
-            if (previousProblem == selectedProblem) {
-              selectedProblemRemoved = true;
-            }
+    myRowsMerged = false;
+    fireTableDataChanged();
 
-            continue;
-          }
+    return newSelectedProblem;
+  }
 
-          break;
-        }
+  /**
+   * Brings myItems up to date with the file problems, see {@link #myFileProblems}.
+   */
+  private void ensureRowsMerged() {
+    if (myRowsMerged) return;
+    myRowsMerged = true;
 
-        final int firstRowToDelete = j + 1;
-        removeRows(firstRowToDelete, lastRowToDelete);
+    if (myFullMergeNeeded) {
+      myItems.clear();
+      mergeFileProblems(myFileProblems.values(), myRowOrderComparator, myItems);
+    }
+    else {
+      ArrayList<DartProblem> addedRows = new ArrayList<>();
+      mergeFileProblems(myAddedRuns, myRowOrderComparator, addedRows);
+      mergeRows(myItems, myRemovedRows, addedRows, myRowOrderComparator);
+    }
 
-        if (matchedFilesCount == filePaths.size()) {
-          break;
-        }
+    myAddedRuns.clear();
+    myRemovedRows.clear();
+    myFullMergeNeeded = false;
+  }
 
-        //noinspection AssignmentToForLoopParameter
-        i = j + 1; // rewind according to the amount of removed rows
+  /**
+   * Removes {@code removedRows} from the sorted {@code rows} and merges the sorted {@code addedRows} into them in a single pass.
+   */
+  static void mergeRows(@NotNull ArrayList<DartProblem> rows,
+                        @NotNull Set<DartProblem> removedRows,
+                        @NotNull List<DartProblem> addedRows,
+                        @NotNull Comparator<DartProblem> comparator) {
+    if (removedRows.isEmpty() && addedRows.isEmpty()) return;
+
+    ArrayList<DartProblem> result = new ArrayList<>(rows.size() - removedRows.size() + addedRows.size());
+    int added = 0;
+    for (DartProblem row : rows) {
+      if (removedRows.contains(row)) continue;
+
+      while (added < addedRows.size() && comparator.compare(addedRows.get(added), row) < 0) {
+        result.add(addedRows.get(added++));
       }
+      result.add(row);
     }
+    result.addAll(addedRows.subList(added, addedRows.size()));
 
-    return selectedProblemRemoved;
+    // myItems is the live list of the super class, so it is updated in place
+    rows.clear();
+    rows.addAll(result);
   }
 
-  private @Nullable DartProblem addErrorsAndReturnReplacementForSelection(@NotNull Map<String, List<? extends AnalysisError>> filePathToErrors,
-                                                                          @Nullable DartProblem oldSelectedProblem) {
+  private static @Nullable DartProblem findReplacement(@NotNull FileProblems fileProblems, @NotNull DartProblem oldSelectedProblem) {
     DartProblem newSelectedProblem = null;
-    DartProblemsViewSettings.ScopedAnalysisMode scopedAnalysisMode = myPresentationHelper.getScopedAnalysisMode();
+    for (DartProblem problem : fileProblems.myProblems) {
+      if (lookSimilar(problem, oldSelectedProblem) &&
+          (newSelectedProblem == null ||
+           // check if current problem is closer to oldSelectedProblem
+           (Math.abs(oldSelectedProblem.getLineNumber() - newSelectedProblem.getLineNumber()) >=
+            Math.abs(oldSelectedProblem.getLineNumber() - problem.getLineNumber())))) {
+        newSelectedProblem = problem;
+      }
+    }
+    return newSelectedProblem;
+  }
 
-    List<DartProblem> problemsToAdd = new ArrayList<>();
-    for (Map.Entry<String, List<? extends AnalysisError>> entry : filePathToErrors.entrySet()) {
-      String filePath = entry.getKey();
-      VirtualFile vFile = LocalFileSystem.getInstance().findFileByPath(filePath);
-      boolean fileOk = vFile != null && (scopedAnalysisMode != DartProblemsViewSettings.ScopedAnalysisMode.All ||
-                                         ProjectFileIndex.getInstance(myProject).isInContent(vFile));
-      List<? extends AnalysisError> errors = fileOk ? entry.getValue() : AnalysisError.EMPTY_LIST;
+  /**
+   * Rows are kept in the order of the current sort key, so that the row sorter gets already sorted rows and sorts them in linear time.
+   */
+  private @NotNull Comparator<DartProblem> getRowOrderComparator() {
+    Comparator<DartProblem> comparator = mySortKey.getColumn() == DartProblemsComparator.MESSAGE_COLUMN_ID
+                                         ? myDescriptionComparator
+                                         : myLocationComparator;
+    return mySortKey.getSortOrder() == SortOrder.DESCENDING ? comparator.reversed() : comparator;
+  }
 
-      for (AnalysisError analysisError : errors) {
-        DartProblem problem = new DartProblem(myProject, analysisError);
-        problemsToAdd.add(problem);
-
-        if (oldSelectedProblem != null &&
-            lookSimilar(problem, oldSelectedProblem) &&
-            (newSelectedProblem == null ||
-             // check if current problem is closer to oldSelectedProblem
-             (Math.abs(oldSelectedProblem.getLineNumber() - newSelectedProblem.getLineNumber()) >=
-              Math.abs(oldSelectedProblem.getLineNumber() - problem.getLineNumber())))) {
-          newSelectedProblem = problem;
-        }
+  /**
+   * @return {@code true} if the row order has changed since the previous update, so the file problems have been sorted again
+   */
+  private boolean ensureFileProblemsSorted(@NotNull Comparator<DartProblem> comparator) {
+    if (mySortKey.equals(myFileProblemsSortKey) && myPresentationHelper.isGroupBySeverity() == myFileProblemsGroupedBySeverity) {
+      return false;
+    }
 
-        if (AnalysisErrorSeverity.ERROR.equals(problem.getSeverity())) myErrorCount++;
-        if (AnalysisErrorSeverity.WARNING.equals(problem.getSeverity())) myWarningCount++;
-        if (AnalysisErrorSeverity.INFO.equals(problem.getSeverity())) myHintCount++;
-        updateProblemsCountAfterFilter(problem, +1);
+    for (FileProblems fileProblems : myFileProblems.values()) {
+      fileProblems.myProblems.sort(comparator);
+    }
+    myFileProblemsSortKey = mySortKey;
+    myFileProblemsGroupedBySeverity = myPresentationHelper.isGroupBySeverity();
+    return true;
+  }
+
+  private static void mergeFileProblems(@NotNull Collection<FileProblems> sortedRuns,
+                                        @NotNull Comparator<DartProblem> comparator,
+                                        @NotNull ArrayList<DartProblem> result) {
+    int size = 0;
+    PriorityQueue<ListIterator<DartProblem>> queue =
+      new PriorityQueue<>(Math.max(1, sortedRuns.size()), (it1, it2) -> comparator.compare(peek(it1), peek(it2)));
+    for (FileProblems run : sortedRuns) {
+      size += run.myProblems.size();
+      if (!run.myProblems.isEmpty()) {
+        queue.add(run.myProblems.listIterator());
       }
     }
 
-    if (!problemsToAdd.isEmpty()) {
-      addRows(problemsToAdd);
+    result.ensureCapacity(size);
+    while (!queue.isEmpty()) {
+      ListIterator<DartProblem> iterator = queue.poll();
+      result.add(iterator.next());
+      if (iterator.hasNext()) {
+        queue.add(iterator);
+      }
     }
+  }
 
-    return newSelectedProblem;
+  private static @NotNull DartProblem peek(@NotNull ListIterator<DartProblem> iterator) {
+    DartProblem problem = iterator.next();
+    iterator.previous();
+    return problem;
   }
 
   private static boolean lookSimilar(@NotNull DartProblem problem1, @NotNull DartProblem problem2) {
@@ -298,6 +407,23 @@ class DartProblemsTableModel extends ListTableModel<DartProblem> {
            problem1.getSystemIndependentPath().equals(problem2.getSystemIndependentPath());
   }
 
+  private void updateProblemsCount(@NotNull FileProblems fileProblems, int delta) {
+    myErrorCount += delta * fileProblems.myErrorCount;
+    myWarningCount += delta * fileProblems.myWarningCount;
+    myHintCount += delta * fileProblems.myHintCount;
+
+    if (myPresentationHelper.areFiltersApplied()) {
+      for (DartProblem problem : fileProblems.myProblems) {
+        updateProblemsCountAfterFilter(problem, delta);
+      }
+    }
+    else {
+      myErrorCountAfterFilter += delta * fileProblems.myErrorCount;
+      myWarningCountAfterFilter += delta * fileProblems.myWarningCount;
+      myHintCountAfterFilter += delta * fileProblems.myHintCount;
+    }
+  }
+
   private void updateProblemsCountAfterFilter(@NotNull DartProblem problem, int delta) {
     if (myPresentationHelper.shouldShowProblem(problem)) {
       if (AnalysisErrorSeverity.ERROR.equals(problem.getSeverity())) myErrorCountAfterFilter += delta;
@@ -316,7 +442,7 @@ class DartProblemsTableModel extends ListTableModel<DartProblem> {
       myErrorCountAfterFilter = 0;
       myWarningCountAfterFilter = 0;
       myHintCountAfterFilter = 0;
-      for (DartProblem problem : myItems) {
+      for (DartProblem problem : getItems()) {
         updateProblemsCountAfterFilter(problem, +1);
       }
     }
@@ -425,4 +551,29 @@ class DartProblemsTableModel extends ListTableModel<DartProblem> {
       return 2;
     }
   }
+
+  static final class FileProblems {
+    private final @NotNull String myFilePath;
+    private final @NotNull List<DartProblem> myProblems;
+    private final int myErrorCount;
+    private final int myWarningCount;
+    private final int myHintCount;
+
+    FileProblems(@NotNull String filePath, @NotNull List<DartProblem> problems) {
+      myFilePath = filePath;
+      myProblems = problems;
+
+      int errorCount = 0;
+      int warningCount = 0;
+      int hintCount = 0;
+      for (DartProblem problem : problems) {
+        if (AnalysisErrorSeverity.ERROR.equals(problem.getSeverity())) errorCount++;
+        if (AnalysisErrorSeverity.WARNING.equals(problem.getSeverity())) warningCount++;
+        if (AnalysisErrorSeverity.INFO.equals(problem.getSeverity())) hintCount++;
+      }
+      myErrorCount = errorCount;
+      myWarningCount = warningCount;
+      myHintCount = hintCount;
+    }
+  }
 }
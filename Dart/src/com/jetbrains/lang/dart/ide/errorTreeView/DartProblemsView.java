@@ -10,6 +10,7 @@ import com.intellij.notification.impl.NotificationsConfigurationImpl;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.components.*;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.NlsContexts;
@@ -23,6 +24,7 @@ import com.intellij.openapi.wm.ToolWindowManager;
 import com.intellij.ui.GuiUtils;
 import com.intellij.ui.content.Content;
 import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.jetbrains.lang.dart.DartBundle;
 import com.jetbrains.lang.dart.analyzer.DartAnalysisServerMessages;
 import com.jetbrains.lang.dart.analyzer.DartAnalysisServerService;
@@ -53,8 +55,12 @@ public final class DartProblemsView implements PersistentStateComponent<DartProb
   private final Project myProject;
   private final DartProblemsPresentationHelper myPresentationHelper;
 
-  private final Object myLock = new Object(); // use this lock to access myScheduledFilePathToErrors and myAlarm
+  // use this lock to access myScheduledFilePathToErrors, myUpdateScheduled, myClearCount and myAlarm
+  private final Object myLock = new Object();
+  // updates that haven't been applied to the table yet, they are removed from here only when applied
   private final Map<String, List<? extends AnalysisError>> myScheduledFilePathToErrors = new HashMap<>();
+  private boolean myUpdateScheduled;
+  private int myClearCount; // lets drop updates prepared before clearAll()
   private final Alarm myAlarm;
 
   @NotNull
@@ -65,35 +71,66 @@ public final class DartProblemsView implements PersistentStateComponent<DartProb
   private Notification myNotification;
   private boolean myDisabledForSession;
 
+  // All updates received during TABLE_REFRESH_PERIOD are prepared in one batch in a non-blocking read action, then applied in the EDT
+  // at once. A batch that is still being prepared is replaced by the next one, which also includes its updates, and a batch interrupted
+  // by a write action is restarted, so that preparing problems never delays typing.
   private final Runnable myUpdateRunnable = new Runnable() {
     @Override
     public void run() {
-      if (ProjectViewPane.ID.equals(ProjectView.getInstance(myProject).getCurrentViewId())) {
-        final int hash = DartAnalysisServerService.getInstance(myProject).getFilePathsWithErrorsHash();
-        if (myFilesWithErrorsHash != hash) {
-          // refresh red squiggles managed by com.jetbrains.lang.dart.projectView.DartNodeDecorator
-          myFilesWithErrorsHash = hash;
-          ProjectView.getInstance(myProject).refresh();
-        }
+      synchronized (myLock) {
+        myUpdateScheduled = false;
       }
 
-      final Map<String, List<? extends AnalysisError>> filePathToErrors;
-      synchronized (myLock) {
-        filePathToErrors = new HashMap<>(myScheduledFilePathToErrors);
-        myScheduledFilePathToErrors.clear();
+      ReadAction.nonBlocking(() -> prepareUpdate())
+        .coalesceBy(DartProblemsView.this)
+        .expireWith(DartProblemsView.this)
+        .finishOnUiThread(ModalityState.NON_MODAL, update -> applyUpdate(update))
+        .submit(AppExecutorUtil.getAppExecutorService());
+    }
+  };
+
+  private @NotNull PreparedUpdate prepareUpdate() {
+    final Map<String, List<? extends AnalysisError>> filePathToErrors;
+    final int clearCount;
+    synchronized (myLock) {
+      filePathToErrors = new HashMap<>(myScheduledFilePathToErrors);
+      clearCount = myClearCount;
+    }
+
+    final List<DartProblemsTableModel.FileProblems> fileProblems =
+      DartProblemsTableModel.createFileProblems(myProject, myPresentationHelper.getScopedAnalysisMode(), filePathToErrors);
+    return new PreparedUpdate(filePathToErrors, clearCount, fileProblems);
+  }
+
+  private void applyUpdate(@NotNull PreparedUpdate update) {
+    synchronized (myLock) {
+      if (update.myClearCount != myClearCount) return;
+
+      // updates received while this batch was being prepared stay scheduled
+      for (Map.Entry<String, List<? extends AnalysisError>> entry : update.myFilePathToErrors.entrySet()) {
+        myScheduledFilePathToErrors.remove(entry.getKey(), entry.getValue());
       }
+    }
 
-      DartProblemsViewPanel panel = getProblemsViewPanel();
-      if (panel != null) {
-        panel.setErrors(filePathToErrors);
+    if (ProjectViewPane.ID.equals(ProjectView.getInstance(myProject).getCurrentViewId())) {
+      final int hash = DartAnalysisServerService.getInstance(myProject).getFilePathsWithErrorsHash();
+      if (myFilesWithErrorsHash != hash) {
+        // refresh red squiggles managed by com.jetbrains.lang.dart.projectView.DartNodeDecorator
+        myFilesWithErrorsHash = hash;
+        ProjectView.getInstance(myProject).refresh();
       }
     }
-  };
+
+    DartProblemsViewPanel panel = getProblemsViewPanel();
+    if (panel != null) {
+      panel.setErrors(update.myFileProblems);
+    }
+  }
 
   public DartProblemsView(@NotNull Project project) {
     myProject = project;
     myPresentationHelper = new DartProblemsPresentationHelper(project);
-    myAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+    myAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
 
     project.getMessageBus().connect().subscribe(
       DartAnalysisServerMessages.DART_ANALYSIS_TOPIC, new DartAnalysisServerMessages.DartAnalysisNotifier() {
@@ -290,8 +327,9 @@ public final class DartProblemsView implements PersistentStateComponent<DartProb
 
   public void updateErrorsForFile(@NotNull final String filePath, @NotNull List<? extends AnalysisError> errors) {
     synchronized (myLock) {
-      if (myScheduledFilePathToErrors.isEmpty()) {
-        myAlarm.addRequest(myUpdateRunnable, TABLE_REFRESH_PERIOD, ModalityState.NON_MODAL);
+      if (!myUpdateScheduled) {
+        myUpdateScheduled = true;
+        myAlarm.addRequest(myUpdateRunnable, TABLE_REFRESH_PERIOD);
       }
 
       myScheduledFilePathToErrors.put(filePath, errors);
@@ -306,6 +344,8 @@ public final class DartProblemsView implements PersistentStateComponent<DartProb
     synchronized (myLock) {
       myAlarm.cancelAllRequests();
       myScheduledFilePathToErrors.clear();
+      myUpdateScheduled = false;
+      myClearCount++;
     }
 
     DartProblemsViewPanel panel = getProblemsViewPanel();
@@ -316,4 +356,18 @@ public final class DartProblemsView implements PersistentStateComponent<DartProb
 
   @Override
   public void dispose() {}
+
+  private static final class PreparedUpdate {
+    private final @NotNull Map<String, List<? extends AnalysisError>> myFilePathToErrors;
+    private final int myClearCount;
+    private final @NotNull List<DartProblemsTableModel.FileProblems> myFileProblems;
+
+    private PreparedUpdate(@NotNull Map<String, List<? extends AnalysisError>> filePathToErrors,
+                           int clearCount,
+                           @NotNull List<DartProblemsTableModel.FileProblems> fileProblems) {
+      myFilePathToErrors = filePathToErrors;
+      myClearCount = clearCount;
+      myFileProblems = fileProblems;
+    }
+  }
 }
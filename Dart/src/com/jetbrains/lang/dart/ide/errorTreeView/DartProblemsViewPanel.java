@@ -46,7 +46,6 @@ import java.awt.*;
 import java.awt.datatransfer.StringSelection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 public class DartProblemsViewPanel extends SimpleToolWindowPanel implements DataProvider, CopyProvider {
   private static final LayeredIcon DART_ERRORS_ICON;
@@ -67,6 +66,8 @@ public class DartProblemsViewPanel extends SimpleToolWindowPanel implements Data
 
   private final @NotNull DartProblemsPresentationHelper myPresentationHelper;
 
+  private boolean myRestoringSelection;
+
   DartProblemsViewPanel(@NotNull Project project,
                         @NotNull DartProblemsPresentationHelper presentationHelper) {
     super(false, true);
@@ -250,7 +251,7 @@ public class DartProblemsViewPanel extends SimpleToolWindowPanel implements Data
     AutoScrollToSourceHandler autoScrollToSourceHandler = new AutoScrollToSourceHandler() {
       @Override
       protected boolean isAutoScrollMode() {
-        return myPresentationHelper.isAutoScrollToSource();
+        return !myRestoringSelection && myPresentationHelper.isAutoScrollToSource();
       }
 
       @Override
@@ -385,14 +386,21 @@ public class DartProblemsViewPanel extends SimpleToolWindowPanel implements Data
     return null;
   }
 
-  public void setErrors(@NotNull Map<String, List<? extends AnalysisError>> filePathToErrors) {
+  void setErrors(@NotNull List<DartProblemsTableModel.FileProblems> fileProblems) {
     DartProblemsTableModel model = (DartProblemsTableModel)myTable.getModel();
     DartProblem oldSelectedProblem = myTable.getSelectedObject();
 
-    DartProblem updatedSelectedProblem = model.setProblemsAndReturnReplacementForSelection(filePathToErrors, oldSelectedProblem);
+    DartProblem newSelectedProblem = model.setProblemsAndReturnNewSelection(fileProblems, oldSelectedProblem);
 
-    if (updatedSelectedProblem != null) {
-      myTable.setSelection(Collections.singletonList(updatedSelectedProblem));
+    if (newSelectedProblem != null) {
+      // restoring the same selection after the table change event is not a reason to navigate to the problem
+      myRestoringSelection = newSelectedProblem == oldSelectedProblem;
+      try {
+        myTable.setSelection(Collections.singletonList(newSelectedProblem));
+      }
+      finally {
+        myRestoringSelection = false;
+      }
     }
 
     updateStatusDescription();
@@ -4,31 +4,38 @@ package com.jetbrains.lang.dart.ide.runner.test;
 import com.google.gson.*;
 import com.intellij.execution.testframework.TestConsoleProperties;
 import com.intellij.execution.testframework.sm.ServiceMessageBuilder;
+import com.intellij.execution.testframework.sm.runner.GeneralTestEventsProcessor;
 import com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter;
+import com.intellij.execution.testframework.sm.runner.events.*;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.PathUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.jetbrains.lang.dart.ide.runner.util.DartTestLocationProvider;
 import com.jetbrains.lang.dart.util.DartUrlResolver;
 import gnu.trove.TIntLongHashMap;
+import gnu.trove.TIntObjectHashMap;
 import jetbrains.buildServer.messages.serviceMessages.ServiceMessageVisitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
 
-import java.lang.reflect.Type;
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Convert events from JSON format generated by package:test to the string format
- * expected by the event processor.
+ * Convert events from JSON format generated by package:test to the calls of the event processor.
+ * Frequent events (test and group start/finish, output) are passed to the processor directly,
+ * rare ones are converted to service messages and parsed by the base class.
+ * Consecutive 'print' events of the same test are reported as one output event when the next event of another kind arrives
+ * or {@link #OUTPUT_FLUSH_DELAY_MS} after the first of them, so that the output of a long-running test is shown while it runs.
  * NOTE: The test runner runs tests asynchronously. It is possible to get a 'testDone'
  * event followed some time later by an 'error' event for that same test. That should
  * convert a successful test into a failure. That case is not being handled.
@@ -84,47 +91,95 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
   private static final String SET_UP_ALL_VIRTUAL_TEST_NAME = "(setUpAll)";
   private static final String TEAR_DOWN_ALL_VIRTUAL_TEST_NAME = "(tearDownAll)";
 
+  private static final int MAX_PENDING_OUTPUT_LENGTH = 64 * 1024;
+  private static final long OUTPUT_FLUSH_DELAY_MS = 200;
+
   private static final Gson GSON = new Gson();
 
   @NotNull private final DartUrlResolver myUrlResolver;
+  private final JsonParser myJsonParser = new JsonParser();
 
   private String myLocation;
   private Key myCurrentOutputType;
   private ServiceMessageVisitor myCurrentVisitor;
+  @Nullable private GeneralTestEventsProcessor myProcessor;
   private final TIntLongHashMap myTestIdToTimestamp;
-  private final Map<Integer, Test> myTestData;
-  private final Map<Integer, Group> myGroupData;
-  private final Map<Integer, Suite> mySuiteData;
+  private final TIntObjectHashMap<Test> myTestData;
+  private final TIntObjectHashMap<Group> myGroupData;
+  private final List<Group> myGroups; // in order of appearance
+  private final TIntObjectHashMap<Suite> mySuiteData;
   private int mySuitCount;
 
+  // events are processed and pending output is flushed under this lock, so that the output keeps its place among other events
+  private final Object myLock = new Object();
+  @Nullable private Test myPendingOutputTest;
+  private final StringBuilder myPendingOutput = new StringBuilder();
+  @Nullable private ScheduledFuture<?> myPendingOutputFlush;
+  private long myOutputFlushDelayMs = OUTPUT_FLUSH_DELAY_MS;
+
   public DartTestEventsConverter(@NotNull final String testFrameworkName,
                                  @NotNull final TestConsoleProperties consoleProperties,
                                  @NotNull final DartUrlResolver urlResolver) {
     super(testFrameworkName, consoleProperties);
     myUrlResolver = urlResolver;
     myTestIdToTimestamp = new TIntLongHashMap();
-    myTestData = new HashMap<>();
-    myGroupData = new HashMap<>();
-    mySuiteData = new HashMap<>();
+    myTestData = new TIntObjectHashMap<>();
+    myGroupData = new TIntObjectHashMap<>();
+    myGroups = new ArrayList<>();
+    mySuiteData = new TIntObjectHashMap<>();
+  }
+
+  @Override
+  public void setProcessor(@Nullable GeneralTestEventsProcessor processor) {
+    super.setProcessor(processor);
+    myProcessor = processor;
+  }
+
+  @Override
+  public void process(String text, Key outputType) {
+    synchronized (myLock) {
+      super.process(text, outputType);
+    }
   }
 
   @Override
   protected boolean processServiceMessages(final String text, final Key outputType, final ServiceMessageVisitor visitor)
     throws ParseException {
-    LOG.debug("<<< " + text.trim());
+    if (LOG.isDebugEnabled()) LOG.debug("<<< " + text.trim());
     myCurrentOutputType = outputType;
     myCurrentVisitor = visitor;
     // service message parser expects line like "##teamcity[ .... ]" without whitespaces in the end.
     return processEventText(text);
   }
 
+  @Override
+  public void flushBufferOnProcessTermination(int exitCode) {
+    synchronized (myLock) {
+      flushPendingOutput();
+      super.flushBufferOnProcessTermination(exitCode);
+    }
+  }
+
+  @Override
+  public void dispose() {
+    synchronized (myLock) {
+      cancelPendingOutputFlush();
+    }
+    super.dispose();
+  }
+
+  @TestOnly
+  void setOutputFlushDelay(long delayMs) {
+    myOutputFlushDelayMs = delayMs;
+  }
+
   private boolean processEventText(final String text) throws JsonSyntaxException, ParseException {
-    JsonParser jp = new JsonParser();
     JsonElement elem;
     try {
-      elem = jp.parse(text);
+      elem = myJsonParser.parse(text);
     }
     catch (JsonSyntaxException ex) {
+      flushPendingOutput();
       if (text.contains("\"json\" is not an allowed value for option \"reporter\"")) {
         final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted("Failed to start");
         final ServiceMessageBuilder testFailed = ServiceMessageBuilder.testFailed("Failed to start");
@@ -140,12 +195,16 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
   }
 
   private boolean doProcessServiceMessages(@NotNull final String text) throws ParseException {
-    LOG.debug(">>> " + text);
+    if (LOG.isDebugEnabled()) LOG.debug(">>> " + text);
     return super.processServiceMessages(text, myCurrentOutputType, myCurrentVisitor);
   }
 
   private boolean process(JsonObject obj) throws JsonSyntaxException, ParseException {
     String type = obj.get(JSON_TYPE).getAsString();
+    if (!TYPE_PRINT.equals(type)) {
+      flushPendingOutput();
+    }
+
     if (TYPE_TEST_START.equals(type)) {
       return handleTestStart(obj);
     }
@@ -179,9 +238,6 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
   }
 
   private boolean handleTestStart(JsonObject obj) throws ParseException {
-    final JsonObject testObj = obj.getAsJsonObject(DEF_TEST);
-
-    // Not reached if testObj == null.
     final Test test = getTest(obj);
     myTestIdToTimestamp.put(test.getId(), getTimestamp(obj));
 
@@ -203,13 +259,9 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
       return true;
     }
 
-    final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted(test.getBaseName());
-    test.myTestStartReported = true;
-
-    addLocationHint(testStarted, test);
-    boolean result = finishMessage(testStarted, test.getId(), test.getValidParentId());
+    boolean result = fireTestStarted(test, true);
 
-    final Metadata metadata = Metadata.from(testObj.getAsJsonObject(DEF_METADATA));
+    final Metadata metadata = test.getMetadata();
     if (metadata.skip) {
       final ServiceMessageBuilder message = ServiceMessageBuilder.testIgnored(test.getBaseName());
       if (metadata.skipReason != null) message.addAttribute("message", metadata.skipReason);
@@ -245,11 +297,13 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
 
     //if (test.getMetadata().skip) return true; // skipped tests are reported as ignored in handleTestStart(). testFinished signal must follow
 
-    ServiceMessageBuilder testFinished = ServiceMessageBuilder.testFinished(test.getBaseName());
     long duration = getTimestamp(obj) - myTestIdToTimestamp.get(test.getId());
-    testFinished.addAttribute("duration", Long.toString(duration));
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onTestFinished(new TestFinishedEvent(test.getBaseName(), String.valueOf(test.getId()), duration));
+    }
 
-    return finishMessage(testFinished, test.getId(), test.getValidParentId()) && checkGroupDone(test.getParent());
+    return checkGroupDone(test.getParent());
   }
 
   private boolean checkGroupDone(@Nullable final Group group) throws ParseException {
@@ -272,10 +326,13 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     }
 
     if (group.isArtificial()) return true; // Ignore artificial groups.
-    ServiceMessageBuilder groupMsg = ServiceMessageBuilder.testSuiteStarted(group.getBaseName());
-    // Possible attributes: "nodeType" "nodeArgs" "running"
-    addLocationHint(groupMsg, group);
-    return finishMessage(groupMsg, group.getId(), group.getValidParentId());
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onSuiteStarted(new TestSuiteStartedEvent(group.getBaseName(), String.valueOf(group.getId()),
+                                                         String.valueOf(group.getValidParentId()), getLocationHint(group),
+                                                         null, null, null, true));
+    }
+    return true;
   }
 
   private boolean handleSuite(JsonObject obj) throws ParseException {
@@ -292,9 +349,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     boolean result = true;
 
     if (!test.myTestStartReported) {
-      final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted(test.getBaseName());
-      test.myTestStartReported = true;
-      result = finishMessage(testStarted, test.getId(), test.getValidParentId());
+      result = fireTestStarted(test, false);
     }
 
     if (test.myTestErrorReported) {
@@ -354,28 +409,75 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
 
   private boolean handlePrint(JsonObject obj) throws ParseException {
     final Test test = getTest(obj);
-    boolean result = true;
 
     if (!test.myTestStartReported) {
       if (test.getBaseName().equals(SET_UP_ALL_VIRTUAL_TEST_NAME) || test.getBaseName().equals(TEAR_DOWN_ALL_VIRTUAL_TEST_NAME)) {
         return true; // output in successfully passing setUpAll/tearDownAll is not important enough to make these nodes visible
       }
 
-      final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted(test.getBaseName());
-      test.myTestStartReported = true;
-      result = finishMessage(testStarted, test.getId(), test.getValidParentId());
+      flushPendingOutput();
+      fireTestStarted(test, false);
     }
 
-    ServiceMessageBuilder message = ServiceMessageBuilder.testStdOut(test.getBaseName());
-    message.addAttribute("out", appendLineBreakIfNeeded(getMessage(obj)));
+    if (myPendingOutputTest != test) {
+      flushPendingOutput();
+      myPendingOutputTest = test;
+    }
+    myPendingOutput.append(appendLineBreakIfNeeded(getMessage(obj)));
 
-    return result & finishMessage(message, test.getId(), test.getValidParentId());
+    if (myPendingOutput.length() >= MAX_PENDING_OUTPUT_LENGTH) {
+      flushPendingOutput();
+    }
+    else if (myPendingOutputFlush == null) {
+      myPendingOutputFlush = AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> {
+        synchronized (myLock) {
+          myPendingOutputFlush = null;
+          flushPendingOutput();
+        }
+      }, myOutputFlushDelayMs, TimeUnit.MILLISECONDS);
+    }
+    return true;
+  }
+
+  private void cancelPendingOutputFlush() {
+    final ScheduledFuture<?> flush = myPendingOutputFlush;
+    if (flush != null) {
+      myPendingOutputFlush = null;
+      flush.cancel(false);
+    }
+  }
+
+  private void flushPendingOutput() {
+    final Test test = myPendingOutputTest;
+    if (test == null) return;
+
+    cancelPendingOutputFlush();
+    final String text = myPendingOutput.toString();
+    myPendingOutputTest = null;
+    myPendingOutput.setLength(0);
+
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onTestOutput(new TestOutputEvent(test.getBaseName(), String.valueOf(test.getId()), text, true));
+    }
+  }
+
+  private boolean fireTestStarted(@NotNull Test test, boolean withLocation) {
+    test.myTestStartReported = true;
+
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onTestStarted(new TestStartedEvent(test.getBaseName(), String.valueOf(test.getId()), String.valueOf(test.getValidParentId()),
+                                                   withLocation ? getLocationHint(test) : null, null, null, null, true));
+    }
+    return true;
   }
 
   private boolean handleStart(JsonObject obj) throws ParseException {
     myTestIdToTimestamp.clear();
     myTestData.clear();
     myGroupData.clear();
+    myGroups.clear();
     mySuiteData.clear();
     mySuitCount = 0;
 
@@ -390,7 +492,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
 
   private void processAllTestsDone() {
     // All tests are done.
-    for (Group group : myGroupData.values()) {
+    for (Group group : myGroups) {
       // For package: test prior to v. 0.12.9 there were no Group.testCount field, so need to finish them all at the end.
       // AFAIK the order does not matter. A depth-first post-order traversal of the tree would work
       // if order does matter. Note: Currently, there is no tree representation, just parent links.
@@ -407,6 +509,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     myTestIdToTimestamp.clear();
     myTestData.clear();
     myGroupData.clear();
+    myGroups.clear();
     mySuiteData.clear();
     mySuitCount = 0;
   }
@@ -414,8 +517,11 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
   private boolean processGroupDone(@NotNull final Group group) throws ParseException {
     if (group.isArtificial()) return true;
 
-    ServiceMessageBuilder groupMsg = ServiceMessageBuilder.testSuiteFinished(group.getBaseName());
-    return finishMessage(groupMsg, group.getId(), group.getValidParentId());
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onSuiteFinished(new TestSuiteFinishedEvent(group.getBaseName(), String.valueOf(group.getId())));
+    }
+    return true;
   }
 
   private boolean finishMessage(@NotNull ServiceMessageBuilder msg, int testId, int parentId) throws ParseException {
@@ -424,7 +530,8 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     return doProcessServiceMessages(msg.toString());
   }
 
-  private void addLocationHint(ServiceMessageBuilder messageBuilder, Item item) {
+  @NotNull
+  private String getLocationHint(@NotNull Item item) {
     String location = "unknown";
     String loc;
 
@@ -451,7 +558,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
       location = loc + "," + nameList;
     }
 
-    messageBuilder.addAttribute("locationHint", location);
+    return location;
   }
 
   private static long getTimestamp(JsonObject obj) throws ParseException {
@@ -486,7 +593,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
   }
 
   @NotNull
-  private <T extends Item> T getItem(JsonObject obj, Map<Integer, T> items) throws ParseException {
+  private <T extends Item> T getItem(JsonObject obj, TIntObjectHashMap<T> items) throws ParseException {
     if (obj == null) throw new ParseException("Unexpected null json object", 0);
     T item;
     JsonElement id = obj.get(JSON_ID);
@@ -496,8 +603,12 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
         item = type;
       }
       else if (items == myGroupData) {
-        @SuppressWarnings("unchecked") T group = (T)Group.from(obj, myGroupData, mySuiteData);
-        item = group;
+        Group group = Group.from(obj, myGroupData, mySuiteData);
+        if (!myGroupData.containsKey(group.getId())) {
+          myGroups.add(group);
+        }
+        @SuppressWarnings("unchecked") T t = (T)group;
+        item = t;
       }
       else {
         @SuppressWarnings("unchecked") T suite = (T)Suite.from(obj);
@@ -578,7 +689,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
       return Metadata.from(obj.get(DEF_METADATA));
     }
 
-    static Suite lookupSuite(JsonObject obj, Map<Integer, Suite> suites) {
+    static Suite lookupSuite(JsonObject obj, TIntObjectHashMap<Suite> suites) {
       JsonElement suiteObj = obj.get(JSON_SUITE_ID);
       Suite suite = null;
       if (suiteObj != null && suiteObj.isJsonPrimitive()) {
@@ -711,11 +822,12 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     private boolean myTestStartReported = false;
     private boolean myTestErrorReported = false;
 
-    static Test from(JsonObject obj, Map<Integer, Group> groups, Map<Integer, Suite> suites) {
-      int[] groupIds = GSON.fromJson(obj.get(JSON_GROUP_IDS), (Type)int[].class);
+    static Test from(JsonObject obj, TIntObjectHashMap<Group> groups, TIntObjectHashMap<Suite> suites) {
+      JsonElement groupIds = obj.get(JSON_GROUP_IDS);
       Group parent = null;
-      if (groupIds != null && groupIds.length > 0) {
-        parent = groups.get(groupIds[groupIds.length - 1]);
+      if (groupIds != null && groupIds.isJsonArray() && groupIds.getAsJsonArray().size() > 0) {
+        JsonArray groupIdArray = groupIds.getAsJsonArray();
+        parent = groups.get(groupIdArray.get(groupIdArray.size() - 1).getAsInt());
       }
       Suite suite = lookupSuite(obj, suites);
       final int line = extractInt(obj, JSON_LINE);
@@ -739,7 +851,7 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
     private int myTestCount = 0;
     private int myDoneTestsCount = 0;
 
-    static Group from(JsonObject obj, Map<Integer, Group> groups, Map<Integer, Suite> suites) {
+    static Group from(JsonObject obj, TIntObjectHashMap<Group> groups, TIntObjectHashMap<Suite> suites) {
       JsonElement parentObj = obj.get(JSON_PARENT_ID);
       Group parent = null;
       if (parentObj != null && parentObj.isJsonPrimitive()) {
@@ -805,12 +917,19 @@ public final class DartTestEventsConverter extends OutputToGeneralTestEventsConv
   }
 
   private static class Metadata {
-    @SuppressWarnings("unused") private boolean skip; // assigned by GSON via reflection
-    @SuppressWarnings("unused") private String skipReason; // assigned by GSON via reflection
+    private boolean skip;
+    private String skipReason;
 
     static Metadata from(JsonElement elem) {
-      if (elem == null) return new Metadata();
-      return GSON.fromJson(elem, (Type)Metadata.class);
+      final Metadata metadata = new Metadata();
+      if (elem == null || !elem.isJsonObject()) return metadata;
+
+      final JsonObject obj = elem.getAsJsonObject();
+      final JsonElement skip = obj.get("skip");
+      metadata.skip = skip != null && skip.isJsonPrimitive() && skip.getAsBoolean();
+      final JsonElement skipReason = obj.get("skipReason");
+      metadata.skipReason = skipReason != null && skipReason.isJsonPrimitive() ? skipReason.getAsString() : null;
+      return metadata;
     }
   }
 }
@@ -0,0 +1,3 @@
+class A extends nousStreamControl<caret>
+
+SynchronousStreamController(){} // it's here to test that 'dart.async' will be imported with prefix
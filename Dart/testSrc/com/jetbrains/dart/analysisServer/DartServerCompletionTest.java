@@ -191,6 +191,10 @@ public class DartServerCompletionTest extends CodeInsightFixtureTestCase {
     doTest();
   }
 
+  public void testNotYetImportedClassMiddleMatching() {
+    doTest();
+  }
+
   public void testExistingImports() {
     myFixture.configureByFiles(getTestName(false) + ".dart", "ExistingImportLibrary.dart");
     myFixture.doHighlighting();
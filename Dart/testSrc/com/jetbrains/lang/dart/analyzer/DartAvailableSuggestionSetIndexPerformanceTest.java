@@ -0,0 +1,57 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.analyzer;
+
+import com.intellij.codeInsight.completion.PrefixMatcher;
+import com.intellij.codeInsight.completion.impl.CamelHumpMatcher;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.dartlang.analysis.server.protocol.AvailableSuggestion;
+import org.dartlang.analysis.server.protocol.AvailableSuggestionSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DartAvailableSuggestionSetIndexPerformanceTest extends BasePlatformTestCase {
+  // the dump contains ~200 suggestions, 600 copies are close to the Flutter SDK with a few hundred pub packages
+  private static final int SET_COPIES = 600;
+
+  public void testCompletion() throws Exception {
+    final List<AvailableSuggestionSet> suggestionSets = DartAvailableSuggestionSetIndexTest.loadSuggestionSets();
+    final List<DartAvailableSuggestionSetIndex> indices = new ArrayList<>();
+    int id = 0;
+    for (int copy = 0; copy < SET_COPIES; copy++) {
+      for (AvailableSuggestionSet suggestionSet : suggestionSets) {
+        final AvailableSuggestionSet copiedSet =
+          new AvailableSuggestionSet(id++, suggestionSet.getUri() + "#" + copy, suggestionSet.getItems());
+        indices.add(new DartAvailableSuggestionSetIndex(copiedSet));
+      }
+    }
+
+    final List<PrefixMatcher> matchers = new ArrayList<>();
+    final List<Integer> expectedCounts = new ArrayList<>();
+    for (String prefix : DartAvailableSuggestionSetIndexTest.PREFIXES) {
+      final PrefixMatcher matcher = new CamelHumpMatcher(prefix);
+      int expectedCount = 0;
+      for (AvailableSuggestionSet suggestionSet : suggestionSets) {
+        for (AvailableSuggestion suggestion : suggestionSet.getItems()) {
+          if (matcher.prefixMatches(suggestion.getLabel())) expectedCount++;
+        }
+      }
+      matchers.add(matcher);
+      expectedCounts.add(expectedCount * SET_COPIES);
+    }
+
+    PlatformTestUtil.startPerformanceTest("Dart available suggestions completion", 1000, () -> {
+      for (int i = 0; i < matchers.size(); i++) {
+        final int[] count = {0};
+        for (DartAvailableSuggestionSetIndex index : indices) {
+          index.processMatchingSuggestions(matchers.get(i), suggestion -> {
+            count[0]++;
+            return true;
+          });
+        }
+        assertEquals(matchers.get(i).getPrefix(), expectedCounts.get(i).intValue(), count[0]);
+      }
+    }).attempts(3).assertTiming();
+  }
+}
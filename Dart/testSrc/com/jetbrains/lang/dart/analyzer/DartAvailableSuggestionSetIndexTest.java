@@ -0,0 +1,108 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.analyzer;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.codeInsight.completion.PlainPrefixMatcher;
+import com.intellij.codeInsight.completion.PrefixMatcher;
+import com.intellij.codeInsight.completion.impl.CamelHumpMatcher;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.jetbrains.lang.dart.util.DartTestUtils;
+import org.dartlang.analysis.server.protocol.AvailableSuggestion;
+import org.dartlang.analysis.server.protocol.AvailableSuggestionSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class DartAvailableSuggestionSetIndexTest extends BasePlatformTestCase {
+  static final String[] PREFIXES = {"S", "st", "Wid", "fut", "showD", "mAp", "TEC", "x", "_", "ture", "ing", "ath"};
+
+  private List<AvailableSuggestionSet> mySuggestionSets;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    mySuggestionSets = loadSuggestionSets();
+  }
+
+  public void testMatchesSameSuggestionsAsFullScan() {
+    for (AvailableSuggestionSet suggestionSet : mySuggestionSets) {
+      final DartAvailableSuggestionSetIndex index = new DartAvailableSuggestionSetIndex(suggestionSet);
+      for (String prefix : PREFIXES) {
+        assertSameSuggestions(suggestionSet, index, new CamelHumpMatcher(prefix));
+        assertSameSuggestions(suggestionSet, index, new CamelHumpMatcher(prefix, false));
+        assertSameSuggestions(suggestionSet, index, new CamelHumpMatcher(prefix, false, true));
+      }
+    }
+  }
+
+  public void testMiddleMatching() {
+    final DartAvailableSuggestionSetIndex async = new DartAvailableSuggestionSetIndex(findSuggestionSet("dart:async"));
+    assertContainsElements(getMatchingLabels(async, new CamelHumpMatcher("ture")), "Future", "FutureOr");
+    final DartAvailableSuggestionSetIndex core = new DartAvailableSuggestionSetIndex(findSuggestionSet("dart:core"));
+    assertContainsElements(getMatchingLabels(core, new CamelHumpMatcher("ing")), "String");
+  }
+
+  public void testNoMatches() {
+    final DartAvailableSuggestionSetIndex index = new DartAvailableSuggestionSetIndex(findSuggestionSet("dart:math"));
+    assertEmpty(getMatchingLabels(index, new CamelHumpMatcher("zzz")));
+  }
+
+  public void testTypoTolerantMatcher() {
+    final AvailableSuggestionSet suggestionSet = findSuggestionSet("dart:async");
+    final DartAvailableSuggestionSetIndex async = new DartAvailableSuggestionSetIndex(suggestionSet);
+    // a wrong letter, which the label doesn't contain, and swapped letters
+    assertSameSuggestions(suggestionSet, async, new CamelHumpMatcher("Fuxure", false, true));
+    assertSameSuggestions(suggestionSet, async, new CamelHumpMatcher("Futrue", false, true));
+  }
+
+  public void testOtherMatcher() {
+    final DartAvailableSuggestionSetIndex core = new DartAvailableSuggestionSetIndex(findSuggestionSet("dart:core"));
+    final PrefixMatcher matcher = new PlainPrefixMatcher("Str");
+    assertSameSuggestions(findSuggestionSet("dart:core"), core, matcher);
+    assertContainsElements(getMatchingLabels(core, matcher), "String");
+  }
+
+  static void assertSameSuggestions(@NotNull AvailableSuggestionSet suggestionSet,
+                                            @NotNull DartAvailableSuggestionSetIndex index,
+                                            @NotNull PrefixMatcher matcher) {
+    final List<String> expected = new ArrayList<>();
+    for (AvailableSuggestion suggestion : suggestionSet.getItems()) {
+      if (matcher.prefixMatches(suggestion.getLabel())) {
+        expected.add(suggestion.getLabel());
+      }
+    }
+    Collections.sort(expected);
+    assertOrderedEquals(suggestionSet.getUri() + ", prefix " + matcher.getPrefix(), getMatchingLabels(index, matcher), expected);
+  }
+
+  @NotNull
+  static List<String> getMatchingLabels(@NotNull DartAvailableSuggestionSetIndex index, @NotNull PrefixMatcher matcher) {
+    final List<String> result = new ArrayList<>();
+    index.processMatchingSuggestions(matcher, suggestion -> result.add(suggestion.getLabel()));
+    return result;
+  }
+
+  @NotNull
+  private AvailableSuggestionSet findSuggestionSet(@NotNull String uri) {
+    for (AvailableSuggestionSet suggestionSet : mySuggestionSets) {
+      if (uri.equals(suggestionSet.getUri())) return suggestionSet;
+    }
+    throw new AssertionError(uri);
+  }
+
+  /**
+   * Suggestion sets in the format of the {@code completion.availableSuggestions} notification.
+   */
+  @NotNull
+  static List<AvailableSuggestionSet> loadSuggestionSets() throws IOException {
+    final String text = FileUtil.loadFile(new File(DartTestUtils.BASE_TEST_DATA_PATH, "completion/availableSuggestions.json"));
+    final JsonObject params = new JsonParser().parse(text).getAsJsonObject();
+    return AvailableSuggestionSet.fromJsonArray(params.getAsJsonArray("changedLibraries"));
+  }
+}
@@ -0,0 +1,160 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.ide.errorTreeView;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.dartlang.analysis.server.protocol.AnalysisError;
+import org.dartlang.analysis.server.protocol.AnalysisErrorSeverity;
+import org.dartlang.analysis.server.protocol.AnalysisErrorType;
+import org.dartlang.analysis.server.protocol.Location;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.util.*;
+
+/**
+ * Checks that rows merged incrementally from the updated files are the same as rows of a model that gets all problems at once.
+ */
+public class DartProblemsTableModelTest extends BasePlatformTestCase {
+  private static final String[] SEVERITIES = {AnalysisErrorSeverity.ERROR, AnalysisErrorSeverity.WARNING, AnalysisErrorSeverity.INFO};
+
+  private final Map<String, List<DartProblem>> myCurrentProblems = new TreeMap<>();
+  private int myProblemCount;
+
+  public void testAddFiles() {
+    DartProblemsTableModel model = createModel();
+    update(model, fileProblems("/src/b.dart", 3));
+    update(model, fileProblems("/src/a.dart", 2), fileProblems("/src/c.dart", 4));
+    update(model, fileProblems("/lib/d.dart", 1));
+
+    assertSameAsFullUpdate(model);
+    assertEquals(10, model.getRowCount());
+  }
+
+  public void testReplaceAndRemoveFiles() {
+    DartProblemsTableModel model = createModel();
+    update(model, fileProblems("/src/a.dart", 3), fileProblems("/src/b.dart", 3), fileProblems("/src/c.dart", 3));
+    assertSameAsFullUpdate(model);
+
+    update(model, fileProblems("/src/b.dart", 5), fileProblems("/src/c.dart", 0));
+    assertSameAsFullUpdate(model);
+    assertEquals(8, model.getRowCount());
+
+    update(model, fileProblems("/src/a.dart", 0), fileProblems("/src/b.dart", 0));
+    assertSameAsFullUpdate(model);
+    assertEquals(0, model.getRowCount());
+    assertFalse(model.hasErrors());
+  }
+
+  public void testFileUpdatedAgainBeforeRowsMerged() {
+    DartProblemsTableModel model = createModel();
+    update(model, fileProblems("/src/a.dart", 3), fileProblems("/src/b.dart", 3));
+    assertSameAsFullUpdate(model);
+
+    // the table doesn't ask for rows between these updates
+    update(model, fileProblems("/src/a.dart", 2));
+    update(model, fileProblems("/src/a.dart", 4), fileProblems("/src/c.dart", 1));
+    update(model, fileProblems("/src/c.dart", 0));
+    assertSameAsFullUpdate(model);
+    assertEquals(7, model.getRowCount());
+  }
+
+  public void testSortKeyChanged() {
+    DartProblemsTableModel model = createModel();
+    update(model, fileProblems("/src/a.dart", 3), fileProblems("/src/b.dart", 3));
+    assertSameAsFullUpdate(model);
+
+    RowSorter.SortKey sortKey = new RowSorter.SortKey(0, SortOrder.DESCENDING);
+    model.setSortKey(sortKey);
+    update(model, fileProblems("/src/c.dart", 2));
+    assertSameAsFullUpdate(model, sortKey);
+
+    update(model, fileProblems("/src/a.dart", 1));
+    assertSameAsFullUpdate(model, sortKey);
+  }
+
+  public void testManyUpdates() {
+    DartProblemsTableModel model = createModel();
+    Random random = new Random(42);
+    for (int batch = 0; batch < 50; batch++) {
+      List<DartProblemsTableModel.FileProblems> update = new ArrayList<>();
+      for (int i = random.nextInt(5); i >= 0; i--) {
+        update.add(fileProblems("/src/file" + random.nextInt(20) + ".dart", random.nextInt(6)));
+      }
+      update(model, update.toArray(new DartProblemsTableModel.FileProblems[0]));
+      if (random.nextBoolean()) {
+        assertSameAsFullUpdate(model);
+      }
+    }
+    assertSameAsFullUpdate(model);
+  }
+
+  public void testSelectionReplacedWithSimilarProblem() {
+    DartProblemsTableModel model = createModel();
+    update(model, fileProblems("/src/a.dart", 3), fileProblems("/src/b.dart", 3));
+    DartProblem selected = myCurrentProblems.get("/src/a.dart").get(1);
+    assertSame(selected, update(model, selected, fileProblems("/src/b.dart", 2)));
+
+    DartProblem similar = createProblem("/src/a.dart", selected.getLineNumber() + 1, selected.getSeverity(), selected.getErrorMessage());
+    assertSame(similar, update(model, selected, fileProblems("/src/a.dart", Collections.singletonList(similar))));
+    assertNull(update(model, similar, fileProblems("/src/a.dart", 0)));
+    assertSameAsFullUpdate(model);
+  }
+
+  private @NotNull DartProblemsTableModel createModel() {
+    return new DartProblemsTableModel(getProject(), new DartProblemsPresentationHelper(getProject()));
+  }
+
+  private void update(@NotNull DartProblemsTableModel model, DartProblemsTableModel.FileProblems @NotNull ... update) {
+    update(model, null, update);
+  }
+
+  private DartProblem update(@NotNull DartProblemsTableModel model,
+                             DartProblem selectedProblem,
+                             DartProblemsTableModel.FileProblems @NotNull ... update) {
+    return model.setProblemsAndReturnNewSelection(Arrays.asList(update), selectedProblem);
+  }
+
+  private void assertSameAsFullUpdate(@NotNull DartProblemsTableModel model) {
+    assertSameAsFullUpdate(model, model.getDefaultSortKey());
+  }
+
+  private void assertSameAsFullUpdate(@NotNull DartProblemsTableModel model, @NotNull RowSorter.SortKey sortKey) {
+    DartProblemsTableModel expected = createModel();
+    expected.setSortKey(sortKey);
+    List<DartProblemsTableModel.FileProblems> update = new ArrayList<>();
+    myCurrentProblems.forEach((path, problems) -> update.add(new DartProblemsTableModel.FileProblems(path, new ArrayList<>(problems))));
+    expected.setProblemsAndReturnNewSelection(update, null);
+
+    assertOrderedEquals(model.getItems(), expected.getItems());
+    assertEquals(expected.getRowCount(), model.getRowCount());
+    for (int i = 0; i < model.getRowCount(); i++) {
+      assertSame(expected.getItem(i), model.getRowValue(i));
+    }
+    assertEquals(expected.getTabTitleText(), model.getTabTitleText());
+    assertEquals(expected.hasErrors(), model.hasErrors());
+  }
+
+  private @NotNull DartProblemsTableModel.FileProblems fileProblems(@NotNull String path, int count) {
+    List<DartProblem> problems = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      problems.add(createProblem(path, i * 10 + 1, SEVERITIES[i % SEVERITIES.length], "Problem " + myProblemCount++));
+    }
+    return fileProblems(path, problems);
+  }
+
+  private @NotNull DartProblemsTableModel.FileProblems fileProblems(@NotNull String path, @NotNull List<DartProblem> problems) {
+    if (problems.isEmpty()) {
+      myCurrentProblems.remove(path);
+    }
+    else {
+      myCurrentProblems.put(path, problems);
+    }
+    return new DartProblemsTableModel.FileProblems(path, new ArrayList<>(problems));
+  }
+
+  private @NotNull DartProblem createProblem(@NotNull String path, int line, @NotNull String severity, @NotNull String message) {
+    Location location = new Location(path, line * 20, 5, line, 1);
+    return new DartProblem(getProject(), new AnalysisError(severity, AnalysisErrorType.STATIC_WARNING, location, message, null, null, null,
+                                                           null, false));
+  }
+}
@@ -0,0 +1,152 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.ide.runner.test;
+
+import com.google.gson.JsonSyntaxException;
+import com.intellij.execution.testframework.TestConsoleProperties;
+import com.intellij.execution.testframework.sm.runner.BaseSMTRunnerTestCase;
+import com.intellij.execution.testframework.sm.runner.GeneralTestEventsProcessor;
+import com.intellij.execution.testframework.sm.runner.SMTestLocator;
+import com.intellij.execution.testframework.sm.runner.SMTestProxy;
+import com.intellij.execution.testframework.sm.runner.TestProxyPrinterProvider;
+import com.intellij.execution.testframework.sm.runner.events.*;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.Key;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.jetbrains.lang.dart.util.DartUrlResolver;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Replays the logs recorded from package:test in {@link DartTestEventsConverterTest} as if they were a large test run.
+ */
+public class DartTestEventsConverterPerformanceTest extends BaseSMTRunnerTestCase {
+  private static final int REPLAYS = 2_000;
+
+  public void testReplay() {
+    final TestConsoleProperties consoleProperties = createConsoleProperties();
+    final DartUrlResolver urlResolver = DartUrlResolver.getInstance(getProject(), getSourceRoot());
+    final int expectedEvents =
+      REPLAYS * (DartTestEventsConverterTest.Sample1Signals.length + DartTestEventsConverterTest.Sample2Signals.length);
+
+    PlatformTestUtil.startPerformanceTest("DartTestEventsConverter replay", 3_000, () -> {
+      final CountingEventsProcessor processor = new CountingEventsProcessor(getProject());
+      try {
+        for (int i = 0; i < REPLAYS; i++) {
+          replay(DartTestEventsConverterTest.Sample1Events, consoleProperties, urlResolver, processor);
+          replay(DartTestEventsConverterTest.Sample2Events, consoleProperties, urlResolver, processor);
+        }
+        assertEquals(expectedEvents, processor.myEventCount);
+      }
+      finally {
+        Disposer.dispose(processor);
+      }
+    }).attempts(1).assertTiming();
+  }
+
+  private static void replay(@NotNull String[] events,
+                             @NotNull TestConsoleProperties consoleProperties,
+                             @NotNull DartUrlResolver urlResolver,
+                             @NotNull GeneralTestEventsProcessor processor) {
+    final DartTestEventsConverter converter =
+      new DartTestEventsConverter(DartTestRunningState.DART_FRAMEWORK_NAME, consoleProperties, urlResolver);
+    try {
+      converter.setProcessor(processor);
+      final Key key = new Key("stdout");
+      for (String event : events) {
+        try {
+          converter.process(event, key);
+        }
+        catch (JsonSyntaxException ignored) {
+        }
+      }
+    }
+    finally {
+      Disposer.dispose(converter);
+    }
+  }
+
+  @Override
+  protected TestConsoleProperties createConsoleProperties() {
+    TestConsoleProperties properties = super.createConsoleProperties();
+    TestConsoleProperties.HIDE_PASSED_TESTS.set(properties, false);
+    TestConsoleProperties.TRACK_RUNNING_TEST.set(properties, false);
+    return properties;
+  }
+
+  private static final class CountingEventsProcessor extends GeneralTestEventsProcessor {
+    private int myEventCount;
+
+    private CountingEventsProcessor(@NotNull Project project) {
+      super(project, DartTestRunningState.DART_FRAMEWORK_NAME, new SMTestProxy.SMRootTestProxy());
+    }
+
+    @Override
+    public void onStartTesting() {
+    }
+
+    @Override
+    public void onTestsCountInSuite(int count) {
+    }
+
+    @Override
+    public void onTestStarted(@NotNull TestStartedEvent testStartedEvent) {
+      myEventCount++;
+    }
+
+    @Override
+    public void onTestFinished(@NotNull TestFinishedEvent testFinishedEvent) {
+      myEventCount++;
+    }
+
+    @Override
+    public void onTestFailure(@NotNull TestFailedEvent testFailedEvent) {
+      myEventCount++;
+    }
+
+    @Override
+    public void onTestIgnored(@NotNull TestIgnoredEvent testIgnoredEvent) {
+      myEventCount++;
+    }
+
+    @Override
+    public void onTestOutput(@NotNull TestOutputEvent testOutputEvent) {
+      myEventCount++;
+    }
+
+    @Override
+    public void onSuiteStarted(@NotNull TestSuiteStartedEvent suiteStartedEvent) {
+      myEventCount++;
+    }
+
+    @Override
+    public void onSuiteFinished(@NotNull TestSuiteFinishedEvent suiteFinishedEvent) {
+      myEventCount++;
+    }
+
+    @Override
+    public void onUncapturedOutput(@NotNull String text, Key outputType) {
+    }
+
+    @Override
+    public void onError(@NotNull String localizedMessage, @Nullable String stackTrace, boolean isCritical) {
+      myEventCount++;
+    }
+
+    @Override
+    public void onFinishTesting() {
+    }
+
+    @Override
+    public void onTestsReporterAttached() {
+    }
+
+    @Override
+    public void setLocator(@NotNull SMTestLocator locator) {
+    }
+
+    @Override
+    public void setPrinterProvider(@NotNull TestProxyPrinterProvider printerProvider) {
+    }
+  }
+}
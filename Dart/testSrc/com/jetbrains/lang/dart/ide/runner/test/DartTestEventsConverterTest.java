@@ -22,14 +22,16 @@ import org.jetbrains.annotations.Nullable;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreeModel;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class DartTestEventsConverterTest extends BaseSMTRunnerTestCase {
 
   // Do not reformat this list.
-  private static final String[] Sample1Events = {
+  static final String[] Sample1Events = {
     // @formatter:off
     "/usr/local/opt/dart/libexec/bin/dart --checked --enable-vm-service:51706 file:///usr/local/opt/dart/libexec/bin/snapshots/pub.dart.snapshot run test:test -r json test/formatter_test.dart -n \"line endings\"\n",
     "Observatory listening on http://127.0.0.1:51706\n",
@@ -68,7 +70,7 @@ public class DartTestEventsConverterTest extends BaseSMTRunnerTestCase {
   };
 
   // Do not reformat this list.
-  private static final String[] Sample1Signals = {
+  static final String[] Sample1Signals = {
     // @formatter:off
     "suite started line endings",
     "start uses given line ending",
@@ -106,7 +108,7 @@ public class DartTestEventsConverterTest extends BaseSMTRunnerTestCase {
   private static final int[] Sample1Parents = {0, 0, 0, 2, 2, 2, 2, 2, 7, 7, 2, 2};
 
   // Do not reformat this list.
-  private static final String[] Sample2Events = {
+  static final String[] Sample2Events = {
     // @formatter:off
     "/usr/local/opt/dart/libexec/bin/dart --checked file:///usr/local/opt/dart/libexec/bin/snapshots/pub.dart.snapshot run test:test -r json /Users/messick/src/quiver-dart/test/\n",
     "{\"protocolVersion\":\"0.1.0\",\"runnerVersion\":\"0.12.9-dev (from ../test-master)\",\"type\":\"start\",\"time\":0}\n",
@@ -167,7 +169,7 @@ public class DartTestEventsConverterTest extends BaseSMTRunnerTestCase {
     // @formatter:on
   };
 
-  private static final String[] Sample2Signals = {
+  static final String[] Sample2Signals = {
     "suite started countdown_timer_test.dart",
     "suite started CountdownTimer",
     "start should countdown",
@@ -339,6 +341,70 @@ public class DartTestEventsConverterTest extends BaseSMTRunnerTestCase {
     runTest(events, signals, new int[]{});
   }
 
+  public void testConsecutivePrintsMerged() {
+    String[] events = {
+      "{'protocolVersion':'0.1.0','runnerVersion':'1.14.4','type':'start','time':0}\n",
+      "{'suite':{'id':0,'platform':'vm','path':'test/print_test.dart'},'type':'suite','time':0}\n",
+      "{'group':{'id':1,'suiteID':0,'parentID':null,'name':null,'metadata':{'skip':false,'skipReason':null},'testCount':2},'type':'group','time':1}\n",
+      "{'test':{'id':2,'name':'first','suiteID':0,'groupIDs':[1],'metadata':{'skip':false,'skipReason':null}},'type':'testStart','time':1}\n",
+      "{'testID':2,'message':'a','type':'print','time':2}\n",
+      "{'testID':2,'message':'b','type':'print','time':2}\n",
+      "{'testID':2,'message':'c\\n','type':'print','time':2}\n",
+      "{'test':{'id':3,'name':'second','suiteID':0,'groupIDs':[1],'metadata':{'skip':false,'skipReason':null}},'type':'testStart','time':3}\n",
+      "{'testID':3,'message':'d','type':'print','time':3}\n",
+      "{'testID':2,'message':'late','type':'print','time':3}\n",
+      "{'testID':2,'result':'success','hidden':false,'type':'testDone','time':4}\n",
+      "{'testID':3,'result':'success','hidden':false,'type':'testDone','time':4}\n",
+      "{'success':true,'type':'done','time':5}\n",
+    };
+    String[] signals = {
+      "suite started print_test.dart",
+      "start first",
+      "print first a\nb\nc\n",
+      "start second",
+      "print second d\n",
+      "print first late\n",
+      "finish first",
+      "finish second",
+      "suite finished print_test.dart"
+    };
+    runTest(events, signals, new int[]{});
+  }
+
+  public void testPrintFlushedAfterDelay() throws InterruptedException {
+    myEventsConverter.setOutputFlushDelay(10);
+    String[] events = {
+      "{'protocolVersion':'0.1.0','runnerVersion':'1.14.4','type':'start','time':0}\n",
+      "{'suite':{'id':0,'platform':'vm','path':'test/print_test.dart'},'type':'suite','time':0}\n",
+      "{'group':{'id':1,'suiteID':0,'parentID':null,'name':null,'metadata':{'skip':false,'skipReason':null},'testCount':1},'type':'group','time':1}\n",
+      "{'test':{'id':2,'name':'hanging','suiteID':0,'groupIDs':[1],'metadata':{'skip':false,'skipReason':null}},'type':'testStart','time':1}\n",
+      "{'testID':2,'message':'a','type':'print','time':2}\n",
+      "{'testID':2,'message':'b','type':'print','time':2}\n",
+    };
+    Key key = new Key("stdout");
+    for (String event : events) {
+      myEventsConverter.process(event, key);
+    }
+
+    // no more events, as if the test hangs
+    String[] signals = {
+      "suite started print_test.dart",
+      "start hanging",
+      "print hanging a\nb\n",
+    };
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (getSignals().size() < signals.length && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertOrderedEquals(getSignals(), signals);
+  }
+
+  private List<String> getSignals() {
+    synchronized (myEventsProcessor.signals) {
+      return new ArrayList<>(myEventsProcessor.signals);
+    }
+  }
+
   private void runTest(String[] jsonEvents, String[] signals, int[] parents) {
     DartTestEventsConverter parser = myEventsConverter;
     Key key = new Key("stdout");
@@ -378,6 +444,8 @@ public class DartTestEventsConverterTest extends BaseSMTRunnerTestCase {
     myEventsProcessor = new DartTestEventsProcessor(consoleProperties.getProject(), DartTestRunningState.DART_FRAMEWORK_NAME);
     myEventsProcessor.addEventsListener(myResultsViewer);
     myEventsConverter.setProcessor(myEventsProcessor);
+    // output is flushed by the events in these tests, not by time
+    myEventsConverter.setOutputFlushDelay(TimeUnit.MINUTES.toMillis(1));
     TreeModel treeModel = myResultsViewer.getTreeView() == null ? null : myResultsViewer.getTreeView().getModel();
     assertNotNull(treeModel);
     PlatformTestUtil.waitWhileBusy(myResultsViewer.getTreeView());
@@ -388,6 +456,7 @@ public class DartTestEventsConverterTest extends BaseSMTRunnerTestCase {
   @Override
   protected void tearDown() throws Exception {
     try {
+      Disposer.dispose(myEventsConverter);
       Disposer.dispose(myEventsProcessor);
       Disposer.dispose(myConsole);
     }
@@ -431,7 +500,7 @@ public class DartTestEventsConverterTest extends BaseSMTRunnerTestCase {
   }
 
   private class DartTestEventsProcessor extends GeneralTestEventsProcessor {
-    List<String> signals = new ArrayList<>();
+    final List<String> signals = Collections.synchronizedList(new ArrayList<>());
 
     DartTestEventsProcessor(Project project, @NotNull String testFrameworkName) {
       super(project, testFrameworkName, new SMTestProxy.SMRootTestProxy());
@@ -1,5 +1,7 @@
 package com.intellij.deno
 
+import com.intellij.deno.modules.DenoModuleCacheIndexableSetContributor
+import com.intellij.deno.modules.DenoModuleLibraryRoots
 import com.intellij.lang.javascript.ecmascript6.TypeScriptUtil
 import com.intellij.lang.javascript.library.JSSyntheticLibraryProvider
 import com.intellij.navigation.ItemPresentation
@@ -43,12 +45,21 @@ class DenoLibraryProvider : AdditionalLibraryRootsProvider(), JSSyntheticLibrary
   override fun getAdditionalProjectLibraries(project: Project): Collection<SyntheticLibrary> {
     if (!DenoSettings.getService(project).isUseDeno()) return emptyList()
 
-    val libs = getLibs()
+    val libs = getLibraryRoots(project)
     if (libs.isEmpty()) return emptyList()
 
     return listOf(DenoLibrary(libs))
   }
 
+  /**
+   * Only the cached modules reachable from the project imports are library roots, the whole cache is indexed separately
+   * to find them, see [DenoModuleCacheIndexableSetContributor].
+   */
+  private fun getLibraryRoots(project: Project): List<VirtualFile> {
+    val denoTypingsVirtualFile = LocalFileSystem.getInstance().findFileByPath(DenoUtil.getDenoTypings())
+    return DenoModuleLibraryRoots.getInstance(project).getModules().toList() + listOfNotNull(denoTypingsVirtualFile)
+  }
+
   private fun getLibs(): List<VirtualFile> {
     val denoPackages = DenoUtil.getDenoPackagesPath()
     val denoTypings = DenoUtil.getDenoTypings()
@@ -57,6 +68,7 @@ class DenoLibraryProvider : AdditionalLibraryRootsProvider(), JSSyntheticLibrary
     return listOfNotNull(depsVirtualFile, denoTypingsVirtualFile)
   }
 
+  // the whole cache is watched to update the indexes and the library roots when modules are downloaded
   override fun getRootsToWatch(project: Project): Collection<VirtualFile> {
     if (!DenoSettings.getService(project).isUseDeno()) return emptyList()
     return getLibs()
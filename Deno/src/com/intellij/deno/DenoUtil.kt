@@ -8,9 +8,16 @@ import com.intellij.openapi.util.io.FileUtil
 import com.intellij.util.SystemProperties
 import com.intellij.util.containers.ContainerUtil
 import com.intellij.util.containers.addIfNotNull
+import org.jetbrains.annotations.TestOnly
 import java.io.File
 
 object DenoUtil {
+  private var denoDirForTests: String? = null
+
+  @TestOnly
+  fun setDenoDirForTests(denoDir: String?) {
+    denoDirForTests = denoDir
+  }
 
   fun getDenoPackagesPath(): String {
     return FileUtil.toSystemIndependentName(getDenoDirPath()) + "/deps"
@@ -37,6 +44,7 @@ object DenoUtil {
   }
 
   private fun getDenoDirPath(): String {
+    denoDirForTests?.let { return it }
     val denoDir = System.getenv("DENO_DIR");
     if (denoDir != null) {
       return denoDir
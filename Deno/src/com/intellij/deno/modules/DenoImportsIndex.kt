@@ -0,0 +1,54 @@
+package com.intellij.deno.modules
+
+import com.intellij.lang.javascript.JavaScriptFileType
+import com.intellij.lang.javascript.TypeScriptFileType
+import com.intellij.util.indexing.*
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+
+/**
+ * Module specifiers imported by project files and by modules in the Deno cache, it tells which cached modules are reachable
+ * from the project, see [DenoModuleCache.getReachableModules].
+ *
+ * Other JavaScript and TypeScript files contribute remote specifiers only, whether the project uses Deno or not, so turning Deno
+ * on or off doesn't need reindexing; [DenoModuleCache] uses the index only in projects using Deno, and ignores files in
+ * `node_modules`. Cached modules contribute relative specifiers too, which are resolved against the URL of the module.
+ */
+class DenoImportsIndex : ScalarIndexExtension<String>() {
+  companion object {
+    val NAME = ID.create<String, Void>("deno.imports")
+
+    private val IMPORT_PATTERN = Regex("""(?:\bfrom|\bimport)\s*\(?\s*["']([^"'\s]+)["']""" +
+                                       """|<reference\s+(?:path|types)\s*=\s*["']([^"'\s]+)["']""")
+  }
+
+  override fun getName(): ID<String, Void> = NAME
+
+  override fun getIndexer(): DataIndexer<String, Void, FileContent> = DataIndexer { content ->
+    val includeRelative = DenoModuleCache.isModule(content.file)
+    val text = content.contentAsText
+    if (!includeRelative && !text.contains("http")) return@DataIndexer emptyMap()
+
+    val result = HashMap<String, Void?>()
+    for (match in IMPORT_PATTERN.findAll(text)) {
+      val specifier = match.groupValues[1].ifEmpty { match.groupValues[2] }
+      if (isRemoteSpecifier(specifier)) {
+        result[normalizeUrl(specifier)] = null
+      }
+      else if (includeRelative && isRelativeSpecifier(specifier)) {
+        result[specifier] = null
+      }
+    }
+    result
+  }
+
+  override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+
+  override fun getInputFilter(): FileBasedIndex.InputFilter = FileBasedIndex.InputFilter {
+    it.fileType == TypeScriptFileType.INSTANCE || it.fileType == JavaScriptFileType.INSTANCE || DenoModuleCache.isModule(it)
+  }
+
+  override fun dependsOnFileContent(): Boolean = true
+
+  override fun getVersion(): Int = 3
+}
@@ -0,0 +1,139 @@
+package com.intellij.deno.modules
+
+import com.intellij.deno.DenoSettings
+import com.intellij.deno.DenoUtil
+import com.intellij.lang.javascript.library.JSLibraryUtil
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.vfs.LocalFileSystem
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.search.GlobalSearchScopesCore
+import com.intellij.psi.search.ProjectScope
+import com.intellij.util.indexing.FileBasedIndex
+import java.net.URI
+import java.net.URISyntaxException
+import java.util.*
+
+private const val METADATA_SUFFIX = ".metadata.json"
+private const val MAX_REDIRECTS = 10
+
+/**
+ * Lookups in the Deno cache backed by [DenoModuleCacheIndex] and [DenoImportsIndex], the cache directory is indexed
+ * by [DenoModuleCacheIndexableSetContributor] and the indexes are updated with VFS events like any other indexed files.
+ */
+object DenoModuleCache {
+
+  fun isModuleMetadata(file: VirtualFile): Boolean =
+    !file.isDirectory && file.nameSequence.endsWith(METADATA_SUFFIX) && isInCache(file)
+
+  /**
+   * Cached modules are stored without extensions, under the names hashed from their URLs.
+   */
+  fun isModule(file: VirtualFile): Boolean =
+    !file.isDirectory && FileUtil.getExtension(file.nameSequence).isEmpty() && isInCache(file)
+
+  fun getCacheDirectory(): VirtualFile? = LocalFileSystem.getInstance().findFileByPath(DenoUtil.getDenoPackagesPath())
+
+  fun getCacheScope(project: Project): GlobalSearchScope? =
+    getCacheDirectory()?.let { GlobalSearchScopesCore.directoryScope(project, it, true) }
+
+  /**
+   * Finds the cached module of the URL, following the redirects recorded by Deno.
+   */
+  fun findModuleFile(project: Project, url: String): VirtualFile? {
+    val scope = getCacheScope(project) ?: return null
+    var current = normalizeUrl(url)
+    repeat(MAX_REDIRECTS) {
+      var redirect: String? = null
+      var result: VirtualFile? = null
+      FileBasedIndex.getInstance().processValues(DenoModuleCacheIndex.NAME, current, null, { metadata, module ->
+        redirect = module.getRedirect(current)
+        if (redirect == null) result = getModuleFile(metadata)
+        false
+      }, scope)
+      current = redirect ?: return result
+    }
+    return null
+  }
+
+  /**
+   * Cached modules imported by the project files, directly or through other cached modules, including the types
+   * provided by `X-TypeScript-Types` headers. Empty if the project doesn't use Deno.
+   */
+  fun getReachableModules(project: Project): Set<VirtualFile> {
+    if (!DenoSettings.getService(project).isUseDeno()) return emptySet()
+    val scope = getCacheScope(project) ?: return emptySet()
+    val index = FileBasedIndex.getInstance()
+    val queue = ArrayDeque<String>(getProjectImports(project))
+    val visited = HashSet<String>()
+    val result = LinkedHashSet<VirtualFile>()
+    while (queue.isNotEmpty()) {
+      val url = queue.poll()
+      if (!visited.add(url)) continue
+
+      index.processValues(DenoModuleCacheIndex.NAME, url, null, { metadata, module ->
+        module.getRedirect(url)?.let { queue.add(it) }
+        module.getTypes(url)?.let { queue.add(it) }
+        val file = getModuleFile(metadata)
+        if (file != null && result.add(file)) {
+          index.getFileData(DenoImportsIndex.NAME, file, project).keys.mapNotNullTo(queue) { resolveSpecifier(url, it) }
+        }
+        true
+      }, scope)
+    }
+    return result
+  }
+
+  private fun getProjectImports(project: Project): List<String> {
+    val index = FileBasedIndex.getInstance()
+    val contentScope = ProjectScope.getContentScope(project)
+    val keys = ArrayList<String>()
+    // keys may come from other files, they are checked against the scope below
+    index.processAllKeys(DenoImportsIndex.NAME, { keys.add(it) }, contentScope, null)
+    return keys.filter {
+      isRemoteSpecifier(it) && index.getContainingFiles(DenoImportsIndex.NAME, it, contentScope).any { file -> !isInNodeModules(file) }
+    }
+  }
+
+  /**
+   * Checked only for the few files with remote imports, rather than for every file when indexing.
+   */
+  private fun isInNodeModules(file: VirtualFile): Boolean {
+    var parent = file.parent
+    while (parent != null) {
+      if (parent.name == JSLibraryUtil.NODE_MODULES) return true
+      parent = parent.parent
+    }
+    return false
+  }
+
+  private fun getModuleFile(metadata: VirtualFile): VirtualFile? =
+    metadata.parent?.findChild(metadata.name.removeSuffix(METADATA_SUFFIX))?.takeIf { !it.isDirectory }
+
+  private fun isInCache(file: VirtualFile): Boolean = FileUtil.startsWith(file.path, DenoUtil.getDenoPackagesPath())
+}
+
+fun isRemoteSpecifier(specifier: String): Boolean = specifier.startsWith("https://") || specifier.startsWith("http://")
+
+fun isRelativeSpecifier(specifier: String): Boolean =
+  specifier.startsWith("./") || specifier.startsWith("../") || specifier.startsWith("/")
+
+/**
+ * Deno caches modules by URL without the fragment.
+ */
+fun normalizeUrl(url: String): String = url.substringBefore('#')
+
+fun resolveSpecifier(baseUrl: String, specifier: String): String? {
+  if (isRemoteSpecifier(specifier)) return normalizeUrl(specifier)
+  if (!isRelativeSpecifier(specifier)) return null
+  return try {
+    normalizeUrl(URI(baseUrl).resolve(specifier).toString())
+  }
+  catch (e: URISyntaxException) {
+    null
+  }
+  catch (e: IllegalArgumentException) {
+    null
+  }
+}
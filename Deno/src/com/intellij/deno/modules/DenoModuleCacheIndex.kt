@@ -0,0 +1,106 @@
+package com.intellij.deno.modules
+
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.util.indexing.*
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.IOUtil
+import com.intellij.util.io.KeyDescriptor
+import com.intellij.util.text.CharSequenceReader
+import java.io.DataInput
+import java.io.DataOutput
+
+/**
+ * Headers of a module downloaded to the Deno cache which matter for resolving it, the module itself is stored next to its metadata.
+ */
+data class DenoCachedModule(val headers: Map<String, String>) {
+  /**
+   * Target of a redirect, the cached module is empty in this case.
+   */
+  fun getRedirect(url: String): String? = headers["location"]?.let { resolveSpecifier(url, it) }
+
+  /**
+   * Types of a JavaScript module provided with the `X-TypeScript-Types` header.
+   */
+  fun getTypes(url: String): String? = headers["x-typescript-types"]?.let { resolveSpecifier(url, it) }
+}
+
+/**
+ * Maps URLs of remote modules to the `*.metadata.json` files Deno stores for them in the `deps` directory of its cache,
+ * see [DenoModuleCache.findModuleFile].
+ */
+class DenoModuleCacheIndex : FileBasedIndexExtension<String, DenoCachedModule>() {
+  companion object {
+    val NAME = ID.create<String, DenoCachedModule>("deno.module.cache")
+    private val LOG = Logger.getInstance(DenoModuleCacheIndex::class.java)
+    private val RECORDED_HEADERS = setOf("location", "content-type", "x-typescript-types")
+  }
+
+  override fun getName(): ID<String, DenoCachedModule> = NAME
+
+  override fun getIndexer(): DataIndexer<String, DenoCachedModule, FileContent> = DataIndexer { content ->
+    try {
+      readMetadata(content.contentAsText)?.let { (url, module) -> mapOf(url to module) } ?: emptyMap()
+    }
+    catch (e: Exception) {
+      LOG.debug("Cannot read Deno module metadata ${content.file.path}", e)
+      emptyMap()
+    }
+  }
+
+  override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+
+  override fun getValueExternalizer(): DataExternalizer<DenoCachedModule> = object : DataExternalizer<DenoCachedModule> {
+    override fun save(out: DataOutput, value: DenoCachedModule) {
+      out.writeInt(value.headers.size)
+      for ((name, headerValue) in value.headers) {
+        IOUtil.writeUTF(out, name)
+        IOUtil.writeUTF(out, headerValue)
+      }
+    }
+
+    override fun read(input: DataInput): DenoCachedModule {
+      val size = input.readInt()
+      val headers = HashMap<String, String>(size)
+      repeat(size) {
+        headers[IOUtil.readUTF(input)] = IOUtil.readUTF(input)
+      }
+      return DenoCachedModule(headers)
+    }
+  }
+
+  override fun getInputFilter(): FileBasedIndex.InputFilter = FileBasedIndex.InputFilter { DenoModuleCache.isModuleMetadata(it) }
+
+  override fun dependsOnFileContent(): Boolean = true
+
+  override fun getVersion(): Int = 1
+
+  /**
+   * Reads `{"url": "...", "headers": {...}}` with a streaming reader, header names are case-insensitive and compared in lower case.
+   */
+  private fun readMetadata(text: CharSequence): Pair<String, DenoCachedModule>? {
+    var url: String? = null
+    val headers = HashMap<String, String>()
+    JsonReader(CharSequenceReader(text)).use { reader ->
+      reader.beginObject()
+      while (reader.hasNext()) {
+        when (reader.nextName()) {
+          "url" -> if (reader.peek() == JsonToken.STRING) url = reader.nextString() else reader.skipValue()
+          "headers" -> {
+            reader.beginObject()
+            while (reader.hasNext()) {
+              val name = reader.nextName().toLowerCase()
+              if (name in RECORDED_HEADERS && reader.peek() == JsonToken.STRING) headers[name] = reader.nextString() else reader.skipValue()
+            }
+            reader.endObject()
+          }
+          else -> reader.skipValue()
+        }
+      }
+      reader.endObject()
+    }
+    return url?.let { Pair(normalizeUrl(it), DenoCachedModule(headers)) }
+  }
+}
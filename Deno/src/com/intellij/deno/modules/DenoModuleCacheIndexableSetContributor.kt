@@ -0,0 +1,19 @@
+package com.intellij.deno.modules
+
+import com.intellij.deno.DenoSettings
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.indexing.IndexableSetContributor
+
+/**
+ * Indexes the whole Deno cache for [DenoModuleCacheIndex] and [DenoImportsIndex], while only the modules reachable from the project
+ * are added to the library, see [com.intellij.deno.DenoLibraryProvider].
+ */
+class DenoModuleCacheIndexableSetContributor : IndexableSetContributor() {
+  override fun getAdditionalProjectRootsToIndex(project: Project): Set<VirtualFile> {
+    if (!DenoSettings.getService(project).isUseDeno()) return emptySet()
+    return setOfNotNull(DenoModuleCache.getCacheDirectory())
+  }
+
+  override fun getAdditionalRootsToIndex(): Set<VirtualFile> = emptySet()
+}
@@ -0,0 +1,80 @@
+package com.intellij.deno.modules
+
+import com.intellij.deno.DenoSettings
+import com.intellij.deno.DenoUtil
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.application.WriteAction
+import com.intellij.openapi.components.ServiceManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ex.ProjectRootManagerEx
+import com.intellij.openapi.util.EmptyRunnable
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.openapi.vfs.newvfs.BulkFileListener
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent
+import com.intellij.util.concurrency.AppExecutorUtil
+import org.jetbrains.annotations.TestOnly
+
+/**
+ * Cached modules reachable from the project, which [com.intellij.deno.DenoLibraryProvider] exposes as the library roots.
+ *
+ * The modules are computed in the background once the indexes are ready and recomputed when the Deno cache changes,
+ * e.g. after `deno cache` downloads the modules of a new import. The project roots are changed only if the modules differ.
+ */
+class DenoModuleLibraryRoots(private val project: Project) : Disposable {
+  companion object {
+    fun getInstance(project: Project): DenoModuleLibraryRoots = ServiceManager.getService(project, DenoModuleLibraryRoots::class.java)
+  }
+
+  @Volatile
+  private var modules: Set<VirtualFile>? = null
+
+  init {
+    project.messageBus.connect(this).subscribe(VirtualFileManager.VFS_CHANGES, object : BulkFileListener {
+      override fun after(events: List<VFileEvent>) {
+        if (DenoSettings.getService(project).isUseDeno() && events.any { isInCache(it) }) {
+          scheduleUpdate()
+        }
+      }
+    })
+  }
+
+  /**
+   * Modules computed so far, the first request schedules the computation.
+   */
+  fun getModules(): Set<VirtualFile> {
+    val result = modules
+    if (result == null) scheduleUpdate()
+    return result ?: emptySet()
+  }
+
+  fun scheduleUpdate() {
+    ReadAction.nonBlocking<Set<VirtualFile>> { DenoModuleCache.getReachableModules(project) }
+      .inSmartMode(project)
+      .coalesceBy(this)
+      .expireWith(this)
+      .finishOnUiThread(ModalityState.NON_MODAL) { update(it) }
+      .submit(AppExecutorUtil.getAppExecutorService())
+  }
+
+  @TestOnly
+  fun updateNow() {
+    update(DenoModuleCache.getReachableModules(project))
+  }
+
+  private fun update(newModules: Set<VirtualFile>) {
+    if (newModules == modules) return
+    modules = newModules
+    WriteAction.run<RuntimeException> {
+      ProjectRootManagerEx.getInstanceEx(project).makeRootsChange(EmptyRunnable.getInstance(), false, true)
+    }
+  }
+
+  private fun isInCache(event: VFileEvent): Boolean = FileUtil.startsWith(event.path, DenoUtil.getDenoPackagesPath())
+
+  override fun dispose() {
+  }
+}
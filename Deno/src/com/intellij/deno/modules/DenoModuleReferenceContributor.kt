@@ -9,6 +9,7 @@ import com.intellij.lang.javascript.modules.JSModuleNameInfo.ExtensionSettings
 import com.intellij.lang.javascript.modules.JSModuleNameInfoImpl
 import com.intellij.lang.javascript.modules.imports.JSImportDescriptor
 import com.intellij.lang.javascript.modules.imports.JSSimpleImportDescriptor
+import com.intellij.openapi.util.TextRange
 import com.intellij.openapi.vfs.VfsUtilCore
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiReference
@@ -26,7 +27,8 @@ class DenoModuleReferenceContributor : JSBaseModuleReferenceContributor() {
                              offset: Int,
                              provider: PsiReferenceProvider?,
                              isCommonJS: Boolean): Array<PsiReference> {
-    return emptyArray()
+    if (!isRemoteSpecifier(unquotedRefText)) return emptyArray()
+    return arrayOf(DenoRemoteModuleReference(host, TextRange.from(offset, unquotedRefText.length), unquotedRefText))
   }
 
   override fun getImportDescriptors(configuration: JSImportPathConfiguration,
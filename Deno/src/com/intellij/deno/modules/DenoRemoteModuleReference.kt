@@ -0,0 +1,24 @@
+package com.intellij.deno.modules
+
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiReferenceBase
+import com.intellij.psi.impl.source.resolve.ResolveCache
+
+/**
+ * Reference from a remote import to the module in the Deno cache, it's soft as the module may be not downloaded yet.
+ */
+class DenoRemoteModuleReference(element: PsiElement, range: TextRange, private val url: String)
+  : PsiReferenceBase<PsiElement>(element, range, true) {
+
+  override fun resolve(): PsiElement? = ResolveCache.getInstance(element.project).resolveWithCaching(this, RESOLVER, false, false)
+
+  private fun resolveInner(): PsiElement? {
+    val file = DenoModuleCache.findModuleFile(element.project, url) ?: return null
+    return element.manager.findFile(file)
+  }
+
+  companion object {
+    private val RESOLVER = ResolveCache.AbstractResolver<DenoRemoteModuleReference, PsiElement> { ref, _ -> ref.resolveInner() }
+  }
+}
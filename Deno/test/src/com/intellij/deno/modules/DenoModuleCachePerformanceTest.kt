@@ -0,0 +1,31 @@
+package com.intellij.deno.modules
+
+import com.intellij.testFramework.PlatformTestUtil
+import com.intellij.util.indexing.FileBasedIndex
+
+class DenoModuleCachePerformanceTest : DenoModuleCacheTestBase() {
+  private val count = 10_000
+  private val urls = (0 until count).map { "https://deno.land/x/module$it@v1.0.0/mod.ts" }
+
+  override fun setUp() {
+    super.setUp()
+    urls.forEachIndexed { i, url -> cacheModule(url, "export * from \"https://deno.land/x/module${(i + 1) % count}@v1.0.0/mod.ts\";") }
+    refreshCache()
+    val scope = DenoModuleCache.getCacheScope(project)!!
+    FileBasedIndex.getInstance().ensureUpToDate(DenoModuleCacheIndex.NAME, project, scope)
+    FileBasedIndex.getInstance().ensureUpToDate(DenoImportsIndex.NAME, project, scope)
+  }
+
+  fun testResolve() {
+    PlatformTestUtil.startPerformanceTest("Resolve $count cached Deno modules", 2_000) {
+      urls.forEach { assertNotNull(it, findModuleFile(it)) }
+    }.attempts(3).assertTiming()
+  }
+
+  fun testReachableModules() {
+    myFixture.addFileToProject("main.ts", "import \"${urls[0]}\";")
+    PlatformTestUtil.startPerformanceTest("Reachable modules of $count cached Deno modules", 3_000) {
+      assertEquals(count, DenoModuleCache.getReachableModules(project).size)
+    }.attempts(3).assertTiming()
+  }
+}
@@ -0,0 +1,119 @@
+package com.intellij.deno.modules
+
+import com.intellij.deno.DenoLibraryProvider
+import com.intellij.deno.DenoSettings
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiReference
+import com.intellij.psi.impl.source.resolve.reference.impl.PsiMultiReference
+import com.intellij.util.indexing.FileBasedIndex
+import java.io.File
+
+class DenoModuleCacheTest : DenoModuleCacheTestBase() {
+  fun testFindModuleFile() {
+    val module = cacheModule("https://deno.land/std/path/mod.ts", "export const sep = '/'")
+    refreshCache()
+
+    assertEquals(module, findModuleFile("https://deno.land/std/path/mod.ts"))
+    assertEquals(module, findModuleFile("https://deno.land/std/path/mod.ts#fragment"))
+    assertNull(findModuleFile("https://deno.land/std/path/other.ts"))
+  }
+
+  fun testRedirect() {
+    cacheModule("https://deno.land/std/fs/mod.ts", "", mapOf("location" to "/std@0.70.0/fs/mod.ts"))
+    val target = cacheModule("https://deno.land/std@0.70.0/fs/mod.ts", "export const exists = true")
+    refreshCache()
+
+    assertEquals(target, findModuleFile("https://deno.land/std/fs/mod.ts"))
+  }
+
+  fun testIndexFollowsCacheChanges() {
+    cacheModule("https://deno.land/x/oak/mod.ts", "export class Application {}")
+    refreshCache()
+    assertNotNull(findModuleFile("https://deno.land/x/oak/mod.ts"))
+
+    val hashedPath = getHashedPath("https://deno.land/x/oak/mod.ts")
+    FileUtil.delete(File(denoDir, hashedPath))
+    FileUtil.delete(File(denoDir, "$hashedPath.metadata.json"))
+    refreshCache()
+    assertNull(findModuleFile("https://deno.land/x/oak/mod.ts"))
+
+    val module = cacheModule("https://deno.land/x/oak@v6.0.0/mod.ts", "export class Application {}")
+    refreshCache()
+    assertEquals(module, findModuleFile("https://deno.land/x/oak@v6.0.0/mod.ts"))
+  }
+
+  fun testLibraryRootsAreReachableModules() {
+    val mod = cacheModule("https://deno.land/std/http/mod.ts", "export * from \"./server.ts\";\nexport * from \"../async/mod.ts\";")
+    val server = cacheModule("https://deno.land/std/http/server.ts", "import { BufReader } from \"https://deno.land/std/io/bufio.ts\";")
+    val bufio = cacheModule("https://deno.land/std/io/bufio.ts", "export class BufReader {}")
+    val async = cacheModule("https://deno.land/std/async/mod.ts", "export const delay = 1")
+    val lib = cacheModule("https://cdn.skypack.dev/lib.js", "export default 1", mapOf("X-TypeScript-Types" to "/lib.d.ts"))
+    val libTypes = cacheModule("https://cdn.skypack.dev/lib.d.ts", "declare const lib: number; export default lib;")
+    val unused = cacheModule("https://deno.land/std/uuid/mod.ts", "export const v4 = 1")
+    refreshCache()
+    myFixture.addFileToProject("main.ts", "import { serve } from \"https://deno.land/std/http/mod.ts\";\n" +
+                                         "import lib from 'https://cdn.skypack.dev/lib.js';")
+
+    DenoModuleLibraryRoots.getInstance(project).updateNow()
+
+    val roots = DenoLibraryProvider().getAdditionalProjectLibraries(project).flatMap { it.sourceRoots }
+    assertContainsElements(roots, mod, server, bufio, async, lib, libTypes)
+    assertDoesntContain(roots, unused)
+  }
+
+  fun testResolveRemoteImport() {
+    val module = cacheModule("https://deno.land/std/path/mod.ts", "export const sep = '/'")
+    refreshCache()
+    myFixture.configureByText("main.ts", "import { sep } from \"https://deno.land/std/path/m<caret>od.ts\";")
+
+    val reference = findRemoteModuleReference()
+    assertTrue(reference.isSoft)
+    assertEquals(module, (reference.resolve() as PsiFile).virtualFile)
+  }
+
+  fun testNodeModulesImportsAreIgnored() {
+    val path = cacheModule("https://deno.land/std/path/mod.ts", "export const sep = '/'")
+    val fs = cacheModule("https://deno.land/std/fs/mod.ts", "export const exists = true")
+    refreshCache()
+    myFixture.addFileToProject("main.ts", "import \"https://deno.land/std/path/mod.ts\";")
+    myFixture.addFileToProject("node_modules/lib/index.ts", "import \"https://deno.land/std/fs/mod.ts\";")
+
+    val reachable = DenoModuleCache.getReachableModules(project)
+    assertContainsElements(reachable, path)
+    assertDoesntContain(reachable, fs)
+  }
+
+  fun testImportsAreIndexedWithoutDeno() {
+    val module = cacheModule("https://deno.land/std/path/mod.ts", "export const sep = '/'")
+    refreshCache()
+    val main = myFixture.addFileToProject("main.ts", "import \"https://deno.land/std/path/mod.ts\";").virtualFile
+
+    DenoSettings.getService(project).setUseDeno(false)
+    assertSameElements(FileBasedIndex.getInstance().getFileData(DenoImportsIndex.NAME, main, project).keys,
+                       "https://deno.land/std/path/mod.ts")
+    assertEmpty(DenoModuleCache.getReachableModules(project))
+
+    // no reindexing when Deno is turned on
+    DenoSettings.getService(project).setUseDeno(true)
+    assertSameElements(DenoModuleCache.getReachableModules(project), module)
+  }
+
+  fun testModuleChain() {
+    val count = 100
+    val urls = (0 until count).map { "https://deno.land/x/module$it@v1.0.0/mod.ts" }
+    val modules = urls.mapIndexed { i, url -> cacheModule(url, "export * from \"https://deno.land/x/module${(i + 1) % count}@v1.0.0/mod.ts\";") }
+    refreshCache()
+
+    urls.forEachIndexed { i, url -> assertEquals(url, modules[i], findModuleFile(url)) }
+
+    myFixture.addFileToProject("main.ts", "import \"${urls[0]}\";")
+    assertEquals(count, DenoModuleCache.getReachableModules(project).size)
+  }
+
+  private fun findRemoteModuleReference(): DenoRemoteModuleReference {
+    val reference = myFixture.file.findReferenceAt(myFixture.caretOffset)
+    val references: Array<PsiReference> = if (reference is PsiMultiReference) reference.references else arrayOf(reference!!)
+    return references.filterIsInstance<DenoRemoteModuleReference>().single()
+  }
+}
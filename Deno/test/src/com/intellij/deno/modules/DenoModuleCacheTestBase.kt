@@ -0,0 +1,62 @@
+package com.intellij.deno.modules
+
+import com.intellij.deno.DenoTestBase
+import com.intellij.deno.DenoUtil
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.vfs.LocalFileSystem
+import com.intellij.openapi.vfs.VfsUtil
+import com.intellij.openapi.vfs.VirtualFile
+import java.io.File
+import java.net.URI
+import java.security.MessageDigest
+
+/**
+ * Uses a temporary Deno directory with modules stored by [cacheModule].
+ */
+abstract class DenoModuleCacheTestBase : DenoTestBase() {
+  protected lateinit var denoDir: File
+
+  override fun setUp() {
+    denoDir = FileUtil.createTempDirectory("deno", null)
+    FileUtil.createDirectory(File(denoDir, "deps"))
+    DenoUtil.setDenoDirForTests(FileUtil.toSystemIndependentName(denoDir.path))
+    LocalFileSystem.getInstance().refreshAndFindFileByIoFile(File(denoDir, "deps"))
+    super.setUp()
+  }
+
+  override fun tearDown() {
+    try {
+      DenoUtil.setDenoDirForTests(null)
+    }
+    catch (e: Exception) {
+      addSuppressedException(e)
+    }
+    finally {
+      super.tearDown()
+    }
+  }
+
+  protected fun findModuleFile(url: String): VirtualFile? = DenoModuleCache.findModuleFile(project, url)
+
+  /**
+   * Stores the module the way Deno does: `deps/<scheme>/<host>/<hash of the path>` with the headers and the URL next to it.
+   */
+  protected fun cacheModule(url: String, content: String, headers: Map<String, String> = emptyMap()): VirtualFile {
+    val file = File(denoDir, getHashedPath(url))
+    FileUtil.writeToFile(file, content)
+    val headersJson = headers.entries.joinToString(",") { "\"${it.key}\":\"${it.value}\"" }
+    FileUtil.writeToFile(File(file.path + ".metadata.json"), "{\"headers\":{$headersJson},\"url\":\"$url\"}")
+    return LocalFileSystem.getInstance().refreshAndFindFileByIoFile(file)!!
+  }
+
+  protected fun refreshCache() {
+    VfsUtil.markDirtyAndRefresh(false, true, true, File(denoDir, "deps"))
+  }
+
+  protected fun getHashedPath(url: String): String {
+    val uri = URI(url)
+    val path = uri.rawPath + (uri.rawQuery?.let { "?$it" } ?: "")
+    val hash = MessageDigest.getInstance("SHA-256").digest(path.toByteArray()).joinToString("") { String.format("%02x", it) }
+    return "deps/${uri.scheme}/${uri.host}/$hash"
+  }
+}
@@ -12,6 +12,10 @@ import jetbrains.communicator.core.users.UserEvent;
 import jetbrains.communicator.ide.IDEFacade;
 import jetbrains.communicator.util.WaitFor;
 import org.apache.log4j.Logger;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * @author Kir
@@ -23,11 +27,10 @@ public class AsyncMessageDispatcherImpl extends AbstractMessageDispatcher implem
   private final MyEventListener myEventListener;
   private final IDEFacade myIdeFacade;
 
-  private final Object myWorkingThreadLock = new Object();
-  private Thread myWorkingThread;
-  private Thread myThread;
-
-  private boolean myShouldDeliverNow;
+  // delivery requests only set the flag and unpark the dispatcher thread, neither senders nor the dispatcher take a lock for it
+  private final AtomicBoolean myShouldDeliverNow = new AtomicBoolean();
+  private volatile boolean myDisposed;
+  private volatile Thread myThread;
 
   public AsyncMessageDispatcherImpl(EventBroadcaster broadcaster, IDEFacade ideFacade) {
     super(broadcaster, ideFacade.getCacheDir());
@@ -49,41 +52,37 @@ public class AsyncMessageDispatcherImpl extends AbstractMessageDispatcher implem
     return myThread != null && myThread.isAlive();
   }
 
+  @TestOnly
+  Thread getThread() {
+    return myThread;
+  }
+
   @Override
   public void run() {
     LOG.debug("Starting " + Thread.currentThread().getName());
 
-    synchronized (myWorkingThreadLock) {
-      myWorkingThread = Thread.currentThread();
-      myThread = Thread.currentThread();
-    }
-    try {
-      LOG.debug("Started Network Message Dispatcher thread");
-      while (notDisposed()) {
-        synchronized(myWorkingThreadLock) {
-          while (!myShouldDeliverNow && notDisposed()) {
-            myWorkingThreadLock.wait();
-          }
-          myShouldDeliverNow = false;
-        }
-        LOG.debug("Process pending network messages");
-
-        if (notDisposed()) {
-          dispatchAllMessages();
+    myThread = Thread.currentThread();
+    LOG.debug("Started Network Message Dispatcher thread");
+    while (notDisposed()) {
+      if (!myShouldDeliverNow.getAndSet(false)) {
+        // a delivery requested after the check leaves a permit, so park() returns at once
+        LockSupport.park(this);
+        if (Thread.interrupted()) {
+          LOG.warn("Network Message Dispatcher thread is interrupted");
+          break;
         }
+        continue;
       }
-    } catch (InterruptedException e) {
-      LOG.warn(e.getMessage(), e);
-    }
-    finally {
-      synchronized(myWorkingThreadLock) {
-        myWorkingThread = null;
+      LOG.debug("Process pending network messages");
+
+      if (notDisposed()) {
+        dispatchAllMessages();
       }
     }
   }
 
   private boolean notDisposed() {
-    return myWorkingThread != null;
+    return !myDisposed;
   }
 
   private void dispatchAllMessages() {
@@ -102,10 +101,8 @@ public class AsyncMessageDispatcherImpl extends AbstractMessageDispatcher implem
   public void dispose() {
     myEventListener.dispose();
 
-    synchronized(myWorkingThreadLock) {
-      myWorkingThread = null;
-      myWorkingThreadLock.notifyAll();
-    }
+    myDisposed = true;
+    wakeUp();
     new WaitFor(10000){
       @Override
       protected boolean condition() {
@@ -123,10 +120,8 @@ public class AsyncMessageDispatcherImpl extends AbstractMessageDispatcher implem
 
   @Override
   public void sendLater(User user, Message message) {
-    synchronized(myWorkingThreadLock) {
-      addPendingMessage(user, message);
-      triggerDelivery();
-    }
+    addPendingMessage(user, message);
+    triggerDelivery();
   }
 
   @Override
@@ -135,9 +130,15 @@ public class AsyncMessageDispatcherImpl extends AbstractMessageDispatcher implem
   }
 
   void triggerDelivery() {
-    synchronized(myWorkingThreadLock) {
-      myShouldDeliverNow = true;
-      myWorkingThreadLock.notifyAll();
+    if (!myShouldDeliverNow.getAndSet(true)) {
+      wakeUp();
+    }
+  }
+
+  private void wakeUp() {
+    Thread thread = myThread;
+    if (thread != null) {
+      LockSupport.unpark(thread);
     }
   }
 
@@ -7,7 +7,6 @@ import jetbrains.communicator.core.impl.users.UserImpl;
 import jetbrains.communicator.core.users.User;
 import jetbrains.communicator.core.users.UserModel;
 import jetbrains.communicator.ide.IDEFacade;
-import jetbrains.communicator.util.TimeUtil;
 import jetbrains.communicator.util.XStreamUtil;
 import org.apache.log4j.Logger;
 import org.jetbrains.annotations.NonNls;
@@ -30,11 +29,15 @@ class MessageHistory {
   @NonNls
   private static final String HISTORY = "history";
 
-  private final DayHistory myHistory = new DayHistory();
+  @NonNls
+  private static final String LOG_FILE = "messages.log";
+
   @NonNls
   private final XStream myXStream;
-  private final UserModel myUserModel;
+  private final UserConverter myUserConverter;
   private final IDEFacade myFacade;
+  private final MessageLog myLog;
+  private boolean myLegacyHistoryMigrated;
 
   private Future<?> myPendingSave;
 
@@ -43,14 +46,14 @@ class MessageHistory {
 
   MessageHistory(IDEFacade facade, UserModel userModel) {
     myFacade = facade;
-    myUserModel = userModel;
+    myUserConverter = new UserConverter(userModel);
 
     getHistoryDir().mkdir();
 
     myXStream = XStreamUtil.createXStream();
     setupXStream();
 
-    loadHistorySince(new Date());
+    myLog = new MessageLog(new File(getHistoryDir(), LOG_FILE), myXStream);
   }
 
   public synchronized void dispose() {
@@ -59,7 +62,7 @@ class MessageHistory {
       myPendingSave = null;
     }
 
-    myHistory.clear();
+    myLog.flush();
   }
 
   private void setupXStream() {
@@ -67,16 +70,18 @@ class MessageHistory {
     myXStream.alias("dayHistory", DayHistory.class);
     myXStream.aliasField("historyEntries", DayHistory.class, "myData");
 
-    myXStream.registerConverter(new UserConverter(myUserModel));
+    myXStream.registerConverter(myUserConverter);
   }
 
   public synchronized void addMessage(User user, LocalMessage message) {
-    myHistory.addMessage(user, message);
+    ensureLegacyHistoryMigrated();
+    myLog.add(getUserKey(user), message);
     triggerSave();
   }
 
   public synchronized void clear() {
-    myHistory.clear();
+    myLog.clear();
+    myLegacyHistoryMigrated = true;
 
     deleteAllHistoryFiles();
   }
@@ -96,68 +101,48 @@ class MessageHistory {
   }
 
   public synchronized LocalMessage[] getHistory(User user, @Nullable Date since) {
-    loadHistorySince(since);
-
-    List<LocalMessage> list = filterHistoryByDate(user, since);
-    return list.toArray(new LocalMessage[0]);
+    ensureLegacyHistoryMigrated();
+    return myLog.read(getUserKey(user), since).toArray(new LocalMessage[0]);
   }
 
-  private List<LocalMessage> filterHistoryByDate(User user, Date since) {
-    List<LocalMessage> list = myHistory.readMessages(user);
-    if (since != null) {
-      List<LocalMessage> result = new ArrayList<>(list.size());
-      for (LocalMessage message : list) {
-        if (message.getWhen().after(since)) {
-          result.add(message);
-        }
-      }
-      list = result;
-    }
-    return list;
+  private String getUserKey(User user) {
+    return myUserConverter.toString(user);
   }
 
-  private void loadHistorySince(@Nullable Date since) {
-    if (since != null) {
-      since = TimeUtil.getDay(since);
-    }
+  /**
+   * Moves history stored in per-day XML files by previous versions into the message log.
+   */
+  private void ensureLegacyHistoryMigrated() {
+    if (myLegacyHistoryMigrated) return;
+    myLegacyHistoryMigrated = true;
 
-    if (!myHistory.hasHistorySince(since)) {
-      if (since == null) {
-        doLoadHistorySince(new Date(0));
-        myHistory.setHasFullHistory();
-      }
-      else {
-        doLoadHistorySince(since);
-      }
-    }
-  }
-
-  private void doLoadHistorySince(Date since) {
-    File historyDir = getHistoryDir();
-
-    String[] historyFiles = historyDir.list((dir, name) -> name.endsWith(".xml"));
+    String[] historyFiles = getHistoryDir().list((dir, name) -> name.endsWith(".xml"));
+    if (historyFiles == null || historyFiles.length == 0) return;
 
+    LOG.info("Migrating " + historyFiles.length + " history files");
     Arrays.sort(historyFiles);
-    for (int i = historyFiles.length - 1; i >= 0; i--) {
-      String historyFile = historyFiles[i];
+    for (String historyFile : historyFiles) {
       try {
-        Date date = DATE_FORMAT.parse(historyFile);
-        if (!date.before(since) && !myHistory.hasHistorySince(date)) {
-          DayHistory dayHistory = (DayHistory)XStreamUtil.fromXml(myXStream, myFacade.getCacheDir(), getFileNameForDate(date), false);
-          if (dayHistory != null) {
-            dayHistory.copyTo(myHistory);
-          }
-        }
+        DATE_FORMAT.parse(historyFile);
       }
       catch (ParseException e) {
         // ignore file of wrong format
+        continue;
       }
-      catch (NumberFormatException e) {
-        // ignore file of wrong format
+      DayHistory dayHistory = (DayHistory)XStreamUtil.fromXml(myXStream, getHistoryDir(), historyFile, false);
+      if (dayHistory != null) {
+        for (User user : dayHistory.keySet()) {
+          for (LocalMessage message : dayHistory.readMessages(user)) {
+            myLog.add(getUserKey(user), message);
+          }
+        }
       }
     }
+    if (!myLog.flush()) return;
 
-    myHistory.resort();
+    for (String historyFile : historyFiles) {
+      new File(getHistoryDir(), historyFile).delete();
+    }
   }
 
   private void triggerSave() {
@@ -178,51 +163,12 @@ class MessageHistory {
 
   private synchronized void saveHistory() {
     LOG.debug("Start history save");
-    Map<Date, DayHistory> map = getHistory();
-    for (Date date : map.keySet()) {
-      DayHistory dayHistory = map.get(date);
-      try {
-        XStreamUtil.toXml(myXStream, myFacade.getCacheDir(), getFileNameForDate(date), dayHistory);
-      } catch (RuntimeException e) {
-        LOG.error("Unable to save dayHistory for " + date + ": " + dayHistory, e);
-      }
-    }
-
+    myLog.flush();
     LOG.debug("Done history save");
   }
 
-  private synchronized Map<Date, DayHistory> getHistory() {
-    Map<Date, DayHistory> result = new HashMap<>();
-
-    for (User user : myHistory.keySet()) {
-      List<LocalMessage> messages = myHistory.get(user);
-      for (LocalMessage message : messages) {
-        DayHistory dayHistory = getDayHistoryFor(message, result);
-
-        dayHistory.addMessage(user, message);
-      }
-    }
-
-    return result;
-  }
-
-  private static DayHistory getDayHistoryFor(LocalMessage message, Map<Date, DayHistory> result) {
-    Date day = TimeUtil.getDay(message.getWhen());
-    DayHistory dayHistory = result.get(day);
-    if (dayHistory == null) {
-      dayHistory = new DayHistory();
-      result.put(day, dayHistory);
-    }
-    return dayHistory;
-  }
-
-  @NonNls
-  private static String getFileNameForDate(Date date) {
-    return HISTORY + '/' + DATE_FORMAT.format(date) + ".xml";
-  }
-
-  public boolean isEmpty() {
-    File historyDir = getHistoryDir();
-    return !(historyDir.isDirectory() && historyDir.list().length > 0);
+  public synchronized boolean isEmpty() {
+    ensureLegacyHistoryMigrated();
+    return myLog.isEmpty();
   }
 }
@@ -0,0 +1,313 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package jetbrains.communicator.core.impl.dispatcher;
+
+import com.thoughtworks.xstream.XStream;
+import jetbrains.communicator.core.dispatcher.LocalMessage;
+import jetbrains.communicator.util.TimeUtil;
+import org.apache.log4j.Logger;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Append-only binary log of history messages.<br>
+ * Each record consists of a header (user key, message timestamp, payload length) followed by
+ * the message serialized with XStream. Only headers are read to build the per-user, per-day offset index,
+ * message payloads are read lazily page by page when history for a user is requested.
+ * <p>
+ * Not thread safe, access is guarded by {@link MessageHistory}.
+ */
+class MessageLog {
+  @NonNls
+  private static final Logger LOG = Logger.getLogger(MessageLog.class);
+
+  private static final int MAGIC = 0x49544c47;
+  private static final int VERSION = 1;
+  private static final int FILE_HEADER_SIZE = 8;
+  private static final int PAGE_SIZE = 256;
+  private static final int MAX_USER_KEY_LENGTH = 0xFFFF;
+
+  private final File myFile;
+  private final XStream myXStream;
+
+  private final Map<String, UserIndex> myIndex = new HashMap<>();
+  private final List<Entry> myPending = new ArrayList<>();
+  private boolean myIndexed;
+  private long myValidLength;
+  /**
+   * set when the log file could not be read completely, appending to it would drop the records which were not indexed
+   */
+  private boolean myReadOnly;
+
+  MessageLog(File file, XStream xStream) {
+    myFile = file;
+    myXStream = xStream;
+  }
+
+  public void add(String userKey, LocalMessage message) {
+    ensureIndexed();
+    Entry entry = new Entry(message.getWhen().getTime(), -1, 0);
+    entry.myMessage = message;
+    entry.myUserKey = userKey;
+    getUserIndex(userKey).add(entry);
+    myPending.add(entry);
+  }
+
+  public boolean isEmpty() {
+    ensureIndexed();
+    return myIndex.isEmpty();
+  }
+
+  /**
+   * @return messages of the user sent after <code>since</code> sorted by time, all messages if <code>since</code> is null
+   */
+  public List<LocalMessage> read(String userKey, @Nullable Date since) {
+    ensureIndexed();
+    UserIndex userIndex = myIndex.get(userKey);
+    if (userIndex == null) return Collections.emptyList();
+
+    List<Entry> entries = userIndex.getEntriesAfter(since);
+    for (int from = 0; from < entries.size(); from += PAGE_SIZE) {
+      loadPage(entries.subList(from, Math.min(entries.size(), from + PAGE_SIZE)));
+    }
+
+    List<LocalMessage> result = new ArrayList<>(entries.size());
+    for (Entry entry : entries) {
+      if (entry.myMessage != null) {
+        result.add(entry.myMessage);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Appends messages added since the previous flush to the end of the log file.
+   *
+   * @return false if the log file could not be written
+   */
+  public boolean flush() {
+    if (myPending.isEmpty()) return true;
+    if (myReadOnly) {
+      LOG.info("History log " + myFile + " could not be read, new messages are not saved");
+      return false;
+    }
+
+    try (RandomAccessFile file = new RandomAccessFile(myFile, "rw")) {
+      if (myValidLength < FILE_HEADER_SIZE) {
+        file.setLength(0);
+        file.writeInt(MAGIC);
+        file.writeInt(VERSION);
+        myValidLength = FILE_HEADER_SIZE;
+      }
+      else if (file.length() != myValidLength) {
+        // drop a partially written record left after a crash
+        file.setLength(myValidLength);
+      }
+      file.seek(myValidLength);
+
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(buffer);
+      long offset = myValidLength;
+      List<Entry> written = new ArrayList<>(myPending.size());
+      for (Entry entry : myPending) {
+        byte[] payload;
+        try {
+          payload = myXStream.toXML(entry.myMessage).getBytes(StandardCharsets.UTF_8);
+        }
+        catch (RuntimeException e) {
+          LOG.error("Unable to save history message " + entry.myMessage, e);
+          continue;
+        }
+        byte[] userKey = entry.myUserKey.getBytes(StandardCharsets.UTF_8);
+        if (userKey.length > MAX_USER_KEY_LENGTH) {
+          LOG.warn("User key is too long to save history message: " + userKey.length + " bytes");
+          continue;
+        }
+        int headerSize = buffer.size();
+        out.writeShort(userKey.length);
+        out.write(userKey);
+        out.writeLong(entry.myWhen);
+        out.writeInt(payload.length);
+        headerSize = buffer.size() - headerSize;
+        out.write(payload);
+
+        entry.myOffset = offset + headerSize;
+        entry.myLength = payload.length;
+        offset += headerSize + payload.length;
+        written.add(entry);
+      }
+      file.write(buffer.toByteArray());
+      myValidLength = offset;
+
+      for (Entry entry : written) {
+        entry.myUserKey = null;
+      }
+      myPending.clear();
+      return true;
+    }
+    catch (IOException e) {
+      LOG.error("Unable to save history to " + myFile, e);
+      return false;
+    }
+  }
+
+  public void clear() {
+    myIndex.clear();
+    myPending.clear();
+    myValidLength = 0;
+    myIndexed = true;
+    myReadOnly = false;
+    if (myFile.exists() && !myFile.delete()) {
+      LOG.info("Unable to delete " + myFile);
+    }
+  }
+
+  private void ensureIndexed() {
+    if (myIndexed) return;
+    myIndexed = true;
+
+    if (!myFile.isFile()) return;
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(myFile)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        in.close();
+        moveAside();
+        return;
+      }
+      long fileLength = myFile.length();
+      long position = FILE_HEADER_SIZE;
+      myValidLength = position;
+      int count = 0;
+      while (position < fileLength) {
+        byte[] userKey = new byte[in.readUnsignedShort()];
+        in.readFully(userKey);
+        long when = in.readLong();
+        int length = in.readInt();
+        position += 2 + userKey.length + 8 + 4;
+        if (length < 0 || position + length > fileLength) break;
+        skipFully(in, length);
+
+        getUserIndex(new String(userKey, StandardCharsets.UTF_8)).add(new Entry(when, position, length));
+        position += length;
+        myValidLength = position;
+        count++;
+      }
+      LOG.debug("Indexed " + count + " history messages");
+    }
+    catch (EOFException e) {
+      if (myValidLength == 0) {
+        moveAside();
+      }
+      else {
+        LOG.info("History log " + myFile + " is truncated at " + myValidLength);
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Error reading " + myFile, e);
+      myReadOnly = true;
+    }
+  }
+
+  /**
+   * Keeps a log of an unknown format, e.g. written by a newer version, next to the new log instead of overwriting it.
+   */
+  private void moveAside() {
+    File unsupported = new File(myFile.getPath() + ".unsupported." + System.currentTimeMillis());
+    if (myFile.renameTo(unsupported)) {
+      LOG.info("Unsupported history log format, moved " + myFile + " to " + unsupported);
+    }
+    else {
+      LOG.info("Unsupported history log format, unable to move " + myFile + ", history is not saved");
+      myReadOnly = true;
+    }
+  }
+
+  private void loadPage(List<Entry> page) {
+    List<Entry> toLoad = new ArrayList<>(page.size());
+    for (Entry entry : page) {
+      if (entry.myMessage == null && entry.myOffset >= 0) {
+        toLoad.add(entry);
+      }
+    }
+    if (toLoad.isEmpty()) return;
+
+    // read payloads in file order to keep seeks forward-only
+    toLoad.sort(Comparator.comparingLong(o -> o.myOffset));
+    try (RandomAccessFile file = new RandomAccessFile(myFile, "r")) {
+      for (Entry entry : toLoad) {
+        byte[] payload = new byte[entry.myLength];
+        file.seek(entry.myOffset);
+        file.readFully(payload);
+        try {
+          entry.myMessage = (LocalMessage)myXStream.fromXML(new String(payload, StandardCharsets.UTF_8));
+        }
+        catch (RuntimeException e) {
+          LOG.info("Unable to read history message at " + entry.myOffset, e);
+          entry.myOffset = -1;
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Error reading " + myFile, e);
+    }
+  }
+
+  private UserIndex getUserIndex(String userKey) {
+    return myIndex.computeIfAbsent(userKey, k -> new UserIndex());
+  }
+
+  private static void skipFully(InputStream in, long length) throws IOException {
+    while (length > 0) {
+      long skipped = in.skip(length);
+      if (skipped <= 0) throw new EOFException();
+      length -= skipped;
+    }
+  }
+
+  private static class UserIndex {
+    private final TreeMap<Long, List<Entry>> myDays = new TreeMap<>();
+
+    void add(Entry entry) {
+      long day = TimeUtil.getDay(new Date(entry.myWhen)).getTime();
+      List<Entry> entries = myDays.computeIfAbsent(day, k -> new ArrayList<>());
+
+      int idx = entries.size();
+      while (idx > 0 && entries.get(idx - 1).myWhen > entry.myWhen) {
+        idx--;
+      }
+      entries.add(idx, entry);
+    }
+
+    List<Entry> getEntriesAfter(@Nullable Date since) {
+      Collection<List<Entry>> days = since == null
+                                     ? myDays.values()
+                                     : myDays.tailMap(TimeUtil.getDay(since).getTime(), true).values();
+      List<Entry> result = new ArrayList<>();
+      for (List<Entry> entries : days) {
+        for (Entry entry : entries) {
+          if (since == null || entry.myWhen > since.getTime()) {
+            result.add(entry);
+          }
+        }
+      }
+      return result;
+    }
+  }
+
+  private static class Entry {
+    private final long myWhen;
+    private long myOffset;
+    private int myLength;
+    private LocalMessage myMessage;
+    private String myUserKey;
+
+    Entry(long when, long offset, int length) {
+      myWhen = when;
+      myOffset = offset;
+      myLength = length;
+    }
+  }
+}
@@ -1,19 +1,30 @@
-// Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package jetbrains.communicator.p2p;
 
+import com.intellij.util.concurrency.AppExecutorUtil;
 import jetbrains.communicator.ide.IDEFacade;
 import jetbrains.communicator.p2p.commands.AddOnlineUserP2PCommand;
 import org.apache.log4j.Logger;
+import org.jetbrains.annotations.TestOnly;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.InetAddress;
-import java.net.MulticastSocket;
-import java.net.SocketException;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
+ * Listens for multicast ping requests on all given local addresses and answers them.
+ * <p>
+ * There is a single thread for all network interfaces: every address gets a non-blocking datagram channel joined
+ * to the multicast group on its interface, all channels are served by one selector.
+ * The same channels are used to send ping requests.
+ *
  * @author Kir Maximov
  */
 @SuppressWarnings({"HardCodedStringLiteral"})
@@ -27,22 +38,29 @@ class MulticastPingThread extends Thread {
   private static final int BUFFER_SIZE = PING_MESSAGE.getBytes(StandardCharsets.UTF_8).length + 6;
   private static final int ALLOWED_FAILURES = 3000;
 
+  // answering a ping is a blocking XML-RPC call, it must not stop listening on other interfaces
+  private static final ExecutorService ourReplyExecutor =
+    AppExecutorUtil.createBoundedApplicationPoolExecutor("IDEtalk Multicast Replies", 1);
+
   private volatile boolean myIsRunning;
-  private MulticastSocket myDatagramSocket;
-  protected boolean myStarted;
+  private volatile Selector mySelector;
+  protected volatile boolean myStarted;
 
-  private final InetAddress mySelfAddress;
+  private final InetAddress[] mySelfAddresses;
+  private final List<Endpoint> myEndpoints = new ArrayList<>();
   private final IDEFacade myIdeFacade;
   private final UserMonitorClient myUserMonitorClient;
 
-  private int myFailuresCounter;
-
   MulticastPingThread(InetAddress address, IDEFacade ideFacade, UserMonitorClient userMonitorClient) {
-    super(address.toString() + " IDEtalk Multicast Thread");
+    this(new InetAddress[]{address}, ideFacade, userMonitorClient);
+  }
+
+  MulticastPingThread(InetAddress[] addresses, IDEFacade ideFacade, UserMonitorClient userMonitorClient) {
+    super("IDEtalk Multicast Thread " + Arrays.toString(addresses));
     setDaemon(true); //Sometimes this thread lives forever, that's why idea.exe process never ends
                      // see jetbrains.communicator.p2p.NetworkUtil.sendMessage(...) inside try/catch block
                      //TODO: make it not a Daemon thread again and fix the problem somewhere else. Where...?
-    mySelfAddress = address;
+    mySelfAddresses = addresses;
     myIdeFacade = ideFacade;
     myUserMonitorClient = userMonitorClient;
 
@@ -52,34 +70,33 @@ class MulticastPingThread extends Thread {
   public void sendMulticastPingRequest() throws IOException {
     if (!myIsRunning) return;
 
-    MulticastSocket datagramSocket = null;
-    try {
-      datagramSocket = new MulticastSocket();
-      datagramSocket.setInterface(mySelfAddress);
-      LOG.debug("Sending Multicast ping request: " + mySelfAddress);
-      sendMessage(datagramSocket, PING_MESSAGE + myUserMonitorClient.getPort());
-      myFailuresCounter = 0;
-    } catch (IOException e) {
-
-      if (++myFailuresCounter > ALLOWED_FAILURES) {
-        LOG.info("Unable to send multicast request on interface " + mySelfAddress + ". I give up after " +
-            myFailuresCounter + " attempts.", e);
-        myIsRunning = false;
-      }
+    ByteBuffer message = ByteBuffer.wrap((PING_MESSAGE + myUserMonitorClient.getPort()).getBytes(StandardCharsets.UTF_8));
+    InetSocketAddress group = new InetSocketAddress(InetAddress.getByName(MULTICAST_ADORES), MULTICAST_PORT);
+    List<Endpoint> endpoints;
+    synchronized (myEndpoints) {
+      endpoints = new ArrayList<>(myEndpoints);
     }
-    finally {
-      if (datagramSocket != null) {
-        datagramSocket.close();
+    for (Endpoint endpoint : endpoints) {
+      if (!endpoint.channel.isOpen()) continue;
+      try {
+        LOG.debug("Sending Multicast ping request: " + endpoint.address);
+        endpoint.channel.send(message.duplicate(), group);
+        endpoint.failures = 0;
+      }
+      catch (IOException e) {
+        if (++endpoint.failures > ALLOWED_FAILURES) {
+          LOG.info("Unable to send multicast request on interface " + endpoint.address + ". I give up after " +
+                   endpoint.failures + " attempts.", e);
+          close(endpoint);
+          Selector selector = mySelector;
+          if (selector != null) {
+            selector.wakeup();
+          }
+        }
       }
     }
   }
 
-  private static void sendMessage(MulticastSocket datagramSocket, String msg) throws IOException {
-    DatagramPacket packet = new DatagramPacket(msg.getBytes(StandardCharsets.UTF_8), 0, msg.getBytes(StandardCharsets.UTF_8).length,
-                                               InetAddress.getByName(MULTICAST_ADORES), MULTICAST_PORT);
-    datagramSocket.send(packet);
-  }
-
   @Override
   public void run() {
     LOG.info(getName() + ": Start thread.");
@@ -91,59 +108,116 @@ class MulticastPingThread extends Thread {
                                               // see IDEA-52501
       }
     });
-    myDatagramSocket = null;
     myIsRunning = true;
 
-    try {
-      myDatagramSocket = new MulticastSocket(MULTICAST_PORT);
-      myDatagramSocket.setInterface(mySelfAddress);
-      myDatagramSocket.joinGroup(InetAddress.getByName(MULTICAST_ADORES));
-
-      byte[] buffer = new byte[BUFFER_SIZE];
-      while (myIsRunning) {
-        try {
-          DatagramPacket datagramPacket = new DatagramPacket(buffer, buffer.length);
-          LOG.debug(getName() + ": Listening for multicast messages... ");
-          myStarted = true;
-          myDatagramSocket.receive(datagramPacket);
-          String message = new String(buffer, 0, datagramPacket.getLength(), StandardCharsets.UTF_8);
-          final InetAddress remoteAddress = datagramPacket.getAddress();
-
-          if (LOG.isDebugEnabled()) {
-            LOG.debug(getName() + ": Got multicast message '" + message + "' from " + remoteAddress);
-          }
-          if (message.startsWith(PING_MESSAGE)) {
-            final int targetPort = extractPort(message);
+    try (Selector selector = Selector.open()) {
+      mySelector = selector;
+      InetAddress group = InetAddress.getByName(MULTICAST_ADORES);
+      for (InetAddress address : mySelfAddresses) {
+        Endpoint endpoint = openEndpoint(address, group);
+        if (endpoint != null) {
+          endpoint.channel.register(selector, SelectionKey.OP_READ, endpoint);
+        }
+      }
+      if (selector.keys().isEmpty()) return;
 
-            if (shouldAddSelf(datagramPacket, targetPort)) {
-              addSelfInfoTo(remoteAddress, targetPort);
+      ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      LOG.debug(getName() + ": Listening for multicast messages... ");
+      myStarted = true;
+      while (myIsRunning && !selector.keys().isEmpty()) {
+        selector.select();
+        if (Thread.interrupted()) break;
+        for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+          SelectionKey key = it.next();
+          it.remove();
+          if (key.isValid() && key.isReadable()) {
+            Endpoint endpoint = (Endpoint)key.attachment();
+            buffer.clear();
+            try {
+              SocketAddress remote = endpoint.channel.receive(buffer);
+              if (remote instanceof InetSocketAddress) {
+                buffer.flip();
+                processMessage(endpoint, ((InetSocketAddress)remote).getAddress(), StandardCharsets.UTF_8.decode(buffer).toString());
+              }
+            }
+            catch (ClosedChannelException e) {
+              key.cancel();
+            }
+            catch (IOException e) {
+              LOG.error(e.getMessage(), e);
             }
           }
         }
-        catch(SocketException e) {
-          if (!"Socket closed".equalsIgnoreCase(e.getMessage())) {
-            LOG.error(e.getMessage(), e);
-          }
-          else {
-            myIsRunning = false;
-          }
-        }
       }
-    } catch (SocketException e) {
+    }
+    catch (ClosedSelectorException | ClosedByInterruptException ignored) {
+    }
+    catch (IOException e) {
+      logError(e);
+    }
+    finally {
+      myIsRunning = false;
+      mySelector = null;
+      List<Endpoint> endpoints;
+      synchronized (myEndpoints) {
+        endpoints = new ArrayList<>(myEndpoints);
+        myEndpoints.clear();
+      }
+      for (Endpoint endpoint : endpoints) {
+        close(endpoint);
+      }
+    }
+  }
+
+  private Endpoint openEndpoint(InetAddress address, InetAddress group) {
+    DatagramChannel channel = null;
+    try {
+      NetworkInterface networkInterface = NetworkInterface.getByInetAddress(address);
+      if (networkInterface == null) {
+        LOG.info(getName() + ": no network interface for " + address);
+        return null;
+      }
+      channel = DatagramChannel.open(StandardProtocolFamily.INET)
+        .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+        .bind(new InetSocketAddress(MULTICAST_PORT))
+        .setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+      channel.join(group, networkInterface);
+      channel.configureBlocking(false);
+
+      Endpoint endpoint = new Endpoint(address, channel);
+      synchronized (myEndpoints) {
+        myEndpoints.add(endpoint);
+      }
+      return endpoint;
+    }
+    catch (IOException e) {
       final String msg = e.getMessage();
       if (msg != null) {
-        LOG.info(msg, e);
+        LOG.info(address + ": " + msg, e);
       }
       else {
         logError(e);
       }
-    } catch (IOException e) {
-      logError(e);
+      if (channel != null) {
+        try {
+          channel.close();
+        }
+        catch (IOException ignored) {
+        }
+      }
+      return null;
     }
-    finally {
-      myIsRunning = false;
-      if (myDatagramSocket != null && !myDatagramSocket.isClosed()){
-        myDatagramSocket.close();
+  }
+
+  private void processMessage(Endpoint endpoint, InetAddress remoteAddress, String message) {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(getName() + ": Got multicast message '" + message + "' from " + remoteAddress + " on " + endpoint.address);
+    }
+    if (message.startsWith(PING_MESSAGE)) {
+      final int targetPort = extractPort(message);
+
+      if (shouldAddSelf(endpoint.address, remoteAddress, targetPort)) {
+        ourReplyExecutor.execute(() -> addSelfInfoTo(endpoint.address, remoteAddress, targetPort));
       }
     }
   }
@@ -152,25 +226,22 @@ class MulticastPingThread extends Thread {
     LOG.error(getName() + " is terminated:\n" + e.getMessage(), e);
   }
 
-  private void addSelfInfoTo(InetAddress remoteAddress, int targetPort) {
+  private void addSelfInfoTo(InetAddress selfAddress, InetAddress remoteAddress, int targetPort) {
     String[] projects = myIdeFacade.getProjects();
 
     if (LOG.isDebugEnabled()) {
       LOG.debug(getName() + ": Add self to " + remoteAddress);
     }
-    AddOnlineUserP2PCommand.addSelfTo(targetPort, remoteAddress, mySelfAddress, myUserMonitorClient.getPort(), Arrays.asList(projects), myUserMonitorClient.getOwnPresence());
+    AddOnlineUserP2PCommand.addSelfTo(targetPort, remoteAddress, selfAddress, myUserMonitorClient.getPort(), Arrays.asList(projects),
+                                      myUserMonitorClient.getOwnPresence());
   }
 
-  private boolean shouldAddSelf(DatagramPacket datagramPacket, int targetPort) {
-    boolean ownAddress = NetworkUtil.isOwnAddress(datagramPacket.getAddress());
+  private boolean shouldAddSelf(InetAddress selfAddress, InetAddress remoteAddress, int targetPort) {
+    boolean ownAddress = NetworkUtil.isOwnAddress(remoteAddress);
     if (ownAddress) {
-      return shouldSendToSelf(datagramPacket, targetPort); // For tests
+      return remoteAddress.equals(selfAddress) && targetPort == myUserMonitorClient.getPort(); // For tests
     }
-    return !mySelfAddress.isLoopbackAddress();
-  }
-
-  private boolean shouldSendToSelf(DatagramPacket datagramPacket, int targetPort) {
-    return datagramPacket.getAddress().equals(mySelfAddress) && targetPort == myUserMonitorClient.getPort();
+    return !selfAddress.isLoopbackAddress();
   }
 
   static int extractPort(String message) {
@@ -185,18 +256,19 @@ class MulticastPingThread extends Thread {
   }
 
   public void shutdown() {
-    if (myDatagramSocket != null) {
-      myDatagramSocket.close();
+    myIsRunning = false;
+    Selector selector = mySelector;
+    if (selector != null) {
+      selector.wakeup();
     }
-    if (myIsRunning) {
-      myIsRunning = false;
-      //try {
-      //  while (!myDisposed) {
-      //    Thread.sleep(100);
-      //  }
-      //}
-      //catch (InterruptedException ignored) {
-      //}
+  }
+
+  private static void close(Endpoint endpoint) {
+    try {
+      endpoint.channel.close();
+    }
+    catch (IOException e) {
+      LOG.debug(e);
     }
   }
 
@@ -207,4 +279,28 @@ class MulticastPingThread extends Thread {
   public boolean isRunning() {
     return myIsRunning;
   }
+
+  @TestOnly
+  List<InetAddress> getListenedAddresses() {
+    List<InetAddress> result = new ArrayList<>();
+    synchronized (myEndpoints) {
+      for (Endpoint endpoint : myEndpoints) {
+        if (endpoint.channel.isOpen()) {
+          result.add(endpoint.address);
+        }
+      }
+    }
+    return result;
+  }
+
+  private static final class Endpoint {
+    final InetAddress address;
+    final DatagramChannel channel;
+    int failures;
+
+    Endpoint(InetAddress address, DatagramChannel channel) {
+      this.address = address;
+      this.channel = channel;
+    }
+  }
 }
@@ -72,11 +72,10 @@ public final class UserMonitorThread extends Thread {
   }
 
   private static MulticastPingThread[] createMulticastThreads(P2PTransport client) {
-    List<MulticastPingThread> result = new ArrayList<>();
-    for (InetAddress selfAddress : NetworkUtil.getSelfAddresses()) {
-      result.add(new MulticastPingThread(selfAddress, client.getIdeFacade(), client));
-    }
-    return result.toArray(new MulticastPingThread[0]);
+    // one thread serves all interfaces, there may be dozens of them with Docker or VPN
+    InetAddress[] selfAddresses = NetworkUtil.getSelfAddresses().toArray(new InetAddress[0]);
+    if (selfAddresses.length == 0) return new MulticastPingThread[0];
+    return new MulticastPingThread[]{new MulticastPingThread(selfAddresses, client.getIdeFacade(), client)};
   }
 
   public void shutdown() {
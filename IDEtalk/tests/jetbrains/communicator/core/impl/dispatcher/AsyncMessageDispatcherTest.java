@@ -68,6 +68,17 @@ public class AsyncMessageDispatcherTest extends BaseTestCase {
     
   }
 
+  public void testInterruptStopsThread() {
+    myDispatcher.getThread().interrupt();
+    new WaitFor(1000) {
+      @Override
+      protected boolean condition() {
+        return !myDispatcher.isRunning();
+      }
+    };
+    assertFalse(myDispatcher.isRunning());
+  }
+
   public void testAsyncDispatch_Success() {
 
     NotifyableMessage mockMessage = new NotifyableMessage(true, myLog);
@@ -242,7 +242,7 @@ public class LocalMessageDispatcherTest extends BaseTestCase {
     myDispatcher.sendNow(myUser, new MockMessage(yesterday()));
 
     Thread.sleep(SAVE_WAIT_TIMEOUT);
-    assertEquals(2, new File(myIdeFacade.getCacheDir(), "history").listFiles().length);
+    assertEquals(1, new File(myIdeFacade.getCacheDir(), "history").listFiles().length);
 
     LocalMessageDispatcherImpl localMessageDispatcher = createLocalMessageDispatcher();
     LocalMessage[] messages = localMessageDispatcher.getHistory(myUser, a_moment_ago());
@@ -0,0 +1,81 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package jetbrains.communicator.core.impl.dispatcher;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.thoughtworks.xstream.XStream;
+import jetbrains.communicator.LightTestCase;
+import jetbrains.communicator.core.dispatcher.LocalMessage;
+import jetbrains.communicator.mock.MockMessage;
+import jetbrains.communicator.util.XStreamUtil;
+
+import java.io.File;
+import java.util.Date;
+import java.util.List;
+
+@SuppressWarnings({"HardCodedStringLiteral"})
+public class MessageLogTest extends LightTestCase {
+  private File myDir;
+  private File myFile;
+  private XStream myXStream;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myDir = FileUtil.createTempDirectory("history", null);
+    myFile = new File(myDir, "messages.log");
+    myXStream = XStreamUtil.createXStream();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      FileUtil.delete(myDir);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testAppendedIncrementally() {
+    MessageLog log = new MessageLog(myFile, myXStream);
+    log.add("user", new MockMessage(new Date(System.currentTimeMillis() - 1000), "first"));
+    assertTrue(log.flush());
+    long firstLength = myFile.length();
+    assertTrue(firstLength > 0);
+
+    log.add("user", new MockMessage(new Date(), "second"));
+    assertTrue(log.flush());
+    assertTrue("Expect the second message to be appended", myFile.length() > firstLength);
+
+    List<LocalMessage> messages = new MessageLog(myFile, myXStream).read("user", null);
+    assertEquals(2, messages.size());
+    assertEquals("first", ((MockMessage)messages.get(0)).getMessage());
+    assertEquals("second", ((MockMessage)messages.get(1)).getMessage());
+  }
+
+  public void testUnknownFormatIsNotOverwritten() throws Exception {
+    FileUtil.writeToFile(myFile, "history of another version");
+
+    MessageLog log = new MessageLog(myFile, myXStream);
+    log.add("user", new MockMessage(new Date(), "new"));
+    assertTrue(log.flush());
+
+    File[] files = myDir.listFiles((dir, name) -> name.startsWith("messages.log.unsupported"));
+    assertNotNull(files);
+    assertEquals(1, files.length);
+    assertEquals("history of another version", FileUtil.loadFile(files[0]));
+    assertEquals(1, new MessageLog(myFile, myXStream).read("user", null).size());
+  }
+
+  public void testTooLongUserKeyIsNotSaved() {
+    MessageLog log = new MessageLog(myFile, myXStream);
+    log.add(StringUtil.repeat("u", 0x10000), new MockMessage(new Date(), "lost"));
+    log.add("user", new MockMessage(new Date(), "saved"));
+    assertTrue(log.flush());
+
+    MessageLog reread = new MessageLog(myFile, myXStream);
+    assertEquals(1, reread.read("user", null).size());
+    assertEquals(0, reread.read(StringUtil.repeat("u", 0x10000), null).size());
+  }
+}
@@ -16,13 +16,20 @@
 package jetbrains.communicator.p2p;
 
 import jetbrains.communicator.core.impl.BaseTestCase;
+import jetbrains.communicator.util.WaitFor;
 
 import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 
 /**
  * @author Kir
  */
 public class MulticastPingThreadTest extends BaseTestCase {
+  // TEST-NET-1, not assigned to any local interface
+  private static final String UNKNOWN_ADDRESS = "192.0.2.1";
+
   private MulticastPingThread myMulticastPingThread;
 
   @Override
@@ -40,4 +47,56 @@ public class MulticastPingThreadTest extends BaseTestCase {
 
   }
 
+  public void testOneThreadListensOnAllInterfaces() throws Exception {
+    List<InetAddress> addresses = new ArrayList<>(NetworkUtil.getSelfAddresses());
+    addresses.add(InetAddress.getByName(UNKNOWN_ADDRESS));
+    MulticastPingThread thread = startThread(addresses.toArray(new InetAddress[0]));
+    try {
+      List<InetAddress> listened = thread.getListenedAddresses();
+      assertFalse(listened.contains(InetAddress.getByName(UNKNOWN_ADDRESS)));
+      assertTrue(addresses.containsAll(listened));
+      assertEquals("One channel per interface", new HashSet<>(listened).size(), listened.size());
+      assertEquals(!listened.isEmpty(), thread.isStarted());
+    }
+    finally {
+      stopThread(thread);
+    }
+    assertEmpty(thread.getListenedAddresses());
+  }
+
+  public void testNoInterfaces() throws Exception {
+    MulticastPingThread thread = startThread(new InetAddress[]{InetAddress.getByName(UNKNOWN_ADDRESS)});
+    thread.join(5000);
+    assertFalse(thread.isAlive());
+    assertFalse(thread.isStarted());
+    assertEmpty(thread.getListenedAddresses());
+  }
+
+  public void testInterruptStopsThread() throws Exception {
+    MulticastPingThread thread = startThread(NetworkUtil.getSelfAddresses().toArray(new InetAddress[0]));
+    thread.interrupt();
+    thread.join(5000);
+    assertFalse(thread.isAlive());
+    assertFalse(thread.isRunning());
+    assertEmpty(thread.getListenedAddresses());
+  }
+
+  private static MulticastPingThread startThread(InetAddress[] addresses) {
+    final MulticastPingThread thread = new MulticastPingThread(addresses, null, null);
+    thread.start();
+    new WaitFor(5000) {
+      @Override
+      protected boolean condition() {
+        return thread.isStarted() || !thread.isAlive();
+      }
+    };
+    return thread;
+  }
+
+  private static void stopThread(MulticastPingThread thread) throws InterruptedException {
+    thread.shutdown();
+    thread.join(5000);
+    assertFalse(thread.isAlive());
+  }
+
 }
@@ -18,9 +18,12 @@ package org.jetbrains.idea.perforce;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vcs.impl.CancellableRunnable;
+import com.intellij.util.Consumer;
 import com.intellij.util.ThrowableConsumer;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 
 public final class StreamGobbler implements CancellableRunnable {
   private static final Logger LOG = Logger.getInstance("#org.jetbrains.idea.perforce.StreamGobbler");
@@ -33,12 +36,25 @@ public final class StreamGobbler implements CancellableRunnable {
   private int myOutputLength = 0;
   private boolean myResultUsedOnce;
   private volatile boolean myMasterExited;
+  @Nullable private final Consumer<? super String> myLineListener;
+  private final ByteArrayOutputStream myCurrentLine = new ByteArrayOutputStream();
+  private volatile RuntimeException myLineListenerError;
 
   public StreamGobbler(final InputStream is) {
+    this(is, null);
+  }
+
+  /**
+   * @param lineListener is notified about every line of the output (decoded as UTF-8, without the line separator) as soon as
+   *                     it is read, while the output is still being collected as usual; if the listener throws, it is not
+   *                     notified any more, the exception is available via {@link #getLineListenerError()}
+   */
+  public StreamGobbler(final InputStream is, @Nullable final Consumer<? super String> lineListener) {
     this.is = is;
     myInMemoryContents = new ByteArrayOutputStream();
     myByteContents = myInMemoryContents;
     myResultUsedOnce = true;
+    myLineListener = lineListener;
   }
 
   @Override
@@ -49,6 +65,7 @@ public final class StreamGobbler implements CancellableRunnable {
       while (((read = is.read(buffer, 0, buffer.length)) != -1)) {
         myByteContents.write(buffer, 0, read);
         myOutputLength += read;
+        notifyLines(buffer, read);
 
         if (myTempFile == null && myOutputLength > IN_MEMORY_RESULT_THRESHOULD) {
           switchToTemporaryFileContent();
@@ -62,6 +79,9 @@ public final class StreamGobbler implements CancellableRunnable {
         LOG.error(myInMemoryContents.toString(), ioe);
       }
     } finally {
+      if (myCurrentLine.size() > 0) {
+        notifyLine();
+      }
       try {
         myByteContents.close();
       }
@@ -71,6 +91,44 @@ public final class StreamGobbler implements CancellableRunnable {
     }
   }
 
+  private void notifyLines(final byte[] buffer, final int length) {
+    if (myLineListener == null || myLineListenerError != null) return;
+    int start = 0;
+    for (int i = 0; i < length; i++) {
+      if (buffer[i] == '\n') {
+        myCurrentLine.write(buffer, start, i - start);
+        notifyLine();
+        start = i + 1;
+      }
+    }
+    myCurrentLine.write(buffer, start, length - start);
+  }
+
+  private void notifyLine() {
+    String line = myCurrentLine.toString(StandardCharsets.UTF_8);
+    myCurrentLine.reset();
+    if (myLineListener == null || myLineListenerError != null) return;
+    if (line.endsWith("\r")) {
+      line = line.substring(0, line.length() - 1);
+    }
+    try {
+      myLineListener.consume(line);
+    }
+    catch (RuntimeException e) {
+      // the output is still read till the end so that the process is not blocked on a full pipe
+      myLineListenerError = e;
+    }
+  }
+
+  @Nullable
+  public RuntimeException getLineListenerError() {
+    return myLineListenerError;
+  }
+
+  public boolean hasLineListener() {
+    return myLineListener != null;
+  }
+
   private boolean switchToTemporaryFileContent() {
     try {
       myTempFile = FileUtil.createTempFile("idea_p4", "command.output");
@@ -17,8 +17,10 @@
 package org.jetbrains.idea.perforce.perforce;
 
 import com.intellij.openapi.util.NlsSafe;
+import com.intellij.util.Consumer;
 import com.intellij.util.ThrowableConsumer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.idea.perforce.StreamGobbler;
 
 import java.io.*;
@@ -32,6 +34,7 @@ public final class ExecResult {
   private StreamGobbler myErrorGobbler;
   private Throwable myException = null;
   private String myErrorString;
+  private Consumer<? super String> myStdoutLineListener;
 
   @SuppressWarnings({"HardCodedStringLiteral"})
   public String toString() {
@@ -96,6 +99,31 @@ public final class ExecResult {
     myOutputGobbler = outputGobbler;
   }
 
+  /**
+   * Asks the connection to pass stdout lines to the listener while the command is running;
+   * connections which do not run a process ignore it, see {@link #isStdoutStreamed()}
+   */
+  public void setStdoutLineListener(@Nullable final Consumer<? super String> listener) {
+    myStdoutLineListener = listener;
+  }
+
+  @Nullable
+  public Consumer<? super String> getStdoutLineListener() {
+    return myStdoutLineListener;
+  }
+
+  /**
+   * @return whether the {@link #setStdoutLineListener stdout line listener} has been notified about the output
+   */
+  public boolean isStdoutStreamed() {
+    return myOutputGobbler != null && myOutputGobbler.hasLineListener();
+  }
+
+  @Nullable
+  public RuntimeException getStdoutLineListenerError() {
+    return myOutputGobbler != null ? myOutputGobbler.getLineListenerError() : null;
+  }
+
   public void setErrorGobbler(final StreamGobbler errorGobbler) {
     myErrorGobbler = errorGobbler;
   }
@@ -20,6 +20,7 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.util.Consumer;
 import com.intellij.util.text.SyncDateFormat;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
@@ -29,10 +30,7 @@ import org.jetbrains.idea.perforce.ClientVersion;
 import org.jetbrains.idea.perforce.ServerVersion;
 import org.jetbrains.idea.perforce.changesBrowser.FileChange;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.LineNumberReader;
-import java.io.StringReader;
+import java.io.*;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -221,11 +219,79 @@ public class OutputMessageParser {
 
   public static List<ChangeListData> processChangesOutput(final String output) {
     final ArrayList<ChangeListData> result = new ArrayList<>();
-    final OutputMessageParser parser = new OutputMessageParser(output);
-    ChangeListData change;
-    while ((change = parser.readNextChange(new ChangeReadingPolicy(ChangeReadingPolicy.CHANGE_PATTERN, 6, 4))) != null) {
-      result.add(change);
+    try {
+      processChangesOutput(new BufferedReader(new StringReader(output)), result::add);
+    }
+    catch (IOException e) {
+      LOG.error(e);
+    }
+    return result;
+  }
+
+  /**
+   * Reads {@code p4 changes -l} output line by line and passes every changelist to the consumer as soon as its description is read,
+   * so neither the output as a single string nor the list of its lines has to be kept in memory.
+   */
+  public static void processChangesOutput(@NotNull final BufferedReader reader,
+                                          @NotNull final Consumer<? super ChangeListData> consumer) throws IOException {
+    final ChangesOutputProcessor processor = new ChangesOutputProcessor(consumer);
+    String line;
+    while ((line = reader.readLine()) != null) {
+      processor.consume(line);
     }
+    processor.finish();
+  }
+
+  /**
+   * Parses {@code p4 changes -l} output pushed to it line by line, e.g. while the command is still running, and passes every changelist
+   * to the consumer once the next changelist or the end of the output is reached.
+   */
+  public static final class ChangesOutputProcessor implements Consumer<String> {
+    private final ChangeReadingPolicy myPolicy = new ChangeReadingPolicy(ChangeReadingPolicy.CHANGE_PATTERN, 6, 4);
+    private final Consumer<? super ChangeListData> myConsumer;
+    private ChangeListData myCurrent;
+    private final StringBuilder myMessages = new StringBuilder();
+
+    public ChangesOutputProcessor(@NotNull Consumer<? super ChangeListData> consumer) {
+      myConsumer = consumer;
+    }
+
+    @Override
+    public void consume(final String line) {
+      if (line.isEmpty()) return;
+      if (myCurrent != null && line.startsWith("\t")) {
+        if (myMessages.length() > 0) {
+          myMessages.append("\n");
+        }
+        myMessages.append(line.substring(1).trim());
+        return;
+      }
+      finish();
+      final Matcher matcher = myPolicy.getPattern().matcher(line);
+      if (matcher.matches()) {
+        myCurrent = createChangeListData(matcher, myPolicy);
+      }
+    }
+
+    /**
+     * Passes the last changelist to the consumer, should be called after the last line of the output.
+     */
+    public void finish() {
+      if (myCurrent == null) return;
+      final ChangeListData result = myCurrent;
+      result.DESCRIPTION = myMessages.toString();
+      myCurrent = null;
+      myMessages.setLength(0);
+      myConsumer.consume(result);
+    }
+  }
+
+  private static ChangeListData createChangeListData(final Matcher matcher, final ChangeReadingPolicy changePattern) {
+    final ChangeListData result = new ChangeListData();
+    result.CLIENT = matcher.group(changePattern.getUserGroup() + 2);
+    result.USER = matcher.group(changePattern.getUserGroup());
+    result.DATE = matcher.group(changePattern.getDateGroup());
+    result.NUMBER = Long.parseLong(matcher.group(2));
     return result;
   }
 
@@ -235,16 +301,7 @@ public class OutputMessageParser {
     myCurrentLine = myLines.remove(0);
     final Matcher matcher = changePattern.getPattern().matcher(myCurrentLine);
     if (matcher.matches()) {
-      String number = matcher.group(2);
-      long revisionNumber = Long.parseLong(number);
-      String date = matcher.group(changePattern.getDateGroup());
-      final String user = matcher.group(changePattern.getUserGroup());
-      String client = matcher.group(changePattern.getUserGroup() + 2);
-      final ChangeListData result = new ChangeListData();
-      result.CLIENT = client;
-      result.USER = user;
-      result.DATE = date;
-      result.NUMBER = revisionNumber;
+      final ChangeListData result = createChangeListData(matcher, changePattern);
       final StringBuffer messages = new StringBuffer();
       readMessages(messages);
       result.DESCRIPTION = messages.toString();
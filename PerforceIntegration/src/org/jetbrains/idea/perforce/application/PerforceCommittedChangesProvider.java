@@ -133,7 +133,6 @@ public class PerforceCommittedChangesProvider implements CachingCommittedChanges
                                    int maxCount,
                                    @NotNull AsynchConsumer<? super CommittedChangeList> consumer) throws VcsException {
     try {
-      List<PerforceChangeList> changeLists = new ArrayList<>();
       PerforceSettings p4Settings = PerforceSettings.getSettings(myProject);
       if (!p4Settings.ENABLED) {
         return;
@@ -142,13 +141,14 @@ public class PerforceCommittedChangesProvider implements CachingCommittedChanges
 
       final String client = settings.getClientFilter();
       final String user = settings.getUserFilter();
-      // todo make asynchronous later; Perforce is fast, maybe it's not worth doing
-      final List<PerforceChangeList> changeListList = myRunner
-        .getSubmittedChangeLists(client, user, P4File.create(new File(url)), settings, maxCount, p4Settings.SHOW_INTEGRATED_IN_COMMITTED_CHANGES);
-      settings.filterChanges(changeLists);
-      for (PerforceChangeList changeList : changeListList) {
-        consumer.consume(changeList);
-      }
+      final ChangeBrowserSettings.Filter filter = settings.createFilter();
+      // changelists are passed to the consumer while the command output is being read, without building a list of all of them
+      myRunner.getSubmittedChangeLists(client, user, P4File.create(new File(url)), settings, maxCount,
+                                       p4Settings.SHOW_INTEGRATED_IN_COMMITTED_CHANGES, changeList -> {
+          if (filter.accepts(changeList)) {
+            consumer.consume(changeList);
+          }
+        });
     }
     finally {
       consumer.finished();
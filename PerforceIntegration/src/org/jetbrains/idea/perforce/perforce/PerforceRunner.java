@@ -45,6 +45,7 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.serviceContainer.NonInjectable;
 import com.intellij.util.ArrayUtil;
 import com.intellij.util.ArrayUtilRt;
+import com.intellij.util.Consumer;
 import com.intellij.util.SystemProperties;
 import com.intellij.util.containers.*;
 import com.intellij.util.text.SyncDateFormat;
@@ -972,6 +973,33 @@ public final class PerforceRunner implements PerforceRunnerI {
                                                            @Nullable String user,
                                                            int maxCount, boolean showIntegrated, List<String> fileSpecs)
     throws VcsException {
+    final List<PerforceChangeList> result = new ArrayList<>();
+    getSubmittedChangeLists(connection, client, user, maxCount, showIntegrated, fileSpecs, result::add);
+    return result;
+  }
+
+  /**
+   * Parses the changelists from the command output line by line and passes them to the consumer one by one, details of
+   * a changelist are requested with {@code describe} only when its changes are asked for.
+   * <p/>
+   * The output is parsed while the command is running, so the consumer is called from the thread reading the process output
+   * before the command is finished. Connections which don't run a process have the output parsed after the command.
+   */
+  public void getSubmittedChangeLists(@Nullable String client, @Nullable String user, @NotNull final P4File rootP4File,
+                                      @NotNull ChangeBrowserSettings settings, final int maxCount, final boolean showIntegrated,
+                                      @NotNull Consumer<? super PerforceChangeList> consumer) throws VcsException {
+    String interval = dateSpec(settings.getDateAfterFilter(), settings.getDateBeforeFilter(), settings.getChangeAfterFilter(),
+                               settings.getChangeBeforeFilter(), settings.STRICTLY_AFTER);
+    final List<String> fileSpecs = ContainerUtil.newArrayList(rootP4File.getRecursivePath() + interval);
+    getSubmittedChangeLists(getNotNullConnection(rootP4File), client, user, maxCount, showIntegrated, fileSpecs, consumer);
+  }
+
+  private void getSubmittedChangeLists(@NotNull P4Connection connection,
+                                       @Nullable String client,
+                                       @Nullable String user,
+                                       int maxCount, boolean showIntegrated, List<String> fileSpecs,
+                                       @NotNull Consumer<? super PerforceChangeList> consumer)
+    throws VcsException {
     final CommandArguments arguments = CommandArguments.createOn(P4Command.changes);
     arguments.append("-s").append("submitted");
     if (showIntegrated) {
@@ -994,9 +1022,41 @@ public final class PerforceRunner implements PerforceRunnerI {
       arguments.append(spec);
     }
 
-    final ExecResult execResult = executeP4Command(arguments.getArguments(), connection);
+    final PerforceChangeCache changeCache = new PerforceChangeCache(myProject);
+    final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    final OutputMessageParser.ChangesOutputProcessor processor = new OutputMessageParser.ChangesOutputProcessor(data -> {
+      if (indicator != null) {
+        indicator.checkCanceled();
+      }
+      consumer.consume(new PerforceChangeList(data, myProject, connection, changeCache));
+    });
+    final ExecResult execResult =
+      executeP4Command(arguments.getArguments(), Collections.emptyList(), null, new PerforceContext(connection), processor);
+    final RuntimeException listenerError = execResult.getStdoutLineListenerError();
+    if (listenerError != null) {
+      execResult.cleanup();
+      throw listenerError;
+    }
     checkError(execResult, connection);
-    return parsePerforceChangeLists(execResult.getStdout(), connection, new PerforceChangeCache(myProject));
+    if (execResult.isStdoutStreamed()) {
+      execResult.cleanup();
+      processor.finish();
+      return;
+    }
+    try {
+      execResult.allowSafeStdoutUsage(stream -> {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+          ProgressManager.checkCanceled();
+          processor.consume(line);
+        }
+      });
+    }
+    catch (IOException e) {
+      throw new VcsException(e);
+    }
+    processor.finish();
   }
 
   private static String dateSpec(final Date after, final Date before, final Long afterChange, final Long beforeChange, boolean strictlyAfter) {
@@ -1639,8 +1699,17 @@ public final class PerforceRunner implements PerforceRunnerI {
   }
 
   private ExecResult executeP4Command(@NonNls String[] p4cmd, Collection<String> args, @Nullable final StringBuffer inputStream, @NotNull PerforceContext ctx) {
+    return executeP4Command(p4cmd, args, inputStream, ctx, null);
+  }
+
+  /**
+   * @param stdoutLineListener is passed the output lines while the command is running, see {@link ExecResult#isStdoutStreamed()}
+   */
+  private ExecResult executeP4Command(@NonNls String[] p4cmd, Collection<String> args, @Nullable final StringBuffer inputStream,
+                                      @NotNull PerforceContext ctx, @Nullable Consumer<? super String> stdoutLineListener) {
     // construct the command-line
     final ExecResult retVal = new ExecResult();
+    retVal.setStdoutLineListener(stdoutLineListener);
     if (!mySettings.ENABLED) {
       retVal.setException(new VcsException(PerforceBundle.message("exception.text.perforce.integration.is.disabled")));
       retVal.setStderr(PerforceBundle.message("exception.text.perforce.integration.is.disabled"));
@@ -1697,7 +1766,7 @@ public final class PerforceRunner implements PerforceRunnerI {
       try {
         if (!ctx.justLogged && myLoginManager.silentLogin(ctx.connection)) {
           retVal.cleanup();
-          return executeP4Command(p4cmd, args, inputStream, new PerforceContext(ctx.connection, ctx.longTimeout, true));
+          return executeP4Command(p4cmd, args, inputStream, new PerforceContext(ctx.connection, ctx.longTimeout, true), stdoutLineListener);
         }
       }
       catch (VcsException e) {
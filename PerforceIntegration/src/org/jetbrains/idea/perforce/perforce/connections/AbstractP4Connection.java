@@ -155,7 +155,7 @@ public abstract class AbstractP4Connection implements P4Connection {
 
       worker = new MyInterruptibleProcess(perforceSettings.getProject(), proc, perforceSettings.getServerTimeout());
 
-      processWaiter = new PerforceProcessWaiter();
+      processWaiter = new PerforceProcessWaiter(proc.getInputStream(), retVal.getStdoutLineListener());
       worker.setOnBeforeInterrupt(processWaiter::cancelListeners);
       rc = processWaiter.execute(worker, perforceSettings.getServerTimeout());
     }
@@ -1,11 +1,25 @@
 package org.jetbrains.idea.perforce.perforce.connections;
 
 import com.intellij.openapi.vcs.impl.ProcessWaiter;
+import com.intellij.util.Consumer;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.idea.perforce.StreamGobbler;
 
 import java.io.InputStream;
 
 public class PerforceProcessWaiter extends ProcessWaiter<StreamGobbler> {
+  @Nullable private final InputStream myStdout;
+  @Nullable private final Consumer<? super String> myStdoutLineListener;
+
+  /**
+   * @param stdout             the output stream of the process whose lines are passed to the listener as soon as they are read
+   * @param stdoutLineListener see {@link StreamGobbler#StreamGobbler(InputStream, Consumer)}
+   */
+  public PerforceProcessWaiter(@Nullable InputStream stdout, @Nullable Consumer<? super String> stdoutLineListener) {
+    myStdout = stdout;
+    myStdoutLineListener = stdoutLineListener;
+  }
+
   @Override
   protected boolean tryReadStreams(int rc) {
     return rc != AbstractP4Connection.TIMEOUT_EXIT_CODE;
@@ -13,7 +27,7 @@ public class PerforceProcessWaiter extends ProcessWaiter<StreamGobbler> {
 
   @Override
   protected StreamGobbler createStreamListener(InputStream stream) {
-    return new StreamGobbler(stream);
+    return new StreamGobbler(stream, stream == myStdout ? myStdoutLineListener : null);
   }
 
   public void clearGobblers() {
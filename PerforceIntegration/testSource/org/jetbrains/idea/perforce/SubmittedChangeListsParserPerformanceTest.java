@@ -2,15 +2,28 @@ package org.jetbrains.idea.perforce;
 
 import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.idea.perforce.perforce.ExecResult;
 import org.jetbrains.idea.perforce.perforce.OutputMessageParser;
 import org.junit.Test;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class SubmittedChangeListsParserPerformanceTest {
+  private static final int GENERATED_CHANGES = 100_000;
+  private static final int CHANGES_PER_BATCH = 1_000;
+  private static final long BATCH_DELAY_MS = 10;
+
   @Test
   public void test() throws IOException {
     File testData = new File(PathManager.getHomePath() + "/plugins/PerforceIntegration/testData/changes.txt");
@@ -20,4 +33,101 @@ public class SubmittedChangeListsParserPerformanceTest {
     final long executionTime = System.currentTimeMillis() - start;
     assertTrue("Execution time: " + executionTime, executionTime < 30000);
   }
+
+  /**
+   * Compares the time to the first changelist and the peak heap of parsing the collected {@code p4 changes -l} output
+   * with parsing it while it is read from the process, the process is emulated by a thread writing the output in batches.
+   */
+  @Test
+  public void generatedChanges() throws Exception {
+    resetPeakHeap();
+    long start = System.nanoTime();
+    StreamGobbler gobbler = readProcessOutput(null);
+    ExecResult execResult = new ExecResult();
+    execResult.setOutputGobbler(gobbler);
+    List<ChangeListData> changes = OutputMessageParser.processChangesOutput(execResult.getStdout());
+    long wholeOutputFirstRow = System.nanoTime() - start;
+    long wholeOutputHeap = getPeakHeap();
+    assertEquals(GENERATED_CHANGES, changes.size());
+    //noinspection UnusedAssignment
+    changes = null;
+
+    resetPeakHeap();
+    final AtomicLong streamingFirstRow = new AtomicLong(-1);
+    final AtomicInteger count = new AtomicInteger();
+    final long streamingStart = System.nanoTime();
+    final OutputMessageParser.ChangesOutputProcessor processor = new OutputMessageParser.ChangesOutputProcessor(data -> {
+      streamingFirstRow.compareAndSet(-1, System.nanoTime() - streamingStart);
+      assertEquals(GENERATED_CHANGES - count.getAndIncrement(), data.NUMBER);
+    });
+    gobbler = readProcessOutput(processor);
+    processor.finish();
+    gobbler.deleteTempFile();
+    long streamingTotal = System.nanoTime() - streamingStart;
+    long streamingHeap = getPeakHeap();
+    assertEquals(null, gobbler.getLineListenerError());
+    assertEquals(GENERATED_CHANGES, count.get());
+
+    System.out.printf("%d changelists: whole output first row %d ms, peak heap %d MB; " +
+                      "streaming first row %d ms, total %d ms, peak heap %d MB%n",
+                      GENERATED_CHANGES, TimeUnit.NANOSECONDS.toMillis(wholeOutputFirstRow), wholeOutputHeap >> 20,
+                      TimeUnit.NANOSECONDS.toMillis(streamingFirstRow.get()), TimeUnit.NANOSECONDS.toMillis(streamingTotal),
+                      streamingHeap >> 20);
+    assertTrue("Time to first row: " + streamingFirstRow.get(), streamingFirstRow.get() < wholeOutputFirstRow);
+  }
+
+  private static StreamGobbler readProcessOutput(OutputMessageParser.ChangesOutputProcessor processor) throws Exception {
+    PipedOutputStream processOutput = new PipedOutputStream();
+    StreamGobbler gobbler = new StreamGobbler(new PipedInputStream(processOutput, 64 * 1024), processor);
+    Thread process = new Thread(() -> {
+      try (Writer writer = new BufferedWriter(new OutputStreamWriter(processOutput, StandardCharsets.UTF_8))) {
+        writeChangesOutput(writer);
+      }
+      catch (IOException | InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    }, "p4 changes");
+    process.start();
+    gobbler.run();
+    process.join();
+    return gobbler;
+  }
+
+  /**
+   * Writes {@code p4 changes -l} output, newest changelist first, with multi-line descriptions.
+   */
+  private static void writeChangesOutput(Writer writer) throws IOException, InterruptedException {
+    for (int number = GENERATED_CHANGES; number > 0; number--) {
+      writer.write("Change " + number + " on 2020/10/" + (10 + number % 20) + " 12:" + (10 + number % 50) + ":00 " +
+                   "by user" + number % 100 + "@client" + number % 10 + "\n\n");
+      writer.write("\tFix issue " + number + " in the module " + number % 300 + "\n");
+      if (number % 3 == 0) {
+        writer.write("\t\n\tReviewed-by: user" + (number + 1) % 100 + "\n");
+      }
+      writer.write("\n");
+      if (number % CHANGES_PER_BATCH == 0) {
+        writer.flush();
+        Thread.sleep(BATCH_DELAY_MS);
+      }
+    }
+  }
+
+  private static void resetPeakHeap() {
+    System.gc();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  private static long getPeakHeap() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
 }
@@ -1,12 +1,18 @@
 package org.jetbrains.idea.perforce.perforce;
 
 import com.intellij.openapi.util.Comparing;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.util.text.SyncDateFormat;
 import junit.framework.TestCase;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.idea.perforce.ChangeListData;
+import org.jetbrains.idea.perforce.StreamGobbler;
 import org.jetbrains.idea.perforce.merge.BaseRevision;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -138,6 +144,61 @@ import java.util.*;
     checkChange(changes.get(2), 66826, "2005/03/15 14:01:15", "lesya", "lesya_new", "StructuralReplaceTest rebombed");
   }
 
+  public void testChangesReadLineByLine() throws Exception {
+    // larger than the buffer of StreamGobbler, so lines are split between reads
+    String output = generateChangesOutput(500);
+    List<ChangeListData> expected = OutputMessageParser.processChangesOutput(output);
+    assertEquals(500, expected.size());
+    checkChange(expected.get(0), 500, "2020/10/10 12:10:00", "user0", "client0", "Fix issue 500");
+    checkChange(expected.get(2), 498, "2020/10/28 12:58:00", "user98", "client8", "Fix issue 498\n\nReviewed-by: user99");
+
+    List<ChangeListData> read = new ArrayList<>();
+    OutputMessageParser.processChangesOutput(new BufferedReader(new StringReader(output)), read::add);
+    checkSameChanges(expected, read);
+
+    List<ChangeListData> streamed = new ArrayList<>();
+    OutputMessageParser.ChangesOutputProcessor processor = new OutputMessageParser.ChangesOutputProcessor(streamed::add);
+    byte[] bytes = StringUtil.trimTrailing(output.replace("\n", "\r\n")).getBytes(StandardCharsets.UTF_8);
+    StreamGobbler gobbler = new StreamGobbler(new ByteArrayInputStream(bytes), processor);
+    gobbler.run();
+    processor.finish();
+    gobbler.deleteTempFile();
+    assertNull(gobbler.getLineListenerError());
+    checkSameChanges(expected, streamed);
+  }
+
+  public void testStreamedChangesListenerError() {
+    StreamGobbler gobbler = new StreamGobbler(new ByteArrayInputStream(generateChangesOutput(500).getBytes(StandardCharsets.UTF_8)), line -> {
+      throw new IllegalStateException(line);
+    });
+    gobbler.run();
+    assertEquals("Change 500 on 2020/10/10 12:10:00 by user0@client0", gobbler.getLineListenerError().getMessage());
+    assertEquals(generateChangesOutput(500).length(), gobbler.getResultLength());
+    gobbler.deleteTempFile();
+  }
+
+  private static String generateChangesOutput(int count) {
+    StringBuilder output = new StringBuilder();
+    for (int number = count; number > 0; number--) {
+      output.append("Change ").append(number).append(" on 2020/10/").append(10 + number % 20).append(" 12:").append(10 + number % 50)
+        .append(":00 by user").append(number % 100).append("@client").append(number % 10).append("\n\n");
+      output.append("\tFix issue ").append(number).append("\n");
+      if (number % 3 == 0) {
+        output.append("\t\n\tReviewed-by: user").append((number + 1) % 100).append("\n");
+      }
+      output.append("\n");
+    }
+    return output.toString();
+  }
+
+  private void checkSameChanges(List<ChangeListData> expected, List<ChangeListData> actual) throws ParseException {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      ChangeListData change = expected.get(i);
+      checkChange(actual.get(i), (int)change.NUMBER, change.DATE, change.USER, change.CLIENT, change.DESCRIPTION);
+    }
+  }
+
   public void testResolve() throws Exception{
     final Map<String, BaseRevision> output = PerforceRunner
       .processResolveOutput("C:\\work\\Irida\\source\\com\\intellij\\ide\\favoritesTreeView\\FavoritesTreeStructure.java - merging //IDEA/source/com/intellij/ide/favoritesTreeView/FavoritesTreeStructure.java #14 using base //IDEA/source/com/intellij/ide/favoritesTreeView/FavoritesTreeStructure.java#13\n" +
@@ -0,0 +1,178 @@
+package org.intellij.errorProne;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Ref;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the class loaders of the error-prone jars for the lifetime of the build process.
+ * <p/>
+ * javac creates a new class loader for the processor path of every compilation, so error-prone classes, including the registry of
+ * its built-in checks which error-prone keeps in static fields, were loaded again for every module chunk. The loaders are shared
+ * by all chunks instead, including chunks compiled in parallel; a loader is replaced if the jars are changed. The replaced loader
+ * is closed as soon as no compilation uses it, so that its jars are not kept open.
+ */
+final class ErrorProneClassLoaderCache {
+  private static final Logger LOG = Logger.getInstance(ErrorProneClassLoaderCache.class);
+  private static final String ENABLED_PROPERTY = "idea.error.prone.cache.class.loader";
+  private static final Map<LoaderKey, CachedLoader> ourLoaders = new ConcurrentHashMap<>();
+  private static final AtomicInteger ourCreatedLoaders = new AtomicInteger();
+
+  private ErrorProneClassLoaderCache() {
+  }
+
+  static boolean isEnabled() {
+    return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+  }
+
+  /**
+   * Returns a view of the shared loader of the error-prone jars for one compilation. javac closes the processor class loader after
+   * the compilation; closing the view only tells the cache that the compilation doesn't use the shared loader anymore.
+   */
+  @NotNull
+  static ClassLoader getClassLoader(@NotNull List<File> jars, @Nullable ClassLoader parent) {
+    List<Long> stamps = getStamps(jars);
+    Ref<ClassLoader> view = new Ref<>();
+    ourLoaders.compute(new LoaderKey(jars, parent), (key, cached) -> {
+      if (cached == null || !cached.myStamps.equals(stamps)) {
+        if (cached != null) {
+          LOG.info("error-prone jars were changed, reloading them");
+          cached.replaced();
+        }
+        ourCreatedLoaders.incrementAndGet();
+        cached = new CachedLoader(stamps, new URLClassLoader(toUrls(jars), parent));
+      }
+      // acquired under the map lock, so the loader cannot be replaced and closed before the compilation gets it
+      view.set(cached.acquire());
+      return cached;
+    });
+    return view.get();
+  }
+
+  @NotNull
+  static URL[] toUrls(@NotNull List<File> files) {
+    URL[] urls = new URL[files.size()];
+    for (int i = 0; i < files.size(); i++) {
+      try {
+        urls[i] = files.get(i).toURI().toURL();
+      }
+      catch (MalformedURLException e) {
+        throw new IllegalArgumentException(e);
+      }
+    }
+    return urls;
+  }
+
+  @TestOnly
+  static int getCreatedClassLoadersCount() {
+    return ourCreatedLoaders.get();
+  }
+
+  @NotNull
+  private static List<Long> getStamps(@NotNull List<File> jars) {
+    List<Long> stamps = new ArrayList<>(jars.size() * 2);
+    for (File jar : jars) {
+      stamps.add(jar.lastModified());
+      stamps.add(jar.length());
+    }
+    return stamps;
+  }
+
+  private static final class LoaderKey {
+    private final List<File> myJars;
+    private final ClassLoader myParent;
+
+    private LoaderKey(@NotNull List<File> jars, @Nullable ClassLoader parent) {
+      myJars = new ArrayList<>(jars);
+      myParent = parent;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof LoaderKey)) return false;
+      LoaderKey key = (LoaderKey)o;
+      return myJars.equals(key.myJars) && myParent == key.myParent;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * myJars.hashCode() + Objects.hashCode(myParent);
+    }
+  }
+
+  private static final class CachedLoader {
+    private final List<Long> myStamps;
+    private final URLClassLoader myLoader;
+    private int myUsers;
+    private boolean myReplaced;
+
+    private CachedLoader(@NotNull List<Long> stamps, @NotNull URLClassLoader loader) {
+      myStamps = stamps;
+      myLoader = loader;
+    }
+
+    @NotNull
+    synchronized ClassLoader acquire() {
+      myUsers++;
+      return new LoaderView(this);
+    }
+
+    synchronized void release() {
+      myUsers--;
+      closeIfUnused();
+    }
+
+    synchronized void replaced() {
+      myReplaced = true;
+      closeIfUnused();
+    }
+
+    private void closeIfUnused() {
+      if (myReplaced && myUsers == 0) {
+        try {
+          myLoader.close();
+        }
+        catch (IOException e) {
+          LOG.info("Cannot close the replaced error-prone class loader", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Loads classes through the shared loader; {@link #close()} releases the shared loader instead of closing it.
+   */
+  private static final class LoaderView extends ClassLoader implements Closeable {
+    private final CachedLoader myOwner;
+    private final AtomicBoolean myClosed = new AtomicBoolean();
+
+    private LoaderView(@NotNull CachedLoader owner) {
+      super(owner.myLoader);
+      myOwner = owner;
+    }
+
+    @Override
+    public void close() {
+      if (myClosed.compareAndSet(false, true)) {
+        myOwner.release();
+      }
+    }
+  }
+}
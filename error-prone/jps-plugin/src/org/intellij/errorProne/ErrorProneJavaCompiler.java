@@ -0,0 +1,167 @@
+package org.intellij.errorProne;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.lang.model.SourceVersion;
+import javax.tools.*;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * javac which takes the error-prone part of the processor path from {@link ErrorProneClassLoaderCache} instead of loading it
+ * for every compilation. The rest of the processor path, the annotation processors of the module, is still loaded per compilation.
+ */
+final class ErrorProneJavaCompiler implements JavaCompiler {
+  private static final Logger LOG = Logger.getInstance(ErrorProneJavaCompiler.class);
+  private final JavaCompiler myDelegate;
+  private final List<File> myErrorProneJars;
+
+  ErrorProneJavaCompiler(@NotNull JavaCompiler delegate, @NotNull List<File> errorProneJars) {
+    myDelegate = delegate;
+    myErrorProneJars = errorProneJars;
+  }
+
+  @Override
+  public CompilationTask getTask(Writer out,
+                                 JavaFileManager fileManager,
+                                 DiagnosticListener<? super JavaFileObject> diagnosticListener,
+                                 Iterable<String> options,
+                                 Iterable<String> classes,
+                                 Iterable<? extends JavaFileObject> compilationUnits) {
+    List<File> processorPath = getProcessorPath(options);
+    if (fileManager != null && !myErrorProneJars.isEmpty() && processorPath.containsAll(myErrorProneJars)) {
+      List<File> otherEntries = new ArrayList<>(processorPath);
+      otherEntries.removeAll(myErrorProneJars);
+      fileManager = wrapFileManager(fileManager, otherEntries);
+    }
+    return myDelegate.getTask(out, fileManager, diagnosticListener, options, classes, compilationUnits);
+  }
+
+  @Override
+  public StandardJavaFileManager getStandardFileManager(DiagnosticListener<? super JavaFileObject> diagnosticListener,
+                                                        Locale locale,
+                                                        Charset charset) {
+    return myDelegate.getStandardFileManager(diagnosticListener, locale, charset);
+  }
+
+  @Override
+  public int isSupportedOption(String option) {
+    return myDelegate.isSupportedOption(option);
+  }
+
+  @Override
+  public int run(InputStream in, OutputStream out, OutputStream err, String... arguments) {
+    return myDelegate.run(in, out, err, arguments);
+  }
+
+  @Override
+  public Set<SourceVersion> getSourceVersions() {
+    return myDelegate.getSourceVersions();
+  }
+
+  @NotNull
+  static List<File> getProcessorPath(@Nullable Iterable<String> options) {
+    List<File> result = new ArrayList<>();
+    if (options == null) {
+      return result;
+    }
+    Iterator<String> iterator = options.iterator();
+    while (iterator.hasNext()) {
+      String option = iterator.next();
+      if ((option.equals("-processorpath") || option.equals("--processor-path")) && iterator.hasNext()) {
+        result.clear();
+        for (String path : StringUtil.split(iterator.next(), File.pathSeparator)) {
+          result.add(new File(path).getAbsoluteFile());
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * JPS passes its own implementation of the file manager, so it is wrapped into a proxy implementing the same interfaces which
+   * only replaces the processor path class loader.
+   */
+  @NotNull
+  private JavaFileManager wrapFileManager(@NotNull JavaFileManager fileManager, @NotNull List<File> otherEntries) {
+    ClassLoader parent = myDelegate.getClass().getClassLoader();
+    InvocationHandler handler = (proxy, method, args) -> {
+      if (args != null && args.length > 0 && args[0] == StandardLocation.ANNOTATION_PROCESSOR_PATH) {
+        if (method.getName().equals("getClassLoader") && args.length == 1) {
+          return createProcessorClassLoader(otherEntries, parent);
+        }
+        if (method.getName().equals("getServiceLoader") && args.length == 2) {
+          return ServiceLoader.load((Class<?>)args[1], createProcessorClassLoader(otherEntries, parent));
+        }
+      }
+      try {
+        return method.invoke(fileManager, args);
+      }
+      catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    };
+    try {
+      return (JavaFileManager)Proxy.newProxyInstance(ErrorProneJavaCompiler.class.getClassLoader(),
+                                                     getPublicInterfaces(fileManager.getClass()), handler);
+    }
+    catch (IllegalArgumentException e) {
+      LOG.info("Cannot share error-prone class loader with " + fileManager.getClass().getName(), e);
+      return fileManager;
+    }
+  }
+
+  @NotNull
+  private ClassLoader createProcessorClassLoader(@NotNull List<File> otherEntries, @Nullable ClassLoader parent) {
+    ClassLoader errorProneLoader = ErrorProneClassLoaderCache.getClassLoader(myErrorProneJars, parent);
+    if (otherEntries.isEmpty()) {
+      return errorProneLoader;
+    }
+    return new URLClassLoader(ErrorProneClassLoaderCache.toUrls(otherEntries), errorProneLoader) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        }
+        finally {
+          // javac closes only the loader it got, the shared one must be released as well
+          if (errorProneLoader instanceof Closeable) {
+            ((Closeable)errorProneLoader).close();
+          }
+        }
+      }
+    };
+  }
+
+  @NotNull
+  private static Class<?>[] getPublicInterfaces(@NotNull Class<?> aClass) {
+    Set<Class<?>> result = new LinkedHashSet<>();
+    for (Class<?> c = aClass; c != null; c = c.getSuperclass()) {
+      collectInterfaces(c, result);
+    }
+    return result.toArray(new Class<?>[0]);
+  }
+
+  private static void collectInterfaces(@NotNull Class<?> aClass, @NotNull Set<Class<?>> result) {
+    for (Class<?> anInterface : aClass.getInterfaces()) {
+      if (Modifier.isPublic(anInterface.getModifiers())) {
+        result.add(anInterface);
+      }
+      collectInterfaces(anInterface, result);
+    }
+  }
+}
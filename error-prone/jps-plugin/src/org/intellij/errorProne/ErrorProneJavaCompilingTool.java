@@ -36,7 +36,8 @@ public class ErrorProneJavaCompilingTool extends JavaCompilingTool {
   @NotNull
   @Override
   public JavaCompiler createCompiler() throws CannotCreateJavaCompilerException {
-    return new JavacCompilerTool().createCompiler();
+    JavaCompiler compiler = new JavacCompilerTool().createCompiler();
+    return ErrorProneClassLoaderCache.isEnabled() ? new ErrorProneJavaCompiler(compiler, getErrorProneJars()) : compiler;
   }
 
   @Override
@@ -79,6 +80,18 @@ public class ErrorProneJavaCompilingTool extends JavaCompilingTool {
     options.add(("-Xplugin:ErrorProne " + StringUtil.join(errorProneOptions, " ")).trim());
   }
 
+  @NotNull
+  private static List<File> getErrorProneJars() {
+    String compilerPathProperty = System.getProperty(COMPILER_PATH_PROPERTY);
+    List<File> jars = new ArrayList<>();
+    if (compilerPathProperty != null) {
+      for (String path : StringUtil.split(compilerPathProperty, File.pathSeparator)) {
+        jars.add(new File(path).getAbsoluteFile());
+      }
+    }
+    return jars;
+  }
+
   @NotNull
   protected String getCompilerPath(String processorPathOption) {
     String compilerPathProperty = System.getProperty(COMPILER_PATH_PROPERTY);
@@ -0,0 +1,34 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.intellij.errorProne;
+
+import com.intellij.testFramework.PlatformTestUtil;
+
+import java.util.concurrent.TimeUnit;
+
+public class ErrorProneClassLoaderCachePerformanceTest extends ErrorProneClassLoaderCacheTestBase {
+
+  public void testBuildTime() throws Exception {
+    // warm up javac, so that the first measured build doesn't pay for loading it
+    buildModules();
+
+    System.setProperty(CACHE_ENABLED_PROPERTY, "false");
+    long uncachedTime = measureBuild();
+
+    System.setProperty(CACHE_ENABLED_PROPERTY, "true");
+    long cachedTime = measureBuild();
+
+    System.out.printf("Build of %d modules with %d checks: %d ms with a class loader per chunk, %d ms with the shared class loader%n",
+                      MODULES, CHECKERS, TimeUnit.NANOSECONDS.toMillis(uncachedTime), TimeUnit.NANOSECONDS.toMillis(cachedTime));
+    assertTrue("shared class loader: " + cachedTime + " ns, class loader per chunk: " + uncachedTime + " ns", cachedTime < uncachedTime);
+  }
+
+  public void testBuildWithSharedClassLoader() {
+    PlatformTestUtil.startPerformanceTest(getTestName(false), 20_000, this::buildModules).attempts(3).assertTiming();
+  }
+
+  private long measureBuild() throws Exception {
+    long start = System.nanoTime();
+    buildModules();
+    return System.nanoTime() - start;
+  }
+}
@@ -0,0 +1,85 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.intellij.errorProne;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ErrorProneClassLoaderCacheTest extends ErrorProneClassLoaderCacheTestBase {
+  public void testClassLoaderIsSharedByChunks() throws Exception {
+    int created = ErrorProneClassLoaderCache.getCreatedClassLoadersCount();
+    for (int i = 0; i < MODULES; i++) {
+      compileModule(i, null);
+    }
+    assertEquals(1, ErrorProneClassLoaderCache.getCreatedClassLoadersCount() - created);
+    assertEquals(1, getPluginLoads());
+  }
+
+  public void testModuleProcessorsAreLoadedPerChunk() throws Exception {
+    File processorDir = new File(myTempDir, "processors");
+    assertTrue(processorDir.mkdirs());
+    for (int i = 0; i < 3; i++) {
+      compileModule(i, processorDir.getAbsolutePath());
+    }
+    assertEquals(1, getPluginLoads());
+  }
+
+  public void testParallelChunks() throws Exception {
+    int created = ErrorProneClassLoaderCache.getCreatedClassLoadersCount();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < MODULES; i++) {
+        int module = i;
+        futures.add(executor.submit(() -> {
+          compileModule(module, null);
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, ErrorProneClassLoaderCache.getCreatedClassLoadersCount() - created);
+    assertEquals(1, getPluginLoads());
+  }
+
+  public void testCacheCanBeDisabled() throws Exception {
+    System.setProperty(CACHE_ENABLED_PROPERTY, "false");
+    buildModules();
+    assertEquals(MODULES, getPluginLoads());
+
+    System.setProperty(CACHE_ENABLED_PROPERTY, "true");
+    System.setProperty(PLUGIN_LOADS_PROPERTY, "0");
+    buildModules();
+    assertEquals(1, getPluginLoads());
+  }
+
+  public void testReplacedLoaderIsClosedWhenUnused() throws Exception {
+    List<File> jars = Collections.singletonList(myErrorProneJar);
+    String service = "META-INF/services/fake.Checker";
+    ClassLoader first = ErrorProneClassLoaderCache.getClassLoader(jars, null);
+    ClassLoader second = ErrorProneClassLoaderCache.getClassLoader(jars, null);
+    ((Closeable)first).close();
+    assertNotNull(second.getResource(service));
+
+    assertTrue(myErrorProneJar.setLastModified(myErrorProneJar.lastModified() + 10_000));
+    ClassLoader reloaded = ErrorProneClassLoaderCache.getClassLoader(jars, null);
+    // the replaced loader is still used by a compilation
+    assertNotNull(second.getResource(service));
+
+    ((Closeable)second).close();
+    assertNull(second.getResource(service));
+    assertNotNull(reloaded.getResource(service));
+    ((Closeable)reloaded).close();
+  }
+}
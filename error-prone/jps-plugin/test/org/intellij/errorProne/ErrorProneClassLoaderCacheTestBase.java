@@ -0,0 +1,164 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.intellij.errorProne;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.UsefulTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Compiles many small modules the way JPS does, one compilation per module chunk, with a fake error-prone jar: a javac plugin named
+ * {@code ErrorProne} which loads its checks from a service file in a static initializer, as error-prone does for its built-in checks.
+ */
+public abstract class ErrorProneClassLoaderCacheTestBase extends UsefulTestCase {
+  private static final String COMPILER_PATH_PROPERTY = "idea.error.prone.compiler.path";
+  protected static final String CACHE_ENABLED_PROPERTY = "idea.error.prone.cache.class.loader";
+  protected static final String PLUGIN_LOADS_PROPERTY = "fake.error.prone.loads";
+  protected static final int CHECKERS = 600;
+  protected static final int MODULES = 50;
+  protected File myTempDir;
+  protected File myErrorProneJar;
+  private final Map<String, String> myOldProperties = new HashMap<>();
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    for (String property : Arrays.asList(COMPILER_PATH_PROPERTY, CACHE_ENABLED_PROPERTY, PLUGIN_LOADS_PROPERTY)) {
+      myOldProperties.put(property, System.getProperty(property));
+    }
+    myTempDir = FileUtil.createTempDirectory("error-prone", null);
+    myErrorProneJar = buildFakeErrorProneJar();
+    System.setProperty(COMPILER_PATH_PROPERTY, myErrorProneJar.getAbsolutePath());
+    System.setProperty(PLUGIN_LOADS_PROPERTY, "0");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      for (Map.Entry<String, String> entry : myOldProperties.entrySet()) {
+        if (entry.getValue() == null) {
+          System.getProperties().remove(entry.getKey());
+        }
+        else {
+          System.setProperty(entry.getKey(), entry.getValue());
+        }
+      }
+      FileUtil.delete(myTempDir);
+    }
+    catch (Throwable e) {
+      addSuppressedException(e);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  protected void buildModules() throws Exception {
+    for (int i = 0; i < MODULES; i++) {
+      compileModule(i, null);
+    }
+  }
+
+  protected void compileModule(int index, String processorPath) throws Exception {
+    File moduleDir = new File(myTempDir, "module" + index + "-" + UUID.randomUUID());
+    File source = new File(moduleDir, "src/m" + index + "/A.java");
+    FileUtil.writeToFile(source, "package m" + index + "; public class A { int f() { return " + index + "; } }");
+    File output = new File(moduleDir, "out");
+    assertTrue(output.mkdirs());
+
+    List<String> options = new ArrayList<>(Arrays.asList("-d", output.getAbsolutePath(), "-Xep:SomeCheck:OFF"));
+    if (processorPath != null) {
+      options.add("-processorpath");
+      options.add(processorPath);
+    }
+    ErrorProneJavaCompilingTool tool = new ErrorProneJavaCompilingTool();
+    tool.preprocessOptions(options);
+    JavaCompiler compiler = tool.createCompiler();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+      boolean success = compiler.getTask(null, fileManager, null, options, null, fileManager.getJavaFileObjects(source)).call();
+      assertTrue(success);
+    }
+    assertTrue(new File(output, "m" + index + "/A.class").isFile());
+  }
+
+  protected static int getPluginLoads() {
+    return Integer.getInteger(PLUGIN_LOADS_PROPERTY, 0);
+  }
+
+  @NotNull
+  private File buildFakeErrorProneJar() throws IOException {
+    File sourceDir = new File(myTempDir, "fake-src");
+    File classesDir = new File(myTempDir, "fake-classes");
+    assertTrue(classesDir.mkdirs());
+    List<File> sources = new ArrayList<>();
+    StringBuilder checkers = new StringBuilder();
+    sources.add(writeSource(sourceDir, "Checker", "public interface Checker { String name(); }"));
+    for (int i = 0; i < CHECKERS; i++) {
+      sources.add(writeSource(sourceDir, "Checker" + i,
+                              "public class Checker" + i + " implements Checker {\n" +
+                              "  private static final String[] PATTERNS = {\"a" + i + "\", \"b" + i + "\", \"c" + i + "\"};\n" +
+                              "  public String name() { return \"Checker" + i + "\" + PATTERNS.length; }\n" +
+                              "}"));
+      checkers.append("fake.Checker").append(i).append('\n');
+    }
+    sources.add(writeSource(sourceDir, "FakeErrorProne",
+                            "import com.sun.source.util.*;\n" +
+                            "import java.util.*;\n" +
+                            "public class FakeErrorProne implements Plugin {\n" +
+                            "  private static final List<String> CHECKERS = new ArrayList<>();\n" +
+                            "  static {\n" +
+                            "    synchronized (System.class) {\n" +
+                            "      System.setProperty(\"" + PLUGIN_LOADS_PROPERTY + "\", String.valueOf(Integer.getInteger(\"" +
+                            PLUGIN_LOADS_PROPERTY + "\", 0) + 1));\n" +
+                            "    }\n" +
+                            "    for (Checker checker : ServiceLoader.load(Checker.class, FakeErrorProne.class.getClassLoader())) {\n" +
+                            "      CHECKERS.add(checker.name());\n" +
+                            "    }\n" +
+                            "  }\n" +
+                            "  public String getName() { return \"ErrorProne\"; }\n" +
+                            "  public void init(JavacTask task, String... args) {\n" +
+                            "    if (CHECKERS.size() != " + CHECKERS + ") throw new IllegalStateException();\n" +
+                            "  }\n" +
+                            "}"));
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+      List<String> options = Arrays.asList("-d", classesDir.getAbsolutePath());
+      assertTrue(compiler.getTask(null, fileManager, null, options, null, fileManager.getJavaFileObjectsFromFiles(sources)).call());
+    }
+
+    File jar = new File(myTempDir, "fake-error-prone.jar");
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+      putEntry(out, "META-INF/services/com.sun.source.util.Plugin", "fake.FakeErrorProne\n".getBytes("UTF-8"));
+      putEntry(out, "META-INF/services/fake.Checker", checkers.toString().getBytes("UTF-8"));
+      File[] classes = new File(classesDir, "fake").listFiles();
+      assertNotNull(classes);
+      for (File aClass : classes) {
+        putEntry(out, "fake/" + aClass.getName(), FileUtil.loadFileBytes(aClass));
+      }
+    }
+    return jar;
+  }
+
+  @NotNull
+  private static File writeSource(@NotNull File sourceDir, @NotNull String className, @NotNull String text) throws IOException {
+    File file = new File(sourceDir, "fake/" + className + ".java");
+    FileUtil.writeToFile(file, "package fake;\n" + text);
+    return file;
+  }
+
+  private static void putEntry(@NotNull JarOutputStream out, @NotNull String name, byte[] content) throws IOException {
+    out.putNextEntry(new JarEntry(name));
+    out.write(content);
+    out.closeEntry();
+  }
+}
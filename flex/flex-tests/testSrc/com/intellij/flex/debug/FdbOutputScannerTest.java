@@ -0,0 +1,98 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.flex.debug;
+
+import com.intellij.lang.javascript.flex.debug.FdbOutputScanner;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FdbOutputScannerTest extends TestCase {
+  // fdb answers to "frame 1", "print a", "print b.length" and "print c" sent in one write
+  private static final String PIPELINED_TRANSCRIPT =
+    "#1   this = [Object 1234, class='Main'].foo() at Main.as:12\n(fdb) " +
+    "$1 = [Object 5678, class='Array']\n(fdb) " +
+    "$2 = 3 (0x3)\n(fdb) " +
+    "Expression could not be evaluated.\n(fdb) ";
+
+  private static final List<String> PIPELINED_RESPONSES = Arrays.asList(
+    "#1   this = [Object 1234, class='Main'].foo() at Main.as:12\n",
+    "$1 = [Object 5678, class='Array']\n",
+    "$2 = 3 (0x3)\n",
+    "Expression could not be evaluated.\n");
+
+  public void testWholeTranscript() {
+    assertEquals(PIPELINED_RESPONSES, replay(PIPELINED_TRANSCRIPT, PIPELINED_TRANSCRIPT.length()));
+  }
+
+  public void testTranscriptInSmallChunks() {
+    // chunks of every size split the prompt at every possible position somewhere in the transcript
+    for (int chunkSize = 1; chunkSize <= 8; chunkSize++) {
+      assertEquals("chunk size " + chunkSize, PIPELINED_RESPONSES, replay(PIPELINED_TRANSCRIPT, chunkSize));
+    }
+  }
+
+  public void testNoResponseWithoutPrompt() {
+    FdbOutputScanner scanner = new FdbOutputScanner();
+    append(scanner, "$1 = 1 (0x1)\n(fdb");
+    assertNull(scanner.nextResponse(false));
+    append(scanner, ") ");
+    assertEquals("$1 = 1 (0x1)\n", scanner.nextResponse(false));
+    assertTrue(scanner.isLastResponseTerminated());
+    assertTrue(scanner.isEmpty());
+  }
+
+  public void testUnterminatedResponse() {
+    FdbOutputScanner scanner = new FdbOutputScanner();
+    append(scanner, "[trace] hello\n");
+    assertNull(scanner.nextResponse(false));
+    assertEquals("[trace] hello\n", scanner.nextResponse(true));
+    assertFalse(scanner.isLastResponseTerminated());
+    assertNull(scanner.nextResponse(true));
+  }
+
+  public void testWaitingForPlayer() {
+    FdbOutputScanner scanner = new FdbOutputScanner();
+    append(scanner, "Waiting for Player to conn");
+    assertNull(scanner.nextResponse(false));
+    append(scanner, "ect\n");
+    assertEquals("Waiting for Player to connect\n", scanner.nextResponse(false));
+  }
+
+  public void testConfirmation() {
+    FdbOutputScanner scanner = new FdbOutputScanner();
+    append(scanner, "The program is running.  Exit anyway? (y or n)");
+    assertEquals("The program is running.  Exit anyway? ", scanner.nextResponse(false));
+    assertTrue(scanner.isLastResponseTerminated());
+  }
+
+  public void testManyResponses() {
+    StringBuilder transcript = new StringBuilder();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      String response = "$" + i + " = " + i + " (0x" + Integer.toHexString(i) + ")\n";
+      transcript.append(response).append("(fdb) ");
+      expected.add(response);
+    }
+    assertEquals(expected, replay(transcript.toString(), 8192));
+  }
+
+  private static List<String> replay(String transcript, int chunkSize) {
+    FdbOutputScanner scanner = new FdbOutputScanner();
+    List<String> responses = new ArrayList<>();
+    for (int offset = 0; offset < transcript.length(); offset += chunkSize) {
+      append(scanner, transcript.substring(offset, Math.min(offset + chunkSize, transcript.length())));
+      String response;
+      while ((response = scanner.nextResponse(false)) != null) {
+        responses.add(response);
+      }
+    }
+    assertTrue(scanner.isEmpty());
+    return responses;
+  }
+
+  private static void append(FdbOutputScanner scanner, String text) {
+    scanner.append(text.toCharArray(), 0, text.length());
+  }
+}
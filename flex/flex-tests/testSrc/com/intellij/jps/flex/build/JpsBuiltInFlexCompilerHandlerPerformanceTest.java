@@ -0,0 +1,27 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.jps.flex.build;
+
+import java.util.concurrent.TimeUnit;
+
+public class JpsBuiltInFlexCompilerHandlerPerformanceTest extends JpsBuiltInFlexCompilerHandlerTestBase {
+  public void testSpeedup() throws Exception {
+    final int compilationsNumber = 12;
+    // start the compilers before measuring, as they are reused between build configurations
+    final JpsBuiltInFlexCompilerHandler single = createHandler(1, TimeUnit.MINUTES.toMillis(1));
+    final JpsBuiltInFlexCompilerHandler pool = createHandler(4, TimeUnit.MINUTES.toMillis(1));
+    startCompilers(single, 1);
+    startCompilers(pool, 4);
+
+    long start = System.nanoTime();
+    compile(single, compilationsNumber);
+    final long singleTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    compile(pool, compilationsNumber);
+    final long poolTime = System.nanoTime() - start;
+
+    System.out.printf("%d build configurations, %d ms each: 1 compiler %d ms, 4 compilers %d ms%n", compilationsNumber, COMPILATION_TIME,
+                      TimeUnit.NANOSECONDS.toMillis(singleTime), TimeUnit.NANOSECONDS.toMillis(poolTime));
+    assertTrue(poolTime * 2 < singleTime);
+  }
+}
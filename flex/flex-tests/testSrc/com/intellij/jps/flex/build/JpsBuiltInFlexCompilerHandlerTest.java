@@ -0,0 +1,88 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.jps.flex.build;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class JpsBuiltInFlexCompilerHandlerTest extends JpsBuiltInFlexCompilerHandlerTestBase {
+  public void testIndependentCompilationsRunConcurrently() throws Exception {
+    final JpsBuiltInFlexCompilerHandler handler = createHandler(4, TimeUnit.MINUTES.toMillis(1));
+    startCompilers(handler, 4);
+
+    // none of the compilations can finish before the barrier is created, so all of them have to be started at the same time
+    final File barrier = createBarrier();
+    final Semaphore started = new Semaphore(0);
+    final List<Future<Compilation>> futures = startCompilations(handler, 4, barrier, started);
+    assertTrue(started.tryAcquire(4, 1, TimeUnit.MINUTES));
+    assertEquals(4, handler.getActiveCompilationsNumber());
+
+    assertTrue(barrier.createNewFile());
+    final List<Compilation> compilations = waitFor(futures);
+    assertEquals(4, getCompilerPorts(compilations).size());
+  }
+
+  public void testNumberOfCompilersIsLimited() throws Exception {
+    final JpsBuiltInFlexCompilerHandler handler = createHandler(2, TimeUnit.MINUTES.toMillis(1));
+    startCompilers(handler, 2);
+
+    // the other compilations wait for one of the two compilers, which are busy until the barrier is created
+    final File barrier = createBarrier();
+    final Semaphore started = new Semaphore(0);
+    final List<Future<Compilation>> futures = startCompilations(handler, 6, barrier, started);
+    assertTrue(started.tryAcquire(2, 1, TimeUnit.MINUTES));
+    assertEquals(2, handler.getActiveCompilationsNumber());
+    assertEquals(2, handler.getCompilersNumber(SDK_HOME));
+    assertEquals(0, started.availablePermits());
+
+    assertTrue(barrier.createNewFile());
+    final List<Compilation> compilations = waitFor(futures);
+    assertEquals(4, started.availablePermits());
+    assertEquals(2, getCompilerPorts(compilations).size());
+    assertEquals(2, handler.getCompilersNumber(SDK_HOME));
+    assertEquals(0, handler.getActiveCompilationsNumber());
+  }
+
+  public void testMessagesOfEachCompilationAreInOrder() throws Exception {
+    for (Compilation compilation : compile(createHandler(3, TimeUnit.MINUTES.toMillis(1)), 9)) {
+      assertEquals(2, compilation.lines.size());
+      assertEquals("started " + compilation.name, compilation.lines.get(0).substring(0, compilation.name.length() + 8));
+      assertEquals("done " + compilation.name, compilation.lines.get(1).substring(0, compilation.name.length() + 5));
+      assertTrue(compilation.getStart() <= compilation.getEnd());
+    }
+  }
+
+  public void testIdleCompilersAreStopped() throws Exception {
+    final JpsBuiltInFlexCompilerHandler handler = createHandler(2, 0);
+    final int firstPort = getCompilerPorts(compile(handler, 1)).iterator().next();
+    final int secondPort = getCompilerPorts(compile(handler, 1)).iterator().next();
+
+    assertFalse(firstPort == secondPort);
+    assertTrue(handler.getCompilersNumber(SDK_HOME) <= 1);
+  }
+
+  public void testIdleCompilersAreStoppedWithoutNewCompilations() throws Exception {
+    final JpsBuiltInFlexCompilerHandler handler = createHandler(2, 200);
+    compile(handler, 2);
+
+    final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+    while (handler.getCompilersNumber(SDK_HOME) > 0 && System.currentTimeMillis() < deadline) {
+      //noinspection BusyWait
+      Thread.sleep(10);
+    }
+    assertEquals(0, handler.getCompilersNumber(SDK_HOME));
+  }
+
+  public void testWarmUp() throws Exception {
+    final JpsBuiltInFlexCompilerHandler handler = createHandler(3, TimeUnit.MINUTES.toMillis(1));
+    handler.warmUp(SDK_HOME, JpsBuiltInFlexCompilerHandlerTestBase::createStubProcess, getMessageConsumer(), 3);
+    assertEquals(3, handler.getCompilersNumber(SDK_HOME));
+
+    // compilations wait for the compilers that are being started instead of starting new ones
+    final List<Compilation> compilations = compile(handler, 3);
+    assertEquals(3, getCompilerPorts(compilations).size());
+    assertEquals(3, handler.getCompilersNumber(SDK_HOME));
+  }
+}
@@ -0,0 +1,179 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.jps.flex.build;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.incremental.messages.BuildMessage;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs compilations on a pool of {@link StubFlexCompiler} processes.
+ */
+public abstract class JpsBuiltInFlexCompilerHandlerTestBase extends TestCase {
+  protected static final String SDK_HOME = "/flex/sdk";
+  protected static final int COMPILATION_TIME = 300;
+
+  private final List<JpsBuiltInFlexCompilerHandler> myHandlers = new ArrayList<>();
+  private final List<String> myErrors = Collections.synchronizedList(new ArrayList<>());
+  private final BiConsumer<BuildMessage.Kind, String> myMessageConsumer = (kind, text) -> {
+    if (kind == BuildMessage.Kind.ERROR) {
+      myErrors.add(text);
+    }
+  };
+  private ExecutorService myExecutor;
+  private File myTempDir;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myExecutor = Executors.newCachedThreadPool();
+    myTempDir = FileUtil.createTempDirectory("flexCompilerPool", null);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      myExecutor.shutdownNow();
+      for (JpsBuiltInFlexCompilerHandler handler : myHandlers) {
+        handler.stopCompilerProcesses();
+      }
+      FileUtil.delete(myTempDir);
+      assertTrue(myErrors.toString(), myErrors.isEmpty());
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  protected JpsBuiltInFlexCompilerHandler createHandler(final int maxCompilers, final long idleTimeout) {
+    final JpsBuiltInFlexCompilerHandler handler = new JpsBuiltInFlexCompilerHandler(maxCompilers, idleTimeout);
+    myHandlers.add(handler);
+    return handler;
+  }
+
+  protected BiConsumer<BuildMessage.Kind, String> getMessageConsumer() {
+    return myMessageConsumer;
+  }
+
+  /**
+   * A file the compilations started with it wait for before they finish, see {@link StubFlexCompiler}.
+   */
+  protected File createBarrier() {
+    return new File(myTempDir, "barrier" + System.nanoTime());
+  }
+
+  protected void startCompilers(final JpsBuiltInFlexCompilerHandler handler, final int count) throws Exception {
+    compile(handler, count);
+    assertEquals(count, handler.getCompilersNumber(SDK_HOME));
+  }
+
+  protected List<Compilation> compile(final JpsBuiltInFlexCompilerHandler handler, final int count) throws Exception {
+    return waitFor(startCompilations(handler, count, null, null));
+  }
+
+  /**
+   * Runs each compilation in its own thread, so that it waits for a compiler the same way the build of a target does.
+   *
+   * @param started released each time a compilation is started by a compiler
+   */
+  protected List<Future<Compilation>> startCompilations(final JpsBuiltInFlexCompilerHandler handler,
+                                                        final int count,
+                                                        @Nullable final File barrier,
+                                                        @Nullable final Semaphore started) {
+    final List<Future<Compilation>> futures = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final Compilation compilation = new Compilation("BC" + i, started);
+      futures.add(myExecutor.submit(() -> compile(handler, compilation, barrier)));
+    }
+    return futures;
+  }
+
+  protected static List<Compilation> waitFor(final List<Future<Compilation>> futures) throws Exception {
+    final List<Compilation> result = new ArrayList<>();
+    for (Future<Compilation> future : futures) {
+      result.add(future.get(1, TimeUnit.MINUTES));
+    }
+    return result;
+  }
+
+  private Compilation compile(final JpsBuiltInFlexCompilerHandler handler, final Compilation compilation, @Nullable final File barrier)
+    throws Exception {
+    final JpsBuiltInFlexCompilerHandler.CompilerDaemon compiler =
+      handler.acquireCompiler(SDK_HOME, JpsBuiltInFlexCompilerHandlerTestBase::createStubProcess, myMessageConsumer, () -> false);
+    assertNotNull(compiler);
+
+    try {
+      final String sleep = barrier == null ? String.valueOf(COMPILATION_TIME) : "0";
+      final String await = barrier == null ? "" : " -await=" + barrier.getPath();
+      compiler.sendCompilationCommand("mxmlc -sleep=" + sleep + " -name=" + compilation.name + await, compilation);
+      assertTrue(compilation.finished.await(1, TimeUnit.MINUTES));
+    }
+    finally {
+      handler.releaseCompiler(compiler);
+    }
+    return compilation;
+  }
+
+  protected static Set<Integer> getCompilerPorts(final List<Compilation> compilations) {
+    final Set<Integer> result = new HashSet<>();
+    for (Compilation compilation : compilations) {
+      result.add(Integer.parseInt(compilation.getField(0, 2)));
+    }
+    return result;
+  }
+
+  @NotNull
+  protected static ProcessBuilder createStubProcess(final int port) {
+    final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    final ProcessBuilder processBuilder =
+      new ProcessBuilder(java, "-cp", PathManager.getJarPathForClass(StubFlexCompiler.class), StubFlexCompiler.class.getName(),
+                         String.valueOf(port));
+    processBuilder.redirectErrorStream(true);
+    return processBuilder;
+  }
+
+  protected static final class Compilation implements JpsBuiltInFlexCompilerHandler.Listener {
+    final String name;
+    final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+    private final Semaphore started;
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private Compilation(final String name, @Nullable final Semaphore started) {
+      this.name = name;
+      this.started = started;
+    }
+
+    @Override
+    public void textAvailable(final String text) {
+      assertEquals(1, finished.getCount());
+      lines.add(text);
+      if (started != null && text.startsWith("started ")) {
+        started.release();
+      }
+    }
+
+    @Override
+    public void compilationFinished() {
+      finished.countDown();
+    }
+
+    String getField(final int line, final int index) {
+      return lines.get(line).split(" ")[index];
+    }
+
+    long getStart() {
+      return Long.parseLong(getField(0, 3));
+    }
+
+    long getEnd() {
+      return Long.parseLong(getField(1, 3));
+    }
+  }
+}
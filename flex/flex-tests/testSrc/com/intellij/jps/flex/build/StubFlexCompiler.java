@@ -0,0 +1,62 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.jps.flex.build;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Stands in for the built-in Flex compiler process: speaks the same protocol, but a command like
+ * {@code 1:mxmlc -sleep=300 -name=Main} only waits for the given time, reporting when it started and finished.
+ * With the last option {@code -await=<path>} it also waits until the file at the path exists before it finishes.
+ */
+public final class StubFlexCompiler {
+  public static void main(String[] args) throws IOException, InterruptedException {
+    final int port = Integer.parseInt(args[0]);
+    final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    final DataInputStream input = new DataInputStream(socket.getInputStream());
+    final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+    System.out.println("Connection successful");
+    System.out.flush();
+
+    final StringBuilder buffer = new StringBuilder();
+    while (true) {
+      try {
+        buffer.append(input.readUTF());
+      }
+      catch (IOException e) {
+        // the socket is closed when the pool stops the compiler
+        return;
+      }
+
+      int index;
+      while ((index = buffer.indexOf("\n")) > -1) {
+        final String command = buffer.substring(0, index);
+        buffer.delete(0, index + 1);
+
+        final String prefix = command.substring(0, command.indexOf(':') + 1);
+        final long sleep = Long.parseLong(getOption(command, "sleep"));
+        final String name = getOption(command, "name");
+        final int awaitIndex = command.indexOf(" -await=");
+        final File barrier = awaitIndex < 0 ? null : new File(command.substring(awaitIndex + " -await=".length()));
+
+        output.writeUTF(prefix + "started " + name + " " + port + " " + System.currentTimeMillis() + "\n");
+        Thread.sleep(sleep);
+        while (barrier != null && !barrier.exists()) {
+          Thread.sleep(10);
+        }
+        output.writeUTF(prefix + "done " + name + " " + port + " " + System.currentTimeMillis() + "\n");
+        output.writeUTF(prefix + "Compilation finished\n");
+      }
+    }
+  }
+
+  private static String getOption(final String command, final String name) {
+    final int start = command.indexOf("-" + name + "=") + name.length() + 2;
+    final int end = command.indexOf(' ', start);
+    return end < 0 ? command.substring(start) : command.substring(start, end);
+  }
+}
@@ -0,0 +1,92 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.flex.debug;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class FdbEvaluationCacheTest extends TestCase {
+  private static final String LENGTH = "frame 0\nprint a.length";
+
+  public void testHitsAndWritesAreCounted() {
+    final FdbEvaluationCache cache = new FdbEvaluationCache();
+    assertNull(cache.get(LENGTH));
+    cache.commandWritten(readOnlyCommand(LENGTH));
+    cache.put(LENGTH, "$1 = 3 (0x3)");
+
+    assertEquals("$1 = 3 (0x3)", cache.get(LENGTH));
+    assertEquals("$1 = 3 (0x3)", cache.get(LENGTH));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getWriteCount());
+  }
+
+  public void testReadOnlyCommandsKeepCache() {
+    final FdbEvaluationCache cache = new FdbEvaluationCache();
+    cache.put(LENGTH, "$1 = 3 (0x3)");
+
+    cache.commandWritten(readOnlyCommand("frame 0\nprint b"));
+    cache.commandWritten(readOnlyCommand("info scopechain"));
+
+    assertTrue(cache.contains(LENGTH));
+    assertEquals(2, cache.getWriteCount());
+  }
+
+  public void testCommandsChangingStateDropCache() {
+    final FdbEvaluationCache cache = new FdbEvaluationCache();
+    cache.put(LENGTH, "$1 = 3 (0x3)");
+    cache.commandWritten(readOnlyCommand("frame 0\nprint b"));
+    cache.get(LENGTH);
+
+    // resume, step and assignment commands are not read-only
+    cache.commandWritten(new DebuggerCommand("continue"));
+
+    assertFalse(cache.contains(LENGTH));
+    assertNull(cache.get(LENGTH));
+    assertEquals(0, cache.getHitCount());
+    assertEquals(1, cache.getWriteCount());
+  }
+
+  public void testCountersAreAtomic() throws Exception {
+    final FdbEvaluationCache cache = new FdbEvaluationCache();
+    cache.put(LENGTH, "$1 = 3 (0x3)");
+    final DebuggerCommand readOnlyCommand = readOnlyCommand("frame 0\nprint b");
+    final int threads = 8;
+    final int iterations = 10000;
+
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final CyclicBarrier start = new CyclicBarrier(threads);
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < iterations; j++) {
+            assertNotNull(cache.get(LENGTH));
+            cache.commandWritten(readOnlyCommand);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(threads * iterations, cache.getHitCount());
+    assertEquals(threads * iterations, cache.getWriteCount());
+  }
+
+  static DebuggerCommand readOnlyCommand(String text) {
+    return new DebuggerCommand(text, CommandOutputProcessingType.SPECIAL_PROCESSING) {
+      @Override
+      boolean isReadOnly() {
+        return true;
+      }
+    };
+  }
+}
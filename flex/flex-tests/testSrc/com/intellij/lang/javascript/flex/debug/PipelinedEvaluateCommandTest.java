@@ -0,0 +1,300 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.flex.debug;
+
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Replays queued evaluations against a fake fdb which answers each line of a write the way fdb does, counting the writes.
+ */
+public class PipelinedEvaluateCommandTest extends TestCase {
+  private final FakeFdb myFdb = new FakeFdb();
+  private final FdbEvaluationCache myCache = new FdbEvaluationCache();
+  private final LinkedList<DebuggerCommand> myQueue = new LinkedList<>();
+  private final List<String> myResults = new ArrayList<>();
+  private boolean myPipeliningEnabled = true;
+
+  private final PipelinedEvaluateCommand.Host myHost = new PipelinedEvaluateCommand.Host() {
+    @Override
+    public boolean filterStdResponse(@NotNull String response) {
+      return response.startsWith("[trace] ");
+    }
+
+    @Override
+    public void insertCommand(@NotNull DebuggerCommand command) {
+      myQueue.addFirst(command);
+    }
+  };
+
+  public void testResponsesAreDispatchedInOrder() {
+    myFdb.define("a", "$1 = 1 (0x1)");
+    myFdb.define("b", "$2 = \"b\"");
+    myFdb.define("c", "$3 = [Object 12, class='Array']");
+    queue(0, "a");
+    myQueue.add(new CompositeDebuggerCommand(new FakeEvaluation(0, "b")));
+    queue(0, "c");
+
+    runQueue();
+
+    assertEquals(Collections.singletonList("frame 0\nprint a\nprint b\nprint c"), myFdb.getWrites());
+    assertEquals(Arrays.asList("a = $1 = 1 (0x1)", "b = $2 = \"b\"", "c = $3 = [Object 12, class='Array']"), myResults);
+  }
+
+  public void testStdOutputBetweenResponsesIsSkipped() {
+    myFdb.define("a", "$1 = 1 (0x1)");
+    myFdb.define("b", "$2 = 2 (0x2)");
+    myFdb.traceBefore("b", "[trace] hello");
+    queue(0, "a");
+    queue(0, "b");
+
+    runQueue();
+
+    assertEquals(1, myFdb.getWrites().size());
+    assertEquals(Arrays.asList("a = $1 = 1 (0x1)", "b = $2 = 2 (0x2)"), myResults);
+  }
+
+  public void testOnlyEvaluationsInSameFrameArePipelined() {
+    myFdb.define("a", "$1 = 1 (0x1)");
+    myFdb.define("a.b", "$2 = 2 (0x2)");
+    myFdb.define("a.c", "$3 = 3 (0x3)");
+    myFdb.define("a.d", "$4 = 4 (0x4)");
+    queue(0, "a");
+    queue(0, "a.b");
+    queue(1, "a");
+    queue(0, "a.c");
+    myQueue.add(new DebuggerCommand("next"));
+    queue(0, "a.d");
+
+    runQueue();
+
+    assertEquals(Arrays.asList("frame 0\nprint a\nprint a.b", "frame 1\nprint a", "frame 0\nprint a.c", "next", "frame 0\nprint a.d"),
+                 myFdb.getWrites());
+    assertEquals(Arrays.asList("a = $1 = 1 (0x1)", "a.b = $2 = 2 (0x2)", "a = $1 = 1 (0x1)", "a.c = $3 = 3 (0x3)", "a.d = $4 = 4 (0x4)"),
+                 myResults);
+  }
+
+  public void testNumberOfPipelinedEvaluationsIsLimited() {
+    for (int i = 0; i < 40; i++) {
+      myFdb.define("a" + i, "$" + i + " = " + i);
+      queue(0, "a" + i);
+    }
+
+    runQueue();
+
+    assertEquals(3, myFdb.getWrites().size());
+    assertEquals(40, myResults.size());
+    for (int i = 0; i < 40; i++) {
+      assertEquals("a" + i + " = $" + i + " = " + i, myResults.get(i));
+    }
+  }
+
+  public void testUnevaluatedExpressionsAreDeferredAndExecutedAlone() {
+    myFdb.define("a", "$1 = 1 (0x1)");
+    myFdb.define("b", "$2 = 2 (0x2)");
+    myFdb.define("e", "$3 = 3 (0x3)");
+    queue(0, "a");
+    queue(0, "Foo.bar");
+    queue(0, "b");
+    queue(0, "Foo.baz");
+    queue(1, "e");
+
+    runQueue();
+
+    // both deferred evaluations go first, in their original order, and neither is pipelined again with the other one
+    assertEquals(Arrays.asList("frame 0\nprint a\nprint Foo.bar\nprint b\nprint Foo.baz",
+                               "frame 0\nprint Foo.bar",
+                               "frame 0\nprint Foo.baz",
+                               "frame 1\nprint e"),
+                 myFdb.getWrites());
+    assertEquals(Arrays.asList("a = $1 = 1 (0x1)", "b = $2 = 2 (0x2)", "fallback Foo.bar", "fallback Foo.baz", "e = $3 = 3 (0x3)"),
+                 myResults);
+  }
+
+  public void testRoundTripsPerExpandedNode() {
+    final int children = 30;
+    for (int i = 0; i < children; i++) {
+      myFdb.define("this.items[" + i + "].length", "$" + i + " = " + i + " (0x" + Integer.toHexString(i) + ")");
+    }
+
+    myPipeliningEnabled = false;
+    assertEquals(children, expandNode(children));
+    resume();
+
+    myPipeliningEnabled = true;
+    final int pipelinedRoundTrips = expandNode(children);
+    assertEquals((children + PipelinedEvaluateCommand.MAX_PIPELINED_EVALUATIONS - 1) / PipelinedEvaluateCommand.MAX_PIPELINED_EVALUATIONS,
+                 pipelinedRoundTrips);
+
+    // expanding the node again while suspended at the same place doesn't need fdb at all
+    assertEquals(0, expandNode(children));
+    assertEquals(children, myCache.getHitCount());
+
+    // the results are not valid after resume
+    resume();
+    assertEquals(pipelinedRoundTrips, expandNode(children));
+  }
+
+  /**
+   * Like {@link FlexValue} does for collections, evaluates the length of each child of the expanded node.
+   *
+   * @return the number of fdb writes
+   */
+  private int expandNode(int children) {
+    final int writes = myFdb.getWrites().size();
+    for (int i = 0; i < children; i++) {
+      myQueue.add(new CompositeDebuggerCommand(new FakeEvaluation(0, "this.items[" + i + "].length")));
+    }
+    runQueue();
+    return myFdb.getWrites().size() - writes;
+  }
+
+  private void resume() {
+    myQueue.add(new DebuggerCommand("continue"));
+    runQueue();
+  }
+
+  private void queue(int frame, String expression) {
+    myQueue.add(new FakeEvaluation(frame, expression));
+  }
+
+  /**
+   * Does what {@link FlexDebugProcess} does with suspended application: pipelines the head of the queue, answers cached evaluations
+   * without fdb and passes fdb responses to the command until it is done.
+   */
+  private void runQueue() {
+    while (!myQueue.isEmpty()) {
+      DebuggerCommand command = myQueue.pollFirst();
+      if (myPipeliningEnabled) {
+        command = PipelinedEvaluateCommand.pipeline(myHost, command, myQueue);
+      }
+
+      // a composite command posts its current command
+      final DebuggerCommand posted =
+        command instanceof CompositeDebuggerCommand ? ((CompositeDebuggerCommand)command).getSingleActiveCommand() : command;
+      assertNotNull(posted);
+
+      final String cached = myCache.get(posted.getText());
+      if (cached != null) {
+        ((FakeEvaluation)posted).skipFrameResponse();
+        assertEquals(CommandOutputProcessingMode.DONE, command.onTextAvailable(cached));
+        continue;
+      }
+
+      myCache.commandWritten(posted);
+      final List<String> responses = myFdb.write(posted.getText());
+      if (posted.getOutputProcessingMode() == CommandOutputProcessingType.NO_PROCESSING) continue;
+
+      for (int i = 0; i < responses.size(); i++) {
+        final CommandOutputProcessingMode mode = command.onTextAvailable(responses.get(i));
+        assertEquals(posted.getText(), i == responses.size() - 1, mode == CommandOutputProcessingMode.DONE);
+      }
+    }
+  }
+
+  private class FakeEvaluation extends DebuggerCommand implements PipelinedEvaluateCommand.Evaluation {
+    private final String myExpression;
+    private int myResponseCount;
+    private boolean myPipeliningDisabled;
+
+    FakeEvaluation(int frame, String expression) {
+      super("frame " + frame + "\nprint " + expression, CommandOutputProcessingType.SPECIAL_PROCESSING);
+      myExpression = expression;
+    }
+
+    @NotNull
+    @Override
+    public String getFrameCommand() {
+      return getText().substring(0, getText().indexOf('\n'));
+    }
+
+    @NotNull
+    @Override
+    public String getPrintCommand() {
+      return getText().substring(getText().indexOf('\n') + 1);
+    }
+
+    @Override
+    public boolean canBePipelined() {
+      return !myPipeliningDisabled && !myCache.contains(getText());
+    }
+
+    @Override
+    public void disablePipelining() {
+      myPipeliningDisabled = true;
+    }
+
+    @Override
+    public boolean cannotEvaluateResponse(@NotNull String response) {
+      return response.contains("could not be evaluated");
+    }
+
+    @Override
+    public void skipFrameResponse() {
+      myResponseCount = 1;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+      return true;
+    }
+
+    @Override
+    CommandOutputProcessingMode onTextAvailable(@NonNls String s) {
+      if (myHost.filterStdResponse(s)) return CommandOutputProcessingMode.PROCEEDING;
+      if (++myResponseCount == 1) return CommandOutputProcessingMode.PROCEEDING;
+
+      if (cannotEvaluateResponse(s)) {
+        // the real command evaluates the expression in other ways here, which needs fdb exclusively
+        assertFalse(myExpression, myCache.contains(getText()));
+        myResults.add("fallback " + myExpression);
+      }
+      else {
+        myCache.put(getText(), s);
+        myResults.add(myExpression + " = " + s);
+      }
+      return CommandOutputProcessingMode.DONE;
+    }
+  }
+
+  private static class FakeFdb {
+    private final Map<String, String> myValues = new HashMap<>();
+    private final Map<String, String> myTraces = new HashMap<>();
+    private final List<String> myWrites = new ArrayList<>();
+
+    void define(String expression, String response) {
+      myValues.put(expression, response);
+    }
+
+    void traceBefore(String expression, String trace) {
+      myTraces.put(expression, trace);
+    }
+
+    List<String> getWrites() {
+      return myWrites;
+    }
+
+    /**
+     * @return responses to the lines of {@code text}, as they are split by the fdb prompt
+     */
+    List<String> write(String text) {
+      myWrites.add(text);
+      final List<String> responses = new ArrayList<>();
+      for (String line : text.split("\n")) {
+        if (line.startsWith("frame ")) {
+          responses.add("#" + line.substring("frame ".length()) + "   this = [Object 1, class='Main'].foo() at Main.as:12");
+        }
+        else if (line.startsWith("print ")) {
+          final String expression = line.substring("print ".length());
+          final String trace = myTraces.get(expression);
+          if (trace != null) responses.add(trace);
+          final String value = myValues.get(expression);
+          responses.add(value != null ? value : "Expression " + expression + " could not be evaluated.");
+        }
+      }
+      return responses;
+    }
+  }
+}
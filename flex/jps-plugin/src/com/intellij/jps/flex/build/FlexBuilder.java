@@ -36,6 +36,7 @@ import org.jetbrains.jps.incremental.messages.ProgressMessage;
 import org.jetbrains.jps.model.JpsProject;
 import org.jetbrains.jps.model.library.sdk.JpsSdk;
 import org.jetbrains.jps.model.module.JpsModule;
+import org.jetbrains.jps.service.SharedThreadPool;
 
 import java.io.File;
 import java.io.IOException;
@@ -43,11 +44,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTarget> {
 
   private static final Logger LOG = Logger.getInstance(FlexBuilder.class.getName());
-  private JpsBuiltInFlexCompilerHandler myBuiltInCompilerHandler;
+  // kept between builds, so that the compiler processes started by one build are reused by the next one
+  private final JpsBuiltInFlexCompilerHandler myBuiltInCompilerHandler = new JpsBuiltInFlexCompilerHandler();
 
   private enum Status {Ok, Failed, Cancelled}
 
@@ -61,18 +65,10 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
     return "Flash Compiler";
   }
 
-  @Override
-  public void buildStarted(final CompileContext context) {
-    super.buildStarted(context);
-    myBuiltInCompilerHandler = new JpsBuiltInFlexCompilerHandler(context.getProjectDescriptor().getProject());
-  }
-
   @Override
   public void buildFinished(final CompileContext context) {
     LOG.assertTrue(myBuiltInCompilerHandler.getActiveCompilationsNumber() == 0,
                    myBuiltInCompilerHandler.getActiveCompilationsNumber() + " Flex compilation(s) are not finished!");
-    myBuiltInCompilerHandler.stopCompilerProcess();
-    myBuiltInCompilerHandler = null;
 
     FlexCommonUtils.deleteTempFlexConfigFiles(context.getProjectDescriptor().getProject().getName());
 
@@ -135,10 +131,12 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
       }
     }
 
-    for (JpsFlexBuildConfiguration bc : bcsToCompile) {
-      final Status status = compileBuildConfiguration(context, bc, myBuiltInCompilerHandler);
+    final List<Status> statuses = compileBuildConfigurations(context, bcsToCompile, myBuiltInCompilerHandler);
 
-      switch (status) {
+    for (int i = 0; i < statuses.size(); i++) {
+      final JpsFlexBuildConfiguration bc = bcsToCompile.get(i);
+
+      switch (statuses.get(i)) {
         case Ok:
           outputConsumer.registerOutputFile(new File(mainBC.getActualOutputFilePath()), dirtyFilePaths);
           FlexBuilderUtils.performPostCompileActions(context, bc, dirtyFilePaths, outputConsumer);
@@ -281,6 +279,69 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
     return cssBC;
   }
 
+  /**
+   * Compiles the main BC first, then its RLMs and runtime stylesheets, which depend only on the main BC.
+   * They are compiled concurrently when the built-in compiler is used, its pool limits the number of parallel compilations.
+   *
+   * @return statuses of the compiled BCs in the same order, the list ends at the first BC that was not compiled successfully
+   */
+  private static List<Status> compileBuildConfigurations(final CompileContext context,
+                                                         final List<JpsFlexBuildConfiguration> bcs,
+                                                         final JpsBuiltInFlexCompilerHandler builtInCompilerHandler) {
+    final List<Status> result = new ArrayList<>(bcs.size());
+
+    final JpsFlexBuildConfiguration mainBC = bcs.get(0);
+    result.add(compileBuildConfiguration(context, mainBC, builtInCompilerHandler));
+    if (result.get(0) != Status.Ok || bcs.size() == 1) {
+      return result;
+    }
+
+    final List<JpsFlexBuildConfiguration> dependentBCs = bcs.subList(1, bcs.size());
+
+    if (!isBuiltInCompilerUsed(mainBC) || builtInCompilerHandler.getMaxCompilersPerSdk() == 1) {
+      for (JpsFlexBuildConfiguration bc : dependentBCs) {
+        final Status status = compileBuildConfiguration(context, bc, builtInCompilerHandler);
+        result.add(status);
+        if (status != Status.Ok) break;
+      }
+      return result;
+    }
+
+    final JpsSdk<?> sdk = mainBC.getSdk();
+    assert sdk != null;
+    builtInCompilerHandler.warmUp(sdk, context, FlexBuilderUtils.getCompilerName(mainBC), dependentBCs.size());
+
+    final List<Future<Status>> futures = new ArrayList<>(dependentBCs.size());
+    for (JpsFlexBuildConfiguration bc : dependentBCs) {
+      futures.add(SharedThreadPool.getInstance().submit(() -> compileBuildConfiguration(context, bc, builtInCompilerHandler)));
+    }
+
+    for (int i = 0; i < futures.size(); i++) {
+      Status status;
+      try {
+        status = futures.get(i).get();
+      }
+      catch (InterruptedException e) {
+        status = Status.Cancelled;
+      }
+      catch (ExecutionException e) {
+        LOG.error(e);
+        context.processMessage(new CompilerMessage(FlexBuilderUtils.getCompilerName(dependentBCs.get(i)), BuildMessage.Kind.ERROR,
+                                                   String.valueOf(e.getCause())));
+        status = Status.Failed;
+      }
+      result.add(status);
+    }
+
+    // report statuses up to the first unsuccessful one, as if the BCs were compiled one by one
+    for (int i = 1; i < result.size(); i++) {
+      if (result.get(i) != Status.Ok) {
+        return result.subList(0, i + 1);
+      }
+    }
+    return result;
+  }
+
   private static Status compileBuildConfiguration(final CompileContext context,
                                                   final JpsFlexBuildConfiguration bc,
                                                   final JpsBuiltInFlexCompilerHandler builtInCompilerHandler) {
@@ -356,15 +417,9 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
     final JpsSdk<?> sdk = bc.getSdk();
     assert sdk != null;
 
-    final boolean asc20 = bc.isPureAs() &&
-                          FlexCommonUtils.containsASC20(sdk.getHomePath()) &&
-                          (JpsFlexCompilerProjectExtension.getInstance(bc.getModule().getProject()).PREFER_ASC_20 ||
-                           FlexCommonUtils.isAirSdkWithoutFlex(sdk));
-    final boolean builtIn = !asc20 &&
-                            JpsFlexCompilerProjectExtension.getInstance(bc.getModule().getProject()).USE_BUILT_IN_COMPILER &&
-                            builtInCompilerHandler.canBeUsedForSdk(sdk.getHomePath());
+    final boolean asc20 = isASC20Used(bc, sdk);
 
-    if (builtIn) {
+    if (isBuiltInCompilerUsed(bc)) {
       return doCompileWithBuiltInCompiler(context, bc, configFiles, compilerName, builtInCompilerHandler);
     }
 
@@ -395,19 +450,38 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
     }
   }
 
+  private static boolean isASC20Used(final JpsFlexBuildConfiguration bc, final JpsSdk<?> sdk) {
+    return bc.isPureAs() &&
+           FlexCommonUtils.containsASC20(sdk.getHomePath()) &&
+           (JpsFlexCompilerProjectExtension.getInstance(bc.getModule().getProject()).PREFER_ASC_20 ||
+            FlexCommonUtils.isAirSdkWithoutFlex(sdk));
+  }
+
+  private static boolean isBuiltInCompilerUsed(final JpsFlexBuildConfiguration bc) {
+    final JpsSdk<?> sdk = bc.getSdk();
+    assert sdk != null;
+
+    return !isASC20Used(bc, sdk) && JpsFlexCompilerProjectExtension.getInstance(bc.getModule().getProject()).USE_BUILT_IN_COMPILER;
+  }
+
   private static Status doCompileWithBuiltInCompiler(final CompileContext context,
                                                      final JpsFlexBuildConfiguration bc,
                                                      final List<File> configFiles,
                                                      final String compilerName,
                                                      final JpsBuiltInFlexCompilerHandler builtInCompilerHandler) {
+    final JpsBuiltInFlexCompilerHandler.CompilerDaemon compiler;
     try {
-      builtInCompilerHandler.startCompilerIfNeeded(bc.getSdk(), context, compilerName);
+      compiler = builtInCompilerHandler.acquireCompiler(bc.getSdk(), context, compilerName);
     }
     catch (IOException e) {
       context.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.ERROR, e.toString()));
       return Status.Failed;
     }
 
+    if (compiler == null) {
+      return Status.Cancelled;
+    }
+
     final List<String> mxmlcOrCompc = Collections.singletonList(bc.getOutputType() == OutputType.Library ? "compc" : "mxmlc");
     final List<String> command = buildCommand(mxmlcOrCompc, configFiles, bc);
     final String plainCommand = StringUtil.join(command,
@@ -420,10 +494,15 @@ public class FlexBuilder extends TargetBuilder<BuildRootDescriptor, FlexBuildTar
 
     final BuiltInCompilerListener listener = new BuiltInCompilerListener(context, compilerName, () -> semaphore.up());
 
-    builtInCompilerHandler.sendCompilationCommand(plainCommand, listener);
+    try {
+      compiler.sendCompilationCommand(plainCommand, listener);
 
-    semaphore.waitFor();
-    builtInCompilerHandler.removeListener(listener);
+      semaphore.waitFor();
+      compiler.removeListener(listener);
+    }
+    finally {
+      builtInCompilerHandler.releaseCompiler(compiler);
+    }
 
     return listener.isCompilationCancelled() ? Status.Cancelled
                                              : listener.isCompilationFailed()
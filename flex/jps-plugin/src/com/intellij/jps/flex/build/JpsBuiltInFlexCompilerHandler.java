@@ -6,6 +6,9 @@ import com.intellij.flex.model.sdk.JpsFlexSdkType;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.ConcurrencyUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jps.incremental.CompileContext;
 import org.jetbrains.jps.incremental.messages.BuildMessage;
 import org.jetbrains.jps.incremental.messages.CompilerMessage;
@@ -16,26 +19,40 @@ import org.jetbrains.jps.service.SharedThreadPool;
 import java.io.*;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps a pool of built-in compiler processes for each Flex SDK. A process compiles one build configuration at a time,
+ * so independent build configurations are compiled concurrently by different processes.
+ * Processes are started on demand or in advance by {@link #warmUp}, and the ones that stay idle for too long are stopped.
+ * The handler outlives a single build, so the processes started by one build are reused by the next one.
+ * Processes started with a different command line, e.g. after the compiler VM options are changed, get a pool of their own,
+ * and the old ones are stopped when their idle timeout expires.
+ */
 public final class JpsBuiltInFlexCompilerHandler {
   private static final Logger LOG = Logger.getInstance(JpsBuiltInFlexCompilerHandler.class.getName());
   private static final String CONNECTION_SUCCESSFUL = "Connection successful";
   public static final String COMPILATION_FINISHED = "Compilation finished";
 
-  private final JpsProject myProject;
+  private static final String MAX_COMPILERS_PROPERTY = "flex.builtin.compiler.processes";
+  private static final int DEFAULT_MAX_COMPILERS_PER_SDK = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+  private static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+  private static final long WAIT_INTERVAL = 100;
 
-  private String mySdkHome;
+  private static final ScheduledExecutorService ourIdleCheckExecutor =
+    Executors.newSingleThreadScheduledExecutor(ConcurrencyUtil.newNamedThreadFactory("Flex compiler idle check", true, Thread.NORM_PRIORITY));
 
-  private ServerSocket myServerSocket;
-  private DataInputStream myDataInputStream;
-  private DataOutputStream myDataOutputStream;
+  private final int myMaxCompilersPerSdk;
+  private final long myIdleTimeout;
 
-  private int commandNumber = 1;
-  private final Map<String, Listener> myActiveListeners = new HashMap<>();
+  private final Map<String, List<CompilerDaemon>> myDaemons = new HashMap<>();
+  private ScheduledFuture<?> myIdleCheck;
 
   public interface Listener {
     void textAvailable(String text);
@@ -43,47 +60,203 @@ public final class JpsBuiltInFlexCompilerHandler {
     void compilationFinished();
   }
 
-  JpsBuiltInFlexCompilerHandler(final JpsProject project) {
-    myProject = project;
+  interface ProcessFactory {
+    /**
+     * @param port the port the compiler process must connect to
+     */
+    @NotNull
+    ProcessBuilder createProcess(int port);
+  }
+
+  private enum DaemonState {Starting, Idle, Busy, Stopped}
+
+  JpsBuiltInFlexCompilerHandler() {
+    this(Math.max(1, Integer.getInteger(MAX_COMPILERS_PROPERTY, DEFAULT_MAX_COMPILERS_PER_SDK)), DEFAULT_IDLE_TIMEOUT);
+  }
+
+  JpsBuiltInFlexCompilerHandler(final int maxCompilersPerSdk, final long idleTimeout) {
+    myMaxCompilersPerSdk = maxCompilersPerSdk;
+    myIdleTimeout = idleTimeout;
   }
 
-  public synchronized boolean canBeUsedForSdk(final String sdkHome) {
-    return mySdkHome == null || mySdkHome.equals(sdkHome);
+  public int getMaxCompilersPerSdk() {
+    return myMaxCompilersPerSdk;
   }
 
-  public synchronized void startCompilerIfNeeded(final JpsSdk<?> sdk,
-                                                 final CompileContext context,
-                                                 final String compilerName) throws IOException {
-    if (!Objects.equals(sdk.getHomePath(), mySdkHome)) {
-      stopCompilerProcess();
+  /**
+   * Returns an idle compiler process for the SDK, starting a new one if the pool is not full, or waits until some process is released.
+   * The caller must pass the result to {@link #releaseCompiler} when the compilation is finished.
+   *
+   * @return {@code null} if compilation is cancelled while waiting
+   */
+  @Nullable
+  public CompilerDaemon acquireCompiler(final JpsSdk<?> sdk, final CompileContext context, final String compilerName) throws IOException {
+    final JpsProject project = context.getProjectDescriptor().getProject();
+    final List<String> commandLine = getCommandLine(project, sdk);
+    return acquireCompiler(getPoolKey(sdk, commandLine), port -> createProcess(project, commandLine, port),
+                           createMessageConsumer(context, compilerName), () -> context.getCancelStatus().isCanceled());
+  }
+
+  /**
+   * Starts compiler processes in background, so that up to {@code count} of them are available for the SDK.
+   */
+  public void warmUp(final JpsSdk<?> sdk, final CompileContext context, final String compilerName, final int count) {
+    final JpsProject project = context.getProjectDescriptor().getProject();
+    final List<String> commandLine = getCommandLine(project, sdk);
+    warmUp(getPoolKey(sdk, commandLine), port -> createProcess(project, commandLine, port), createMessageConsumer(context, compilerName),
+           count);
+  }
+
+  @Nullable
+  CompilerDaemon acquireCompiler(final String poolKey,
+                                 final ProcessFactory processFactory,
+                                 final BiConsumer<BuildMessage.Kind, String> messageConsumer,
+                                 final BooleanSupplier cancelled) throws IOException {
+    stopIdleDaemons();
+
+    final CompilerDaemon daemon;
+    synchronized (this) {
+      while (true) {
+        final List<CompilerDaemon> daemons = myDaemons.computeIfAbsent(poolKey, key -> new ArrayList<>());
+        for (CompilerDaemon idle : daemons) {
+          if (idle.myState == DaemonState.Idle) {
+            idle.myState = DaemonState.Busy;
+            return idle;
+          }
+        }
+
+        if (daemons.size() < myMaxCompilersPerSdk) {
+          daemon = new CompilerDaemon(poolKey, DaemonState.Busy);
+          daemons.add(daemon);
+          break;
+        }
+
+        if (cancelled.getAsBoolean()) {
+          return null;
+        }
+
+        try {
+          wait(WAIT_INTERVAL);
+        }
+        catch (InterruptedException e) {
+          return null;
+        }
+      }
     }
 
-    if (myServerSocket == null) {
-      try {
-        //context.processMessage(new ProgressMessage("Starting Flex compiler"));
-        myServerSocket = new ServerSocket(0);
-        myServerSocket.setSoTimeout(10000);
-        final int port = myServerSocket.getLocalPort();
+    try {
+      daemon.start(processFactory, messageConsumer);
+    }
+    catch (IOException e) {
+      daemon.stop();
+      throw e;
+    }
+    return daemon;
+  }
 
-        startCompilerProcess(sdk, port, context, compilerName);
+  void warmUp(final String poolKey,
+              final ProcessFactory processFactory,
+              final BiConsumer<BuildMessage.Kind, String> messageConsumer,
+              final int count) {
+    final List<CompilerDaemon> toStart = new ArrayList<>();
+    synchronized (this) {
+      final List<CompilerDaemon> daemons = myDaemons.computeIfAbsent(poolKey, key -> new ArrayList<>());
+      int available = 0;
+      for (CompilerDaemon daemon : daemons) {
+        if (daemon.myState == DaemonState.Idle || daemon.myState == DaemonState.Starting) {
+          available++;
+        }
+      }
+      while (available < count && daemons.size() < myMaxCompilersPerSdk) {
+        final CompilerDaemon daemon = new CompilerDaemon(poolKey, DaemonState.Starting);
+        daemons.add(daemon);
+        toStart.add(daemon);
+        available++;
+      }
+    }
 
-        final Socket socket = myServerSocket.accept();
-        myDataInputStream = new DataInputStream(socket.getInputStream());
-        myDataOutputStream = new DataOutputStream(socket.getOutputStream());
-        mySdkHome = sdk.getHomePath();
-        scheduleInputReading();
+    for (CompilerDaemon daemon : toStart) {
+      SharedThreadPool.getInstance().execute(() -> {
+        try {
+          daemon.start(processFactory, messageConsumer);
+          releaseCompiler(daemon);
+        }
+        catch (IOException e) {
+          LOG.info("Failed to start Flex compiler in advance", e);
+          daemon.stop();
+        }
+      });
+    }
+  }
+
+  public void releaseCompiler(final CompilerDaemon daemon) {
+    synchronized (this) {
+      if (daemon.myState != DaemonState.Stopped) {
+        daemon.myState = DaemonState.Idle;
+        daemon.myLastUsed = System.currentTimeMillis();
+        scheduleIdleCheck(myIdleTimeout);
       }
-      catch (IOException e) {
-        stopCompilerProcess();
-        throw e;
+      notifyAll();
+    }
+  }
+
+  /**
+   * Makes sure {@link #stopIdleDaemons} runs after the given delay even if no compilation is started by then,
+   * an idle check that is already scheduled is kept, as it schedules the next one for the daemons that are not expired yet.
+   */
+  private synchronized void scheduleIdleCheck(final long delay) {
+    if (myIdleCheck == null) {
+      myIdleCheck = ourIdleCheckExecutor.schedule(this::stopIdleDaemons, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private synchronized void onDaemonStopped(final CompilerDaemon daemon) {
+    daemon.myState = DaemonState.Stopped;
+    final List<CompilerDaemon> daemons = myDaemons.get(daemon.myPoolKey);
+    if (daemons != null && daemons.remove(daemon) && daemons.isEmpty()) {
+      myDaemons.remove(daemon.myPoolKey);
+    }
+    notifyAll();
+  }
+
+  private void stopIdleDaemons() {
+    final List<CompilerDaemon> toStop = new ArrayList<>();
+    synchronized (this) {
+      if (myIdleCheck != null) {
+        myIdleCheck.cancel(false);
+        myIdleCheck = null;
+      }
+
+      final long now = System.currentTimeMillis();
+      long nextCheck = Long.MAX_VALUE;
+      for (List<CompilerDaemon> daemons : myDaemons.values()) {
+        for (CompilerDaemon daemon : daemons) {
+          if (daemon.myState == DaemonState.Idle) {
+            if (now - daemon.myLastUsed >= myIdleTimeout) {
+              daemon.myState = DaemonState.Stopped;
+              toStop.add(daemon);
+            }
+            else {
+              nextCheck = Math.min(nextCheck, daemon.myLastUsed + myIdleTimeout - now);
+            }
+          }
+        }
+      }
+      if (nextCheck != Long.MAX_VALUE) {
+        scheduleIdleCheck(nextCheck);
       }
     }
+    for (CompilerDaemon daemon : toStop) {
+      LOG.debug("Stopping idle Flex compiler: " + daemon.myPoolKey);
+      daemon.stop();
+    }
+  }
+
+  private static String getPoolKey(final JpsSdk<?> sdk, final List<String> commandLine) {
+    return sdk.getHomePath() + "\n" + StringUtil.join(commandLine, "\n");
   }
 
-  private void startCompilerProcess(final JpsSdk<?> sdk,
-                                    final int port,
-                                    final CompileContext context,
-                                    final String compilerName) throws IOException {
+  private static List<String> getCommandLine(final JpsProject project, final JpsSdk<?> sdk) {
     final StringBuilder classpath = new StringBuilder();
 
     classpath.append(FlexCommonUtils.getPathToBundledJar("idea-flex-compiler-fix.jar"));
@@ -94,189 +267,273 @@ public final class JpsBuiltInFlexCompilerHandler {
       classpath.append(File.pathSeparator).append(FileUtil.toSystemDependentName(sdk.getHomePath() + "/lib/flex-compiler-oem.jar"));
     }
 
-    final List<String> commandLine =
-      FlexCommonUtils.getCommandLineForSdkTool(myProject, sdk, classpath.toString(), "com.intellij.flex.compiler.FlexCompiler");
-    commandLine.add(String.valueOf(port));
+    return FlexCommonUtils.getCommandLineForSdkTool(project, sdk, classpath.toString(), "com.intellij.flex.compiler.FlexCompiler");
+  }
 
-    final ProcessBuilder processBuilder = new ProcessBuilder(commandLine);
-    processBuilder.redirectErrorStream(true);
-    processBuilder.directory(new File(FlexCommonUtils.getFlexCompilerWorkDirPath(myProject)));
+  private static ProcessBuilder createProcess(final JpsProject project, final List<String> commandLine, final int port) {
+    final List<String> commandLineWithPort = new ArrayList<>(commandLine);
+    commandLineWithPort.add(String.valueOf(port));
 
-    final String plainCommand = StringUtil.join(processBuilder.command(), s -> s.contains(" ") ? "\"" + s + "\"" : s, " ");
-    context.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.INFO, "Starting Flex compiler:\n" + plainCommand));
+    final ProcessBuilder processBuilder = new ProcessBuilder(commandLineWithPort);
+    processBuilder.redirectErrorStream(true);
+    processBuilder.directory(new File(FlexCommonUtils.getFlexCompilerWorkDirPath(project)));
+    return processBuilder;
+  }
 
-    final Process process = processBuilder.start();
-    readInputStreamUntilConnected(process, context, compilerName);
+  private static BiConsumer<BuildMessage.Kind, String> createMessageConsumer(final CompileContext context, final String compilerName) {
+    return (kind, text) -> context.processMessage(new CompilerMessage(compilerName, kind, text));
   }
 
-  private void readInputStreamUntilConnected(final Process process, final CompileContext context, final String compilerName) {
-    SharedThreadPool.getInstance().execute(() -> {
-      final InputStreamReader reader = FlexCommonUtils.createInputStreamReader(process.getInputStream());
+  public void stopCompilerProcesses() {
+    final List<CompilerDaemon> toStop = new ArrayList<>();
+    synchronized (this) {
+      if (myIdleCheck != null) {
+        myIdleCheck.cancel(false);
+        myIdleCheck = null;
+      }
+      for (List<CompilerDaemon> daemons : myDaemons.values()) {
+        toStop.addAll(daemons);
+      }
+    }
+    for (CompilerDaemon daemon : toStop) {
+      daemon.stop();
+    }
+  }
 
-      try {
-        char[] buf = new char[1024];
-        int read;
-        while ((read = reader.read(buf, 0, buf.length)) >= 0) {
-          final String output = new String(buf, 0, read);
-          if (output.startsWith(CONNECTION_SUCCESSFUL)) {
-            break;
-          }
-          else {
-            closeSocket();
-            context.processMessage(new CompilerMessage(compilerName, BuildMessage.Kind.ERROR, output));
-          }
-        }
+  public synchronized int getActiveCompilationsNumber() {
+    int result = 0;
+    for (List<CompilerDaemon> daemons : myDaemons.values()) {
+      for (CompilerDaemon daemon : daemons) {
+        result += daemon.getActiveCompilationsNumber();
       }
-      catch (IOException e) {
-        closeSocket();
-        context.processMessage(
-          new CompilerMessage(compilerName, BuildMessage.Kind.ERROR, "Failed to start Flex compiler: " + e.toString()));
+    }
+    return result;
+  }
+
+  synchronized int getCompilersNumber(final String poolKey) {
+    final List<CompilerDaemon> daemons = myDaemons.get(poolKey);
+    return daemons == null ? 0 : daemons.size();
+  }
+
+  /**
+   * A compiler process connected to its own server socket. The state of the pool is guarded by the handler,
+   * the connection and the listeners are guarded by the daemon itself.
+   */
+  public final class CompilerDaemon {
+    private final String myPoolKey;
+    private DaemonState myState;
+    private long myLastUsed;
+
+    private ServerSocket myServerSocket;
+    private DataInputStream myDataInputStream;
+    private DataOutputStream myDataOutputStream;
+
+    private int commandNumber = 1;
+    private final Map<String, Listener> myActiveListeners = new HashMap<>();
+
+    private CompilerDaemon(final String poolKey, final DaemonState state) {
+      myPoolKey = poolKey;
+      myState = state;
+    }
+
+    private void start(final ProcessFactory processFactory, final BiConsumer<BuildMessage.Kind, String> messageConsumer)
+      throws IOException {
+      final ServerSocket serverSocket = new ServerSocket(0);
+      serverSocket.setSoTimeout(10000);
+      synchronized (this) {
+        myServerSocket = serverSocket;
       }
-      finally {
-        try {
-          reader.close();
+
+      final ProcessBuilder processBuilder = processFactory.createProcess(serverSocket.getLocalPort());
+      final String plainCommand = StringUtil.join(processBuilder.command(), s -> s.contains(" ") ? "\"" + s + "\"" : s, " ");
+      messageConsumer.accept(BuildMessage.Kind.INFO, "Starting Flex compiler:\n" + plainCommand);
+
+      final Process process = processBuilder.start();
+      readInputStreamUntilConnected(process, messageConsumer);
+
+      // the socket is closed if the process fails to connect, so accept() does not wait for the timeout in this case
+      final Socket socket = serverSocket.accept();
+      synchronized (this) {
+        if (myServerSocket != serverSocket) {
+          socket.close();
+          throw new IOException("Flex compiler process is stopped");
         }
-        catch (IOException e) {/*ignore*/}
+        myDataInputStream = new DataInputStream(socket.getInputStream());
+        myDataOutputStream = new DataOutputStream(socket.getOutputStream());
       }
-    });
-  }
+      scheduleInputReading();
+    }
 
-  private void scheduleInputReading() {
-    SharedThreadPool.getInstance().execute(() -> {
-      final StringBuilder buffer = new StringBuilder();
-      while (true) {
-        final DataInputStream dataInputStream = myDataInputStream;
-        if (dataInputStream != null) {
-          try {
-            buffer.append(dataInputStream.readUTF());
+    private void readInputStreamUntilConnected(final Process process, final BiConsumer<BuildMessage.Kind, String> messageConsumer) {
+      SharedThreadPool.getInstance().execute(() -> {
+        final InputStreamReader reader = FlexCommonUtils.createInputStreamReader(process.getInputStream());
 
-            int index;
-            while ((index = buffer.indexOf("\n")) > -1) {
-              final String line = buffer.substring(0, index);
-              buffer.delete(0, index + 1);
-              handleInputLine(line);
+        try {
+          char[] buf = new char[1024];
+          int read;
+          while ((read = reader.read(buf, 0, buf.length)) >= 0) {
+            final String output = new String(buf, 0, read);
+            if (output.startsWith(CONNECTION_SUCCESSFUL)) {
+              break;
+            }
+            else {
+              closeSocket();
+              messageConsumer.accept(BuildMessage.Kind.ERROR, output);
             }
           }
-          catch (IOException e) {
-            if (dataInputStream == myDataInputStream) {
-              stopCompilerProcess();
+        }
+        catch (IOException e) {
+          closeSocket();
+          messageConsumer.accept(BuildMessage.Kind.ERROR, "Failed to start Flex compiler: " + e.toString());
+        }
+        finally {
+          try {
+            reader.close();
+          }
+          catch (IOException e) {/*ignore*/}
+        }
+      });
+    }
+
+    private void scheduleInputReading() {
+      SharedThreadPool.getInstance().execute(() -> {
+        final StringBuilder buffer = new StringBuilder();
+        while (true) {
+          final DataInputStream dataInputStream = myDataInputStream;
+          if (dataInputStream != null) {
+            try {
+              buffer.append(dataInputStream.readUTF());
+
+              int index;
+              while ((index = buffer.indexOf("\n")) > -1) {
+                final String line = buffer.substring(0, index);
+                buffer.delete(0, index + 1);
+                handleInputLine(line);
+              }
+            }
+            catch (IOException e) {
+              if (dataInputStream == myDataInputStream) {
+                stop();
+              }
+              break;
             }
+          }
+          else {
             break;
           }
         }
-        else {
-          break;
-        }
-      }
-    });
-  }
+      });
+    }
 
-  private synchronized void handleInputLine(final String line) {
-    LOG.debug("RECEIVED: [" + line + "]");
+    private synchronized void handleInputLine(final String line) {
+      LOG.debug("RECEIVED: [" + line + "]");
 
-    final int colonPos = line.indexOf(":");
-    if (colonPos <= 0) {
-      LOG.error("Incorrect command: [" + line + "]");
-      return;
-    }
+      final int colonPos = line.indexOf(":");
+      if (colonPos <= 0) {
+        LOG.error("Incorrect command: [" + line + "]");
+        return;
+      }
 
-    final String prefix = line.substring(0, colonPos + 1);
-    final Listener listener = myActiveListeners.get(prefix);
-    if (listener == null) {
-      LOG.warn("No active listener for input line: [" + line + "]");  // could be message from cancelled compilation
-    }
-    else {
-      final String text = line.substring(colonPos + 1);
-      if (text.startsWith(COMPILATION_FINISHED)) {
-        listener.compilationFinished();
-        myActiveListeners.remove(prefix);
+      final String prefix = line.substring(0, colonPos + 1);
+      final Listener listener = myActiveListeners.get(prefix);
+      if (listener == null) {
+        LOG.warn("No active listener for input line: [" + line + "]");  // could be message from cancelled compilation
       }
       else {
-        listener.textAvailable(text);
+        final String text = line.substring(colonPos + 1);
+        if (text.startsWith(COMPILATION_FINISHED)) {
+          listener.compilationFinished();
+          myActiveListeners.remove(prefix);
+        }
+        else {
+          listener.textAvailable(text);
+        }
       }
     }
-  }
 
-  public synchronized void sendCompilationCommand(final String command, final Listener listener) {
-    if (myDataOutputStream == null) {
-      listener.textAvailable("Error: Compiler process is not started.");
-      listener.compilationFinished();
-      return;
-    }
+    public synchronized void sendCompilationCommand(final String command, final Listener listener) {
+      if (myDataOutputStream == null) {
+        listener.textAvailable("Error: Compiler process is not started.");
+        listener.compilationFinished();
+        return;
+      }
 
-    try {
-      final String prefix = (commandNumber++) + ":";
-      final String commandToSend = prefix + command + "\n";
-      LOG.debug("SENDING: [" + commandToSend + "]");
-      myDataOutputStream.writeUTF(commandToSend);
-      myActiveListeners.put(prefix, listener);
-    }
-    catch (IOException e) {
-      listener.textAvailable("Error: Can't start compilation: " + e.toString());
-      listener.compilationFinished();
+      try {
+        final String prefix = (commandNumber++) + ":";
+        final String commandToSend = prefix + command + "\n";
+        LOG.debug("SENDING: [" + commandToSend + "]");
+        myDataOutputStream.writeUTF(commandToSend);
+        myActiveListeners.put(prefix, listener);
+      }
+      catch (IOException e) {
+        listener.textAvailable("Error: Can't start compilation: " + e.toString());
+        listener.compilationFinished();
+      }
     }
-  }
 
-  private synchronized void cancelAllCompilations(final boolean reportError) {
-    for (final Listener listener : myActiveListeners.values()) {
-      if (reportError) {
-        listener.textAvailable("Error: Compilation terminated");
+    private synchronized void cancelAllCompilations(final boolean reportError) {
+      for (final Listener listener : myActiveListeners.values()) {
+        if (reportError) {
+          listener.textAvailable("Error: Compilation terminated");
+        }
+        listener.compilationFinished();
       }
-      listener.compilationFinished();
+      myActiveListeners.clear();
     }
-    myActiveListeners.clear();
-  }
 
-  public synchronized void stopCompilerProcess() {
-    cancelAllCompilations(true);
-    closeSocket();
-  }
+    private void stop() {
+      synchronized (this) {
+        cancelAllCompilations(true);
+        closeSocket();
+      }
+      onDaemonStopped(this);
+    }
 
-  private synchronized void closeSocket() {
-    // compiler process exits when socket closes, so it's enough just to close streams
+    private synchronized void closeSocket() {
+      // compiler process exits when socket closes, so it's enough just to close streams
 
-    if (myDataInputStream != null) {
-      try {
-        myDataInputStream.close();
+      if (myDataInputStream != null) {
+        try {
+          myDataInputStream.close();
+        }
+        catch (IOException ignored) {/**/}
       }
-      catch (IOException ignored) {/**/}
-    }
 
-    if (myDataOutputStream != null) {
-      try {
-        myDataOutputStream.close();
+      if (myDataOutputStream != null) {
+        try {
+          myDataOutputStream.close();
+        }
+        catch (IOException ignored) {/**/}
       }
-      catch (IOException ignored) {/**/}
-    }
 
-    if (myServerSocket != null) {
-      try {
-        myServerSocket.close();
+      if (myServerSocket != null) {
+        try {
+          myServerSocket.close();
+        }
+        catch (IOException ignored) {/**/}
       }
-      catch (IOException ignored) {/**/}
+
+      myServerSocket = null;
+      myDataInputStream = null;
+      myDataOutputStream = null;
     }
 
-    myServerSocket = null;
-    myDataInputStream = null;
-    myDataOutputStream = null;
-  }
+    public synchronized void removeListener(final Listener listener) {
+      String toRemove = null;
+      for (final Map.Entry<String, Listener> entry : myActiveListeners.entrySet()) {
+        if (entry.getValue() == listener) {
+          toRemove = entry.getKey();
+          break;
+        }
+      }
 
-  public synchronized void removeListener(final Listener listener) {
-    String toRemove = null;
-    for (final Map.Entry<String, Listener> entry : myActiveListeners.entrySet()) {
-      if (entry.getValue() == listener) {
-        toRemove = entry.getKey();
-        break;
+      if (toRemove != null) {
+        myActiveListeners.remove(toRemove);
       }
     }
 
-    if (toRemove != null) {
-      myActiveListeners.remove(toRemove);
+    private synchronized int getActiveCompilationsNumber() {
+      return myActiveListeners.size();
     }
   }
-
-  public synchronized int getActiveCompilationsNumber() {
-    return myActiveListeners.size();
-  }
 }
-
@@ -50,6 +50,16 @@ class CompositeDebuggerCommand extends DebuggerCommand {
     myBecomeObsolete = true;
   }
 
+  /**
+   * @return the only command of this composite if it is neither started nor obsolete, so that it can be executed on its own
+   */
+  @Nullable
+  DebuggerCommand getSingleActiveCommand() {
+    if (myCommands.length != 1 || myCurrentIndex != 0 || myBecomeObsolete) return null;
+    if (myObsolescent != null && myObsolescent.isObsolete()) return null;
+    return myCommands[0];
+  }
+
   @Override
   public CommandOutputProcessingType getOutputProcessingMode() {
     return myCommands[myCurrentIndex].getOutputProcessingMode();
@@ -37,6 +37,14 @@ class DebuggerCommand {
     return myStartVMState;
   }
 
+  /**
+   * Read-only commands don't change the state of the debugged application, so evaluation results cached for the current suspend
+   * stay valid after them.
+   */
+  boolean isReadOnly() {
+    return false;
+  }
+
   CommandOutputProcessingMode onTextAvailable(@NonNls String s) {
     assert myOutputProcessingType != CommandOutputProcessingType.NO_PROCESSING;
     return CommandOutputProcessingMode.DONE;
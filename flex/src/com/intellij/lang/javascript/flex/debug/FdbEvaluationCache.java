@@ -0,0 +1,67 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.flex.debug;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * fdb responses of side effect free evaluations, keyed by the command text. They are valid until a command that may change
+ * the application state is written to fdb, see {@link DebuggerCommand#isReadOnly()}.
+ * <p>
+ * Also counts fdb writes and cache hits since the last reset. Commands are posted from the command processing thread while
+ * evaluations may be looked up from other ones, so the counters are atomic.
+ */
+final class FdbEvaluationCache {
+  private static final Logger LOG = Logger.getInstance(FdbEvaluationCache.class);
+
+  private final Map<String, String> myResponses = new ConcurrentHashMap<>();
+  private final AtomicInteger myWriteCount = new AtomicInteger();
+  private final AtomicInteger myHitCount = new AtomicInteger();
+
+  boolean contains(@NotNull String commandText) {
+    return myResponses.containsKey(commandText);
+  }
+
+  @Nullable
+  String get(@NotNull String commandText) {
+    final String response = myResponses.get(commandText);
+    if (response != null) myHitCount.incrementAndGet();
+    return response;
+  }
+
+  void put(@NotNull String commandText, @NotNull String response) {
+    myResponses.put(commandText, response);
+  }
+
+  /**
+   * Called right before {@code command} is written to fdb.
+   */
+  void commandWritten(@NotNull DebuggerCommand command) {
+    if (!command.isReadOnly()) {
+      reset();
+    }
+    myWriteCount.incrementAndGet();
+  }
+
+  int getWriteCount() {
+    return myWriteCount.get();
+  }
+
+  int getHitCount() {
+    return myHitCount.get();
+  }
+
+  private void reset() {
+    final int writeCount = myWriteCount.getAndSet(0);
+    final int hitCount = myHitCount.getAndSet(0);
+    if ((writeCount > 0 || hitCount > 0) && LOG.isDebugEnabled()) {
+      LOG.debug("Since last resume: " + writeCount + " fdb writes, " + hitCount + " evaluations from cache");
+    }
+    myResponses.clear();
+  }
+}
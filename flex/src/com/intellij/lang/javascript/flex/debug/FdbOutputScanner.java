@@ -0,0 +1,100 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.flex.debug;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Splits fdb output into responses terminated by the {@code (fdb) } prompt.
+ * <p>
+ * Output is appended as it is read. Already scanned text is not searched again when more output arrives, except for
+ * the last few characters which may contain the beginning of a marker split between two reads. Consumed responses are
+ * dropped from the buffer lazily, so that a series of small responses doesn't shift the rest of the buffer every time.
+ */
+public final class FdbOutputScanner {
+  @NonNls private static final String FDB_MARKER = "(fdb) ";
+  @NonNls private static final String CONFIRMATION_MARKER = "(y or n)";
+  @NonNls static final String WAITING_PLAYER_MARKER_1 = "Waiting for Player to connect";
+  @NonNls static final String WAITING_PLAYER_MARKER_2 = "Trying to connect to Player";
+
+  private static final int MARKER_OVERLAP = Math.max(Math.max(FDB_MARKER.length(), CONFIRMATION_MARKER.length()),
+                                                     Math.max(WAITING_PLAYER_MARKER_1.length(), WAITING_PLAYER_MARKER_2.length())) - 1;
+  private static final int COMPACTION_THRESHOLD = 8192;
+
+  private final StringBuilder myText = new StringBuilder();
+  /**
+   * start of the text which is not returned yet
+   */
+  private int myStart;
+  /**
+   * markers are searched from this offset, text before it is known to contain none of them
+   */
+  private int myScanStart;
+  private boolean myLastResponseTerminated;
+
+  public void append(char @NotNull [] chars, int offset, int length) {
+    myText.append(chars, offset, length);
+  }
+
+  public boolean isEmpty() {
+    return myStart == myText.length();
+  }
+
+  /**
+   * @param allowUnterminated whether all available text is returned if there is no prompt in it
+   * @return next response without the prompt, {@code null} if no complete response is available yet
+   */
+  @Nullable
+  public String nextResponse(boolean allowUnterminated) {
+    String marker = FDB_MARKER;
+    int i = myText.indexOf(marker, myScanStart);
+
+    if (i == -1) {
+      marker = CONFIRMATION_MARKER;
+      i = myText.indexOf(marker, myScanStart);
+    }
+
+    if (i == -1 &&
+        (allowUnterminated ||
+         myText.indexOf(WAITING_PLAYER_MARKER_1, myScanStart) >= 0 ||
+         myText.indexOf(WAITING_PLAYER_MARKER_2, myScanStart) >= 0) &&
+        !isEmpty()) {
+      i = myText.length();
+      marker = "";
+    }
+
+    if (i == -1) {
+      myScanStart = Math.max(myStart, myText.length() - MARKER_OVERLAP);
+      return null;
+    }
+
+    String result = myText.substring(myStart, i);
+    myStart = i + marker.length();
+    if (isBlank()) {
+      myText.setLength(0);
+      myStart = 0;
+    }
+    else if (myStart >= COMPACTION_THRESHOLD) {
+      myText.delete(0, myStart);
+      myStart = 0;
+    }
+    myScanStart = myStart;
+    myLastResponseTerminated = marker.length() != 0;
+    return result;
+  }
+
+  /**
+   * @return whether the last response returned by {@link #nextResponse} was terminated by a prompt, i.e. fdb waits for a command
+   */
+  public boolean isLastResponseTerminated() {
+    return myLastResponseTerminated;
+  }
+
+  private boolean isBlank() {
+    for (int i = myStart; i < myText.length(); ++i) {
+      if (myText.charAt(i) != ' ') return false;
+    }
+    return true;
+  }
+}
@@ -113,9 +113,6 @@ public class FlexDebugProcess extends XDebugProcess {
 
   @NonNls static final String RESOLVED_BREAKPOINT_MARKER = "Resolved breakpoint ";
   @NonNls static final String BREAKPOINT_MARKER = "Breakpoint ";
-  @NonNls private static final String FDB_MARKER = "(fdb) ";
-  @NonNls private static final String WAITING_PLAYER_MARKER_1 = "Waiting for Player to connect";
-  @NonNls private static final String WAITING_PLAYER_MARKER_2 = "Trying to connect to Player";
   @NonNls static final String ATTEMPTING_TO_RESOLVE_BREAKPOINT_MARKER = "Attempting to resolve breakpoint ";
 
   @NonNls private static final String ADL_PREFIX = "[AIR Debug Launcher]: ";
@@ -170,6 +167,19 @@ public class FlexDebugProcess extends XDebugProcess {
     }
   };
 
+  private final FdbEvaluationCache myEvaluationCache = new FdbEvaluationCache();
+  private final PipelinedEvaluateCommand.Host myPipelineHost = new PipelinedEvaluateCommand.Host() {
+    @Override
+    public boolean filterStdResponse(@NotNull String response) {
+      return FlexDebugProcess.this.filterStdResponse(response);
+    }
+
+    @Override
+    public void insertCommand(@NotNull DebuggerCommand command) {
+      FlexDebugProcess.this.insertCommand(command);
+    }
+  };
+
   private boolean suspended;
   private boolean fdbWaitingForPlayerStateReached;
   private boolean startupDone;
@@ -979,11 +989,25 @@ public class FlexDebugProcess extends XDebugProcess {
     if (currentlyExecuting) {
       command = new SuspendResumeDebuggerCommand(command);
     }
+    else {
+      command = pipelineEvaluations(command);
+    }
 
     command.post(this);
     return command;
   }
 
+  private DebuggerCommand pipelineEvaluations(final DebuggerCommand command) {
+    synchronized (commandsToWrite) {
+      return PipelinedEvaluateCommand.pipeline(myPipelineHost, command, commandsToWrite);
+    }
+  }
+
+  @NotNull
+  FdbEvaluationCache getEvaluationCache() {
+    return myEvaluationCache;
+  }
+
   boolean isDebuggerFromSdk3() {
     return myDebuggerVersion != null && myDebuggerVersion.startsWith("3.");
   }
@@ -995,6 +1019,10 @@ public class FlexDebugProcess extends XDebugProcess {
 
   void doSendCommandText(final DebuggerCommand command) throws IOException {
     final String text = command.getText();
+    myEvaluationCache.commandWritten(command);
+    if (command instanceof PipelinedEvaluateCommand) {
+      log("Pipelined " + ((PipelinedEvaluateCommand)command).getEvaluationCount() + " evaluations");
+    }
 
     setSuspended(
       command.getOutputProcessingMode() == CommandOutputProcessingType.NO_PROCESSING && command.getEndVMState() == VMState.SUSPENDED);
@@ -1223,8 +1251,7 @@ public class FlexDebugProcess extends XDebugProcess {
   class MyFdbOutputReader {
     private final InputStreamReader myReader;
     private final char[] buf = new char[8192];
-    private final StringBuilder lastText = new StringBuilder();
-    private int lastTextMarkerScanningStart;
+    private final FdbOutputScanner myScanner = new FdbOutputScanner();
     private final InputStream myInputStream;
 
     MyFdbOutputReader(final InputStream _inputStream) {
@@ -1237,15 +1264,13 @@ public class FlexDebugProcess extends XDebugProcess {
     }
 
     String readLine(boolean nonblock) throws IOException {
-      if (lastText != null) {
-        final String lastText = getNextLine(nonblock);
-        if (lastText != null) return lastText;
-      }
+      final String pending = getNextLine(nonblock);
+      if (pending != null) return pending;
 
       while (true) {
         int read = myReader.read(buf, 0, buf.length);
         if (read == -1) return null;
-        lastText.append(buf, 0, read);
+        myScanner.append(buf, 0, read);
 
         if (read < buf.length) {
           final String lastText = getNextLine(nonblock);
@@ -1255,45 +1280,12 @@ public class FlexDebugProcess extends XDebugProcess {
     }
 
     private String getNextLine(boolean allowEmptyMarker) {
-      String result;
-      String marker = FDB_MARKER;
-      int i = lastText.indexOf(marker, lastTextMarkerScanningStart);
-
-      if (i == -1) {
-        marker = "(y or n)";
-        i = lastText.indexOf(marker, lastTextMarkerScanningStart);
-      }
-
-      if (i == -1 &&
-          (allowEmptyMarker ||
-           lastText.indexOf(WAITING_PLAYER_MARKER_1, lastTextMarkerScanningStart) >= 0 ||
-           lastText.indexOf(WAITING_PLAYER_MARKER_2, lastTextMarkerScanningStart) >= 0) &&
-          lastText.length() > 0) {
-        i = lastText.length();
-        marker = "";
-      }
-
-      if (i != -1) {
-        result = lastText.substring(0, i);
-        lastText.delete(0, i + marker.length());
-        lastTextMarkerScanningStart = 0;
-        if (isBlank(lastText)) lastText.setLength(0);
-        setSuspended(marker.length() != 0);
-        return result;
-      }
-      else {
-        lastTextMarkerScanningStart = lastText.length();
-        result = null;
+      final String result = myScanner.nextResponse(allowEmptyMarker);
+      if (result != null) {
+        setSuspended(myScanner.isLastResponseTerminated());
       }
       return result;
     }
-
-    private boolean isBlank(StringBuilder lastText) {
-      for (int i = 0; i < lastText.length(); ++i) {
-        if (lastText.charAt(i) != ' ') return false;
-      }
-      return true;
-    }
   }
 
   @Override
@@ -1604,7 +1596,7 @@ public class FlexDebugProcess extends XDebugProcess {
         return CommandOutputProcessingMode.DONE;
       }
 
-      if (s.contains(WAITING_PLAYER_MARKER_1) || s.contains(WAITING_PLAYER_MARKER_2)) {
+      if (s.contains(FdbOutputScanner.WAITING_PLAYER_MARKER_1) || s.contains(FdbOutputScanner.WAITING_PLAYER_MARKER_2)) {
         fdbWaitingForPlayerStateReached = true;
         getSession().rebuildViews();
         notifyFdbWaitingForPlayerStateReached();
@@ -15,6 +15,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.NullableComputable;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.tree.injected.InjectedLanguageUtil;
@@ -230,6 +231,11 @@ public class FlexStackFrame extends XStackFrame {
     if (qName2IdMap != null) return;
     qName2IdMap = new LinkedHashMap<>();
     final DebuggerCommand command = new DebuggerCommand("info scopechain", CommandOutputProcessingType.SPECIAL_PROCESSING) {
+      @Override
+      boolean isReadOnly() {
+        return true;
+      }
+
       @Override
       CommandOutputProcessingMode onTextAvailable(@NonNls final String s) {
         final StringTokenizer tokenizer = new StringTokenizer(s, "\r\n");
@@ -258,17 +264,91 @@ public class FlexStackFrame extends XStackFrame {
     });
   }
 
-  class EvaluateCommand extends DebuggerCommand {
+  class EvaluateCommand extends DebuggerCommand implements PipelinedEvaluateCommand.Evaluation {
     private String result;
     private final XDebuggerEvaluator.XEvaluationCallback callback;
     private final String expression;
+    private final boolean myCacheable;
     private int responseCount;
     private boolean myFinished;
+    private String myCachedResponse;
+    private boolean myPipeliningDisabled;
 
     EvaluateCommand(String _expression, final XDebuggerEvaluator.XEvaluationCallback _callback) {
+      this(_expression, _callback, false);
+    }
+
+    /**
+     * @param cacheable whether the expression has no side effects, so that its result may be reused until the application is resumed
+     */
+    EvaluateCommand(String _expression, final XDebuggerEvaluator.XEvaluationCallback _callback, boolean cacheable) {
       super(buildCommandForExpression(_expression), CommandOutputProcessingType.SPECIAL_PROCESSING);
       expression = _expression;
       callback = _callback;
+      myCacheable = cacheable && !isAssignment();
+    }
+
+    @Override
+    public boolean isReadOnly() {
+      return myCacheable;
+    }
+
+    /**
+     * @return whether the command is a plain {@code frame} + {@code print} pair, which may be sent to fdb together with other ones
+     */
+    @Override
+    public boolean canBePipelined() {
+      return !myPipeliningDisabled && !isAssignment() && !isCached();
+    }
+
+    @Override
+    public void disablePipelining() {
+      myPipeliningDisabled = true;
+    }
+
+    private boolean isAssignment() {
+      return StringUtil.countNewLines(getText()) != 1;
+    }
+
+    boolean isCached() {
+      return myCacheable && myDebugProcess.getEvaluationCache().contains(getText());
+    }
+
+    @Override
+    @NotNull
+    public String getFrameCommand() {
+      return getText().substring(0, getText().indexOf('\n'));
+    }
+
+    @Override
+    @NotNull
+    public String getPrintCommand() {
+      return getText().substring(getText().indexOf('\n') + 1);
+    }
+
+    @Override
+    public void skipFrameResponse() {
+      responseCount = 1;
+    }
+
+    @Override
+    public void post(FlexDebugProcess flexDebugProcess) throws IOException {
+      myCachedResponse = myCacheable ? flexDebugProcess.getEvaluationCache().get(getText()) : null;
+      if (myCachedResponse != null) {
+        skipFrameResponse();
+        return;
+      }
+      super.post(flexDebugProcess);
+    }
+
+    @Override
+    public String read(FlexDebugProcess flexDebugProcess) throws IOException {
+      if (myCachedResponse != null) {
+        final String response = myCachedResponse;
+        myCachedResponse = null;
+        return response;
+      }
+      return super.read(flexDebugProcess);
     }
 
     @Override
@@ -282,6 +362,9 @@ public class FlexStackFrame extends XStackFrame {
       if (responseCount == 1) { // skip frame
         return CommandOutputProcessingMode.PROCEEDING;
       }
+      if (myCacheable && line.length() > 0 && !cannotEvaluateResponse(line)) {
+        myDebugProcess.getEvaluationCache().put(getText(), line);
+      }
       return doOnTextAvailable(line);
     }
 
@@ -299,7 +382,8 @@ public class FlexStackFrame extends XStackFrame {
       return CommandOutputProcessingMode.DONE;
     }
 
-    private boolean cannotEvaluateResponse(String s) {
+    @Override
+    public boolean cannotEvaluateResponse(@NotNull String s) {
       return s.contains("could not be evaluated");
     }
 
@@ -510,6 +594,11 @@ public class FlexStackFrame extends XStackFrame {
       myValueType = valueType;
     }
 
+    @Override
+    boolean isReadOnly() {
+      return true;
+    }
+
     @Override
     CommandOutputProcessingMode onTextAvailable(@NonNls final String s) {
       final int offsetIndex = hasFrame ? 1:0; // frame command
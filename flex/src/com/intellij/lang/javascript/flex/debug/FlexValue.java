@@ -229,7 +229,7 @@ class FlexValue extends XValue {
         @Override
         public void errorOccurred(@NotNull String errorMessage) {
         }
-      });
+      }, true);
 
     myDebugProcess.addPendingCommand(new CompositeDebuggerCommand(node, command), 100);
   }
@@ -253,7 +253,7 @@ class FlexValue extends XValue {
         @Override
         public void errorOccurred(@NotNull String errorMessage) {
         }
-      });
+      }, true);
 
     myDebugProcess.addPendingCommand(new CompositeDebuggerCommand(node, command), 100);
   }
@@ -338,7 +338,7 @@ class FlexValue extends XValue {
           node.setPresentation(getIcon(), type, value, hasChildren);
         }
       }
-    });
+    }, true);
 
     myDebugProcess.addPendingCommand(new CompositeDebuggerCommand(node, command), 700);
   }
@@ -411,7 +411,7 @@ class FlexValue extends XValue {
     }
 
     final FlexStackFrame.EvaluateCommand
-      command = myFlexStackFrame.new EvaluateCommand(expression, null) {
+      command = myFlexStackFrame.new EvaluateCommand(expression, null, true) {
       @Override
       CommandOutputProcessingMode doOnTextAvailable(@NonNls final String resultS) {
         StringTokenizer tokenizer = new StringTokenizer(resultS, "\r\n");
@@ -0,0 +1,176 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.flex.debug;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Sends several queued evaluations in the same frame to fdb in one write: a single {@code frame} command followed by
+ * all {@code print} commands. Responses are passed to the queued commands in order, as if each of them was executed alone.
+ * <p>
+ * Evaluations which fdb could not evaluate are put back to the head of the queue in their original order. They are executed
+ * one by one later, never pipelined again, because their fallback evaluations need the debugger exclusively.
+ */
+class PipelinedEvaluateCommand extends DebuggerCommand {
+  /**
+   * Maximum number of queued evaluations sent to fdb in one write
+   */
+  static final int MAX_PIPELINED_EVALUATIONS = 16;
+
+  /**
+   * An evaluation made of a {@code frame} and a {@code print} command, implemented by {@link FlexStackFrame.EvaluateCommand}.
+   */
+  interface Evaluation {
+    @NotNull
+    String getFrameCommand();
+
+    @NotNull
+    String getPrintCommand();
+
+    boolean canBePipelined();
+
+    /**
+     * Called when fdb could not evaluate the expression as a part of a pipeline, so that it is executed alone next time.
+     */
+    void disablePipelining();
+
+    boolean cannotEvaluateResponse(@NotNull String response);
+
+    /**
+     * Called when the {@code frame} command was sent and answered as a part of a pipeline, so only the result of {@code print} is expected.
+     */
+    void skipFrameResponse();
+
+    boolean isReadOnly();
+  }
+
+  /**
+   * The part of {@link FlexDebugProcess} the pipelined command talks to.
+   */
+  interface Host {
+    /**
+     * @return whether {@code response} is not an evaluation result but an unrelated fdb output, which has been handled
+     */
+    boolean filterStdResponse(@NotNull String response);
+
+    void insertCommand(@NotNull DebuggerCommand command);
+  }
+
+  private final Host myHost;
+  /**
+   * commands as they were queued, possibly wrapped in {@link CompositeDebuggerCommand}
+   */
+  private final List<DebuggerCommand> myQueuedCommands;
+  private final List<Evaluation> myEvaluations;
+  private final List<DebuggerCommand> myDeferredCommands = new ArrayList<>();
+  private boolean myFrameResponseSkipped;
+  private int myCurrentIndex;
+
+  private PipelinedEvaluateCommand(@NotNull Host host,
+                                   @NotNull List<DebuggerCommand> queuedCommands,
+                                   @NotNull List<Evaluation> evaluations) {
+    super(buildText(evaluations), CommandOutputProcessingType.SPECIAL_PROCESSING);
+    assert queuedCommands.size() == evaluations.size();
+    myHost = host;
+    myQueuedCommands = queuedCommands;
+    myEvaluations = evaluations;
+  }
+
+  /**
+   * Combines {@code command} with the following evaluations in the same frame from the head of {@code queue}, so that fdb gets them
+   * in one write instead of a round-trip per evaluation. The caller must hold the lock of {@code queue}.
+   *
+   * @return {@code command} itself if there is nothing to pipeline it with
+   */
+  @NotNull
+  static DebuggerCommand pipeline(@NotNull Host host, @NotNull DebuggerCommand command, @NotNull Deque<DebuggerCommand> queue) {
+    final Evaluation first = getEvaluationToPipeline(command);
+    if (first == null) return command;
+
+    final List<DebuggerCommand> queuedCommands = new ArrayList<>();
+    final List<Evaluation> evaluations = new ArrayList<>();
+    queuedCommands.add(command);
+    evaluations.add(first);
+
+    while (evaluations.size() < MAX_PIPELINED_EVALUATIONS) {
+      final DebuggerCommand next = queue.peekFirst();
+      final Evaluation evaluation = getEvaluationToPipeline(next);
+      if (evaluation == null || !first.getFrameCommand().equals(evaluation.getFrameCommand())) break;
+
+      queue.pollFirst();
+      queuedCommands.add(next);
+      evaluations.add(evaluation);
+    }
+
+    return evaluations.size() == 1 ? command : new PipelinedEvaluateCommand(host, queuedCommands, evaluations);
+  }
+
+  @Nullable
+  private static Evaluation getEvaluationToPipeline(@Nullable DebuggerCommand command) {
+    if (command instanceof CompositeDebuggerCommand) {
+      command = ((CompositeDebuggerCommand)command).getSingleActiveCommand();
+    }
+    if (command instanceof Evaluation && ((Evaluation)command).canBePipelined()) {
+      return (Evaluation)command;
+    }
+    return null;
+  }
+
+  @NotNull
+  private static String buildText(@NotNull List<Evaluation> evaluations) {
+    final StringBuilder text = new StringBuilder(evaluations.get(0).getFrameCommand());
+    for (Evaluation evaluation : evaluations) {
+      text.append('\n').append(evaluation.getPrintCommand());
+    }
+    return text.toString();
+  }
+
+  int getEvaluationCount() {
+    return myEvaluations.size();
+  }
+
+  @Override
+  boolean isReadOnly() {
+    for (Evaluation evaluation : myEvaluations) {
+      if (!evaluation.isReadOnly()) return false;
+    }
+    return true;
+  }
+
+  @Override
+  CommandOutputProcessingMode onTextAvailable(@NonNls String s) {
+    if (myHost.filterStdResponse(s)) return CommandOutputProcessingMode.PROCEEDING;
+    if (!myFrameResponseSkipped) {
+      myFrameResponseSkipped = true;
+      return CommandOutputProcessingMode.PROCEEDING;
+    }
+
+    final DebuggerCommand queued = myQueuedCommands.get(myCurrentIndex);
+    final Evaluation evaluation = myEvaluations.get(myCurrentIndex);
+    if (evaluation.cannotEvaluateResponse(s)) {
+      evaluation.disablePipelining();
+      myDeferredCommands.add(queued);
+    }
+    else {
+      evaluation.skipFrameResponse();
+      queued.onTextAvailable(s);
+    }
+
+    if (++myCurrentIndex < myEvaluations.size()) return CommandOutputProcessingMode.PROCEEDING;
+
+    for (int i = myDeferredCommands.size() - 1; i >= 0; i--) {
+      myHost.insertCommand(myDeferredCommands.get(i));
+    }
+    return CommandOutputProcessingMode.DONE;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getName() + "[" + myEvaluations.size() + "]";
+  }
+}
@@ -12,6 +12,8 @@ import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.progress.impl.BackgroundableProcessIndicator;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.util.ui.update.MergingUpdateQueue;
 import com.intellij.util.ui.update.Update;
 import com.thoughtworks.gauge.connection.GaugeConnection;
@@ -21,7 +23,7 @@ import com.thoughtworks.gauge.exception.GaugeNotFoundException;
 import com.thoughtworks.gauge.module.lib.GaugeLibHelper;
 import com.thoughtworks.gauge.module.lib.LibHelper;
 import com.thoughtworks.gauge.module.lib.LibHelperFactory;
-import com.thoughtworks.gauge.reference.ReferenceCache;
+import com.thoughtworks.gauge.reference.StepValueCache;
 import com.thoughtworks.gauge.settings.GaugeSettingsModel;
 import com.thoughtworks.gauge.util.GaugeUtil;
 import com.thoughtworks.gauge.util.SocketUtils;
@@ -44,7 +46,8 @@ public final class GaugeBootstrapService implements Disposable {
 
   private final Map<Module, GaugeCli> gaugeProjectHandle = new ConcurrentHashMap<>();
   private final Map<String, HashSet<Module>> linkedModulesMap = new ConcurrentHashMap<>();
-  private final Map<Module, ReferenceCache> moduleReferenceCaches = new ConcurrentHashMap<>();
+  private final Map<Module, StepValueCache> moduleStepValueCaches = new ConcurrentHashMap<>();
+  private final SimpleModificationTracker stepValuesModificationTracker = new SimpleModificationTracker();
 
   private final Project myProject;
   private final MergingUpdateQueue myUpdateQueue = new MergingUpdateQueue("GAUGE_BOOTSTRAP", 5000, true, null, this);
@@ -134,6 +137,7 @@ public final class GaugeBootstrapService implements Disposable {
     GaugeConnection gaugeConnection = initializeGaugeConnection(freePortForApi);
     GaugeCli gaugeCli = new GaugeCli(resources.process, resources.exceptionWatcher, gaugeConnection);
     addModule(module, gaugeCli);
+    invalidateStepValueCaches(module);
     return gaugeCli;
   }
 
@@ -217,13 +221,28 @@ public final class GaugeBootstrapService implements Disposable {
     return moduleDependent ? null : getGaugeCli();
   }
 
-  public ReferenceCache getReferenceCache(Module module) {
-    ReferenceCache referenceCache = moduleReferenceCaches.get(module);
-    if (referenceCache == null) {
-      referenceCache = new ReferenceCache();
-      moduleReferenceCaches.put(module, referenceCache);
+  public StepValueCache getStepValueCache(Module module) {
+    return moduleStepValueCaches.computeIfAbsent(module, m -> new StepValueCache());
+  }
+
+  /**
+   * Incremented whenever cached step values become stale, e.g. after a Gauge process restart.
+   */
+  public ModificationTracker getStepValuesModificationTracker() {
+    return stepValuesModificationTracker;
+  }
+
+  /**
+   * Step values depend on the running Gauge process, drop them for all modules served by it.
+   */
+  private void invalidateStepValueCaches(Module module) {
+    Set<Module> modules = new HashSet<>(getSubModules(module));
+    modules.add(module);
+    for (Module m : modules) {
+      StepValueCache cache = moduleStepValueCaches.get(m);
+      if (cache != null) cache.clear();
     }
-    return referenceCache;
+    stepValuesModificationTracker.incModificationCount();
   }
 
   public Set<Module> getSubModules(Module module) {
@@ -265,7 +284,7 @@ public final class GaugeBootstrapService implements Disposable {
     modulesQueue.remove(module);
     String value = getProjectGroupValue(module);
     linkedModulesMap.remove(value);
-    moduleReferenceCaches.remove(module);
+    moduleStepValueCaches.remove(module);
     GaugeCli gaugeCli = gaugeProjectHandle.get(module);
 
     if (gaugeCli != null) {
@@ -298,6 +317,6 @@ public final class GaugeBootstrapService implements Disposable {
     gaugeProjectHandle.clear();
     modulesQueue.clear();
     linkedModulesMap.clear();
-    moduleReferenceCaches.clear();
+    moduleStepValueCaches.clear();
   }
 }
@@ -28,23 +28,28 @@ public final class ConceptPsiImplUtil {
   }
 
   public static StepValue getStepValue(ConceptStep element) {
+    return getStepValueFor(element, getStepTextFor(element), element.getTable() != null);
+  }
+
+  public static StepValue getStepValue(ConceptConceptImpl conceptConcept) {
+    return getStepValueFor(conceptConcept, getStepTextFor(conceptConcept), false);
+  }
+
+  public static String getStepTextFor(ConceptStep element) {
     ASTNode step = element.getNode();
     String stepText = step.getText().trim();
     int newLineIndex = stepText.indexOf("\n");
     int endIndex = newLineIndex == -1 ? stepText.length() : newLineIndex;
-    ConceptTable inlineTable = element.getTable();
     int index = 0;
     if (stepText.trim().charAt(0) == '#') {
       index = 1;
     }
-    stepText = stepText.substring(index, endIndex).trim();
-    return getStepValueFor(element, stepText, inlineTable != null);
+    return stepText.substring(index, endIndex).trim();
   }
 
-  public static StepValue getStepValue(ConceptConceptImpl conceptConcept) {
+  public static String getStepTextFor(ConceptConceptImpl conceptConcept) {
     String conceptHeadingText = conceptConcept.getConceptHeading().getText();
     conceptHeadingText = conceptHeadingText.trim().split("\n")[0];
-    String text = conceptHeadingText.trim().replaceFirst("#", "");
-    return getStepValueFor(conceptConcept, text, false);
+    return conceptHeadingText.trim().replaceFirst("#", "");
   }
 }
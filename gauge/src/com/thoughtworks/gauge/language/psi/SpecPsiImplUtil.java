@@ -38,13 +38,18 @@ public final class SpecPsiImplUtil {
   }
 
   public static StepValue getStepValue(SpecStep element) {
+    return getStepValueFor(element, getStepTextFor(element), element.getInlineTable() != null);
+  }
+
+  /**
+   * @return the raw step text as sent to the Gauge API, without the leading bullet and inline table
+   */
+  public static String getStepTextFor(SpecStep element) {
     ASTNode step = element.getNode();
     String stepText = step.getText().trim();
     int newLineIndex = stepText.indexOf("\n");
     int endIndex = newLineIndex == -1 ? stepText.length() : newLineIndex;
-    SpecTable inlineTable = element.getInlineTable();
-    stepText = stepText.substring(1, endIndex).trim();
-    return getStepValueFor(element, stepText, inlineTable != null);
+    return stepText.substring(1, endIndex).trim();
   }
 
   public static StepValue getStepValueFor(PsiElement element, String stepText, Boolean hasInlineTable) {
@@ -62,7 +67,7 @@ public final class SpecPsiImplUtil {
     if (apiConnection == null) {
       return getDefaultStepValue(element);
     }
-    StepValue value = StepUtil.getStepValue(apiConnection, stepText, hasInlineTable);
+    StepValue value = StepUtil.getStepValue(module, apiConnection, stepText, hasInlineTable);
     return value == null ? getDefaultStepValue(element) : value;
   }
 
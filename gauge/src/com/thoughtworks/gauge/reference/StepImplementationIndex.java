@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.reference;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.thoughtworks.gauge.GaugeBootstrapService;
+import com.thoughtworks.gauge.GaugeConstants;
+import com.thoughtworks.gauge.StepValue;
+import com.thoughtworks.gauge.language.psi.SpecPsiImplUtil;
+import com.thoughtworks.gauge.language.psi.impl.ConceptConceptImpl;
+import com.thoughtworks.gauge.util.StepUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.intellij.psi.search.FilenameIndex.getAllFilesByExt;
+
+/**
+ * Maps normalized step texts of a module to their implementing {@code @Step} methods and concepts.
+ * <p>
+ * Annotation values and concept headings are cached per file and only recomputed for changed files,
+ * the module-wide map is merged from them after changes counted by {@link StepImplementationsModificationTracker}
+ * or a Gauge process restart. Normalized step texts come from the Gauge process, so they can't be kept in a file-based index.
+ */
+public final class StepImplementationIndex {
+  private final Map<String, PsiMethod> stepMethods;
+  private final Map<String, ConceptConceptImpl> concepts;
+
+  private StepImplementationIndex(Map<String, PsiMethod> stepMethods, Map<String, ConceptConceptImpl> concepts) {
+    this.stepMethods = stepMethods;
+    this.concepts = concepts;
+  }
+
+  public static @NotNull StepImplementationIndex getInstance(@NotNull Module module) {
+    GaugeBootstrapService bootstrapService = GaugeBootstrapService.getInstance(module.getProject());
+    return CachedValuesManager.getManager(module.getProject()).getCachedValue(module, () -> CachedValueProvider.Result.create(
+      build(module), StepImplementationsModificationTracker.getInstance(module.getProject()),
+      bootstrapService.getStepValuesModificationTracker()));
+  }
+
+  public @Nullable PsiMethod findStepMethod(@NotNull String stepText) {
+    return stepMethods.get(stepText);
+  }
+
+  public @Nullable ConceptConceptImpl findConcept(@NotNull String stepText) {
+    return concepts.get(stepText);
+  }
+
+  private static StepImplementationIndex build(@NotNull Module module) {
+    Map<String, PsiMethod> stepMethods = new HashMap<>();
+    for (PsiMethod method : StepUtil.getStepMethods(module)) {
+      for (String value : getAnnotationValues(method)) {
+        String stepText = SpecPsiImplUtil.getStepValueFor(module, method, value, false).getStepText();
+        stepMethods.putIfAbsent(stepText, method);
+      }
+    }
+
+    Map<String, ConceptConceptImpl> concepts = new HashMap<>();
+    PsiManager psiManager = PsiManager.getInstance(module.getProject());
+    for (VirtualFile file : getAllFilesByExt(module.getProject(), GaugeConstants.CONCEPT_EXTENSION)) {
+      PsiFile psiFile = psiManager.findFile(file);
+      if (psiFile == null || !psiFile.isValid()) continue;
+
+      for (Map.Entry<String, ConceptConceptImpl> entry : getConcepts(psiFile).entrySet()) {
+        concepts.putIfAbsent(entry.getKey(), entry.getValue());
+      }
+    }
+    return new StepImplementationIndex(stepMethods, concepts);
+  }
+
+  private static List<String> getAnnotationValues(@NotNull PsiMethod method) {
+    PsiFile file = method.getContainingFile();
+    if (file == null) return StepUtil.getGaugeStepAnnotationValues(method);
+
+    Map<PsiMethod, List<String>> fileValues = CachedValuesManager.getCachedValue(file, () -> {
+      Map<PsiMethod, List<String>> values = new HashMap<>();
+      for (PsiMethod m : PsiTreeUtil.findChildrenOfType(file, PsiMethod.class)) {
+        List<String> annotationValues = StepUtil.getGaugeStepAnnotationValues(m);
+        if (!annotationValues.isEmpty()) values.put(m, annotationValues);
+      }
+      return CachedValueProvider.Result.create(values, file);
+    });
+    List<String> values = fileValues.get(method);
+    return values != null ? values : Collections.emptyList();
+  }
+
+  private static Map<String, ConceptConceptImpl> getConcepts(@NotNull PsiFile conceptFile) {
+    GaugeBootstrapService bootstrapService = GaugeBootstrapService.getInstance(conceptFile.getProject());
+    return CachedValuesManager.getCachedValue(conceptFile, () -> {
+      Map<String, ConceptConceptImpl> concepts = new HashMap<>();
+      for (PsiElement element : conceptFile.getChildren()) {
+        if (element instanceof ConceptConceptImpl) {
+          StepValue stepValue = ((ConceptConceptImpl)element).getStepValue();
+          concepts.putIfAbsent(stepValue.getStepText(), (ConceptConceptImpl)element);
+        }
+      }
+      return CachedValueProvider.Result.create(concepts, conceptFile, bootstrapService.getStepValuesModificationTracker());
+    });
+  }
+}
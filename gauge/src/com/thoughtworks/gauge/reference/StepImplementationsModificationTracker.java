@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.reference;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.thoughtworks.gauge.language.ConceptFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Incremented on PSI changes that may add, remove or rename a step implementation: changes in concept files
+ * and in JVM source files outside method bodies.
+ * <p>
+ * Typing in specs or inside method bodies, which is most of the editing, doesn't rebuild {@link StepImplementationIndex}.
+ */
+@Service
+public final class StepImplementationsModificationTracker implements ModificationTracker, Disposable {
+  private final SimpleModificationTracker myTracker = new SimpleModificationTracker();
+
+  private StepImplementationsModificationTracker(Project project) {
+    PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        processChange(event);
+      }
+
+      @Override
+      public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        processChange(event);
+      }
+
+      @Override
+      public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        processChange(event);
+      }
+
+      @Override
+      public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        processChange(event);
+      }
+
+      @Override
+      public void childMoved(@NotNull PsiTreeChangeEvent event) {
+        processChange(event);
+      }
+
+      @Override
+      public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+        myTracker.incModificationCount();
+      }
+    }, this);
+  }
+
+  public static StepImplementationsModificationTracker getInstance(Project project) {
+    return project.getService(StepImplementationsModificationTracker.class);
+  }
+
+  @Override
+  public long getModificationCount() {
+    return myTracker.getModificationCount();
+  }
+
+  private void processChange(@NotNull PsiTreeChangeEvent event) {
+    if (affectsStepImplementations(event)) {
+      myTracker.incModificationCount();
+    }
+  }
+
+  private static boolean affectsStepImplementations(@NotNull PsiTreeChangeEvent event) {
+    PsiFile file = event.getFile();
+    if (file == null) {
+      // files and directories are added, removed or moved
+      PsiElement child = event.getChild();
+      return !(child instanceof PsiFile) || isRelevantFile((PsiFile)child);
+    }
+    if (!isRelevantFile(file)) return false;
+
+    return !(file instanceof PsiJavaFile) || !isInsideCodeBlock(event.getParent());
+  }
+
+  private static boolean isRelevantFile(@NotNull PsiFile file) {
+    return file instanceof ConceptFile || file instanceof PsiClassOwner;
+  }
+
+  private static boolean isInsideCodeBlock(@Nullable PsiElement element) {
+    return element != null && PsiTreeUtil.getParentOfType(element, PsiCodeBlock.class, false) != null;
+  }
+
+  @Override
+  public void dispose() {
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.reference;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.Pair;
+import com.thoughtworks.gauge.StepValue;
+import com.thoughtworks.gauge.connection.GaugeConnection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/**
+ * Size-bounded cache of step values resolved by the Gauge API process of a module.
+ * <p>
+ * Must be cleared whenever the Gauge process is restarted, see {@link com.thoughtworks.gauge.GaugeBootstrapService}.
+ */
+public final class StepValueCache {
+  private static final Logger LOG = Logger.getInstance(StepValueCache.class);
+
+  private static final int MAX_SIZE = 20_000;
+  private static final String INLINE_TABLE_SUFFIX = " <table>";
+
+  private final Cache<String, StepValue> stepValues = Caffeine.newBuilder().maximumSize(MAX_SIZE).build();
+
+  /**
+   * Resolves a step value by the Gauge process, e.g. over a {@link GaugeConnection}.
+   */
+  interface StepValueFetcher {
+    @Nullable
+    StepValue fetch(@NotNull String text, boolean hasInlineTable) throws Exception;
+  }
+
+  public @Nullable StepValue getStepValue(@NotNull GaugeConnection connection, @NotNull String text, boolean hasInlineTable) {
+    return getStepValue(createFetcher(connection), text, hasInlineTable);
+  }
+
+  @Nullable StepValue getStepValue(@NotNull StepValueFetcher fetcher, @NotNull String text, boolean hasInlineTable) {
+    String key = getKey(text, hasInlineTable);
+    StepValue value = stepValues.getIfPresent(key);
+    if (value == null) {
+      value = fetchStepValue(fetcher, text, hasInlineTable);
+      if (value != null && !value.getStepText().isEmpty()) {
+        stepValues.put(key, value);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Resolves all not yet cached step texts in one go, intended to be called from a background thread.
+   *
+   * @param steps pairs of step text and whether the step has an inline table
+   * @return number of step values fetched from the Gauge process
+   */
+  public int prefetch(@NotNull GaugeConnection connection, @NotNull Collection<Pair<String, Boolean>> steps) {
+    return prefetch(createFetcher(connection), steps);
+  }
+
+  int prefetch(@NotNull StepValueFetcher fetcher, @NotNull Collection<Pair<String, Boolean>> steps) {
+    int fetched = 0;
+    for (Pair<String, Boolean> step : steps) {
+      ProgressManager.checkCanceled();
+
+      String key = getKey(step.first, step.second);
+      if (stepValues.getIfPresent(key) != null) continue;
+
+      StepValue value = fetchStepValue(fetcher, step.first, step.second);
+      if (value != null && !value.getStepText().isEmpty()) {
+        stepValues.put(key, value);
+        fetched++;
+      }
+    }
+    return fetched;
+  }
+
+  public void clear() {
+    stepValues.invalidateAll();
+  }
+
+  private static @NotNull StepValueFetcher createFetcher(@NotNull GaugeConnection connection) {
+    return (text, hasInlineTable) -> {
+      // the API connection is a single socket, requests must not interleave
+      synchronized (connection) {
+        return connection.getStepValue(text, hasInlineTable);
+      }
+    };
+  }
+
+  private static @Nullable StepValue fetchStepValue(@NotNull StepValueFetcher fetcher, @NotNull String text, boolean hasInlineTable) {
+    try {
+      return fetcher.fetch(text, hasInlineTable);
+    }
+    catch (Exception e) {
+      LOG.debug(e);
+      return null;
+    }
+  }
+
+  private static @NotNull String getKey(@NotNull String text, boolean hasInlineTable) {
+    return hasInlineTable ? text + INLINE_TABLE_SUFFIX : text;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.reference;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.thoughtworks.gauge.GaugeBootstrapService;
+import com.thoughtworks.gauge.connection.GaugeConnection;
+import com.thoughtworks.gauge.core.GaugeCli;
+import com.thoughtworks.gauge.language.ConceptFile;
+import com.thoughtworks.gauge.language.SpecFile;
+import com.thoughtworks.gauge.language.psi.ConceptPsiImplUtil;
+import com.thoughtworks.gauge.language.psi.ConceptStep;
+import com.thoughtworks.gauge.language.psi.SpecPsiImplUtil;
+import com.thoughtworks.gauge.language.psi.SpecStep;
+import com.thoughtworks.gauge.language.psi.impl.ConceptConceptImpl;
+import com.thoughtworks.gauge.util.GaugeUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Resolves the step values of an opened spec or concept file in one background batch,
+ * so that highlighting does not query the Gauge API process step by step.
+ */
+public final class StepValuePrefetcher implements FileEditorManagerListener {
+  private static final Logger LOG = Logger.getInstance(StepValuePrefetcher.class);
+
+  @Override
+  public void fileOpened(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
+    Project project = source.getProject();
+    ApplicationManager.getApplication().executeOnPooledThread(() -> prefetch(project, file));
+  }
+
+  private static void prefetch(@NotNull Project project, @NotNull VirtualFile file) {
+    PrefetchRequest request = ReadAction.compute(() -> collectSteps(project, file));
+    if (request == null || request.steps.isEmpty()) return;
+
+    GaugeBootstrapService bootstrapService = GaugeBootstrapService.getInstance(project);
+    GaugeCli gaugeCli = bootstrapService.getGaugeCli(request.module, false);
+    GaugeConnection connection = gaugeCli == null ? null : gaugeCli.getGaugeConnection();
+    if (connection == null) return;
+
+    int fetched = bootstrapService.getStepValueCache(request.module).prefetch(connection, request.steps);
+    LOG.debug("Prefetched " + fetched + " of " + request.steps.size() + " step values for " + file.getPath());
+
+    if (fetched > 0) {
+      ApplicationManager.getApplication().runReadAction(() -> {
+        if (project.isDisposed() || !request.psiFile.isValid()) return;
+        DaemonCodeAnalyzer.getInstance(project).restart(request.psiFile);
+      });
+    }
+  }
+
+  static PrefetchRequest collectSteps(@NotNull Project project, @NotNull VirtualFile file) {
+    if (project.isDisposed() || !file.isValid()) return null;
+
+    PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+    if (!(psiFile instanceof SpecFile) && !(psiFile instanceof ConceptFile)) return null;
+
+    Module module = GaugeUtil.moduleForPsiElement(psiFile);
+    if (module == null) return null;
+
+    Set<Pair<String, Boolean>> steps = new LinkedHashSet<>();
+    if (psiFile instanceof SpecFile) {
+      for (SpecStep step : PsiTreeUtil.findChildrenOfType(psiFile, SpecStep.class)) {
+        steps.add(Pair.create(SpecPsiImplUtil.getStepTextFor(step), step.getInlineTable() != null));
+      }
+    }
+    else {
+      for (ConceptConceptImpl concept : PsiTreeUtil.findChildrenOfType(psiFile, ConceptConceptImpl.class)) {
+        steps.add(Pair.create(ConceptPsiImplUtil.getStepTextFor(concept), false));
+      }
+      for (ConceptStep step : PsiTreeUtil.findChildrenOfType(psiFile, ConceptStep.class)) {
+        steps.add(Pair.create(ConceptPsiImplUtil.getStepTextFor(step), step.getTable() != null));
+      }
+    }
+    return new PrefetchRequest(psiFile, module, steps);
+  }
+
+  static final class PrefetchRequest {
+    final PsiFile psiFile;
+    final Module module;
+    final Set<Pair<String, Boolean>> steps;
+
+    private PrefetchRequest(PsiFile psiFile, Module module, Set<Pair<String, Boolean>> steps) {
+      this.psiFile = psiFile;
+      this.module = module;
+      this.steps = steps;
+    }
+  }
+}
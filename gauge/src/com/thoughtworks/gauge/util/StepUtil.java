@@ -16,14 +16,10 @@
 
 package com.thoughtworks.gauge.util;
 
-import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
-import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.AnnotatedElementsSearch;
-import com.thoughtworks.gauge.GaugeConstants;
 import com.thoughtworks.gauge.GaugeBootstrapService;
 import com.thoughtworks.gauge.Step;
 import com.thoughtworks.gauge.StepValue;
@@ -33,101 +29,26 @@ import com.thoughtworks.gauge.language.psi.SpecStep;
 import com.thoughtworks.gauge.language.psi.impl.ConceptConceptImpl;
 import com.thoughtworks.gauge.language.psi.impl.ConceptStepImpl;
 import com.thoughtworks.gauge.language.psi.impl.SpecStepImpl;
-import com.thoughtworks.gauge.reference.ReferenceCache;
+import com.thoughtworks.gauge.reference.StepImplementationIndex;
 
 import javax.annotation.Nullable;
 import java.util.*;
 
 public final class StepUtil {
-  private static final Logger LOG = Logger.getInstance(StepUtil.class);
-  private static final HashMap<String, StepValue> stepValueCache = new HashMap<>();
 
   public static PsiElement findStepImpl(SpecStep step, Module module) {
     if (module == null) {
       return null;
     }
-    GaugeBootstrapService bootstrapService = GaugeBootstrapService.getInstance(module.getProject());
-
-    ReferenceCache cache = bootstrapService.getReferenceCache(module);
-    PsiElement reference = cache.searchReferenceFor(step);
-    if (reference == null) {
-      reference = findStepReference(step, module);
-    }
-    return reference;
-  }
-
-  private static PsiElement findStepReference(SpecStep step, Module module) {
-    Collection<PsiMethod> stepMethods = getStepMethods(module);
-    PsiMethod method = findStepImplementationMethod(stepMethods, step, module);
-    PsiElement referenceElement;
-    if (method == null) {
-      referenceElement = searchConceptsForImpl(step, module);
-      if (referenceElement != null) {
-        referenceElement = new ConceptStepImpl(referenceElement.getNode(), true);
-      }
-    }
-    else {
-      referenceElement = method;
-    }
-    addReferenceToCache(step, referenceElement, module);
-    return referenceElement;
-  }
-
-  private static void addReferenceToCache(SpecStep step, PsiElement referenceElement, Module module) {
-    GaugeBootstrapService bootstrapService = GaugeBootstrapService.getInstance(module.getProject());
-    bootstrapService.getReferenceCache(module).addStepReference(step, referenceElement);
-  }
-
-  private static PsiElement searchConceptsForImpl(SpecStep step, Module module) {
-    try {
-      VirtualFile[] conceptFiles = findConceptFiles(module);
-      if (conceptFiles.length > 0) {
-        PsiElement reference;
-        for (VirtualFile file : conceptFiles) {
-          reference = searchConceptReference(file, step, module);
-          if (reference != null) {
-            return reference;
-          }
-        }
-      }
-    }
-    catch (Exception e) {
-      LOG.debug(e);
-      return null;
-    }
-    return null;
-  }
-
-  private static PsiElement searchConceptReference(VirtualFile virtualFile, SpecStep step, Module module) {
-    PsiFile psiFile = PsiManager.getInstance(module.getProject()).findFile(virtualFile);
-    if (psiFile == null || !psiFile.isValid()) {
-      return null;
-    }
-    for (PsiElement psiElement : psiFile.getChildren()) {
-      if (psiElement.getClass().equals(ConceptConceptImpl.class)) {
-        StepValue conceptStepValue = ((ConceptConceptImpl)psiElement).getStepValue();
-
-        if (step.getStepValue().getStepText().equals(conceptStepValue.getStepText())) {
-          return psiElement;
-        }
-      }
-    }
-    return null;
-  }
-
-  private static VirtualFile[] findConceptFiles(Module module) {
-    Collection<VirtualFile> conceptFiles = FilenameIndex.getAllFilesByExt(module.getProject(), GaugeConstants.CONCEPT_EXTENSION);
-    return conceptFiles.toArray(VirtualFile.EMPTY_ARRAY);
-  }
-
-  private static PsiMethod findStepImplementationMethod(Collection<PsiMethod> stepMethods, SpecStep step, Module module) {
     String stepText = step.getStepValue().getStepText();
-    for (PsiMethod stepMethod : stepMethods) {
-      if (isMatch(stepMethod, stepText, module)) {
-        return stepMethod;
-      }
+    StepImplementationIndex index = StepImplementationIndex.getInstance(module);
+
+    PsiMethod method = index.findStepMethod(stepText);
+    if (method != null) {
+      return method;
     }
-    return null;
+    ConceptConceptImpl concept = index.findConcept(stepText);
+    return concept != null ? new ConceptStepImpl(concept.getNode(), true) : null;
   }
 
   public static boolean isMatch(PsiMethod stepMethod, String stepText, Module module) {
@@ -140,14 +61,9 @@ public final class StepUtil {
     return false;
   }
 
-  public static StepValue getStepValue(final GaugeConnection connection, final String text, Boolean hasInlineTable) {
-    String stepText = hasInlineTable ? text + " <table>" : text;
-    StepValue value = stepValueCache.get(stepText);
-    if (value == null || value.getStepText().isEmpty()) {
-      value = connection.getStepValue(text, hasInlineTable);
-      stepValueCache.put(stepText, value);
-    }
-    return value;
+  public static StepValue getStepValue(final Module module, final GaugeConnection connection, final String text, Boolean hasInlineTable) {
+    GaugeBootstrapService bootstrapService = GaugeBootstrapService.getInstance(module.getProject());
+    return bootstrapService.getStepValueCache(module).getStepValue(connection, text, hasInlineTable);
   }
 
   public static List<String> getGaugeStepAnnotationValues(PsiMethod stepMethod) {
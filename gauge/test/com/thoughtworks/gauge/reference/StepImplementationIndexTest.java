@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.reference;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.thoughtworks.gauge.language.psi.impl.ConceptConceptImpl;
+
+/**
+ * Without a Gauge process step texts are not normalized, so the tests look up the texts the index computes itself.
+ */
+public class StepImplementationIndexTest extends LightJavaCodeInsightFixtureTestCase {
+  private static final String STEPS = "import com.thoughtworks.gauge.Step;\n" +
+                                      "public class Steps {\n" +
+                                      "  @Step(\"Say <greeting>\")\n" +
+                                      "  public void say(String greeting) {\n" +
+                                      "    System.out.println(greeting);\n" +
+                                      "  }\n" +
+                                      "}";
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("package com.thoughtworks.gauge;\n" +
+                       "public @interface Step { String[] value(); }");
+  }
+
+  public void testFindStepMethod() {
+    PsiMethod method = getStepMethod(myFixture.addFileToProject("Steps.java", STEPS));
+
+    assertSame(method, getIndex().findStepMethod(method.getText()));
+    assertNull(getIndex().findStepMethod("Unknown step"));
+  }
+
+  public void testIndexKeptAfterTypingInMethodBody() {
+    PsiFile file = myFixture.addFileToProject("Steps.java", STEPS);
+    StepImplementationIndex index = getIndex();
+    long modificationCount = getTracker().getModificationCount();
+
+    insertAfter(file, "System.out.println(greeting);", "\n    System.out.println(greeting);");
+
+    assertEquals(modificationCount, getTracker().getModificationCount());
+    assertSame(index, getIndex());
+  }
+
+  public void testIndexKeptAfterTypingInSpec() {
+    PsiFile spec = myFixture.addFileToProject("specs/example.spec", "# Spec\n## Scenario\n* Say \"hello\"\n");
+    StepImplementationIndex index = getIndex();
+
+    insertAfter(spec, "* Say \"hello\"\n", "* Say \"bye\"\n");
+
+    assertSame(index, getIndex());
+  }
+
+  public void testIndexUpdatedAfterAnnotationChange() {
+    PsiFile file = myFixture.addFileToProject("Steps.java", STEPS);
+    StepImplementationIndex index = getIndex();
+
+    insertAfter(file, "@Step(\"Say <greeting>", " twice");
+
+    assertNotSame(index, getIndex());
+    PsiMethod method = getStepMethod(file);
+    assertSame(method, getIndex().findStepMethod(method.getText()));
+  }
+
+  public void testIndexUpdatedAfterStepMethodAdded() {
+    myFixture.addFileToProject("Steps.java", STEPS);
+    StepImplementationIndex index = getIndex();
+
+    PsiFile other = myFixture.addFileToProject("OtherSteps.java", STEPS.replace("Steps", "OtherSteps").replace("Say", "Greet"));
+
+    assertNotSame(index, getIndex());
+    PsiMethod method = getStepMethod(other);
+    assertSame(method, getIndex().findStepMethod(method.getText()));
+  }
+
+  public void testIndexUpdatedAfterConceptChange() {
+    PsiFile concept = myFixture.addFileToProject("specs/greetings.cpt", "# Greet everyone\n* Say \"hello\"\n");
+    StepImplementationIndex index = getIndex();
+    assertNotNull(getIndex().findConcept(getConcept(concept).getStepValue().getStepText()));
+
+    insertAfter(concept, "# Greet everyone", " twice");
+
+    assertNotSame(index, getIndex());
+    assertSame(getConcept(concept), getIndex().findConcept(getConcept(concept).getStepValue().getStepText()));
+  }
+
+  private StepImplementationIndex getIndex() {
+    return StepImplementationIndex.getInstance(getModule());
+  }
+
+  private StepImplementationsModificationTracker getTracker() {
+    return StepImplementationsModificationTracker.getInstance(getProject());
+  }
+
+  private static PsiMethod getStepMethod(PsiFile file) {
+    PsiMethod method = PsiTreeUtil.findChildOfType(file, PsiMethod.class);
+    assertNotNull(method);
+    return method;
+  }
+
+  private static ConceptConceptImpl getConcept(PsiFile file) {
+    ConceptConceptImpl concept = PsiTreeUtil.findChildOfType(file, ConceptConceptImpl.class);
+    assertNotNull(concept);
+    return concept;
+  }
+
+  private void insertAfter(PsiFile file, String anchor, String text) {
+    PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+    Document document = documentManager.getDocument(file);
+    assertNotNull(document);
+    int offset = document.getText().indexOf(anchor);
+    assertTrue(anchor, offset >= 0);
+
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> document.insertString(offset + anchor.length(), text));
+    documentManager.commitAllDocuments();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.reference;
+
+import com.intellij.openapi.util.Pair;
+import com.thoughtworks.gauge.StepValue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StepValueCacheTest {
+  private final CountingFetcher fetcher = new CountingFetcher();
+  private final StepValueCache cache = new StepValueCache();
+
+  @Test
+  public void cachesFetchedValues() {
+    StepValue value = cache.getStepValue(fetcher, "Say \"hello\"", false);
+    assertNotNull(value);
+    assertEquals("Say {}", value.getStepText());
+
+    assertSame(value, cache.getStepValue(fetcher, "Say \"hello\"", false));
+    assertEquals(1, fetcher.calls.size());
+  }
+
+  @Test
+  public void inlineTableIsPartOfKey() {
+    cache.getStepValue(fetcher, "Say \"hello\"", false);
+    cache.getStepValue(fetcher, "Say \"hello\"", true);
+    cache.getStepValue(fetcher, "Say \"hello\"", true);
+
+    assertEquals(Arrays.asList("Say \"hello\"", "Say \"hello\" <table>"), fetcher.calls);
+  }
+
+  @Test
+  public void emptyAndFailedValuesAreNotCached() {
+    assertEquals("", cache.getStepValue(fetcher, "", false).getStepText());
+    assertNull(cache.getStepValue(fetcher, "fail", false));
+    cache.getStepValue(fetcher, "", false);
+    cache.getStepValue(fetcher, "fail", false);
+
+    assertEquals(4, fetcher.calls.size());
+  }
+
+  @Test
+  public void clearInvalidatesValues() {
+    cache.getStepValue(fetcher, "Say \"hello\"", false);
+    cache.clear();
+    cache.getStepValue(fetcher, "Say \"hello\"", false);
+
+    assertEquals(2, fetcher.calls.size());
+  }
+
+  @Test
+  public void prefetchSkipsCachedValues() {
+    cache.getStepValue(fetcher, "Say \"hello\"", false);
+    fetcher.calls.clear();
+
+    int fetched = cache.prefetch(fetcher, Arrays.asList(Pair.create("Say \"hello\"", false),
+                                                        Pair.create("Say \"bye\"", false),
+                                                        Pair.create("Say \"bye\"", true),
+                                                        Pair.create("fail", false)));
+    assertEquals(2, fetched);
+    assertEquals(Arrays.asList("Say \"bye\"", "Say \"bye\" <table>", "fail"), fetcher.calls);
+
+    fetcher.calls.clear();
+    cache.getStepValue(fetcher, "Say \"bye\"", false);
+    cache.getStepValue(fetcher, "Say \"bye\"", true);
+    assertTrue(fetcher.calls.isEmpty());
+  }
+
+  /**
+   * Stands in for the Gauge process: replaces quoted parameters with {@code {}} and fails for "fail".
+   */
+  static final class CountingFetcher implements StepValueCache.StepValueFetcher {
+    final List<String> calls = new ArrayList<>();
+
+    @Override
+    public StepValue fetch(String text, boolean hasInlineTable) {
+      calls.add(hasInlineTable ? text + " <table>" : text);
+      if (text.equals("fail")) throw new IllegalStateException("Gauge process is not available");
+
+      String stepText = text.replaceAll("\"[^\"]*\"", "{}");
+      return new StepValue(stepText, stepText, new ArrayList<>());
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.reference;
+
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.containers.ContainerUtil;
+
+import java.util.Arrays;
+
+public class StepValuePrefetcherTest extends BasePlatformTestCase {
+  public void testCollectSpecSteps() {
+    PsiFile spec = myFixture.addFileToProject("specs/example.spec", "# Spec\n" +
+                                                                   "## Scenario\n" +
+                                                                   "* Say \"hello\"\n" +
+                                                                   "* Say \"hello\"\n" +
+                                                                   "* Greet\n" +
+                                                                   "   |name|\n" +
+                                                                   "   |----|\n" +
+                                                                   "   |John|\n");
+    StepValuePrefetcher.PrefetchRequest request = StepValuePrefetcher.collectSteps(getProject(), spec.getVirtualFile());
+    assertNotNull(request);
+    assertSame(spec, request.psiFile);
+    assertSame(getModule(), request.module);
+    assertOrderedEquals(request.steps, Pair.create("Say \"hello\"", false), Pair.create("Greet", true));
+  }
+
+  public void testCollectConceptSteps() {
+    PsiFile concept = myFixture.addFileToProject("specs/greetings.cpt", "# Greet <name>\n* Say \"hello\"\n* Say <name>\n");
+    StepValuePrefetcher.PrefetchRequest request = StepValuePrefetcher.collectSteps(getProject(), concept.getVirtualFile());
+    assertNotNull(request);
+    // the texts are sent to the Gauge process as they are, only surrounding spaces and markers may differ
+    assertOrderedEquals(ContainerUtil.map(request.steps, step -> StringUtil.trimStart(step.first.trim(), "*").trim()),
+                        "Greet <name>", "Say \"hello\"", "Say <name>");
+    assertFalse(ContainerUtil.exists(request.steps, step -> step.second));
+  }
+
+  public void testOtherFilesAreSkipped() {
+    PsiFile text = myFixture.addFileToProject("notes.txt", "* Say \"hello\"\n");
+    assertNull(StepValuePrefetcher.collectSteps(getProject(), text.getVirtualFile()));
+  }
+
+  public void testPrefetchedValuesAreCacheHits() {
+    PsiFile spec = myFixture.addFileToProject("specs/example.spec", "# Spec\n## Scenario\n* Say \"hello\"\n* Say \"bye\"\n");
+    StepValuePrefetcher.PrefetchRequest request = StepValuePrefetcher.collectSteps(getProject(), spec.getVirtualFile());
+    assertNotNull(request);
+
+    StepValueCache cache = new StepValueCache();
+    StepValueCacheTest.CountingFetcher fetcher = new StepValueCacheTest.CountingFetcher();
+    assertEquals(2, cache.prefetch(fetcher, request.steps));
+    assertEquals(Arrays.asList("Say \"hello\"", "Say \"bye\""), fetcher.calls);
+
+    assertEquals("Say {}", cache.getStepValue(fetcher, "Say \"bye\"", false).getStepText());
+    assertEquals(0, cache.prefetch(fetcher, request.steps));
+    assertEquals(2, fetcher.calls.size());
+  }
+}
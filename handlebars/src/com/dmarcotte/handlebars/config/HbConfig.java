@@ -5,9 +5,14 @@ import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.lang.Language;
 import com.intellij.lang.html.HTMLLanguage;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static com.dmarcotte.handlebars.config.Property.*;
 
 public final class HbConfig {
@@ -73,6 +78,38 @@ public final class HbConfig {
     return true;
   }
 
+  /**
+   * Directories whose templates are registered as partials under their path relative to the directory,
+   * e.g. {@code partials/layouts/main.hbs} is the {@code layouts/main} partial.
+   */
+  @NotNull
+  public static List<String> getPartialsDirectories(@NotNull Project project) {
+    return StringUtil.split(getRawPartialsDirectories(project), ",").stream()
+      .map(directory -> StringUtil.trimEnd(StringUtil.trim(FileUtil.toSystemIndependentName(directory)), "/"))
+      .filter(directory -> !directory.isEmpty())
+      .collect(Collectors.toList());
+  }
+
+  @NotNull
+  public static String getRawPartialsDirectories(@NotNull Project project) {
+    return getStringPropertyValue(PARTIALS_DIRECTORIES, project);
+  }
+
+  public static void setPartialsDirectories(@NotNull String directories, @NotNull Project project) {
+    setStringPropertyValue(PARTIALS_DIRECTORIES, directories, project);
+  }
+
+  /**
+   * Whether any template is a partial named after its file, without the extension and the leading underscore.
+   */
+  public static boolean isPartialFileNamesEnabled(@NotNull Project project) {
+    return ENABLED.equals(getStringPropertyValue(PARTIAL_FILE_NAMES, project));
+  }
+
+  public static void setPartialFileNamesEnabled(boolean enabled, @NotNull Project project) {
+    setBooleanPropertyValue(PARTIAL_FILE_NAMES, enabled, project);
+  }
+
   private static String getStringPropertyValue(Property property, Project project) {
     return getProperties(project).getValue(property.getStringName(), property.getDefault());
   }
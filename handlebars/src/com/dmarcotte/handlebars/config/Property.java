@@ -92,6 +92,34 @@ enum Property {
     public String getDefault() {
       return "";
     }
+  },
+
+  PARTIALS_DIRECTORIES {
+    @NotNull
+    @Override
+    public String getStringName() {
+      return "HbPartialsDirectories";
+    }
+
+    @NotNull
+    @Override
+    public String getDefault() {
+      return "partials";
+    }
+  },
+
+  PARTIAL_FILE_NAMES {
+    @NotNull
+    @Override
+    public String getStringName() {
+      return "HbPartialFileNames";
+    }
+
+    @NotNull
+    @Override
+    public String getDefault() {
+      return ENABLED;
+    }
   };
 
   public static final String ENABLED = "enabled";
@@ -0,0 +1,33 @@
+package com.dmarcotte.handlebars.inspections;
+
+import com.dmarcotte.handlebars.HbBundle;
+import com.dmarcotte.handlebars.partials.HbPartialReference;
+import com.dmarcotte.handlebars.psi.HbPartialName;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import org.jetbrains.annotations.NotNull;
+
+public class HbUnresolvedPartialInspection extends LocalInspectionTool {
+  @NotNull
+  @Override
+  public PsiElementVisitor buildVisitor(final @NotNull ProblemsHolder holder, boolean isOnTheFly) {
+    return new PsiElementVisitor() {
+
+      @Override
+      public void visitElement(@NotNull PsiElement element) {
+        if (!(element instanceof HbPartialName)) {
+          return;
+        }
+
+        HbPartialReference reference = HbPartialReference.create((HbPartialName)element);
+        if (reference != null && reference.multiResolve(false).length == 0) {
+          holder.registerProblem(reference, HbBundle.message("hb.inspections.unresolved.partial", reference.getPartialName()),
+                                 ProblemHighlightType.LIKE_UNKNOWN_SYMBOL);
+        }
+      }
+    };
+  }
+}
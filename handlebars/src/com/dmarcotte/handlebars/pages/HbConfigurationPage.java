@@ -4,6 +4,7 @@ package com.dmarcotte.handlebars.pages;
 import com.dmarcotte.handlebars.HbBundle;
 import com.dmarcotte.handlebars.HbLanguage;
 import com.dmarcotte.handlebars.config.HbConfig;
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
 import com.intellij.lang.Language;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.fileTypes.FileType;
@@ -11,6 +12,7 @@ import com.intellij.openapi.fileTypes.ex.FileTypeManagerEx;
 import com.intellij.openapi.options.ConfigurationException;
 import com.intellij.openapi.options.SearchableConfigurable;
 import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiManager;
 import com.intellij.psi.templateLanguages.TemplateDataLanguageMappings;
 import com.intellij.ui.SimpleListCellRenderer;
 import org.jetbrains.annotations.Nls;
@@ -27,6 +29,8 @@ public class HbConfigurationPage implements SearchableConfigurable {
   private JComboBox<Language> myCommenterLanguage;
   private JCheckBox myAutocompleteMustaches;
   private JCheckBox htmlAsHb;
+  private JCheckBox myPartialFileNamesCheckBox;
+  private JTextField myPartialsDirectories;
   private final Project myProject;
 
   public HbConfigurationPage(Project project) {
@@ -66,9 +70,15 @@ public class HbConfigurationPage implements SearchableConfigurable {
            || myAutocompleteMustaches.isSelected() != HbConfig.isAutocompleteMustachesEnabled()
            || myFormattingCheckBox.isSelected() != HbConfig.isFormattingEnabled()
            || htmlAsHb.isSelected() != HbConfig.shouldOpenHtmlAsHandlebars(myProject)
+           || isPartialsModified()
            || !HbConfig.getCommenterLanguage().getID().equals(getSelectedLanguageId());
   }
 
+  private boolean isPartialsModified() {
+    return myPartialFileNamesCheckBox.isSelected() != HbConfig.isPartialFileNamesEnabled(myProject)
+           || !myPartialsDirectories.getText().trim().equals(HbConfig.getRawPartialsDirectories(myProject));
+  }
+
   private String getSelectedLanguageId() {
     final Object item = myCommenterLanguage.getSelectedItem();
     return item == null ? null : ((Language)item).getID();
@@ -81,6 +91,14 @@ public class HbConfigurationPage implements SearchableConfigurable {
     HbConfig.setFormattingEnabled(myFormattingCheckBox.isSelected());
     HbConfig.setCommenterLanguage((Language)myCommenterLanguage.getSelectedItem());
 
+    if (isPartialsModified()) {
+      HbConfig.setPartialFileNamesEnabled(myPartialFileNamesCheckBox.isSelected(), myProject);
+      HbConfig.setPartialsDirectories(myPartialsDirectories.getText().trim(), myProject);
+      // the partial indexes don't depend on the naming rules, only the resolved references do
+      PsiManager.getInstance(myProject).dropResolveCaches();
+      DaemonCodeAnalyzer.getInstance(myProject).restart();
+    }
+
     if (HbConfig.setShouldOpenHtmlAsHandlebars(htmlAsHb.isSelected(), myProject)) {
       ApplicationManager.getApplication().runWriteAction(() -> FileTypeManagerEx.getInstanceEx().fireFileTypesChanged());
     }
@@ -92,6 +110,8 @@ public class HbConfigurationPage implements SearchableConfigurable {
     myAutocompleteMustaches.setSelected(HbConfig.isAutocompleteMustachesEnabled());
     myFormattingCheckBox.setSelected(HbConfig.isFormattingEnabled());
     htmlAsHb.setSelected(HbConfig.shouldOpenHtmlAsHandlebars(myProject));
+    myPartialFileNamesCheckBox.setSelected(HbConfig.isPartialFileNamesEnabled(myProject));
+    myPartialsDirectories.setText(HbConfig.getRawPartialsDirectories(myProject));
     resetCommentLanguageCombo(HbConfig.getCommenterLanguage());
   }
 
@@ -0,0 +1,64 @@
+package com.dmarcotte.handlebars.partials;
+
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Maps partial names to the templates which may declare them.
+ * <p/>
+ * Every template is indexed under its name without the extension and under the {@link #getFilePartialName(String) partial name}
+ * given by the file name convention, with the {@link #FILE_OFFSET} value, as any template can be registered as a partial.
+ * The naming rules of the project are applied when the partial is resolved, so changing them doesn't require reindexing.
+ * Inline partials are indexed under their names, with the offsets of the name literals.
+ */
+public final class HbPartialDeclarationIndex extends HbPartialIndexBase {
+  public static final ID<String, List<Integer>> NAME = ID.create("HbPartialDeclarationIndex");
+
+  /**
+   * Offset of the declaration made by the template itself.
+   */
+  public static final int FILE_OFFSET = -1;
+
+  @NotNull
+  @Override
+  public ID<String, List<Integer>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<Integer>, FileContent> getIndexer() {
+    return inputData -> {
+      Map<String, List<Integer>> result = new HashMap<>(HbPartialScanner.scan(inputData).getDeclarations());
+      String fileName = inputData.getFileName();
+      addFileDeclaration(result, FileUtilRt.getNameWithoutExtension(fileName));
+      addFileDeclaration(result, getFilePartialName(fileName));
+      return result;
+    };
+  }
+
+  private static void addFileDeclaration(@NotNull Map<String, List<Integer>> declarations, @NotNull String name) {
+    List<Integer> offsets = declarations.getOrDefault(name, Collections.emptyList());
+    if (!offsets.contains(FILE_OFFSET)) {
+      List<Integer> result = new ArrayList<>(offsets.size() + 1);
+      result.add(FILE_OFFSET);
+      result.addAll(offsets);
+      declarations.put(name, result);
+    }
+  }
+
+  /**
+   * The partial name a template gets by the file name convention: the name without the extension and the leading underscore,
+   * e.g. {@code _header.hbs} declares {@code header}.
+   */
+  @NotNull
+  public static String getFilePartialName(@NotNull String fileName) {
+    String name = FileUtilRt.getNameWithoutExtension(fileName);
+    return name.length() > 1 && name.charAt(0) == '_' ? name.substring(1) : name;
+  }
+}
@@ -0,0 +1,61 @@
+package com.dmarcotte.handlebars.partials;
+
+import com.dmarcotte.handlebars.file.HbFileType;
+import com.intellij.openapi.util.io.DataInputOutputUtilRt;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Common part of the indexes mapping partial names to offsets in Handlebars files.
+ */
+abstract class HbPartialIndexBase extends FileBasedIndexExtension<String, List<Integer>> {
+  private static final DataExternalizer<List<Integer>> OFFSETS_EXTERNALIZER = new DataExternalizer<List<Integer>>() {
+    @Override
+    public void save(@NotNull DataOutput out, List<Integer> value) throws IOException {
+      DataInputOutputUtilRt.writeSeq(out, value, offset -> DataInputOutputUtilRt.writeINT(out, offset));
+    }
+
+    @Override
+    public List<Integer> read(@NotNull DataInput in) throws IOException {
+      return DataInputOutputUtilRt.readSeq(in, () -> DataInputOutputUtilRt.readINT(in));
+    }
+  };
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<Integer>> getValueExternalizer() {
+    return OFFSETS_EXTERNALIZER;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(HbFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+}
@@ -0,0 +1,69 @@
+package com.dmarcotte.handlebars.partials;
+
+import com.dmarcotte.handlebars.psi.HbPartialName;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.psi.ElementManipulators;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementResolveResult;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiPolyVariantReferenceBase;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.util.IncorrectOperationException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reference from a static partial name to the templates and inline partials declaring it, see {@link HbPartialResolver}.
+ */
+public class HbPartialReference extends PsiPolyVariantReferenceBase<HbPartialName> {
+  private static final ResolveCache.PolyVariantResolver<HbPartialReference> RESOLVER = (reference, incompleteCode) -> {
+    PsiFile file = reference.getElement().getContainingFile();
+    return file == null
+           ? ResolveResult.EMPTY_ARRAY
+           : PsiElementResolveResult.createResults(HbPartialResolver.resolve(reference.getPartialName(), file));
+  };
+
+  private final String myPartialName;
+
+  private HbPartialReference(@NotNull HbPartialName element, @NotNull TextRange range, @NotNull String partialName) {
+    super(element, range, false);
+    myPartialName = partialName;
+  }
+
+  @Nullable
+  public static HbPartialReference create(@NotNull HbPartialName element) {
+    String partialName = HbPartialResolver.getPartialName(element);
+    if (partialName == null) {
+      return null;
+    }
+    int start = element.getText().indexOf(partialName);
+    return new HbPartialReference(element, TextRange.from(start, partialName.length()), partialName);
+  }
+
+  @NotNull
+  public String getPartialName() {
+    return myPartialName;
+  }
+
+  @Override
+  public ResolveResult @NotNull [] multiResolve(boolean incompleteCode) {
+    return ResolveCache.getInstance(getElement().getProject()).resolveWithCaching(this, RESOLVER, false, incompleteCode);
+  }
+
+  /**
+   * Renaming a template keeps the directories of the partial name and changes its last segment to the new name of the file,
+   * without the extension and, unless the partial is referred to with it, the leading underscore.
+   */
+  @Override
+  public PsiElement handleElementRename(@NotNull String newElementName) throws IncorrectOperationException {
+    int lastSegmentStart = myPartialName.lastIndexOf('/') + 1;
+    String newName = myPartialName.startsWith("_", lastSegmentStart)
+                     ? FileUtilRt.getNameWithoutExtension(newElementName)
+                     : HbPartialDeclarationIndex.getFilePartialName(newElementName);
+    TextRange range = getRangeInElement();
+    return ElementManipulators.getManipulator(getElement())
+      .handleContentChange(getElement(), new TextRange(range.getStartOffset() + lastSegmentStart, range.getEndOffset()), newName);
+  }
+}
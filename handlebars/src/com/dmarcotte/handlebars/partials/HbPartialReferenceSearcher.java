@@ -0,0 +1,92 @@
+package com.dmarcotte.handlebars.partials;
+
+import com.dmarcotte.handlebars.HbLanguage;
+import com.dmarcotte.handlebars.psi.HbPartialName;
+import com.dmarcotte.handlebars.psi.HbPsiFile;
+import com.dmarcotte.handlebars.psi.HbStringLiteral;
+import com.intellij.openapi.application.QueryExecutorBase;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtilCore;
+import com.intellij.util.Processor;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds usages of templates and inline partials with {@link HbPartialUsageIndex}, only the partial names whose last segment
+ * can refer to the target are resolved.
+ */
+public class HbPartialReferenceSearcher extends QueryExecutorBase<PsiReference, ReferencesSearch.SearchParameters> {
+  public HbPartialReferenceSearcher() {
+    super(true);
+  }
+
+  @Override
+  public void processQuery(@NotNull ReferencesSearch.SearchParameters queryParameters, @NotNull Processor<? super PsiReference> consumer) {
+    PsiElement target = queryParameters.getElementToSearch();
+    Set<String> keys = new LinkedHashSet<>();
+    GlobalSearchScope scope = getGlobalScope(target.getProject(), queryParameters.getEffectiveSearchScope());
+
+    if (target instanceof PsiFile) {
+      PsiFile hbFile = ((PsiFile)target).getViewProvider().getPsi(HbLanguage.INSTANCE);
+      VirtualFile file = ((PsiFile)target).getVirtualFile();
+      if (!(hbFile instanceof HbPsiFile) || file == null) return;
+      keys.add(file.getNameWithoutExtension());
+      keys.add(HbPartialDeclarationIndex.getFilePartialName(file.getName()));
+    }
+    else if (target instanceof HbStringLiteral) {
+      VirtualFile file = PsiUtilCore.getVirtualFile(target);
+      if (file == null) return;
+      // inline partials are visible only in the template declaring them
+      keys.add(HbPartialScanner.getUsageKey(HbPartialScanner.unquote(target.getText())));
+      scope = scope.intersectWith(GlobalSearchScope.fileScope(target.getProject(), file));
+    }
+    else {
+      return;
+    }
+
+    PsiManager manager = target.getManager();
+    for (String key : keys) {
+      boolean completed = FileBasedIndex.getInstance().processValues(HbPartialUsageIndex.NAME, key, null, (file, offsets) -> {
+        PsiFile psiFile = manager.findFile(file);
+        PsiFile hbFile = psiFile == null ? null : psiFile.getViewProvider().getPsi(HbLanguage.INSTANCE);
+        if (hbFile == null) return true;
+        for (int offset : offsets) {
+          HbPartialReference reference = findReference(hbFile, offset);
+          if (reference != null && reference.isReferenceTo(target) && !consumer.process(reference)) {
+            return false;
+          }
+        }
+        return true;
+      }, scope);
+      if (!completed) return;
+    }
+  }
+
+  @Nullable
+  private static HbPartialReference findReference(@NotNull PsiFile file, int offset) {
+    HbPartialName partialName = PsiTreeUtil.getParentOfType(file.findElementAt(offset), HbPartialName.class);
+    return partialName == null ? null : HbPartialReference.create(partialName);
+  }
+
+  @NotNull
+  private static GlobalSearchScope getGlobalScope(@NotNull Project project, @NotNull SearchScope scope) {
+    if (scope instanceof GlobalSearchScope) {
+      return (GlobalSearchScope)scope;
+    }
+    List<VirtualFile> files = ContainerUtil.mapNotNull(((LocalSearchScope)scope).getScope(), PsiUtilCore::getVirtualFile);
+    return GlobalSearchScope.filesScope(project, files);
+  }
+}
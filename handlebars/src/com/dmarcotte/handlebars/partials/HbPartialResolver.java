@@ -0,0 +1,148 @@
+package com.dmarcotte.handlebars.partials;
+
+import com.dmarcotte.handlebars.HbLanguage;
+import com.dmarcotte.handlebars.config.HbConfig;
+import com.dmarcotte.handlebars.psi.HbPartialName;
+import com.dmarcotte.handlebars.psi.HbStringLiteral;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves partial names to the templates and inline partials declaring them.
+ * <p/>
+ * Handlebars partials are registered by the application code, so the declarations are found by the naming rules configured
+ * in {@link HbConfig}: a template under one of the partials directories is the partial named by its path relative to the directory,
+ * and, with the file name convention, any template is the partial named after its file, e.g. {@code {{> nav/top}}} refers to
+ * {@code nav/_top.hbs}. Inline partials of the template using the partial take precedence, as they do in Handlebars.
+ */
+public final class HbPartialResolver {
+  private HbPartialResolver() {
+  }
+
+  /**
+   * The name of a static partial, {@code null} for dynamic partials, {@code {{> (helper)}}}, and {@code {{> @partial-block}}}.
+   */
+  @Nullable
+  public static String getPartialName(@NotNull HbPartialName partialName) {
+    String text = partialName.getText();
+    if (text.isEmpty() || text.charAt(0) == '(' || text.charAt(0) == '@') {
+      return null;
+    }
+    String name = HbPartialScanner.unquote(text);
+    return name.isEmpty() ? null : name;
+  }
+
+  @NotNull
+  public static List<PsiElement> resolve(@NotNull String partialName, @NotNull PsiFile file) {
+    List<PsiElement> result = new ArrayList<>();
+    PsiFile hbFile = file.getViewProvider().getPsi(HbLanguage.INSTANCE);
+    if (hbFile != null) {
+      List<Integer> offsets = getInlineDeclarations(hbFile).get(partialName);
+      if (offsets != null) {
+        for (int offset : offsets) {
+          ContainerUtil.addIfNotNull(result, findInlineDeclaration(hbFile, offset));
+        }
+      }
+    }
+    if (!result.isEmpty()) {
+      return result;
+    }
+
+    Project project = file.getProject();
+    List<String> directories = HbConfig.getPartialsDirectories(project);
+    boolean fileNames = HbConfig.isPartialFileNamesEnabled(project);
+    PsiManager manager = PsiManager.getInstance(project);
+    FileBasedIndex.getInstance().processValues(
+      HbPartialDeclarationIndex.NAME, HbPartialScanner.getUsageKey(partialName), null, (virtualFile, offsets) -> {
+        if (offsets.contains(HbPartialDeclarationIndex.FILE_OFFSET) && isPartial(partialName, virtualFile, directories, fileNames)) {
+          ContainerUtil.addIfNotNull(result, manager.findFile(virtualFile));
+        }
+        return true;
+      }, GlobalSearchScope.allScope(project));
+    return result;
+  }
+
+  /**
+   * Checks whether the template is the given partial by the naming rules.
+   */
+  public static boolean isPartial(@NotNull String partialName,
+                                  @NotNull VirtualFile file,
+                                  @NotNull List<String> directories,
+                                  boolean fileNames) {
+    for (VirtualFile directory = file.getParent(); directory != null; directory = directory.getParent()) {
+      if (isPartialsDirectory(directory, directories)) {
+        String relativePath = VfsUtilCore.getRelativePath(file, directory, '/');
+        if (relativePath != null && partialName.equals(FileUtilRt.getNameWithoutExtension(relativePath))) {
+          return true;
+        }
+      }
+    }
+    return fileNames && isPartialByFileName(partialName, file);
+  }
+
+  /**
+   * The template name, {@code nav/top}, matches the path of {@code nav/_top.hbs} or {@code nav/top.hbs} from the end.
+   */
+  private static boolean isPartialByFileName(@NotNull String partialName, @NotNull VirtualFile file) {
+    List<String> segments = StringUtil.split(partialName, "/");
+    if (segments.isEmpty()) {
+      return false;
+    }
+    String last = segments.get(segments.size() - 1);
+    if (!last.equals(file.getNameWithoutExtension()) && !last.equals(HbPartialDeclarationIndex.getFilePartialName(file.getName()))) {
+      return false;
+    }
+
+    VirtualFile directory = file.getParent();
+    for (int i = segments.size() - 2; i >= 0; i--) {
+      if (directory == null || !segments.get(i).equals(directory.getName())) {
+        return false;
+      }
+      directory = directory.getParent();
+    }
+    return true;
+  }
+
+  private static boolean isPartialsDirectory(@NotNull VirtualFile directory, @NotNull List<String> directories) {
+    String path = directory.getPath();
+    for (String partialsDirectory : directories) {
+      if (path.equals(partialsDirectory) || path.endsWith("/" + partialsDirectory)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Offsets of the inline partials declared in the template, the file is scanned once per modification.
+   */
+  @NotNull
+  private static Map<String, List<Integer>> getInlineDeclarations(@NotNull PsiFile hbFile) {
+    return CachedValuesManager.getCachedValue(hbFile, () -> CachedValueProvider.Result.create(
+      HbPartialScanner.scan(hbFile.getViewProvider().getContents()).getDeclarations(), hbFile));
+  }
+
+  @Nullable
+  private static HbStringLiteral findInlineDeclaration(@NotNull PsiFile file, int offset) {
+    PsiElement element = file.findElementAt(offset);
+    return element == null ? null : PsiTreeUtil.getParentOfType(element, HbStringLiteral.class, false);
+  }
+}
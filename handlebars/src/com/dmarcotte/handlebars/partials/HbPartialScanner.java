@@ -0,0 +1,155 @@
+package com.dmarcotte.handlebars.partials;
+
+import com.dmarcotte.handlebars.parsing.HbLexer;
+import com.dmarcotte.handlebars.parsing.HbTokenTypes;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.indexing.FileContent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects partial declarations and usages of a template from the lexer stream, so the partial indexes don't have to build the PSI.
+ * <p/>
+ * Usages are the static names of {@code {{> name}}} and {@code {{#> name}}}, dynamic partials and {@code @partial-block} are skipped.
+ * Declarations are the inline partials, {@code {{#*inline "name"}}}.
+ */
+final class HbPartialScanner {
+  private static final Key<HbPartialScanner> SCANNER_KEY = Key.create("hb.partial.scanner");
+
+  private final Map<String, List<Integer>> myDeclarations = new HashMap<>();
+  private final Map<String, List<Integer>> myUsages = new HashMap<>();
+
+  private HbPartialScanner() {
+  }
+
+  /**
+   * Both partial indexes are built from the same file content, the scanned file is cached in the content to lex it once.
+   */
+  @NotNull
+  static HbPartialScanner scan(@NotNull FileContent content) {
+    HbPartialScanner scanner = content.getUserData(SCANNER_KEY);
+    if (scanner == null) {
+      scanner = scan(content.getContentAsText());
+      content.putUserData(SCANNER_KEY, scanner);
+    }
+    return scanner;
+  }
+
+  @NotNull
+  static HbPartialScanner scan(@NotNull CharSequence text) {
+    HbPartialScanner scanner = new HbPartialScanner();
+    Lexer lexer = new HbLexer();
+    lexer.start(text);
+
+    while (lexer.getTokenType() != null) {
+      IElementType type = lexer.getTokenType();
+      if (type == HbTokenTypes.OPEN_PARTIAL || type == HbTokenTypes.OPEN_PARTIAL_BLOCK) {
+        lexer.advance();
+        skipWhiteSpace(lexer);
+        scanner.addUsage(lexer, text);
+      }
+      else if (type == HbTokenTypes.OPEN_BLOCK && StringUtil.endsWithChar(lexer.getTokenSequence(), '*')) {
+        lexer.advance();
+        if (lexer.getTokenType() == HbTokenTypes.ID && StringUtil.equals(lexer.getTokenSequence(), "inline")) {
+          lexer.advance();
+          skipWhiteSpace(lexer);
+          if (lexer.getTokenType() == HbTokenTypes.STRING) {
+            add(scanner.myDeclarations, unquote(lexer.getTokenText()), lexer.getTokenStart());
+            lexer.advance();
+          }
+        }
+      }
+      else {
+        lexer.advance();
+      }
+    }
+    return scanner;
+  }
+
+  /**
+   * Inline partials declared in the file, mapped to the offsets of their name literals.
+   */
+  @NotNull
+  Map<String, List<Integer>> getDeclarations() {
+    return myDeclarations;
+  }
+
+  /**
+   * Offsets of the partial names used in the file, grouped by the last segment of the name (see {@link #getUsageKey(String)}).
+   */
+  @NotNull
+  Map<String, List<Integer>> getUsages() {
+    return myUsages;
+  }
+
+  /**
+   * Usages are indexed by the last segment of the partial name, which is the part that any declaration of the partial
+   * can tell without knowing the naming rules of the project: {@code {{> layouts/main}}} may refer to {@code layouts/_main.hbs}
+   * by the file name convention or to {@code partials/layouts/main.hbs} by the partials directory.
+   */
+  @NotNull
+  static String getUsageKey(@NotNull String partialName) {
+    return partialName.substring(partialName.lastIndexOf('/') + 1);
+  }
+
+  /**
+   * Strips the quotes of a {@code {{> "name"}}} partial, other names are returned as is.
+   */
+  @NotNull
+  static String unquote(@NotNull String name) {
+    if (name.length() >= 2 && (name.charAt(0) == '"' || name.charAt(0) == '\'') && name.charAt(name.length() - 1) == name.charAt(0)) {
+      return name.substring(1, name.length() - 1);
+    }
+    return name;
+  }
+
+  private void addUsage(@NotNull Lexer lexer, @NotNull CharSequence text) {
+    int offset = lexer.getTokenStart();
+    String name = readPartialName(lexer, text);
+    if (name != null && !name.isEmpty()) {
+      add(myUsages, getUsageKey(name), offset);
+    }
+  }
+
+  /**
+   * Reads the static name starting at the current token and moves the lexer past it.
+   */
+  @Nullable
+  private static String readPartialName(@NotNull Lexer lexer, @NotNull CharSequence text) {
+    if (lexer.getTokenType() == HbTokenTypes.STRING) {
+      String name = unquote(lexer.getTokenText());
+      lexer.advance();
+      return name;
+    }
+    if (lexer.getTokenType() != HbTokenTypes.ID) {
+      return null;
+    }
+
+    int start = lexer.getTokenStart();
+    int end = lexer.getTokenEnd();
+    lexer.advance();
+    while (lexer.getTokenType() == HbTokenTypes.SEP || lexer.getTokenType() == HbTokenTypes.ID) {
+      end = lexer.getTokenEnd();
+      lexer.advance();
+    }
+    return text.subSequence(start, end).toString();
+  }
+
+  private static void skipWhiteSpace(@NotNull Lexer lexer) {
+    while (lexer.getTokenType() == HbTokenTypes.WHITE_SPACE) {
+      lexer.advance();
+    }
+  }
+
+  private static void add(@NotNull Map<String, List<Integer>> map, @NotNull String name, int offset) {
+    map.computeIfAbsent(name, k -> new ArrayList<>()).add(offset);
+  }
+}
@@ -0,0 +1,28 @@
+package com.dmarcotte.handlebars.partials;
+
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Maps the last segment of partial names (see {@link HbPartialScanner#getUsageKey(String)}) to the offsets of the partial names
+ * using them, it narrows the search for partial usages to the templates which can refer to the partial.
+ */
+public final class HbPartialUsageIndex extends HbPartialIndexBase {
+  public static final ID<String, List<Integer>> NAME = ID.create("HbPartialUsageIndex");
+
+  @NotNull
+  @Override
+  public ID<String, List<Integer>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<Integer>, FileContent> getIndexer() {
+    return inputData -> HbPartialScanner.scan(inputData).getUsages();
+  }
+}
@@ -1,7 +1,10 @@
 package com.dmarcotte.handlebars.psi.impl;
 
+import com.dmarcotte.handlebars.partials.HbPartialReference;
 import com.dmarcotte.handlebars.psi.HbPartialName;
 import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiReference;
+import com.intellij.util.ArrayUtil;
 import org.jetbrains.annotations.NotNull;
 
 public class HbPartialNameImpl extends HbPsiElementImpl implements HbPartialName {
@@ -13,4 +16,16 @@ public class HbPartialNameImpl extends HbPsiElementImpl implements HbPartialName
   public String getName() {
     return getText();
   }
+
+  @Override
+  public PsiReference getReference() {
+    return HbPartialReference.create(this);
+  }
+
+  @Override
+  public PsiReference @NotNull [] getReferences() {
+    PsiReference reference = getReference();
+    PsiReference[] references = super.getReferences();
+    return reference == null ? references : ArrayUtil.prepend(reference, references);
+  }
 }
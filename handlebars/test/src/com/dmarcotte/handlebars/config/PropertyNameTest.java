@@ -30,7 +30,9 @@ public class PropertyNameTest {
     new PropertyTestDefinition(Property.FORMATTER, "HbFormatter"),
     new PropertyTestDefinition(Property.AUTO_COLLAPSE_BLOCKS, "HbAutoCollapseBlocks"),
     new PropertyTestDefinition(Property.COMMENTER_LANGUAGE_ID, "HbCommenterLanguageId"),
-    new PropertyTestDefinition(Property.SHOULD_OPEN_HTML, "HbShouldOpenHtmlAsHb"));
+    new PropertyTestDefinition(Property.SHOULD_OPEN_HTML, "HbShouldOpenHtmlAsHb"),
+    new PropertyTestDefinition(Property.PARTIALS_DIRECTORIES, "HbPartialsDirectories"),
+    new PropertyTestDefinition(Property.PARTIAL_FILE_NAMES, "HbPartialFileNames"));
 
   @Parameterized.Parameters
   public static List<Object[]> parameters() {
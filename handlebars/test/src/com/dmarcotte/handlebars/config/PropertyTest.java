@@ -21,7 +21,7 @@ public class PropertyTest {
   @Test
   public void testPropertiesChange() {
     // expectedNumberOfPropertyFields represents the number of enum entries plus that static members, plus one for the $VALUES that every enum gets
-    int expectedNumberOfPropertyFields = 6;
+    int expectedNumberOfPropertyFields = 8;
 
 
     int length = Property.values().length;
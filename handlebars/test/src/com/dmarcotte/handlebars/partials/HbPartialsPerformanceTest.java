@@ -0,0 +1,90 @@
+package com.dmarcotte.handlebars.partials;
+
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.indexing.FileBasedIndex;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class HbPartialsPerformanceTest extends BasePlatformTestCase {
+  private static final int TEMPLATES = 10_000;
+  private static final int PARTIALS = 100;
+
+  private final List<PsiFile> myPartialFiles = new ArrayList<>();
+  private final List<PsiFile> myTemplates = new ArrayList<>();
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    for (int i = 0; i < PARTIALS; i++) {
+      myPartialFiles.add(myFixture.addFileToProject("views/partials/_partial" + i + ".hbs", "<div>{{title}}</div>"));
+    }
+    for (int i = 0; i < TEMPLATES; i++) {
+      myTemplates.add(myFixture.addFileToProject("views/pages/page" + i + ".hbs",
+                                                 "<h1>{{title}}</h1>\n" +
+                                                 "{{> partial" + (i % PARTIALS) + "}}\n" +
+                                                 "{{#each items}}{{> partial" + ((i + 1) % PARTIALS) + " item=this}}{{/each}}\n" +
+                                                 "<footer>{{> partial" + ((i + 7) % PARTIALS) + "}}</footer>\n"));
+    }
+    // build the indexes before measuring
+    FileBasedIndex.getInstance().ensureUpToDate(HbPartialUsageIndex.NAME, getProject(), GlobalSearchScope.allScope(getProject()));
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      myPartialFiles.clear();
+      myTemplates.clear();
+    }
+    catch (Throwable e) {
+      addSuppressedException(e);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testFindUsages() {
+    PsiFile partial = myPartialFiles.get(42);
+    PlatformTestUtil.startPerformanceTest(getTestName(false), 1_000, () -> {
+      assertEquals(TEMPLATES / PARTIALS * 3, ReferencesSearch.search(partial).findAll().size());
+    }).attempts(3).assertTiming();
+  }
+
+  /**
+   * Compares find usages by the index with the full-text search over all templates it replaces.
+   */
+  public void testFindUsagesComparedToTextSearch() throws IOException {
+    PsiFile partial = myPartialFiles.get(42);
+    Pattern usage = Pattern.compile("\\{\\{#?>\\s*partial42[\\s}]");
+
+    long start = System.nanoTime();
+    int textMatches = 0;
+    for (PsiFile template : myTemplates) {
+      Matcher matcher = usage.matcher(VfsUtilCore.loadText(template.getVirtualFile()));
+      while (matcher.find()) {
+        textMatches++;
+      }
+    }
+    long textTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    int references = ReferencesSearch.search(partial).findAll().size();
+    long indexTime = System.nanoTime() - start;
+
+    assertEquals(TEMPLATES / PARTIALS * 3, textMatches);
+    assertEquals(textMatches, references);
+    System.out.printf("Find usages of a partial in %d templates: index %d ms, text search %d ms%n", TEMPLATES,
+                      TimeUnit.NANOSECONDS.toMillis(indexTime), TimeUnit.NANOSECONDS.toMillis(textTime));
+    assertTrue("index " + indexTime + " ns, text search " + textTime + " ns", indexTime < textTime);
+  }
+}
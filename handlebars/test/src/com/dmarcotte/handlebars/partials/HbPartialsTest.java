@@ -0,0 +1,166 @@
+package com.dmarcotte.handlebars.partials;
+
+import com.dmarcotte.handlebars.config.HbConfig;
+import com.dmarcotte.handlebars.inspections.HbUnresolvedPartialInspection;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.ID;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+public class HbPartialsTest extends BasePlatformTestCase {
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      HbConfig.setPartialsDirectories("partials", getProject());
+      HbConfig.setPartialFileNamesEnabled(true, getProject());
+    }
+    catch (Throwable e) {
+      addSuppressedException(e);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testScanner() {
+    HbPartialScanner scanner = HbPartialScanner.scan("{{> header}}\n" +
+                                                     "{{> nav/top title=\"x\"}}\n" +
+                                                     "{{#> layouts/main}}{{> @partial-block}}{{/layouts/main}}\n" +
+                                                     "{{> \"quoted name\"}}\n" +
+                                                     "{{> (lookup . 'name')}}\n" +
+                                                     "{{!-- {{> commented}} --}}\n" +
+                                                     "{{#*inline \"sidebar\"}}{{/inline}}");
+
+    assertEquals(new HashSet<>(Arrays.asList("header", "top", "main", "quoted name")), scanner.getUsages().keySet());
+    assertEquals(Collections.singletonList(4), scanner.getUsages().get("header"));
+    assertEquals(Collections.singleton("sidebar"), scanner.getDeclarations().keySet());
+  }
+
+  public void testDeclarationIndex() {
+    VirtualFile partial = myFixture.addFileToProject("views/nav/_top.hbs", "<nav></nav>").getVirtualFile();
+    VirtualFile page = myFixture.addFileToProject("views/page.hbs", "{{#*inline \"sidebar\"}}{{/inline}}").getVirtualFile();
+
+    List<Integer> fileDeclaration = Collections.singletonList(HbPartialDeclarationIndex.FILE_OFFSET);
+    assertEquals(fileDeclaration, getIndexValue(HbPartialDeclarationIndex.NAME, "top", partial));
+    assertEquals(fileDeclaration, getIndexValue(HbPartialDeclarationIndex.NAME, "_top", partial));
+    assertEquals(Collections.singletonList(11), getIndexValue(HbPartialDeclarationIndex.NAME, "sidebar", page));
+  }
+
+  public void testUsageIndex() {
+    VirtualFile page = myFixture.addFileToProject("views/page.hbs", "{{> nav/top}}{{> top}}{{> (dynamic)}}").getVirtualFile();
+
+    assertEquals(Arrays.asList(4, 17), getIndexValue(HbPartialUsageIndex.NAME, "top", page));
+    assertNull(getIndexValue(HbPartialUsageIndex.NAME, "dynamic", page));
+  }
+
+  public void testResolveByFileName() {
+    PsiFile partial = myFixture.addFileToProject("views/nav/_top.hbs", "<nav></nav>");
+    myFixture.configureByText("page.hbs", "{{> nav/t<caret>op}}");
+
+    assertSameElements(resolveAtCaret(), partial);
+  }
+
+  public void testResolveQuotedName() {
+    PsiFile partial = myFixture.addFileToProject("views/top.hbs", "<nav></nav>");
+    myFixture.configureByText("page.hbs", "{{> \"t<caret>op\"}}");
+
+    assertSameElements(resolveAtCaret(), partial);
+  }
+
+  public void testResolveInPartialsDirectory() {
+    HbConfig.setPartialFileNamesEnabled(false, getProject());
+    HbConfig.setPartialsDirectories("templates/partials", getProject());
+    PsiFile partial = myFixture.addFileToProject("templates/partials/layouts/main.hbs", "{{{body}}}");
+    myFixture.addFileToProject("other/layouts/main.hbs", "{{{body}}}");
+    myFixture.configureByText("page.hbs", "{{#> layouts/ma<caret>in}}{{/layouts/main}}");
+
+    assertSameElements(resolveAtCaret(), partial);
+  }
+
+  public void testFileNamesDisabled() {
+    HbConfig.setPartialFileNamesEnabled(false, getProject());
+    myFixture.addFileToProject("views/nav/_top.hbs", "<nav></nav>");
+    myFixture.configureByText("page.hbs", "{{> nav/t<caret>op}}");
+
+    assertEmpty(resolveAtCaret());
+  }
+
+  public void testResolveInlinePartial() {
+    myFixture.addFileToProject("views/sidebar.hbs", "<aside></aside>");
+    myFixture.configureByText("page.hbs", "{{#*inline \"sidebar\"}}<aside></aside>{{/inline}}{{> side<caret>bar}}");
+
+    List<PsiElement> elements = resolveAtCaret();
+    assertEquals(1, elements.size());
+    assertEquals("\"sidebar\"", elements.get(0).getText());
+  }
+
+  public void testResolveInlinePartialAfterChange() {
+    myFixture.configureByText("page.hbs", "{{#*inline \"sidebar\"}}<aside></aside>{{/inline}}{{> side<caret>bar}}");
+    assertEquals(1, resolveAtCaret().size());
+
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> myFixture.getEditor().getDocument().insertString(0, "<main></main>"));
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+
+    List<PsiElement> elements = resolveAtCaret();
+    assertEquals(1, elements.size());
+    assertEquals("\"sidebar\"", elements.get(0).getText());
+  }
+
+  public void testFindUsages() {
+    PsiFile partial = myFixture.addFileToProject("views/nav/_top.hbs", "<nav></nav>");
+    myFixture.addFileToProject("views/a.hbs", "{{> nav/top}}{{> top}}{{> other/top}}");
+    myFixture.addFileToProject("views/b.hbs", "{{#> top}}{{/top}}{{> \"top\"}}");
+    myFixture.addFileToProject("views/c.hbs", "{{> bottom}} top");
+
+    Collection<PsiReference> references = ReferencesSearch.search(partial).findAll();
+    assertEquals(4, references.size());
+    for (PsiReference reference : references) {
+      assertEquals(partial, reference.resolve());
+    }
+  }
+
+  public void testRenameTemplate() {
+    PsiFile partial = myFixture.addFileToProject("views/nav/_top.hbs", "<nav></nav>");
+    PsiFile page = myFixture.addFileToProject("views/page.hbs", "{{> nav/top}}{{> \"top\"}}");
+
+    myFixture.renameElement(partial, "_header.hbs");
+    assertEquals("{{> nav/header}}{{> \"header\"}}", page.getText());
+  }
+
+  public void testUnresolvedPartialInspection() {
+    myFixture.enableInspections(new HbUnresolvedPartialInspection());
+    myFixture.addFileToProject("views/_header.hbs", "<header></header>");
+    myFixture.configureByText("page.hbs", "{{> header}}" +
+                                          "{{> <weak_warning descr=\"Cannot resolve partial 'footer'\">footer</weak_warning>}}" +
+                                          "{{> \"<weak_warning descr=\"Cannot resolve partial 'nav'\">nav</weak_warning>\"}}" +
+                                          "{{> (dynamic)}}{{#*inline \"local\"}}{{/inline}}{{> local}}");
+    myFixture.checkHighlighting(true, false, true);
+  }
+
+  @NotNull
+  private List<PsiElement> resolveAtCaret() {
+    PsiReference reference = myFixture.getFile().findReferenceAt(myFixture.getCaretOffset());
+    assertInstanceOf(reference, HbPartialReference.class);
+    List<PsiElement> result = new ArrayList<>();
+    for (ResolveResult resolveResult : ((HbPartialReference)reference).multiResolve(false)) {
+      result.add(resolveResult.getElement());
+    }
+    return result;
+  }
+
+  private List<Integer> getIndexValue(@NotNull ID<String, List<Integer>> index,
+                                      @NotNull String key,
+                                      @NotNull VirtualFile file) {
+    return FileBasedIndex.getInstance().getFileData(index, file, getProject()).get(key);
+  }
+}
@@ -3,6 +3,7 @@ package com.intellij.javascript.karma.server;
 
 import com.intellij.execution.process.*;
 import com.intellij.javascript.karma.util.ArchivedOutputListener;
+import com.intellij.javascript.karma.util.OutputRingBuffer;
 import com.intellij.javascript.karma.util.StreamEventListener;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.util.Key;
@@ -10,25 +11,22 @@ import com.intellij.openapi.util.Pair;
 import com.intellij.util.Consumer;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 public class KarmaProcessOutputManager {
 
   private static final int MAX_ARCHIVED_TEXTS_LENGTH = 1024 * 1024;
+  private static final int MAX_ARCHIVED_TEXTS_COUNT = 64 * 1024;
 
   private static final char NEW_LINE = '\n';
   private static final String PREFIX = "##intellij-event[";
   private static final String SUFFIX = "]\n";
 
   private final ProcessHandler myProcessHandler;
-  private final Deque<Pair<String, Key>> myArchivedTexts = new ArrayDeque<>();
-  private int myArchivedTextsLength = 0;
-  private boolean myArchiveTextsTruncated = false;
-  private final List<ArchivedOutputListener> myOutputListeners = new CopyOnWriteArrayList<>();
+  private final OutputRingBuffer myArchivedTexts = new OutputRingBuffer(MAX_ARCHIVED_TEXTS_LENGTH, MAX_ARCHIVED_TEXTS_COUNT);
+  private final List<ReplayingOutputListener> myOutputListeners = new CopyOnWriteArrayList<>();
   private final List<StreamEventListener> myStdOutStreamEventListeners = new CopyOnWriteArrayList<>();
   private final List<Pair<String, Key>> myStdOutCurrentLineChunks = new ArrayList<>();
   private final Consumer<? super String> myStdOutLineConsumer;
@@ -104,13 +102,7 @@ public class KarmaProcessOutputManager {
 
   private void addText(@NotNull String text, @NotNull Key outputType) {
     synchronized (myArchivedTexts) {
-      myArchivedTexts.addLast(Pair.create(text, outputType));
-      myArchivedTextsLength += text.length();
-      while (myArchivedTextsLength > MAX_ARCHIVED_TEXTS_LENGTH) {
-        Pair<String, Key> pair = myArchivedTexts.removeFirst();
-        myArchivedTextsLength -= pair.getFirst().length();
-        myArchiveTextsTruncated = true;
-      }
+      myArchivedTexts.add(text, outputType);
       for (ArchivedOutputListener listener : myOutputListeners) {
         listener.onOutputAvailable(text, outputType, false);
       }
@@ -144,24 +136,56 @@ public class KarmaProcessOutputManager {
 
   public void addOutputListener(@NotNull final ArchivedOutputListener outputListener) {
     ApplicationManager.getApplication().executeOnPooledThread(() -> {
+      ReplayingOutputListener listener = new ReplayingOutputListener(outputListener);
+      OutputRingBuffer.Snapshot archive;
       synchronized (myArchivedTexts) {
-        if (myArchiveTextsTruncated) {
-          outputListener.onOutputAvailable("... too much output to process, truncated\n", ProcessOutputTypes.SYSTEM, true);
-        }
-        for (Pair<String, Key> text : myArchivedTexts) {
-          outputListener.onOutputAvailable(text.getFirst(), text.getSecond(), true);
-        }
-        myOutputListeners.add(outputListener);
+        archive = myArchivedTexts.snapshot();
+        myOutputListeners.add(listener);
+      }
+      // the archive is replayed without blocking the process output, new output is delivered after it
+      if (archive.isTruncated()) {
+        outputListener.onOutputAvailable("... too much output to process, truncated\n", ProcessOutputTypes.SYSTEM, true);
       }
+      archive.forEach((text, outputType) -> outputListener.onOutputAvailable(text, outputType, true));
+      listener.finishReplay();
     });
   }
 
   public void removeOutputListener(@NotNull ArchivedOutputListener outputListener) {
-    myOutputListeners.remove(outputListener);
+    myOutputListeners.removeIf(listener -> listener.myDelegate == outputListener);
   }
 
   void addStreamEventListener(@NotNull StreamEventListener listener) {
     myStdOutStreamEventListeners.add(listener);
   }
 
+  /**
+   * Holds back output which arrives while the archive is replayed to a new listener.
+   */
+  private static final class ReplayingOutputListener implements ArchivedOutputListener {
+    private final ArchivedOutputListener myDelegate;
+    private List<Pair<String, Key>> myPendingTexts = new ArrayList<>();
+
+    private ReplayingOutputListener(@NotNull ArchivedOutputListener delegate) {
+      myDelegate = delegate;
+    }
+
+    @Override
+    public synchronized void onOutputAvailable(@NotNull String text, Key outputType, boolean archived) {
+      if (myPendingTexts != null) {
+        myPendingTexts.add(Pair.create(text, outputType));
+      }
+      else {
+        myDelegate.onOutputAvailable(text, outputType, archived);
+      }
+    }
+
+    private synchronized void finishReplay() {
+      for (Pair<String, Key> text : myPendingTexts) {
+        myDelegate.onOutputAvailable(text.getFirst(), text.getSecond(), false);
+      }
+      myPendingTexts = null;
+    }
+  }
+
 }
@@ -0,0 +1,113 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.javascript.karma.util;
+
+import com.intellij.openapi.util.Key;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps the last output texts of a process in preallocated arrays: characters of all texts in one circular buffer
+ * and lengths and output types of the texts in another one. The oldest texts are dropped when either is full.
+ * <p>
+ * Not thread-safe.
+ */
+public final class OutputRingBuffer {
+  private final char[] myChars;
+  private final int[] myTextLengths;
+  private final Key[] myTextTypes;
+
+  private int myCharStart;
+  private int myCharCount;
+  private int myFirstText;
+  private int myTextCount;
+  private boolean myTruncated;
+
+  public OutputRingBuffer(int maxChars, int maxTexts) {
+    myChars = new char[maxChars];
+    myTextLengths = new int[maxTexts];
+    myTextTypes = new Key[maxTexts];
+  }
+
+  public void add(@NotNull String text, @NotNull Key outputType) {
+    if (text.length() > myChars.length) {
+      text = text.substring(text.length() - myChars.length);
+      myTruncated = true;
+    }
+    int length = text.length();
+    if (length == 0) return;
+
+    while (myCharCount + length > myChars.length || myTextCount == myTextLengths.length) {
+      removeFirst();
+      myTruncated = true;
+    }
+
+    int start = (myCharStart + myCharCount) % myChars.length;
+    int firstPart = Math.min(length, myChars.length - start);
+    text.getChars(0, firstPart, myChars, start);
+    text.getChars(firstPart, length, myChars, 0);
+    myCharCount += length;
+
+    int index = (myFirstText + myTextCount) % myTextLengths.length;
+    myTextLengths[index] = length;
+    myTextTypes[index] = outputType;
+    myTextCount++;
+  }
+
+  private void removeFirst() {
+    myCharStart = (myCharStart + myTextLengths[myFirstText]) % myChars.length;
+    myCharCount -= myTextLengths[myFirstText];
+    myTextTypes[myFirstText] = null;
+    myFirstText = (myFirstText + 1) % myTextLengths.length;
+    myTextCount--;
+  }
+
+  /**
+   * Copies the buffer content, so that it can be replayed without holding the lock which guards this buffer.
+   */
+  @NotNull
+  public Snapshot snapshot() {
+    char[] chars = new char[myCharCount];
+    int firstPart = Math.min(myCharCount, myChars.length - myCharStart);
+    System.arraycopy(myChars, myCharStart, chars, 0, firstPart);
+    System.arraycopy(myChars, 0, chars, firstPart, myCharCount - firstPart);
+
+    int[] lengths = new int[myTextCount];
+    Key[] types = new Key[myTextCount];
+    for (int i = 0; i < myTextCount; i++) {
+      int index = (myFirstText + i) % myTextLengths.length;
+      lengths[i] = myTextLengths[index];
+      types[i] = myTextTypes[index];
+    }
+    return new Snapshot(chars, lengths, types, myTruncated);
+  }
+
+  public static final class Snapshot {
+    private final char[] myChars;
+    private final int[] myLengths;
+    private final Key[] myTypes;
+    private final boolean myTruncated;
+
+    private Snapshot(char @NotNull [] chars, int @NotNull [] lengths, Key @NotNull [] types, boolean truncated) {
+      myChars = chars;
+      myLengths = lengths;
+      myTypes = types;
+      myTruncated = truncated;
+    }
+
+    /**
+     * @return true if some output was dropped because the buffer was full
+     */
+    public boolean isTruncated() {
+      return myTruncated;
+    }
+
+    public void forEach(@NotNull BiConsumer<? super String, ? super Key> consumer) {
+      int offset = 0;
+      for (int i = 0; i < myLengths.length; i++) {
+        consumer.accept(new String(myChars, offset, myLengths[i]), myTypes[i]);
+        offset += myLengths[i];
+      }
+    }
+  }
+}
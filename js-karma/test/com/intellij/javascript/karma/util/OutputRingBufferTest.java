@@ -0,0 +1,60 @@
+package com.intellij.javascript.karma.util;
+
+import com.intellij.execution.process.ProcessOutputTypes;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class OutputRingBufferTest {
+  @Test
+  public void testKeepsTextsAndTypes() {
+    OutputRingBuffer buffer = new OutputRingBuffer(100, 10);
+    buffer.add("first\n", ProcessOutputTypes.STDOUT);
+    buffer.add("second\n", ProcessOutputTypes.STDERR);
+    OutputRingBuffer.Snapshot snapshot = buffer.snapshot();
+    Assert.assertFalse(snapshot.isTruncated());
+    Assert.assertEquals(Arrays.asList("first\n:stdout", "second\n:stderr"), toList(snapshot));
+  }
+
+  @Test
+  public void testDropsOldestTextsWhenCharsDoNotFit() {
+    OutputRingBuffer buffer = new OutputRingBuffer(10, 10);
+    buffer.add("abcd", ProcessOutputTypes.STDOUT);
+    buffer.add("efgh", ProcessOutputTypes.STDOUT);
+    buffer.add("ijkl", ProcessOutputTypes.STDOUT);
+    OutputRingBuffer.Snapshot snapshot = buffer.snapshot();
+    Assert.assertTrue(snapshot.isTruncated());
+    // "ijkl" wraps around the end of the buffer
+    Assert.assertEquals(Arrays.asList("efgh:stdout", "ijkl:stdout"), toList(snapshot));
+  }
+
+  @Test
+  public void testDropsOldestTextsWhenTooManyTexts() {
+    OutputRingBuffer buffer = new OutputRingBuffer(100, 2);
+    buffer.add("a", ProcessOutputTypes.STDOUT);
+    buffer.add("b", ProcessOutputTypes.STDOUT);
+    buffer.add("c", ProcessOutputTypes.SYSTEM);
+    Assert.assertEquals(Arrays.asList("b:stdout", "c:system"), toList(buffer.snapshot()));
+  }
+
+  @Test
+  public void testKeepsTailOfTooLongText() {
+    OutputRingBuffer buffer = new OutputRingBuffer(4, 10);
+    buffer.add("a", ProcessOutputTypes.STDOUT);
+    buffer.add("123456", ProcessOutputTypes.STDOUT);
+    OutputRingBuffer.Snapshot snapshot = buffer.snapshot();
+    Assert.assertTrue(snapshot.isTruncated());
+    Assert.assertEquals(Arrays.asList("3456:stdout"), toList(snapshot));
+  }
+
+  @NotNull
+  private static List<String> toList(@NotNull OutputRingBuffer.Snapshot snapshot) {
+    List<String> result = new ArrayList<>();
+    snapshot.forEach((text, type) -> result.add(text + ":" + type));
+    return result;
+  }
+}
@@ -26,17 +26,20 @@ package org.jetbrains.osgi.jps.build;
 
 import aQute.bnd.osgi.Constants;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.util.Pair;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * This is a helper class which helps providing information about bundles (that do not necessarily belong to the project).
@@ -44,7 +47,10 @@ import java.util.jar.Manifest;
  * @author <a href="mailto:janthomae@janthomae.de">Jan Thomä</a>
  */
 public final class CachingBundleInfoProvider {
-  private static final Map<String, Pair<Long, Manifest>> ourCache = new WeakHashMap<>();
+  private static final int MAX_CACHE_SIZE = 4096;
+
+  // canonical path -> main manifest attributes, checked against the timestamp and the length of the jar or the manifest file
+  private static final Map<String, CacheEntry> ourCache = new ConcurrentHashMap<>();
 
   /**
    * True for .jar files or exploded directories with Bundle-SymbolicName in their manifests.
@@ -83,51 +89,69 @@ public final class CachingBundleInfoProvider {
   }
 
   @Nullable
-  public synchronized static String getBundleAttribute(@NotNull String path, @NotNull String attribute) {
-    Pair<Long, Manifest> pair = ourCache.remove(path);
+  public static String getBundleAttribute(@NotNull String path, @NotNull String attribute) {
+    Attributes attributes = getMainAttributes(path);
+    return attributes != null ? attributes.getValue(attribute) : null;
+  }
 
+  @Nullable
+  private static Attributes getMainAttributes(@NotNull String path) {
     try {
-      File bundleFile = new File(path);
-      if (bundleFile.isDirectory()) {
-        File manifestFile = new File(bundleFile, JarFile.MANIFEST_NAME);
-        if (pair == null || pair.first != manifestFile.lastModified()) {
-          pair = null;
-          FileInputStream stream = new FileInputStream(manifestFile);
-          try {
-            Manifest manifest = new Manifest(stream);
-            pair = Pair.create(manifestFile.lastModified(), manifest);
-          }
-          finally {
-            stream.close();
-          }
-        }
-      }
-      else if (bundleFile.isFile()) {
-        if (pair == null || pair.first != bundleFile.lastModified()) {
-          pair = null;
-          JarFile jar = new JarFile(bundleFile);
-          try {
-            Manifest manifest = jar.getManifest();
-            if (manifest != null) {
-              pair = Pair.create(bundleFile.lastModified(), manifest);
-            }
-          }
-          finally {
-            jar.close();
-          }
+      File bundleFile = new File(path).getCanonicalFile();
+      boolean isDirectory = bundleFile.isDirectory();
+      if (!isDirectory && !bundleFile.isFile()) return null;
+
+      File stampFile = isDirectory ? new File(bundleFile, JarFile.MANIFEST_NAME) : bundleFile;
+      long modified = stampFile.lastModified(), length = stampFile.length();
+      String key = bundleFile.getPath();
+      CacheEntry entry = ourCache.get(key);
+      if (entry == null || entry.modified != modified || entry.length != length) {
+        entry = new CacheEntry(modified, length, isDirectory ? readManifest(stampFile) : readJarManifest(bundleFile));
+        if (ourCache.size() >= MAX_CACHE_SIZE) {
+          // entries aren't ordered, dropping all of them is cheaper than tracking usage and this is rare
+          ourCache.clear();
         }
+        ourCache.put(key, entry);
       }
+      return entry.attributes;
     }
     catch (IOException e) {
       Logger.getInstance(CachingBundleInfoProvider.class).debug(e);
+      return null;
     }
+  }
 
-    if (pair != null) {
-      ourCache.put(path, pair);
-      return pair.second.getMainAttributes().getValue(attribute);
+  @Nullable
+  private static Attributes readManifest(@NotNull File manifestFile) throws IOException {
+    if (!manifestFile.isFile()) return null;
+    try (InputStream stream = new FileInputStream(manifestFile)) {
+      return new Manifest(stream).getMainAttributes();
     }
-    else {
-      return null;
+  }
+
+  /**
+   * Reads only the manifest entry found through the central directory, without {@link JarFile} verification and per-entry attributes.
+   */
+  @Nullable
+  private static Attributes readJarManifest(@NotNull File jarFile) throws IOException {
+    try (ZipFile zip = new ZipFile(jarFile)) {
+      ZipEntry entry = zip.getEntry(JarFile.MANIFEST_NAME);
+      if (entry == null) return null;
+      try (InputStream stream = zip.getInputStream(entry)) {
+        return new Manifest(stream).getMainAttributes();
+      }
+    }
+  }
+
+  private static final class CacheEntry {
+    private final long modified;
+    private final long length;
+    private final @Nullable Attributes attributes;
+
+    private CacheEntry(long modified, long length, @Nullable Attributes attributes) {
+      this.modified = modified;
+      this.length = length;
+      this.attributes = attributes;
     }
   }
 }
@@ -6,22 +6,26 @@ import aQute.bnd.osgi.Constants;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiNameHelper;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Represents a bundle manifest.
  * Note that it may be approximate (e.g. for module - see {@link BundleManifestCache#getManifest(Module)} for details).
+ * <p/>
+ * Package headers are indexed per manifest. Inspections know the bundle of a class from its location,
+ * so they only ask whether that bundle exports, imports or contains a package.
  */
 public class BundleManifest {
   private final Map<String, String> myMap;
   private final PsiFile mySource;
+  // header indices are built on first use, races only cause an index to be built twice
+  private volatile PackageIndex myExports;
+  private volatile PackageIndex myImports;
+  private volatile PackageIndex myPrivatePackages;
+  private volatile Set<String> myRequiredBundles;
 
   public BundleManifest(@NotNull Map<String, String> map) {
     this(map, null);
@@ -54,48 +58,79 @@ public class BundleManifest {
 
   @Nullable
   public String getExportedPackage(@NotNull String packageName) {
-    for (String exported : getValues(Constants.EXPORT_PACKAGE)) {
-      exported = StringUtil.trimEnd(exported, ".*");
-      if (PsiNameHelper.isSubpackageOf(packageName, exported)) {
-        return exported;
+    PackageIndex exports = myExports;
+    if (exports == null) {
+      Set<String> exported = new LinkedHashSet<>();
+      for (String value : getValues(Constants.EXPORT_PACKAGE)) {
+        exported.add(StringUtil.trimEnd(value, ".*"));
       }
+      myExports = exports = new PackageIndex(exported);
     }
-
-    return null;
+    return exports.find(packageName);
   }
 
   public boolean isPackageImported(@NotNull String packageName) {
-    for (String imported : getValues(Constants.IMPORT_PACKAGE)) {
-      if (PsiNameHelper.isSubpackageOf(packageName, imported)) {
-        return true;
-      }
+    PackageIndex imports = myImports;
+    if (imports == null) {
+      myImports = imports = new PackageIndex(getValues(Constants.IMPORT_PACKAGE));
     }
-
-    return false;
+    return imports.find(packageName) != null;
   }
 
   public boolean isBundleRequired(@NotNull String bsn) {
-    for (String bundleName : getValues(Constants.REQUIRE_BUNDLE)) {
-      if (bsn.equals(bundleName)) {
-        return true;
-      }
+    Set<String> requiredBundles = myRequiredBundles;
+    if (requiredBundles == null) {
+      myRequiredBundles = requiredBundles = getValues(Constants.REQUIRE_BUNDLE);
     }
-
-    return false;
+    return requiredBundles.contains(bsn);
   }
 
   public boolean isPrivatePackage(@NotNull String packageName) {
-    for (String privatePkg : getValues(Constants.PRIVATE_PACKAGE)) {
-      if (PsiNameHelper.isSubpackageOf(packageName, privatePkg)) {
-        return true;
-      }
+    PackageIndex privatePackages = myPrivatePackages;
+    if (privatePackages == null) {
+      myPrivatePackages = privatePackages = new PackageIndex(getValues(Constants.PRIVATE_PACKAGE));
     }
-
-    return false;
+    return privatePackages.find(packageName) != null;
   }
 
   private Set<String> getValues(String header) {
     String value = get(header);
     return StringUtil.isEmptyOrSpaces(value) ? Collections.emptySet() : new Parameters(value).keySet();
   }
+
+  /**
+   * Packages listed in a header, looked up by a package name and its parent packages instead of matching every header entry.
+   */
+  private static final class PackageIndex {
+    private final Map<String, Integer> myPositions;
+
+    private PackageIndex(@NotNull Collection<String> packages) {
+      myPositions = new HashMap<>(packages.size());
+      for (String packageName : packages) {
+        myPositions.putIfAbsent(packageName, myPositions.size());
+      }
+    }
+
+    /**
+     * @return the first header entry which is {@code packageName} or its parent package
+     */
+    @Nullable
+    private String find(@NotNull String packageName) {
+      if (myPositions.isEmpty()) return null;
+
+      String result = null;
+      int resultPosition = Integer.MAX_VALUE;
+      String candidate = packageName;
+      while (true) {
+        Integer position = myPositions.get(candidate);
+        if (position != null && position < resultPosition) {
+          result = candidate;
+          resultPosition = position;
+        }
+        int dot = candidate.lastIndexOf('.');
+        if (dot < 0) return result;
+        candidate = candidate.substring(0, dot);
+      }
+    }
+  }
 }
\ No newline at end of file
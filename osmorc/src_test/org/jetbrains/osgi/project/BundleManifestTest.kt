@@ -43,6 +43,13 @@ class BundleManifestTest {
     assertNull(manifest.getExportedPackage("foo.bar.no.way"))
   }
 
+  @Test fun exportedPackageNested() {
+    val manifest = BundleManifest(mapOf("Export-Package" to "foo.bar.baz.impl,foo.bar"))
+    assertEquals("foo.bar.baz.impl", manifest.getExportedPackage("foo.bar.baz.impl.internal"))
+    assertEquals("foo.bar", manifest.getExportedPackage("foo.bar.baz"))
+    assertNull(manifest.getExportedPackage("foo"))
+  }
+
   @Test fun missingHeaderHandling() {
     val manifest = BundleManifest(mapOf())
     assertNull(manifest.getExportedPackage("pkg"))
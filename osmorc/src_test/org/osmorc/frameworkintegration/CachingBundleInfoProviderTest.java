@@ -85,4 +85,14 @@ public class CachingBundleInfoProviderTest {
     assertFalse(CachingBundleInfoProvider.isFragmentBundle(myJarBundle));
     assertFalse(CachingBundleInfoProvider.isFragmentBundle(myInvalidDirBundle));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testManifestChangeDetected() throws Exception {
+    assertEquals("1.0.0", CachingBundleInfoProvider.getBundleVersion(myDirBundle));
+
+    File manifest = new File(myDirBundle, "META-INF/MANIFEST.MF");
+    FileUtil.writeToFile(manifest, "Manifest-Version: 1.0\nBundle-SymbolicName: dirbundle\nBundle-Version: 1.0.10\n");
+    assertEquals("1.0.10", CachingBundleInfoProvider.getBundleVersion(myDirBundle));
+    assertEquals("1.0.10", CachingBundleInfoProvider.getBundleVersion(myDirBundle + "/../dirbundle"));
+  }
+}
@@ -0,0 +1,85 @@
+package com.jetbrains.cidr.cpp.embedded.platformio.project;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * One entry of {@code platformio boards --json-output}, limited to the fields shown in the new project wizard.
+ */
+public final class BoardDescription {
+  private final String myId;
+  private final String myName;
+  private final String myVendor;
+  private final String myMcu;
+  private final List<String> myFrameworks;
+
+  public BoardDescription(@NotNull String id,
+                          @NotNull String name,
+                          @NotNull String vendor,
+                          @NotNull String mcu,
+                          @NotNull List<String> frameworks) {
+    myId = id;
+    myName = name;
+    myVendor = vendor;
+    myMcu = mcu;
+    myFrameworks = frameworks;
+  }
+
+  @NotNull
+  public String getId() {
+    return myId;
+  }
+
+  @NotNull
+  public String getName() {
+    return myName;
+  }
+
+  @NotNull
+  public String getVendor() {
+    return myVendor;
+  }
+
+  @NotNull
+  public String getMcu() {
+    return myMcu;
+  }
+
+  /**
+   * @return framework names sorted case-insensitively
+   */
+  @NotNull
+  public List<String> getFrameworks() {
+    return myFrameworks;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    BoardDescription that = (BoardDescription)o;
+
+    if (!myId.equals(that.myId)) return false;
+    if (!myName.equals(that.myName)) return false;
+    if (!myVendor.equals(that.myVendor)) return false;
+    if (!myMcu.equals(that.myMcu)) return false;
+    return myFrameworks.equals(that.myFrameworks);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = myId.hashCode();
+    result = 31 * result + myName.hashCode();
+    result = 31 * result + myVendor.hashCode();
+    result = 31 * result + myMcu.hashCode();
+    result = 31 * result + myFrameworks.hashCode();
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return myId;
+  }
+}
@@ -0,0 +1,208 @@
+package com.jetbrains.cidr.cpp.embedded.platformio.project;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.jetbrains.cidr.cpp.embedded.platformio.ClionEmbeddedPlatformioBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Boards known to PlatformIO, kept on disk between IDE sessions so that the new project wizard shows them without waiting
+ * for {@code platformio boards}. The wizard shows the stored boards and refreshes them in the background.
+ */
+@Service
+public final class BoardsCatalog {
+  private static final Logger LOG = Logger.getInstance(BoardsCatalog.class);
+
+  private static final int VERSION = 1;
+  private static final long TIMEOUT_MS = 60000;
+
+  private final Path myFile;
+  private final Object myLock = new Object();
+  private boolean myLoaded;
+  private List<BoardDescription> myBoards;
+
+  public BoardsCatalog() {
+    this(Paths.get(PathManager.getSystemPath(), "platformio", "boards.dat"));
+  }
+
+  @TestOnly
+  BoardsCatalog(@NotNull Path file) {
+    myFile = file;
+  }
+
+  @NotNull
+  public static BoardsCatalog getInstance() {
+    return ServiceManager.getService(BoardsCatalog.class);
+  }
+
+  /**
+   * @return boards from the last successful refresh, possibly made in a previous IDE session, or {@code null} if there was none
+   */
+  @Nullable
+  public List<BoardDescription> getBoards() {
+    synchronized (myLock) {
+      if (!myLoaded) {
+        myBoards = load();
+        myLoaded = true;
+      }
+      return myBoards;
+    }
+  }
+
+  /**
+   * Runs {@code platformio boards}, parsing its output while it is produced, and stores the result if it has changed.
+   */
+  @NotNull
+  public List<BoardDescription> refresh(@NotNull String pioUtility, @NotNull ProgressIndicator indicator) throws ExecutionException {
+    GeneralCommandLine commandLine = new GeneralCommandLine()
+      .withExePath(pioUtility)
+      .withParameters("boards", "--json-output")
+      .withWorkDirectory(FileUtil.getTempDirectory());
+
+    Process process;
+    try {
+      // only stdout is JSON, diagnostics must not get into it
+      process = commandLine.toProcessBuilder().redirectError(ProcessBuilder.Redirect.DISCARD).start();
+    }
+    catch (IOException e) {
+      throw new ExecutionException(e);
+    }
+
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    AtomicBoolean timeout = new AtomicBoolean();
+    ScheduledFuture<?> watchdog = AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay(() -> {
+      if (System.currentTimeMillis() > deadline) {
+        timeout.set(true);
+        process.destroy();
+      }
+      else if (indicator.isCanceled()) {
+        process.destroy();
+      }
+    }, 100, 100, TimeUnit.MILLISECONDS);
+
+    List<BoardDescription> boards;
+    try (Reader reader = new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)) {
+      boards = BoardsJsonParser.readBoards(reader);
+    }
+    catch (IOException | RuntimeException e) {
+      indicator.checkCanceled();
+      if (timeout.get()) throw new ExecutionException(ClionEmbeddedPlatformioBundle.message("utility.timeout"));
+      checkExitCode(process);
+      throw new ExecutionException(e.getMessage(), e);
+    }
+    finally {
+      watchdog.cancel(false);
+    }
+    checkExitCode(process);
+
+    synchronized (myLock) {
+      if (!boards.equals(getBoards())) {
+        save(boards);
+        myBoards = boards;
+      }
+    }
+    return boards;
+  }
+
+  private static void checkExitCode(@NotNull Process process) throws ExecutionException {
+    int exitCode;
+    try {
+      exitCode = process.waitFor();
+    }
+    catch (InterruptedException e) {
+      process.destroy();
+      throw new ProcessCanceledException(e);
+    }
+    if (exitCode != 0) {
+      throw new ExecutionException(ClionEmbeddedPlatformioBundle.message("platformio.exit.code", exitCode));
+    }
+  }
+
+  @Nullable
+  private List<BoardDescription> load() {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(myFile)))) {
+      if (in.readInt() != VERSION) return null;
+
+      int boardCount = in.readInt();
+      List<BoardDescription> boards = new ArrayList<>(boardCount);
+      for (int i = 0; i < boardCount; i++) {
+        String id = in.readUTF();
+        String name = in.readUTF();
+        String vendor = in.readUTF();
+        String mcu = in.readUTF();
+        int frameworkCount = in.readInt();
+        List<String> frameworks = new ArrayList<>(frameworkCount);
+        for (int j = 0; j < frameworkCount; j++) {
+          frameworks.add(in.readUTF());
+        }
+        boards.add(new BoardDescription(id, name, vendor, mcu, frameworks));
+      }
+      return boards;
+    }
+    catch (NoSuchFileException e) {
+      return null;
+    }
+    catch (IOException e) {
+      LOG.warn("Cannot read " + myFile, e);
+      return null;
+    }
+  }
+
+  private void save(@NotNull List<BoardDescription> boards) {
+    try {
+      Files.createDirectories(myFile.getParent());
+      Path tempFile = Files.createTempFile(myFile.getParent(), myFile.getFileName().toString(), ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        out.writeInt(VERSION);
+        out.writeInt(boards.size());
+        for (BoardDescription board : boards) {
+          out.writeUTF(board.getId());
+          out.writeUTF(board.getName());
+          out.writeUTF(board.getVendor());
+          out.writeUTF(board.getMcu());
+          out.writeInt(board.getFrameworks().size());
+          for (String framework : board.getFrameworks()) {
+            out.writeUTF(framework);
+          }
+        }
+      }
+      // readers of the previous version of the file in other IDE instances are not affected
+      Files.move(tempFile, myFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (IOException e) {
+      LOG.warn("Cannot write " + myFile, e);
+    }
+  }
+
+  @TestOnly
+  void store(@NotNull List<BoardDescription> boards) {
+    synchronized (myLock) {
+      save(boards);
+      myBoards = boards;
+      myLoaded = true;
+    }
+  }
+}
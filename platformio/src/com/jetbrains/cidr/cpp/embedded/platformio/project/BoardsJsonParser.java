@@ -1,8 +1,13 @@
 package com.jetbrains.cidr.cpp.embedded.platformio.project;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.intellij.util.text.CharSequenceReader;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.io.JsonReaderEx;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
 
 import static com.jetbrains.cidr.cpp.embedded.platformio.project.DeviceTreeNode.TYPE.*;
@@ -11,6 +16,8 @@ public final class BoardsJsonParser {
 
   public static final String ARDUINO_ID = "arduino";
 
+  private static final String GENERIC_VENDOR = "Generic";
+
   private BoardsJsonParser() {
   }
 
@@ -21,64 +28,120 @@ public final class BoardsJsonParser {
    */
   @NotNull
   public static DeviceTreeNode parse(@NotNull CharSequence text) {
-    SortedMap<String, DeviceTreeNode> boardsByVendor = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-    DeviceTreeNode rootNode = new DeviceTreeNode(null, ROOT, "", BoardInfo.EMPTY);
-    try (JsonReaderEx jsonReader = new JsonReaderEx(text)) {
-      for (jsonReader.beginArray(); jsonReader.hasNext(); ) {
-        jsonReader.beginObject();
-        String vendorName = "Generic";
-        String boardId = "";
-        String boardName = "";
-        SortedSet<String> frameworks = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
-        while (jsonReader.hasNext()) {
-          String name = jsonReader.nextName();
-          switch (name) {
-            case "id":
-              boardId = jsonReader.nextAsString();
-              break;
-            case "name":
-              boardName = jsonReader.nextAsString();
-              break;
-            case "vendor":
-              vendorName = Objects.toString(jsonReader.nextAsString(), vendorName);
+    try {
+      return buildTree(readBoards(new CharSequenceReader(text)));
+    }
+    catch (IOException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /**
+   * Reads boards list one board at a time, so that the output of {@code platformio boards --json-output} isn't kept in memory.
+   */
+  @NotNull
+  public static List<BoardDescription> readBoards(@NotNull Reader reader) throws IOException {
+    List<BoardDescription> boards = new ArrayList<>();
+    JsonReader jsonReader = new JsonReader(reader);
+    jsonReader.beginArray();
+    while (jsonReader.hasNext()) {
+      jsonReader.beginObject();
+      String vendorName = GENERIC_VENDOR;
+      String boardId = null;
+      String boardName = null;
+      String mcu = "";
+      SortedSet<String> frameworks = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+      while (jsonReader.hasNext()) {
+        String name = jsonReader.nextName();
+        switch (name) {
+          case "id":
+            boardId = nextString(jsonReader);
+            break;
+          case "name":
+            boardName = nextString(jsonReader);
+            break;
+          case "vendor":
+            vendorName = Objects.toString(nextString(jsonReader), vendorName);
+            break;
+          case "mcu":
+            mcu = Objects.toString(nextString(jsonReader), mcu);
+            break;
+          case "frameworks":
+            if (jsonReader.peek() == JsonToken.NULL) {
+              jsonReader.nextNull();
               break;
-            case "frameworks":
-              jsonReader.beginArray();
-              while (jsonReader.hasNext()) {
-                String frameworkName = jsonReader.nextAsString();
+            }
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+              String frameworkName = nextString(jsonReader);
+              if (frameworkName != null) {
                 frameworks.add(frameworkName);
               }
-              jsonReader.endArray();
-              break;
-            default:
-              jsonReader.skipValue();
-          }
+            }
+            jsonReader.endArray();
+            break;
+          default:
+            jsonReader.skipValue();
         }
-        jsonReader.endObject();
+      }
+      jsonReader.endObject();
 
-        if (boardId == null) {
-          continue;
-        }
-        DeviceTreeNode vendorNode =
-          boardsByVendor.computeIfAbsent(vendorName, name -> rootNode.add(new DeviceTreeNode(rootNode, VENDOR, name, BoardInfo.EMPTY)));
-        BoardInfo boardInfo = new BoardInfo(SourceTemplate.getByFrameworkName(frameworks), "--board", boardId);
+      if (boardId == null) {
+        continue;
+      }
+      boards.add(new BoardDescription(boardId, Objects.toString(boardName, boardId), vendorName, mcu, new ArrayList<>(frameworks)));
+    }
+    jsonReader.endArray();
+    return boards;
+  }
+
+  /**
+   * Builds vendor->board->framework(optional) structure. Every node gets its search text: the names on its path and the board MCU.
+   *
+   * @return virtual root of the tree
+   */
+  @NotNull
+  public static DeviceTreeNode buildTree(@NotNull Collection<BoardDescription> boards) {
+    SortedMap<String, DeviceTreeNode> boardsByVendor = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    DeviceTreeNode rootNode = new DeviceTreeNode(null, ROOT, "", BoardInfo.EMPTY);
+    for (BoardDescription boardDescription : boards) {
+      DeviceTreeNode vendorNode = boardsByVendor.computeIfAbsent(
+        boardDescription.getVendor(), name -> rootNode.add(new DeviceTreeNode(rootNode, VENDOR, name, BoardInfo.EMPTY)));
+      String boardId = boardDescription.getId();
+      List<String> frameworks = boardDescription.getFrameworks();
+      BoardInfo boardInfo = new BoardInfo(SourceTemplate.getByFrameworkName(frameworks), "--board", boardId);
 
-        DeviceTreeNode board = new DeviceTreeNode(vendorNode, BOARD, Objects.requireNonNull(boardName), boardInfo);
-        vendorNode.add(board);
-        if (frameworks.size() > 1) {
-          for (String frameworkName : frameworks) {
-            BoardInfo frameworkBoardInfo = new BoardInfo(
-              SourceTemplate.getByFrameworkName(frameworkName),
-              "--board", boardId, "-O", "framework=" + frameworkName);
-            DeviceTreeNode framework =
-              new DeviceTreeNode(board, FRAMEWORK, frameworkName, frameworkBoardInfo);
-            board.add(framework);
-          }
+      DeviceTreeNode board = new DeviceTreeNode(vendorNode, BOARD, boardDescription.getName(), boardInfo, boardDescription.getMcu());
+      vendorNode.add(board);
+      if (frameworks.size() > 1) {
+        for (String frameworkName : frameworks) {
+          BoardInfo frameworkBoardInfo = new BoardInfo(
+            SourceTemplate.getByFrameworkName(frameworkName),
+            "--board", boardId, "-O", "framework=" + frameworkName);
+          DeviceTreeNode framework =
+            new DeviceTreeNode(board, FRAMEWORK, frameworkName, frameworkBoardInfo);
+          board.add(framework);
         }
       }
-      jsonReader.endArray();
     }
     rootNode.setChildren(new ArrayList<>(boardsByVendor.values()));
     return rootNode;
   }
+
+  @Nullable
+  private static String nextString(@NotNull JsonReader jsonReader) throws IOException {
+    switch (jsonReader.peek()) {
+      case NULL:
+        jsonReader.nextNull();
+        return null;
+      case STRING:
+      case NUMBER:
+        return jsonReader.nextString();
+      case BOOLEAN:
+        return String.valueOf(jsonReader.nextBoolean());
+      default:
+        jsonReader.skipValue();
+        return null;
+    }
+  }
 }
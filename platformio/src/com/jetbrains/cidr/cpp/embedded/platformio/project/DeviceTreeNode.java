@@ -21,13 +21,27 @@ public class DeviceTreeNode implements TreeNode {
   private final String myName;
   private final TYPE myType;
   private final BoardInfo myBoardInfo;
+  private final String mySearchText;
   private List<DeviceTreeNode> myChildren = Collections.emptyList();
 
   public DeviceTreeNode(@Nullable DeviceTreeNode parent, @NotNull TYPE type, @NotNull String name, @NotNull BoardInfo boardInfo) {
+    this(parent, type, name, boardInfo, "");
+  }
+
+  /**
+   * @param keywords additional text to match in speed search, like board MCU; it is also matched for the children
+   */
+  public DeviceTreeNode(@Nullable DeviceTreeNode parent,
+                        @NotNull TYPE type,
+                        @NotNull String name,
+                        @NotNull BoardInfo boardInfo,
+                        @NotNull String keywords) {
     this.myParent = parent;
     this.myName = name;
     this.myType = type;
     this.myBoardInfo = boardInfo;
+    String searchText = parent == null ? name : parent.mySearchText + ' ' + name;
+    this.mySearchText = keywords.isEmpty() ? searchText : searchText + ' ' + keywords;
   }
 
   @Override
@@ -127,16 +141,17 @@ public class DeviceTreeNode implements TreeNode {
     }
   }
 
+  /**
+   * @return names of all nodes on the path followed by their keywords, precomputed when the tree is built
+   */
+  @NotNull
+  public String getSearchText() {
+    return mySearchText;
+  }
+
   @NotNull
   public static String searchText(@NotNull TreePath path) {
-    Object[] pathArray = path.getPath();
-    if (pathArray.length == 0) return "";
-    StringBuilder builder = new StringBuilder(((DeviceTreeNode)pathArray[0]).getName());
-    for (int i = 1; i < pathArray.length; i++) {
-      DeviceTreeNode node = (DeviceTreeNode)pathArray[i];
-      builder.append(' ').append(node.getName());
-    }
-    return builder.toString();
+    return ((DeviceTreeNode)path.getLastPathComponent()).getSearchText();
   }
 
   @Override
@@ -1,10 +1,6 @@
 package com.jetbrains.cidr.cpp.embedded.platformio.project;
 
 import com.intellij.execution.ExecutionException;
-import com.intellij.execution.configurations.GeneralCommandLine;
-import com.intellij.execution.process.CapturingProcessHandler;
-import com.intellij.execution.process.CapturingProcessRunner;
-import com.intellij.execution.process.ProcessOutput;
 import com.intellij.ide.util.projectWizard.AbstractNewProjectStep;
 import com.intellij.ide.util.projectWizard.ProjectSettingsStepBase;
 import com.intellij.notification.Notification;
@@ -15,7 +11,6 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.util.NlsSafe;
 import com.intellij.openapi.util.Ref;
-import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.platform.DirectoryProjectGenerator;
 import com.intellij.ui.ColoredTreeCellRenderer;
 import com.intellij.ui.SimpleTextAttributes;
@@ -24,14 +19,17 @@ import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.treeStructure.Tree;
 import com.intellij.util.ExceptionUtil;
+import com.intellij.util.ui.tree.TreeUtil;
 import com.intellij.util.ui.components.BorderLayoutPanel;
 import com.jetbrains.cidr.cpp.embedded.platformio.ClionEmbeddedPlatformioBundle;
 import com.jetbrains.cidr.cpp.embedded.platformio.PlatformioBaseConfiguration;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
+import java.util.List;
 
 public class PlatformioProjectSettingsStep extends ProjectSettingsStepBase<Ref<BoardInfo>> {
   private final Tree myTree;
@@ -95,6 +93,12 @@ public class PlatformioProjectSettingsStep extends ProjectSettingsStepBase<Ref<B
         @Override
         public void run(@NotNull ProgressIndicator indicator) {
           myTree.getEmptyText().setText(ClionEmbeddedPlatformioBundle.message("gathering.info"));
+          // boards stored by the previous query are shown at once, the query result replaces them if they differ
+          BoardsCatalog catalog = BoardsCatalog.getInstance();
+          List<BoardDescription> storedBoards = catalog.getBoards();
+          if (storedBoards != null) {
+            showBoards(storedBoards, true);
+          }
           String myPioUtility = PlatformioBaseConfiguration.findPlatformio();
           if (myPioUtility == null) {
             String platformioIsNotFound = ClionEmbeddedPlatformioBundle.message("platformio.utility.is.not.found");
@@ -105,36 +109,20 @@ public class PlatformioProjectSettingsStep extends ProjectSettingsStepBase<Ref<B
                           e -> PlatformioService.openSettings(getProject()))
               .appendLine(ClionEmbeddedPlatformioBundle.message("install.guide"), SimpleTextAttributes.LINK_ATTRIBUTES,
                           e -> PlatformioService.openInstallGuide());
-
+            ApplicationManager.getApplication().invokeLater(() -> myTree.setPaintBusy(false));
             return;
           }
-          GeneralCommandLine commandLine = new GeneralCommandLine()
-            .withExePath(myPioUtility)
-            .withParameters("boards", "--json-output")
-            .withWorkDirectory(FileUtil.getTempDirectory())
-            .withRedirectErrorStream(true);
-
           try {
-            ProcessOutput output = new CapturingProcessRunner(new CapturingProcessHandler(commandLine))
-              .runProcess(indicator, 60000);
-            if (output.isTimeout()) {
-              setErrorText(ClionEmbeddedPlatformioBundle.message("utility.timeout"));
-            }
-            else if (output.getExitCode() != 0) {
-              setErrorText(ClionEmbeddedPlatformioBundle.message("platformio.exit.code", output.getExitCode()));
-            }
-            else {
-              DeviceTreeNode parsedRoot = BoardsJsonParser.parse(output.getStdout());
-              ApplicationManager.getApplication().invokeLater(
-                () -> {
-                  myTree.setModel(new DefaultTreeModel(parsedRoot));
-                  myTree.setPaintBusy(false);
-                });
+            List<BoardDescription> boards = catalog.refresh(myPioUtility, indicator);
+            if (!boards.equals(storedBoards)) {
+              showBoards(boards, false);
+              return;
             }
           }
           catch (ExecutionException e) {
             setErrorText(e.getMessage());
           }
+          ApplicationManager.getApplication().invokeLater(() -> myTree.setPaintBusy(false));
         }
       }.queue();
     }
@@ -153,6 +141,32 @@ public class PlatformioProjectSettingsStep extends ProjectSettingsStepBase<Ref<B
     return panel;
   }
 
+  private void showBoards(@NotNull List<BoardDescription> boards, boolean refreshing) {
+    DeviceTreeNode root = BoardsJsonParser.buildTree(boards);
+    ApplicationManager.getApplication().invokeLater(
+      () -> {
+        BoardInfo selected = getPeer().getSettings().get();
+        myTree.setModel(new DefaultTreeModel(root));
+        myTree.setPaintBusy(refreshing);
+        TreePath selectedPath = selected == null || selected.getParameters().length == 0 ? null : findPath(root, selected);
+        if (selectedPath != null) {
+          TreeUtil.selectPath(myTree, selectedPath);
+        }
+      });
+  }
+
+  @Nullable
+  private static TreePath findPath(@NotNull DeviceTreeNode node, @NotNull BoardInfo boardInfo) {
+    if (node.getBoardInfo().equals(boardInfo)) {
+      return TreeUtil.getPathFromRoot(node);
+    }
+    for (int i = 0; i < node.getChildCount(); i++) {
+      TreePath path = findPath(node.getChildAt(i), boardInfo);
+      if (path != null) return path;
+    }
+    return null;
+  }
+
   private void userSelected(@NotNull BoardInfo boardInfo) {
     getPeer().getSettings().set(boardInfo);
     checkValid();
@@ -1,11 +1,15 @@
 package com.jetbrains.cidr.cpp.embedded.platformio.project;
 
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.testFramework.UsefulTestCase;
 import com.intellij.util.ResourceUtil;
 
 import javax.swing.tree.TreeNode;
+import java.io.StringReader;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.stream.Stream;
 
 import static com.jetbrains.cidr.cpp.embedded.platformio.project.DeviceTreeNode.TYPE.*;
@@ -51,6 +55,29 @@ public class PlatformioBoardsParserTest extends UsefulTestCase {
                                                                       "framework=arduino")));
   }
 
+  public void testSearchText() {
+    DeviceTreeNode root = BoardsJsonParser.parse(myJson);
+    DeviceTreeNode framework = childrenStream(root)
+      .filter(node -> node.hasSameValues("ST", VENDOR, BoardInfo.EMPTY))
+      .flatMap(node -> childrenStream(node))
+      .filter(node -> node.getName().equals("ST 32F3348DISCOVERY"))
+      .flatMap(node -> childrenStream(node))
+      .findFirst()
+      .orElseThrow(AssertionError::new);
+    assertEquals(" ST ST 32F3348DISCOVERY STM32F334C8T6 mbed", framework.getSearchText());
+  }
+
+  public void testCatalogRoundTrip() throws Exception {
+    List<BoardDescription> boards = BoardsJsonParser.readBoards(new StringReader(myJson));
+    Path file = FileUtil.createTempDirectory("platformio", null).toPath().resolve("boards.dat");
+    assertNull(new BoardsCatalog(file).getBoards());
+
+    new BoardsCatalog(file).store(boards);
+    List<BoardDescription> loaded = new BoardsCatalog(file).getBoards();
+    assertEquals(boards, loaded);
+    assertEquals(190, BoardsJsonParser.buildTree(loaded).getChildCount());
+  }
+
   @SuppressWarnings({"unchecked", "rawtypes"})
   private static Stream<DeviceTreeNode> childrenStream(TreeNode treeNode) {
     return Collections.list((Enumeration)treeNode.children()).stream();
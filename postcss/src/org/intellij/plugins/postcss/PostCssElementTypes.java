@@ -7,12 +7,15 @@ import com.intellij.psi.tree.IFileElementType;
 import org.intellij.plugins.postcss.psi.PostCssFileElementType;
 import org.intellij.plugins.postcss.psi.stubs.types.PostCssCustomMediaStubElementType;
 import org.intellij.plugins.postcss.psi.stubs.types.PostCssCustomSelectorStubElementType;
+import org.intellij.plugins.postcss.psi.stubs.types.PostCssSimpleVariableDeclarationStubElementType;
 
 public interface PostCssElementTypes {
 
   // Stubs
   PostCssCustomSelectorStubElementType POST_CSS_CUSTOM_SELECTOR = new PostCssCustomSelectorStubElementType();
   PostCssCustomMediaStubElementType POST_CSS_CUSTOM_MEDIA = new PostCssCustomMediaStubElementType();
+  PostCssSimpleVariableDeclarationStubElementType POST_CSS_SIMPLE_VARIABLE_DECLARATION =
+    new PostCssSimpleVariableDeclarationStubElementType();
 
   IFileElementType POST_CSS_FILE = new PostCssFileElementType();
   IElementType POST_CSS_NEST = new PostCssElementType("POST_CSS_NEST");
@@ -22,5 +25,4 @@ public interface PostCssElementTypes {
   CssStylesheetStubElementType POST_CSS_STYLESHEET = new CssStylesheetStubElementType("POST_CSS_STYLESHEET", PostCssLanguage.INSTANCE);
 
   IElementType POST_CSS_SIMPLE_VARIABLE = new PostCssElementType("POST_CSS_SIMPLE_VARIABLE");
-  IElementType POST_CSS_SIMPLE_VARIABLE_DECLARATION = new PostCssElementType("POST_CSS_SIMPLE_VARIABLE_DECLARATION");
 }
@@ -1,30 +1,39 @@
 package org.intellij.plugins.postcss.psi.impl;
 
+import com.intellij.lang.ASTNode;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiFileFactory;
 import com.intellij.psi.css.CssTermList;
-import com.intellij.psi.css.impl.util.CssUtil;
-import com.intellij.psi.impl.source.tree.CompositePsiElement;
+import com.intellij.psi.css.impl.stubs.base.CssNamedStub;
+import com.intellij.psi.css.impl.stubs.base.CssNamedStubElement;
+import com.intellij.psi.css.impl.stubs.base.CssNamedStubElementType;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.IncorrectOperationException;
-import org.intellij.plugins.postcss.PostCssElementTypes;
 import org.intellij.plugins.postcss.PostCssLanguage;
 import org.intellij.plugins.postcss.lexer.PostCssTokenTypes;
 import org.intellij.plugins.postcss.psi.PostCssSimpleVariableDeclaration;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public class PostCssSimpleVariableDeclarationImpl extends CompositePsiElement implements PostCssSimpleVariableDeclaration {
-  public PostCssSimpleVariableDeclarationImpl() {
-    super(PostCssElementTypes.POST_CSS_SIMPLE_VARIABLE_DECLARATION);
+public class PostCssSimpleVariableDeclarationImpl extends CssNamedStubElement<CssNamedStub<PostCssSimpleVariableDeclaration>>
+  implements PostCssSimpleVariableDeclaration {
+  public PostCssSimpleVariableDeclarationImpl(@NotNull CssNamedStub<PostCssSimpleVariableDeclaration> stub,
+                                              @NotNull CssNamedStubElementType nodeType) {
+    super(stub, nodeType);
+  }
+
+  public PostCssSimpleVariableDeclarationImpl(@NotNull ASTNode node) {
+    super(node);
   }
 
   @NotNull
   @Override
   public String getName() {
+    CssNamedStub<PostCssSimpleVariableDeclaration> stub = getStub();
+    if (stub != null) return stub.getName();
     return StringUtil.trimLeading(getNameIdentifier().getText(), '$');
   }
 
@@ -40,11 +49,6 @@ public class PostCssSimpleVariableDeclarationImpl extends CompositePsiElement im
     return PsiTreeUtil.getChildOfType(this, CssTermList.class);
   }
 
-  @Override
-  public int getLineNumber() {
-    return CssUtil.getLineNumber(this);
-  }
-
   @NotNull
   @Override
   public PsiElement setName(@NotNull String name) throws IncorrectOperationException {
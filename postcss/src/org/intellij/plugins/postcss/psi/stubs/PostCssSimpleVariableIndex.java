@@ -0,0 +1,76 @@
+package org.intellij.plugins.postcss.psi.stubs;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.css.impl.util.CssUtil;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.CommonProcessors;
+import org.intellij.plugins.postcss.psi.PostCssSimpleVariableDeclaration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+public class PostCssSimpleVariableIndex extends StringStubIndexExtension<PostCssSimpleVariableDeclaration> {
+  public static final StubIndexKey<String, PostCssSimpleVariableDeclaration> KEY =
+    StubIndexKey.createIndexKey("postcss.simple.variable");
+
+  @NotNull
+  @Override
+  public StubIndexKey<String, PostCssSimpleVariableDeclaration> getKey() {
+    return KEY;
+  }
+
+  /**
+   * Simple variables declared in the stylesheets imported by {@code file}, directly or transitively, by name.
+   * If a variable is declared in several files the one from the file imported first wins, within a file the last declaration wins.
+   * Declarations are taken from stubs, so imported files aren't parsed. The result is cached until the next PSI change.
+   */
+  @NotNull
+  public static Map<String, PostCssSimpleVariableDeclaration> getImportedVariables(@NotNull PsiFile file) {
+    PsiFile originalFile = file.getOriginalFile();
+    return CachedValuesManager.getCachedValue(originalFile, () -> CachedValueProvider.Result
+      .create(collectImportedVariables(originalFile), PsiModificationTracker.MODIFICATION_COUNT));
+  }
+
+  @NotNull
+  private static Map<String, PostCssSimpleVariableDeclaration> collectImportedVariables(@NotNull PsiFile file) {
+    Map<VirtualFile, Integer> importOrder = new HashMap<>();
+    for (VirtualFile importedFile : CssUtil.getImportedFiles(file, file, true)) {
+      if (!importedFile.equals(file.getVirtualFile())) {
+        importOrder.putIfAbsent(importedFile, importOrder.size());
+      }
+    }
+    if (importOrder.isEmpty()) return Collections.emptyMap();
+
+    Project project = file.getProject();
+    GlobalSearchScope scope = GlobalSearchScope.filesScope(project, importOrder.keySet());
+    Set<String> names = new HashSet<>();
+    StubIndex.getInstance().processAllKeys(KEY, new CommonProcessors.CollectProcessor<>(names), scope, null);
+
+    Map<String, PostCssSimpleVariableDeclaration> result = new HashMap<>(names.size());
+    for (String name : names) {
+      PostCssSimpleVariableDeclaration winner = null;
+      int winnerOrder = Integer.MAX_VALUE;
+      for (PostCssSimpleVariableDeclaration declaration : StubIndex.getElements(KEY, name, project, scope,
+                                                                                PostCssSimpleVariableDeclaration.class)) {
+        Integer order = importOrder.get(declaration.getContainingFile().getVirtualFile());
+        // elements of one file come in stub order, so a later declaration of the same file replaces an earlier one
+        if (order != null && order <= winnerOrder) {
+          winner = declaration;
+          winnerOrder = order;
+        }
+      }
+      if (winner != null) {
+        result.put(name, winner);
+      }
+    }
+    return result;
+  }
+}
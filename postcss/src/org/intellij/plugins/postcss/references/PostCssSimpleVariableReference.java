@@ -5,13 +5,11 @@ import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.TextRange;
-import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiFileFactory;
 import com.intellij.psi.PsiReferenceBase;
 import com.intellij.psi.css.*;
-import com.intellij.psi.css.impl.util.CssUtil;
 import com.intellij.psi.css.reference.CssReference;
 import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.util.PsiTreeUtil;
@@ -21,9 +19,12 @@ import com.intellij.util.SmartList;
 import org.intellij.plugins.postcss.PostCssLanguage;
 import org.intellij.plugins.postcss.lexer.PostCssTokenTypes;
 import org.intellij.plugins.postcss.psi.PostCssSimpleVariableDeclaration;
+import org.intellij.plugins.postcss.psi.stubs.PostCssSimpleVariableIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement> implements CssReference {
@@ -32,16 +33,21 @@ public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement>
       String varName = reference.getValue();
       if (varName.isEmpty()) return null;
 
+      PsiElement element = reference.getElement();
+      CssRulesetList rulesetList = PsiTreeUtil.getParentOfType(element, CssRulesetList.class);
+      if (rulesetList == null) return null;
+
       final Ref<PostCssSimpleVariableDeclaration> result = Ref.create();
-      processSimpleVariableDeclarations(reference.getElement(), element -> {
-        if (varName.equals(element.getName())) {
-          result.set(element);
+      processSimpleVarsInRulesetList(rulesetList, declaration -> {
+        if (varName.equals(declaration.getName())) {
+          result.set(declaration);
           return false;
         }
         return true;
       });
 
-      return result.get();
+      if (!result.isNull()) return result.get();
+      return PostCssSimpleVariableIndex.getImportedVariables(element.getContainingFile()).get(varName);
     };
 
   public PostCssSimpleVariableReference(@NotNull final PsiElement element) {
@@ -77,11 +83,20 @@ public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement>
   @Override
   public Object @NotNull [] getVariants() {
     final SmartList<LookupElement> result = new SmartList<>();
+    final Set<String> names = new HashSet<>();
     processSimpleVariableDeclarations(myElement, element -> {
+      if (!names.add(element.getName())) return true;
+
       LookupElementBuilder lookup = LookupElementBuilder.create(element).withIcon(AllIcons.Nodes.Variable);
-      CssTermList initializer = element.getInitializer();
-      if (initializer != null) {
-        lookup = lookup.withTailText(" " + initializer.getText(), true);
+      if (element.getContainingFile().getOriginalFile() == myElement.getContainingFile().getOriginalFile()) {
+        CssTermList initializer = element.getInitializer();
+        if (initializer != null) {
+          lookup = lookup.withTailText(" " + initializer.getText(), true);
+        }
+      }
+      else {
+        // an imported declaration is backed by a stub, don't load its file for the initializer text
+        lookup = lookup.withTypeText(element.getContainingFile().getName(), true);
       }
       result.add(lookup);
       return true;
@@ -111,6 +126,10 @@ public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement>
     return myElement;
   }
 
+  /**
+   * Declarations of the current file are taken from its PSI, declarations of the imported files come from the stub index,
+   * see {@link PostCssSimpleVariableIndex#getImportedVariables(PsiFile)}.
+   */
   private static void processSimpleVariableDeclarations(@NotNull PsiElement context,
                                                         @NotNull Processor<PostCssSimpleVariableDeclaration> processor) {
     CssRulesetList rulesetList = PsiTreeUtil.getParentOfType(context, CssRulesetList.class);
@@ -118,17 +137,10 @@ public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement>
 
     if (!processSimpleVarsInRulesetList(rulesetList, processor)) return;
 
-    PsiFile contextFile = context.getContainingFile();
-    Set<VirtualFile> otherFiles = CssUtil.getImportedFiles(context.getContainingFile(), context, true);
-    for (VirtualFile otherFile : otherFiles) {
-      PsiFile otherPsiFile = contextFile.getManager().findFile(otherFile);
-      if (otherPsiFile instanceof StylesheetFile && !otherFile.equals(contextFile.getVirtualFile())) {
-        CssStylesheet otherStylesheet = ((StylesheetFile)otherPsiFile).getStylesheet();
-        CssRulesetList otherRulesetList = otherStylesheet == null ? null : otherStylesheet.getRulesetList();
-        if (otherRulesetList != null) {
-          if (!processSimpleVarsInRulesetList(otherRulesetList, processor)) return;
-        }
-      }
+    Map<String, PostCssSimpleVariableDeclaration> importedVariables =
+      PostCssSimpleVariableIndex.getImportedVariables(context.getContainingFile());
+    for (PostCssSimpleVariableDeclaration declaration : importedVariables.values()) {
+      if (!processor.process(declaration)) return;
     }
   }
 
@@ -61,6 +61,35 @@ public class PostCssSimpleVarsTest extends PostCssFixtureTestCase {
     );
   }
 
+  public void testResolveInTransitivelyImportedFile() {
+    myFixture.addFileToProject("one.pcss", "$foo: 1px;\n$foo: 2px;");
+    myFixture.addFileToProject("two.pcss", "@import 'one.pcss';\n$bar: 3px;");
+    doResolveTest("@import 'two.pcss';\n" +
+                  ".header {\n" +
+                  "    width: $<caret>foo;\n" +
+                  "}",
+                  "$foo: 2px;"
+    );
+  }
+
+  public void testNestedDeclarationInImportedFileIgnored() {
+    myFixture.addFileToProject("one.pcss", "$foo: 1px;\n@media print {\n  $foo: 2px;\n  $bar: 3px;\n}");
+    doResolveTest("@import 'one.pcss';\n" +
+                  ".header {\n" +
+                  "    width: $<caret>foo;\n" +
+                  "}",
+                  "$foo: 1px;"
+    );
+
+    myFixture.configureByText("bar.pcss", "@import 'one.pcss';\n" +
+                                          ".header {\n" +
+                                          "    width: $<caret>bar;\n" +
+                                          "}");
+    final PsiReference reference = TargetElementUtil.findReference(myFixture.getEditor());
+    assertNotNull("reference not found", reference);
+    assertNull(reference.resolve());
+  }
+
   public void testFindUsages() {
     doTestFindUsages("$f<caret>oo: 10px;\n" +
                      "$foo $(foo) {\n" +
@@ -0,0 +1,289 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.prettierjs;
+
+import com.intellij.javascript.nodejs.util.NodePackage;
+import com.intellij.lang.javascript.service.JSLanguageServiceUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Formats many files keeping a bounded number of requests in flight to the Prettier service
+ * and applies the results in chunks as they arrive, instead of collecting all formatted texts first.
+ * <p>
+ * All chunks are applied in one undoable command group. If the progress is cancelled, the chunks applied so far stay applied,
+ * the results that arrived but haven't been applied yet are dropped, and {@link Statistics} tells how many files were reformatted.
+ */
+final class PrettierFormatPipeline {
+  private static final Logger LOG = Logger.getInstance(PrettierFormatPipeline.class);
+
+  private static final String MAX_IN_FLIGHT_REGISTRY_KEY = "prettier.reformat.max.in.flight.requests";
+  private static final int DEFAULT_MAX_IN_FLIGHT = 8;
+  private static final int APPLY_CHUNK_SIZE = 50;
+  private static final long POLL_INTERVAL_MS = 50;
+
+  private final @NotNull Project myProject;
+  private final @NotNull NodePackage myNodePackage;
+  private final @NotNull PrettierLanguageService myService;
+  private final boolean myReportSkippedFiles;
+  private final int myMaxInFlight;
+  private final long myTimeoutMs;
+  // command group id merges all chunks into a single undoable action
+  private final @NotNull String myCommandGroupId = "PrettierReformat-" + System.identityHashCode(this);
+
+  private final Semaphore myPermits;
+  private final Set<InFlightRequest> myInFlight = ConcurrentHashMap.newKeySet();
+  private final BlockingQueue<InFlightRequest> myCompleted = new LinkedBlockingQueue<>();
+  private final List<InFlightRequest> myChunk = new ArrayList<>();
+  private final List<String> myErrors = new ArrayList<>();
+
+  private int myFormattedCount;
+  private int myTimedOutCount;
+  private boolean myCancelled;
+
+  PrettierFormatPipeline(@NotNull Project project,
+                         @NotNull NodePackage nodePackage,
+                         @NotNull PrettierLanguageService service,
+                         boolean reportSkippedFiles) {
+    myProject = project;
+    myNodePackage = nodePackage;
+    myService = service;
+    myReportSkippedFiles = reportSkippedFiles;
+    myMaxInFlight = Math.max(1, Registry.intValue(MAX_IN_FLIGHT_REGISTRY_KEY, DEFAULT_MAX_IN_FLIGHT));
+    myTimeoutMs = JSLanguageServiceUtil.getTimeout();
+    myPermits = new Semaphore(myMaxInFlight);
+  }
+
+  @NotNull
+  Statistics run(@NotNull List<PsiFile> files, @NotNull ProgressIndicator indicator) {
+    long start = System.currentTimeMillis();
+    indicator.setIndeterminate(false);
+    try {
+      for (int i = 0; i < files.size(); i++) {
+        PsiFile file = files.get(i);
+        indicator.setText(PrettierBundle.message("processing.0.progress", file.getName()));
+        indicator.setFraction((double)i / files.size());
+        while (!myPermits.tryAcquire(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+          indicator.checkCanceled();
+          processCompleted(indicator);
+        }
+        send(file);
+        processCompleted(indicator);
+      }
+      while (!myInFlight.isEmpty() || !myCompleted.isEmpty()) {
+        InFlightRequest request = myCompleted.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (request != null) {
+          handleCompleted(request);
+        }
+        processCompleted(indicator);
+      }
+      applyChunk();
+    }
+    catch (ProcessCanceledException e) {
+      // the statistics tell the user which part of the files was reformatted
+      myCancelled = true;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    finally {
+      for (InFlightRequest request : myInFlight) {
+        request.myFuture.cancel(false);
+      }
+    }
+
+    Statistics statistics = new Statistics(files.size(), myFormattedCount, myErrors, myTimedOutCount,
+                                           System.currentTimeMillis() - start, myCancelled);
+    if (LOG.isDebugEnabled()) {
+      long elapsed = Math.max(1, statistics.myElapsedMs);
+      LOG.debug(String.format("Reformatted %d of %d files in %d ms (%.1f files/s), %d failed, %d timed out, %d requests in flight%s",
+                              myFormattedCount, files.size(), elapsed, myFormattedCount * 1000.0 / elapsed,
+                              statistics.getFailedCount(), myTimedOutCount, myMaxInFlight, myCancelled ? ", cancelled" : ""));
+    }
+    return statistics;
+  }
+
+  private void send(@NotNull PsiFile file) {
+    CompletableFuture<PrettierLanguageService.FormatResult> future;
+    try {
+      future = ReformatWithPrettierAction.sendRequestForFile(myProject, myNodePackage, myService, file, null);
+    }
+    catch (RuntimeException e) {
+      myPermits.release();
+      throw e;
+    }
+    if (future == null) {
+      myPermits.release();
+      return;
+    }
+    InFlightRequest request = new InFlightRequest(file, future);
+    myInFlight.add(request);
+    future.whenComplete((result, throwable) -> {
+      // enqueue before removing, so that the request is always visible to run() in one of the collections
+      myCompleted.add(request);
+      myInFlight.remove(request);
+      myPermits.release();
+    });
+  }
+
+  private void processCompleted(@NotNull ProgressIndicator indicator) {
+    indicator.checkCanceled();
+    InFlightRequest request;
+    while ((request = myCompleted.poll()) != null) {
+      handleCompleted(request);
+    }
+    long now = System.currentTimeMillis();
+    for (InFlightRequest inFlight : myInFlight) {
+      if (now - inFlight.myStartTime > myTimeoutMs) {
+        inFlight.myTimedOut = true;
+        inFlight.myFuture.cancel(false);
+      }
+    }
+  }
+
+  private void handleCompleted(@NotNull InFlightRequest request) {
+    PsiFile file = request.myFile;
+    if (request.myTimedOut) {
+      myTimedOutCount++;
+      myErrors.add(PrettierBundle.message("file.reformat.timed.out", file.getName()));
+      return;
+    }
+    Throwable failure = request.getFailure();
+    if (failure != null) {
+      LOG.debug("Failed to reformat " + file.getName(), failure);
+      myErrors.add(PrettierBundle.message("file.reformat.failed", file.getName(),
+                                          StringUtil.notNullize(failure.getMessage(), failure.getClass().getSimpleName())));
+      return;
+    }
+    PrettierLanguageService.FormatResult result = request.getResult();
+    if (result == null) {
+      // the service process was terminated before answering
+      myErrors.add(PrettierBundle.message("file.reformat.failed", file.getName(), PrettierBundle.message("service.not.started.message")));
+      return;
+    }
+    if (result.unsupported) {
+      if (myReportSkippedFiles) {
+        myErrors.add(PrettierBundle.message("not.supported.file", file.getName()));
+      }
+      return;
+    }
+    if (result.ignored) {
+      myErrors.add(PrettierBundle.message("file.was.ignored", file.getName()));
+      return;
+    }
+    if (result.error != null) {
+      myErrors.add(result.error);
+      return;
+    }
+    myChunk.add(request);
+    if (myChunk.size() >= APPLY_CHUNK_SIZE) {
+      applyChunk();
+    }
+  }
+
+  private void applyChunk() {
+    if (myChunk.isEmpty()) return;
+
+    List<InFlightRequest> chunk = new ArrayList<>(myChunk);
+    myChunk.clear();
+    ApplicationManager.getApplication().invokeAndWait(() -> {
+      ReformatWithPrettierAction.runWriteCommandAction(myProject, myCommandGroupId, () -> {
+        for (InFlightRequest request : chunk) {
+          VirtualFile virtualFile = request.myFile.isValid() ? request.myFile.getVirtualFile() : null;
+          if (virtualFile == null) continue;
+          ReformatWithPrettierAction.applyFormatResult(myProject, virtualFile, request.getResult());
+        }
+      });
+    }, ModalityState.defaultModalityState());
+    myFormattedCount += chunk.size();
+  }
+
+  static final class Statistics {
+    final int myFileCount;
+    final int myFormattedCount;
+    final @NotNull List<String> myErrors;
+    final int myTimedOutCount;
+    final long myElapsedMs;
+    final boolean myCancelled;
+
+    private Statistics(int fileCount, int formattedCount, @NotNull List<String> errors, int timedOutCount, long elapsedMs,
+                       boolean cancelled) {
+      myFileCount = fileCount;
+      myFormattedCount = formattedCount;
+      myErrors = errors;
+      myTimedOutCount = timedOutCount;
+      myElapsedMs = elapsedMs;
+      myCancelled = cancelled;
+    }
+
+    int getFailedCount() {
+      return myErrors.size() - myTimedOutCount;
+    }
+
+    /**
+     * @return e.g. "Prettier: reformatted 120 of 125 files in 3 s 200 ms, 3 failed, 2 timed out"
+     */
+    @NotNull
+    @Nls
+    String getSummary() {
+      String summary = PrettierBundle.message("reformatted.0.of.1.files.in.2", myFormattedCount, myFileCount,
+                                              StringUtil.formatDuration(myElapsedMs));
+      if (!myErrors.isEmpty()) {
+        summary = PrettierBundle.message("reformat.summary.0.failed.1.timed.out", summary, getFailedCount(), myTimedOutCount);
+      }
+      return summary;
+    }
+  }
+
+  private static final class InFlightRequest {
+    private final @NotNull PsiFile myFile;
+    private final @NotNull CompletableFuture<PrettierLanguageService.FormatResult> myFuture;
+    private final long myStartTime = System.currentTimeMillis();
+    private volatile boolean myTimedOut;
+
+    private InFlightRequest(@NotNull PsiFile file, @NotNull CompletableFuture<PrettierLanguageService.FormatResult> future) {
+      myFile = file;
+      myFuture = future;
+    }
+
+    /**
+     * @return {@code null} if the request was cancelled or failed, see {@link #getFailure()}
+     */
+    private @Nullable PrettierLanguageService.FormatResult getResult() {
+      if (myFuture.isCompletedExceptionally()) return null;
+      return myFuture.getNow(null);
+    }
+
+    /**
+     * @return exception of a cancelled or failed request
+     */
+    private @Nullable Throwable getFailure() {
+      if (!myFuture.isCompletedExceptionally()) return null;
+      try {
+        myFuture.join();
+        return null;
+      }
+      catch (CompletionException e) {
+        return e.getCause() != null ? e.getCause() : e;
+      }
+      catch (CancellationException e) {
+        return e;
+      }
+    }
+  }
+}
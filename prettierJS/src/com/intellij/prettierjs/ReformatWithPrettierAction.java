@@ -44,6 +44,7 @@ import com.intellij.openapi.util.ThrowableComputable;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.ReadonlyStatusHandler;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.StatusBar;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiFile;
@@ -55,7 +56,6 @@ import com.intellij.util.ArrayUtil;
 import com.intellij.util.LineSeparator;
 import com.intellij.util.NullableFunction;
 import com.intellij.util.SmartList;
-import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.text.SemVer;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NotNull;
@@ -283,9 +283,7 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
                                           boolean reportSkippedFiles,
                                           @NotNull ErrorHandler errorHandler) {
     PrettierLanguageService service = PrettierLanguageService.getInstance(project);
-    Map<PsiFile, PrettierLanguageService.FormatResult> results = executeUnderProgress(project, indicator -> {
-      Map<PsiFile, PrettierLanguageService.FormatResult> reformattedResults = new HashMap<>();
-
+    PrettierFormatPipeline.Statistics statistics = executeUnderProgress(project, indicator -> {
       List<PsiFile> files = new SmartList<>();
       ReadAction.run(() -> {
         while (fileIterator.hasNext()) {
@@ -293,53 +291,36 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
         }
       });
 
-      for (PsiFile currentFile : files) {
-        indicator.setText(PrettierBundle.message("processing.0.progress", currentFile.getName()));
-        PrettierLanguageService.FormatResult result = performRequestForFile(project, nodePackage, service, currentFile, null);
-        // timed out. show notification?
-        if (result == null) {
-          continue;
-        }
-        if (result.unsupported && reportSkippedFiles) {
-          PrettierLanguageService.FormatResult errorResult = PrettierLanguageService.FormatResult
-            .error(PrettierBundle.message("not.supported.file", currentFile.getName()));
-          reformattedResults.put(currentFile, errorResult);
-        }
-        if (result.ignored) {
-          PrettierLanguageService.FormatResult errorResult =
-            PrettierLanguageService.FormatResult.error(PrettierBundle.message("file.was.ignored", currentFile.getName()));
-          reformattedResults.put(currentFile, errorResult);
-          continue;
-        }
-        reformattedResults.put(currentFile, result);
-      }
-      return reformattedResults;
+      PrettierFormatPipeline pipeline = new PrettierFormatPipeline(project, nodePackage, service, reportSkippedFiles);
+      return pipeline.run(files, indicator);
     });
+    if (statistics == null) return;
 
-    runWriteCommandAction(project, () -> {
-      for (Map.Entry<PsiFile, PrettierLanguageService.FormatResult> entry : results.entrySet()) {
-        VirtualFile virtualFile = entry.getKey().getVirtualFile();
-        if (virtualFile == null) {
-          continue;
-        }
-        PrettierLanguageService.FormatResult result = entry.getValue();
-        applyFormatResult(project, virtualFile, result);
-      }
-    });
-    List<String> errors = ContainerUtil.mapNotNull(results.entrySet(), t -> t.getValue().error);
-    if (errors.size() > 0) {
+    if (statistics.myCancelled) {
+      // files reformatted before cancellation are not reverted automatically, the user has to know about them
+      JSLinterGuesser.NOTIFICATION_GROUP
+        .createNotification(PrettierBundle.message("prettier.formatter.notification.title"),
+                            PrettierBundle.message("reformat.cancelled.0.of.1.files", statistics.myFormattedCount, statistics.myFileCount),
+                            NotificationType.INFORMATION, null)
+        .notify(project);
+    }
+    else {
+      StatusBar.Info.set(statistics.getSummary(), project);
+    }
+
+    if (!statistics.myErrors.isEmpty()) {
       errorHandler.showErrorWithDetails(project, null,
-                                        PrettierBundle.message("failed.to.reformat.0.files", errors.size()),
-                                        StringUtil.join(errors, "\n"));
+                                        PrettierBundle.message("failed.to.reformat.0.files", statistics.myErrors.size()),
+                                        statistics.getSummary() + "\n\n" + StringUtil.join(statistics.myErrors, "\n"));
     }
   }
 
   /**
    * @param result (new text length) - (old text length)
    */
-  private static int applyFormatResult(@NotNull Project project,
-                                       @NotNull VirtualFile virtualFile,
-                                       @NotNull PrettierLanguageService.FormatResult result) {
+  static int applyFormatResult(@NotNull Project project,
+                               @NotNull VirtualFile virtualFile,
+                               @NotNull PrettierLanguageService.FormatResult result) {
     Document document = FileDocumentManager.getInstance().getDocument(virtualFile);
     int delta = 0;
     if (document != null && StringUtil.isEmpty(result.error) && !result.ignored && !result.unsupported) {
@@ -367,6 +348,25 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
       LOG.error("JSLanguageServiceUtil.awaitFuture() under read action may cause deadlock");
     }
 
+    CompletableFuture<PrettierLanguageService.FormatResult> formatFuture =
+      sendRequestForFile(project, nodePackage, service, currentFile, range);
+    if (formatFuture == null) {
+      return null;
+    }
+    long timeout = edt ? EDT_TIMEOUT_MS : JSLanguageServiceUtil.getTimeout();
+    return JSLanguageServiceUtil.awaitFuture(formatFuture, timeout, JSLanguageServiceUtil.QUOTA_MILLS, null, true, null, edt);
+  }
+
+  /**
+   * Sends the format request for the current document content of the file without waiting for the result.
+   * Must not be called under read action.
+   */
+  @Nullable
+  static CompletableFuture<PrettierLanguageService.FormatResult> sendRequestForFile(@NotNull Project project,
+                                                                                    @NotNull NodePackage nodePackage,
+                                                                                    @NotNull PrettierLanguageService service,
+                                                                                    @NotNull PsiFile currentFile,
+                                                                                    @Nullable TextRange range) {
     Ref<String> text = Ref.create();
     Ref<String> filePath = Ref.create();
     Ref<String> ignoreFilePath = Ref.create();
@@ -388,13 +388,10 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
     });
 
     if (text.isNull()) {
-      return PrettierLanguageService.FormatResult.UNSUPPORTED;
+      return CompletableFuture.completedFuture(PrettierLanguageService.FormatResult.UNSUPPORTED);
     }
 
-    CompletableFuture<PrettierLanguageService.FormatResult> formatFuture =
-      service.format(filePath.get(), ignoreFilePath.get(), text.get(), nodePackage, range);
-    long timeout = edt ? EDT_TIMEOUT_MS : JSLanguageServiceUtil.getTimeout();
-    return JSLanguageServiceUtil.awaitFuture(formatFuture, timeout, JSLanguageServiceUtil.QUOTA_MILLS, null, true, null, edt);
+    return service.format(filePath.get(), ignoreFilePath.get(), text.get(), nodePackage, range);
   }
 
   private static <T> T executeUnderProgress(@NotNull Project project, @NotNull NullableFunction<ProgressIndicator, T> handler) {
@@ -405,7 +402,11 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
   }
 
   private static void runWriteCommandAction(@NotNull Project project, @NotNull Runnable runnable) {
-    WriteCommandAction.runWriteCommandAction(project, PrettierBundle.message("reformat.with.prettier.command.name"), null, runnable);
+    runWriteCommandAction(project, null, runnable);
+  }
+
+  static void runWriteCommandAction(@NotNull Project project, @Nullable String groupId, @NotNull Runnable runnable) {
+    WriteCommandAction.runWriteCommandAction(project, PrettierBundle.message("reformat.with.prettier.command.name"), groupId, runnable);
   }
 
   private static @NotNull @Nls String buildNotificationMessage(@NotNull Document document,
@@ -18,8 +18,22 @@ import org.jetbrains.annotations.Nullable;
 import org.junit.Assert;
 
 import java.io.IOException;
+import java.util.Collections;
 
 public class ReformatWithPrettierTest extends JSExternalToolIntegrationTest {
+  private static final ReformatWithPrettierAction.ErrorHandler THROWING_ERROR_HANDLER = new ReformatWithPrettierAction.ErrorHandler() {
+    @Override
+    public void showError(@NotNull Project project, @Nullable Editor editor,
+                          @NotNull String text, @Nullable Runnable onLinkClick) {
+      throw new RuntimeException(text);
+    }
+
+    @Override
+    public void showErrorWithDetails(@NotNull Project project, @Nullable Editor editor,
+                                     @NotNull String text, @NotNull String details) {
+      throw new RuntimeException(text + " " + details);
+    }
+  };
 
   @Override
   protected String getMainPackageName() {
@@ -128,6 +142,18 @@ public class ReformatWithPrettierTest extends JSExternalToolIntegrationTest {
     }
   }
 
+  public void testReformatDirectory() {
+    String dirName = getTestName(true);
+    myFixture.copyFileToProject(dirName + "/package.json", "package.json");
+    myFixture.copyFileToProject(dirName + "/first.js", "src/first.js");
+    myFixture.copyFileToProject(dirName + "/second.js", "src/second.js");
+
+    ReformatWithPrettierAction.processVirtualFiles(getProject(), Collections.singletonList(myFixture.findFileInTempDir("src")),
+                                                   THROWING_ERROR_HANDLER);
+    myFixture.checkResultByFile("src/first.js", dirName + "/first_after.js", false);
+    myFixture.checkResultByFile("src/second.js", dirName + "/second_after.js", false);
+  }
+
   private void doReformatFile(final String extension) {
     doReformatFile("toReformat", extension);
   }
@@ -146,19 +172,7 @@ public class ReformatWithPrettierTest extends JSExternalToolIntegrationTest {
     if (configureFixture != null) {
       configureFixture.run();
     }
-    myFixture.testAction(new ReformatWithPrettierAction((new ReformatWithPrettierAction.ErrorHandler() {
-      @Override
-      public void showError(@NotNull Project project, @Nullable Editor editor,
-                            @NotNull String text, @Nullable Runnable onLinkClick) {
-        throw new RuntimeException(text);
-      }
-
-      @Override
-      public void showErrorWithDetails(@NotNull Project project, @Nullable Editor editor,
-                                       @NotNull String text, @NotNull String details) {
-        throw new RuntimeException(text + " " + details);
-      }
-    })));
+    myFixture.testAction(new ReformatWithPrettierAction(THROWING_ERROR_HANDLER));
     myFixture.checkResultByFile(dirName + "/" + fileNamePrefix + "_after" + extensionWithDot);
   }
 
@@ -0,0 +1,3 @@
+function first()      {
+  
+}
\ No newline at end of file
@@ -0,0 +1 @@
+var  second=''
\ No newline at end of file
@@ -158,12 +158,7 @@ public abstract class BasicLightHighlightingTestCase extends LightJavaCodeInsigh
    * @param strutsXmlPaths Paths to files.
    */
   protected void createStrutsFileSet(@NonNls final String... strutsXmlPaths) {
-    final StrutsFacet strutsFacet = StrutsFacet.getInstance(getModule());
-    assertNotNull(strutsFacet);
-    final StrutsFacetConfiguration facetConfiguration = strutsFacet.getConfiguration();
-
-    final StrutsFileSet fileSet = new StrutsFileSet("test", "test", facetConfiguration);
-    myStrutsFileSets.add(fileSet);
+    final List<VirtualFile> files = new ArrayList<>(strutsXmlPaths.length);
     for (final String fileName : strutsXmlPaths) {
       final VirtualFile file;
       final String path;
@@ -177,6 +172,24 @@ public abstract class BasicLightHighlightingTestCase extends LightJavaCodeInsigh
       }
 
       assertNotNull("could not find file: '" + path + "'", file);
+      files.add(file);
+    }
+    createStrutsFileSet(files);
+  }
+
+  /**
+   * Creates a fileset containing the given (already existing) files.
+   *
+   * @param strutsXmlFiles Files.
+   */
+  protected void createStrutsFileSet(@NotNull final List<VirtualFile> strutsXmlFiles) {
+    final StrutsFacet strutsFacet = StrutsFacet.getInstance(getModule());
+    assertNotNull(strutsFacet);
+    final StrutsFacetConfiguration facetConfiguration = strutsFacet.getConfiguration();
+
+    final StrutsFileSet fileSet = new StrutsFileSet("test", "test", facetConfiguration);
+    myStrutsFileSets.add(fileSet);
+    for (final VirtualFile file : strutsXmlFiles) {
       fileSet.addFile(file);
     }
     final Set<StrutsFileSet> strutsFileSetSet = facetConfiguration.getFileSets();
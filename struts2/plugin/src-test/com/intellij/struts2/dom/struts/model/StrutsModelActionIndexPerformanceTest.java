@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 The authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.intellij.struts2.dom.struts.model;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.struts2.BasicLightHighlightingTestCase;
+import com.intellij.testFramework.PlatformTestUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures lookups of {@link StrutsModel} backed by {@link StrutsActionIndex} in many generated struts.xml files.
+ */
+public class StrutsModelActionIndexPerformanceTest extends BasicLightHighlightingTestCase {
+
+  private static final int GENERATED_FILES = 40;
+  private static final int GENERATED_ACTIONS_PER_FILE = 125;
+
+  @Override
+  @NotNull
+  protected String getTestDataLocation() {
+    return "model/actionIndex";
+  }
+
+  public void testFindActionsByName() {
+    final List<VirtualFile> files = new ArrayList<>(GENERATED_FILES);
+    for (int i = 0; i < GENERATED_FILES; i++) {
+      files.add(myFixture.addFileToProject("struts-generated-" + i + ".xml", generateStrutsXml(i)).getVirtualFile());
+    }
+    createStrutsFileSet(files);
+
+    final StrutsModel model = StrutsManager.getInstance(getProject()).getCombinedModel(getModule());
+    assertNotNull(model);
+    assertSize(GENERATED_FILES * GENERATED_ACTIONS_PER_FILE, model.getActionsForNamespace(null));
+
+    PlatformTestUtil.startPerformanceTest("StrutsModel#findActionsByName", 500, () -> {
+      for (int i = 0; i < GENERATED_FILES; i++) {
+        for (int j = 0; j < GENERATED_ACTIONS_PER_FILE; j++) {
+          assertSize(1, model.findActionsByName("action" + j, "/ns" + i));
+        }
+      }
+    }).attempts(3).assertTiming();
+  }
+
+  private static String generateStrutsXml(final int fileIdx) {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n")
+      .append("<!DOCTYPE struts PUBLIC \"-//Apache Software Foundation//DTD Struts Configuration 2.0//EN\" ")
+      .append("\"http://struts.apache.org/dtds/struts-2.0.dtd\">\n")
+      .append("<struts>\n")
+      .append("<package name=\"package").append(fileIdx).append("\" namespace=\"/ns").append(fileIdx).append("\">\n");
+    for (int i = 0; i < GENERATED_ACTIONS_PER_FILE; i++) {
+      sb.append("<action name=\"action").append(i).append("\" class=\"com.opensymphony.xwork2.ActionSupport\"/>\n");
+    }
+    sb.append("</package>\n</struts>");
+    return sb.toString();
+  }
+}
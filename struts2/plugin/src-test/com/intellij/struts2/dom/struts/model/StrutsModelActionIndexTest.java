@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 The authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.intellij.struts2.dom.struts.model;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.struts2.BasicLightHighlightingTestCase;
+import com.intellij.struts2.dom.struts.action.Action;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Tests lookups of {@link StrutsModel} backed by {@link StrutsActionIndex}.
+ */
+public class StrutsModelActionIndexTest extends BasicLightHighlightingTestCase {
+
+  @Override
+  @NotNull
+  protected String getTestDataLocation() {
+    return "model/actionIndex";
+  }
+
+  public void testFindActionsByName() {
+    final StrutsModel model = getModel(STRUTS_XML);
+
+    assertActionNames(model.findActionsByName("rootAction", "/"), "rootAction");
+    assertActionNames(model.findActionsByName("rootAction", null), "rootAction", "rootAction");
+    assertActionNames(model.findActionsByName("adminAction", "/"));
+    assertActionNames(model.findActionsByName("adminAction", "/admin"), "adminAction");
+    assertActionNames(model.findActionsByName("unknown", null));
+  }
+
+  public void testFindActionsByNameWildcardKeepsDeclarationOrder() {
+    final StrutsModel model = getModel(STRUTS_XML);
+
+    assertActionNames(model.findActionsByName("editUser", "/"), "edit*", "editUser");
+    assertActionNames(model.findActionsByName("editUser!save", "/"), "edit*", "editUser");
+    assertActionNames(model.findActionsByName("editGroup", "/"), "edit*");
+  }
+
+  public void testGetActionsForNamespace() {
+    final StrutsModel model = getModel(STRUTS_XML);
+
+    assertActionNames(model.getActionsForNamespace("/admin"), "rootAction", "adminAction");
+    assertActionNames(model.getActionsForNamespace("/unknown"));
+    assertSize(5, model.getActionsForNamespace(null));
+  }
+
+  public void testFindActionsByClass() {
+    final StrutsModel model = getModel(STRUTS_XML);
+    final PsiClass actionSupport = myFixture.findClass("com.opensymphony.xwork2.ActionSupport");
+
+    assertActionNames(model.findActionsByClass(actionSupport), "rootAction", "edit*", "rootAction", "adminAction");
+    assertTrue(model.isActionClass(actionSupport));
+    assertFalse(model.isActionClass(myFixture.findClass("java.lang.String")));
+  }
+
+  public void testIndexUpdatedAfterModification() {
+    final StrutsModel model = getModel(STRUTS_XML);
+    assertActionNames(model.findActionsByName("newAction", "/admin"));
+
+    myFixture.configureFromTempProjectFile(STRUTS_XML);
+    final int offset = myFixture.getEditor().getDocument().getText().indexOf("<action name=\"adminAction\"/>");
+    myFixture.getEditor().getCaretModel().moveToOffset(offset);
+    myFixture.type("<action name=\"newAction\"/>");
+
+    final StrutsModel updatedModel = StrutsManager.getInstance(getProject()).getCombinedModel(getModule());
+    assertNotNull(updatedModel);
+    assertActionNames(updatedModel.findActionsByName("newAction", "/admin"), "newAction");
+  }
+
+  private StrutsModel getModel(final String strutsXmlFileName) {
+    createStrutsFileSet(strutsXmlFileName);
+    final StrutsModel model = StrutsManager.getInstance(getProject()).getCombinedModel(getModule());
+    assertNotNull(model);
+    return model;
+  }
+
+  private static void assertActionNames(final List<Action> actions, final String... expectedNames) {
+    assertOrderedEquals(ContainerUtil.map(actions, action -> action.getName().getStringValue()), expectedNames);
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 The authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.intellij.struts2.dom.struts.model;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.struts2.dom.struts.action.Action;
+import com.intellij.struts2.dom.struts.strutspackage.StrutsPackage;
+import com.intellij.util.SmartList;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.MultiMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Lookup tables for all {@link Action}s of a {@link StrutsModel}.
+ * <p/>
+ * Actions are grouped by namespace; exact action names are hashed, wildcard mappings are kept in a separate list
+ * per namespace and matched sequentially. Result lists preserve the declaration order of the underlying packages.
+ */
+final class StrutsActionIndex {
+
+  private final List<Action> myAllActions;
+  private final Map<Action, Integer> myOrdinals;
+  private final Map<String, NamespaceActions> myNamespaces = new HashMap<>();
+
+  private StrutsActionIndex(final List<Action> allActions) {
+    myAllActions = allActions;
+    myOrdinals = new HashMap<>(allActions.size());
+  }
+
+  static StrutsActionIndex build(@NotNull final List<StrutsPackage> strutsPackages) {
+    final List<Action> allActions = new ArrayList<>();
+    final StrutsActionIndex index = new StrutsActionIndex(allActions);
+
+    for (final StrutsPackage strutsPackage : strutsPackages) {
+      final String namespace = strutsPackage.searchNamespace();
+      final NamespaceActions namespaceActions = index.myNamespaces.computeIfAbsent(namespace, s -> new NamespaceActions());
+      namespaceActions.myActions.addAll(strutsPackage.getActions());
+
+      for (final Action action : strutsPackage.getActions()) {
+        index.myOrdinals.put(action, allActions.size());
+        allActions.add(action);
+
+        final String name = action.getName().getRawText();
+        if (name == null) {
+          continue;
+        }
+        if (action.isWildcardMapping()) {
+          namespaceActions.myWildcardActions.add(action);
+        }
+        else {
+          namespaceActions.myActionsByName.putValue(name, action);
+        }
+      }
+    }
+    return index;
+  }
+
+  @NotNull
+  List<Action> getAllActions() {
+    return myAllActions;
+  }
+
+  @NotNull
+  List<Action> getActionsForNamespace(@Nullable @NonNls final String namespace) {
+    if (namespace == null) {
+      return myAllActions;
+    }
+
+    final NamespaceActions namespaceActions = myNamespaces.get(namespace);
+    return namespaceActions == null ? Collections.emptyList() : namespaceActions.myActions;
+  }
+
+  @NotNull
+  List<Action> findActionsByName(@NotNull @NonNls final String name,
+                                 @Nullable @NonNls final String namespace) {
+    // strip everything behind "!", see ActionUtil#matchesPath()
+    final int bangIdx = name.indexOf('!');
+    final String strippedName = bangIdx == -1 ? name : name.substring(0, bangIdx);
+
+    final List<Action> result = new SmartList<>();
+    if (namespace == null) {
+      for (final NamespaceActions namespaceActions : myNamespaces.values()) {
+        namespaceActions.collectMatching(name, strippedName, result);
+      }
+    }
+    else {
+      final NamespaceActions namespaceActions = myNamespaces.get(namespace);
+      if (namespaceActions != null) {
+        namespaceActions.collectMatching(name, strippedName, result);
+      }
+    }
+
+    if (result.size() > 1) {
+      result.sort((o1, o2) -> Integer.compare(myOrdinals.get(o1), myOrdinals.get(o2)));
+    }
+    return result;
+  }
+
+  /**
+   * Lookup table from Action class to all Actions using it, resolved once per index.
+   */
+  static final class ClassIndex {
+
+    private final MultiMap<PsiClass, Action> myActionsByClass = new MultiMap<>();
+
+    ClassIndex(@NotNull final StrutsActionIndex actionIndex) {
+      for (final Action action : actionIndex.getAllActions()) {
+        final PsiClass actionClass = action.searchActionClass();
+        if (actionClass != null) {
+          myActionsByClass.putValue(actionClass, action);
+        }
+      }
+    }
+
+    @NotNull
+    List<Action> findActionsByClass(@NotNull final PsiClass clazz) {
+      final Collection<Action> actions = myActionsByClass.get(clazz);
+      return actions.isEmpty() ? new SmartList<>() : new SmartList<>(actions);
+    }
+
+    boolean isActionClass(@NotNull final PsiClass clazz) {
+      return myActionsByClass.containsKey(clazz);
+    }
+  }
+
+  private static final class NamespaceActions {
+
+    private final List<Action> myActions = new ArrayList<>();
+    private final MultiMap<String, Action> myActionsByName = new MultiMap<>();
+    private final List<Action> myWildcardActions = new SmartList<>();
+
+    private void collectMatching(final String name, final String strippedName, final List<Action> result) {
+      result.addAll(myActionsByName.get(strippedName));
+      result.addAll(ContainerUtil.filter(myWildcardActions, action -> action.matchesPath(name)));
+    }
+  }
+}
@@ -15,8 +15,12 @@
 
 package com.intellij.struts2.dom.struts.model;
 
-import com.intellij.openapi.util.Comparing;
+import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.struts2.dom.struts.StrutsRoot;
 import com.intellij.struts2.dom.struts.action.Action;
@@ -30,11 +34,11 @@ import com.intellij.util.Processor;
 import com.intellij.util.SmartList;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.xml.DomFileElement;
+import com.intellij.util.xml.DomManager;
 import com.intellij.util.xml.model.impl.DomModelImpl;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
@@ -51,9 +55,14 @@ class StrutsModelImpl extends DomModelImpl<StrutsRoot> implements StrutsModel {
   private static final Function<StrutsRoot, Collection<? extends StrutsPackage>> STRUTS_PACKAGE_COLLECTOR =
     strutsRoot -> strutsRoot.getPackages();
 
+  private final Project myProject;
+  private volatile CachedValue<StrutsActionIndex> myActionIndex;
+  private volatile CachedValue<StrutsActionIndex.ClassIndex> myActionClassIndex;
+
   StrutsModelImpl(@NotNull final DomFileElement<StrutsRoot> strutsRootDomFileElement,
                   @NotNull final Set<XmlFile> xmlFiles) {
     super(strutsRootDomFileElement, xmlFiles);
+    myProject = strutsRootDomFileElement.getFile().getProject();
   }
 
   @Override
@@ -85,58 +94,48 @@ class StrutsModelImpl extends DomModelImpl<StrutsRoot> implements StrutsModel {
   @NotNull
   public List<Action> findActionsByName(@NotNull @NonNls final String name,
                                         @Nullable @NonNls final String namespace) {
-    return ContainerUtil.findAll(getActionsForNamespace(namespace), action -> action.matchesPath(name));
+    return getActionIndex().findActionsByName(name, namespace);
   }
 
   @Override
   @NotNull
   public List<Action> findActionsByClass(@NotNull final PsiClass clazz) {
-    return findActionsByClassInner(clazz, false);
-  }
-
-  private List<Action> findActionsByClassInner(final PsiClass clazz,
-                                               final boolean skipOnFirst) {
-    final List<Action> actionResultList = new SmartList<>();
-
-    for (final StrutsPackage strutsPackage : getStrutsPackages()) {
-      for (final Action action : strutsPackage.getActions()) {
-        final PsiClass actionClassValue = action.searchActionClass();
-        if (Comparing.equal(clazz, actionClassValue)) {
-          actionResultList.add(action);
-          if (skipOnFirst) {
-            return actionResultList;
-          }
-        }
-      }
-    }
-
-    return actionResultList;
+    return getActionClassIndex().findActionsByClass(clazz);
   }
 
   @Override
   public boolean isActionClass(@NotNull final PsiClass clazz) {
-    return !findActionsByClassInner(clazz, true).isEmpty();
+    return getActionClassIndex().isActionClass(clazz);
   }
 
   @Override
   public List<Action> getActionsForNamespace(@Nullable @NonNls final String namespace) {
-    final List<Action> actionResultList = new SmartList<>();
-
-    for (final StrutsPackage strutsPackage : getStrutsPackages()) {
-      if (namespace == null ||
-          Objects.equals(namespace, strutsPackage.searchNamespace())) {
-        actionResultList.addAll(strutsPackage.getActions());
-      }
-    }
-    return actionResultList;
+    return new SmartList<>(getActionIndex().getActionsForNamespace(namespace));
   }
 
   @Override
   public boolean processActions(final Processor<Action> processor) {
-    for (final StrutsPackage strutsPackage : getStrutsPackages()) {
-      final List<Action> actions = strutsPackage.getActions();
-      if (!ContainerUtil.process(actions, processor)) return false;
+    return ContainerUtil.process(getActionIndex().getAllActions(), processor);
+  }
+
+  private StrutsActionIndex getActionIndex() {
+    if (myActionIndex == null) {
+      myActionIndex = CachedValuesManager.getManager(myProject).createCachedValue(
+        () -> CachedValueProvider.Result.create(StrutsActionIndex.build(getStrutsPackages()),
+                                                DomManager.getDomManager(myProject)),
+        false);
+    }
+    return myActionIndex.getValue();
+  }
+
+  private StrutsActionIndex.ClassIndex getActionClassIndex() {
+    if (myActionClassIndex == null) {
+      myActionClassIndex = CachedValuesManager.getManager(myProject).createCachedValue(
+        () -> CachedValueProvider.Result.create(new StrutsActionIndex.ClassIndex(getActionIndex()),
+                                                DomManager.getDomManager(myProject),
+                                                PsiModificationTracker.MODIFICATION_COUNT),
+        false);
     }
-    return true;
+    return myActionClassIndex.getValue();
   }
 }
@@ -17,6 +17,7 @@ var TsLintCommands;
 (function (TsLintCommands) {
     TsLintCommands.GetErrors = "GetErrors";
     TsLintCommands.FixErrors = "FixErrors";
+    TsLintCommands.GetErrorsBatch = "GetErrorsBatch";
 })(TsLintCommands || (TsLintCommands = {}));
 var Response = /** @class */ (function () {
     function Response() {
@@ -36,6 +37,9 @@ var TSLintPlugin = /** @class */ (function () {
             case TsLintCommands.FixErrors: {
                 return this.fixErrors(parsedObject.arguments);
             }
+            case TsLintCommands.GetErrorsBatch: {
+                return this.getErrorsBatch(parsedObject.arguments);
+            }
         }
         return null;
     };
@@ -69,6 +73,36 @@ var TSLintPlugin = /** @class */ (function () {
         var contents = fs_1.readFileSync(toProcess.filePath, "utf8");
         return this.processLinting(__assign({}, toProcess, { content: contents }), this.getOptions(true));
     };
+    /**
+     * Lints all files with one linter and one configuration, failures of all files are reported together,
+     * each of them has the name of its file.
+     */
+    TSLintPlugin.prototype.getErrorsBatch = function (toProcess) {
+        var options = this.getOptions(false);
+        var major = this.linterApi.version.major || 0;
+        var files = toProcess.files;
+        if (files.length == 0) {
+            return { output: "[]" };
+        }
+        // the configuration file is given explicitly, so it is the same for all files of the batch
+        var configuration = this.getConfiguration(files[0].filePath, toProcess.configPath);
+        if (major >= 4) {
+            var tslint = new this.linterApi.linter(options);
+            for (var _i = 0, files_1 = files; _i < files_1.length; _i++) {
+                var file = files_1[_i];
+                tslint.lint(file.filePath, getContent(file), configuration);
+            }
+            return tslint.getResult();
+        }
+        var failures = [];
+        options.configuration = configuration;
+        for (var _a = 0, files_2 = files; _a < files_2.length; _a++) {
+            var file = files_2[_a];
+            var tslint_2 = new this.linterApi.linter(file.filePath, getContent(file), options);
+            failures.push.apply(failures, JSON.parse(tslint_2.lint().output));
+        }
+        return { output: JSON.stringify(failures) };
+    };
     TSLintPlugin.prototype.getOptions = function (fix) {
         return {
             formatter: "json",
@@ -103,6 +137,9 @@ var TSLintPlugin = /** @class */ (function () {
     return TSLintPlugin;
 }());
 exports.TSLintPlugin = TSLintPlugin;
+function getContent(file) {
+    return file.content != null ? file.content : fs_1.readFileSync(file.filePath, "utf8");
+}
 function resolveTsLint(packagePath) {
     var tslint = require(packagePath);
     var version = utils_1.getVersion(tslint);
@@ -0,0 +1,185 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.linter.tslint.highlight;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.execution.ExecutionException;
+import com.intellij.lang.javascript.linter.tslint.TslintUtil;
+import com.intellij.lang.javascript.linter.tslint.config.TsLintState;
+import com.intellij.lang.javascript.linter.tslint.execution.TsLinterError;
+import com.intellij.lang.javascript.linter.tslint.service.TsLintLanguageService;
+import com.intellij.lang.javascript.service.JSLanguageServiceUtil;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Comparing;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lints files in batches during batch inspection. When the inspection gets to a file which is not linted yet,
+ * the other files of its directory that are in the inspected scope and use the same configuration are linted together with it
+ * in one {@link TsLintLanguageService#highlightBatch} call, and their results are kept until the inspection gets to them.
+ * Results the inspection didn't get to are dropped when it finishes, see {@link TsLintInspection#cleanup}.
+ * <p>
+ * Results are bound to the modification stamp of the file content they were computed for, so a file changed in the meantime
+ * is linted again.
+ */
+public final class TsLintBatchInspectionCache {
+  /**
+   * Limits the number of files linted ahead for one file
+   */
+  private static final int MAX_PREFETCHED_FILES = 256;
+
+  private final Project myProject;
+  private final Map<VirtualFile, Prefetched> myPrefetched = new ConcurrentHashMap<>();
+  private volatile AnalysisScope myScope;
+  private final AtomicInteger myBatchedFilesCount = new AtomicInteger();
+
+  public TsLintBatchInspectionCache(@NotNull Project project) {
+    myProject = project;
+  }
+
+  @NotNull
+  public static TsLintBatchInspectionCache getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, TsLintBatchInspectionCache.class);
+  }
+
+  @Nullable
+  List<TsLinterError> getErrors(@NotNull TsLinterInput input,
+                                @NotNull TsLintLanguageService service,
+                                @NotNull TsLintExternalAnnotator annotator) throws ExecutionException {
+    VirtualFile file = input.getVirtualFile();
+    long stamp = ReadAction.compute(() -> getModificationStamp(file));
+    Prefetched prefetched = myPrefetched.remove(file);
+    if (prefetched == null || prefetched.myStamp != stamp) {
+      prefetched = new Prefetched(stamp);
+      prefetch(input, prefetched, service, annotator);
+    }
+    List<TsLinterError> result = JSLanguageServiceUtil.awaitLanguageService(prefetched.myFuture, service, file);
+    if (result == null) {
+      // the file was skipped by the service
+      return JSLanguageServiceUtil.awaitLanguageService(
+        service.highlight(file, input.getConfig(), input.getFileContent(), input.getState()), service, file);
+    }
+    return result;
+  }
+
+  /**
+   * Sets the scope of the running inspection; files out of the scope are not linted ahead.
+   * Results prefetched for a previous scope are dropped.
+   */
+  void setScope(@Nullable AnalysisScope scope) {
+    if (myScope != scope) {
+      myScope = scope;
+      myPrefetched.clear();
+    }
+  }
+
+  public void clear() {
+    myScope = null;
+    myPrefetched.clear();
+  }
+
+  @TestOnly
+  public boolean isEmpty() {
+    return myPrefetched.isEmpty();
+  }
+
+  @TestOnly
+  public int getBatchedFilesCount() {
+    return myBatchedFilesCount.get();
+  }
+
+  private void prefetch(@NotNull TsLinterInput input,
+                        @NotNull Prefetched prefetched,
+                        @NotNull TsLintLanguageService service,
+                        @NotNull TsLintExternalAnnotator annotator) {
+    VirtualFile file = input.getVirtualFile();
+    Map<VirtualFile, String> contents = new LinkedHashMap<>();
+    Map<VirtualFile, Prefetched> batch = new LinkedHashMap<>();
+    contents.put(file, input.getFileContent());
+    batch.put(file, prefetched);
+    AnalysisScope scope = myScope;
+    if (scope != null) {
+      ReadAction.run(() -> collectSiblings(file, scope, input.getConfig(), input.getState(), annotator, contents, batch));
+    }
+    myBatchedFilesCount.addAndGet(contents.size());
+    myPrefetched.putAll(batch);
+    // the requested file is awaited directly and is not kept in the cache
+    myPrefetched.remove(file, prefetched);
+
+    CompletableFuture<Void> future = service.highlightBatch(contents, input.getConfig(), input.getState(), (linted, errors) -> {
+      Prefetched result = batch.get(linted);
+      if (result != null) {
+        result.myFuture.complete(errors);
+      }
+    });
+    future.whenComplete((ignored, throwable) -> {
+      for (Map.Entry<VirtualFile, Prefetched> entry : batch.entrySet()) {
+        if (throwable != null) {
+          entry.getValue().myFuture.completeExceptionally(throwable);
+        }
+        else {
+          entry.getValue().myFuture.complete(null);
+        }
+        if (entry.getValue().myFuture.isCompletedExceptionally()) {
+          myPrefetched.remove(entry.getKey(), entry.getValue());
+        }
+      }
+    });
+  }
+
+  private void collectSiblings(@NotNull VirtualFile file,
+                               @NotNull AnalysisScope scope,
+                               @Nullable VirtualFile config,
+                               @NotNull TsLintState state,
+                               @NotNull TsLintExternalAnnotator annotator,
+                               @NotNull Map<VirtualFile, String> contents,
+                               @NotNull Map<VirtualFile, Prefetched> batch) {
+    VirtualFile parent = file.getParent();
+    if (parent == null) return;
+
+    FileDocumentManager documentManager = FileDocumentManager.getInstance();
+    PsiManager psiManager = PsiManager.getInstance(myProject);
+    for (VirtualFile sibling : parent.getChildren()) {
+      if (batch.size() >= MAX_PREFETCHED_FILES) return;
+      if (sibling.isDirectory() || sibling.equals(file) || myPrefetched.containsKey(sibling)) continue;
+      if (!scope.contains(sibling)) continue;
+
+      PsiFile psiFile = psiManager.findFile(sibling);
+      if (psiFile == null || !annotator.acceptPsiFile(psiFile)) continue;
+      if (!Comparing.equal(config, TslintUtil.getConfig(state, myProject, sibling))) continue;
+
+      Document document = documentManager.getCachedDocument(sibling);
+      contents.put(sibling, document != null && documentManager.isDocumentUnsaved(document) ? document.getText() : null);
+      batch.put(sibling, new Prefetched(getModificationStamp(sibling)));
+    }
+  }
+
+  private static long getModificationStamp(@NotNull VirtualFile file) {
+    Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+    return document != null ? document.getModificationStamp() : file.getModificationStamp();
+  }
+
+  private static final class Prefetched {
+    private final long myStamp;
+    private final CompletableFuture<List<TsLinterError>> myFuture = new CompletableFuture<>();
+
+    private Prefetched(long stamp) {
+      myStamp = stamp;
+    }
+  }
+}
@@ -115,7 +115,7 @@ public final class TsLintExternalAnnotator extends JSLinterWithInspectionExterna
   }
 
   @Nullable
-  private static JSLinterAnnotationResult annotateWithService(@NotNull TsLinterInput collectedInfo, @Nullable TsLintLanguageService service) {
+  private JSLinterAnnotationResult annotateWithService(@NotNull TsLinterInput collectedInfo, @Nullable TsLintLanguageService service) {
     VirtualFile config = collectedInfo.getConfig();
     final Project project = collectedInfo.getProject();
     final TsLintState linterState = collectedInfo.getState();
@@ -128,11 +128,16 @@ public final class TsLintExternalAnnotator extends JSLinterWithInspectionExterna
                                                  collectedInfo.getVirtualFile());
     if (interpreterAndPackageError != null) return JSLinterAnnotationResult.create(collectedInfo, interpreterAndPackageError, config);
 
-    final CompletableFuture<List<TsLinterError>> future = service.highlight(collectedInfo.getVirtualFile(),
-                                                                            config, collectedInfo.getFileContent(), linterState);
     final List<TsLinterError> result;
     try {
-      result = JSLanguageServiceUtil.awaitLanguageService(future, service, collectedInfo.getVirtualFile());
+      if (isOnTheFly()) {
+        final CompletableFuture<List<TsLinterError>> future = service.highlight(collectedInfo.getVirtualFile(),
+                                                                                config, collectedInfo.getFileContent(), linterState);
+        result = JSLanguageServiceUtil.awaitLanguageService(future, service, collectedInfo.getVirtualFile());
+      }
+      else {
+        result = TsLintBatchInspectionCache.getInstance(project).getErrors(collectedInfo, service, this);
+      }
     }
     catch (ExecutionException e) {
       return createGlobalErrorMessage(collectedInfo, config, e.getMessage());
@@ -1,5 +1,8 @@
 package com.intellij.lang.javascript.linter.tslint.highlight;
 
+import com.intellij.codeInspection.GlobalInspectionContext;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.SuppressQuickFix;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.lang.javascript.JavaScriptBundle;
@@ -7,6 +10,7 @@ import com.intellij.lang.javascript.linter.JSLinterInspection;
 import com.intellij.lang.javascript.linter.tslint.service.TslintLanguageServiceManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -38,9 +42,24 @@ public final class TsLintInspection extends JSLinterInspection {
     return createOptionPanelForConfigFileOption("useSeverityFromConfigFile");
   }
 
+  @Override
+  public ProblemDescriptor @Nullable [] checkFile(@NotNull PsiFile file,
+                                                  @NotNull GlobalInspectionContext context,
+                                                  @NotNull InspectionManager manager) {
+    TsLintBatchInspectionCache.getInstance(file.getProject()).setScope(context.getRefManager().getScope());
+    return super.checkFile(file, context, manager);
+  }
+
+  @Override
+  public void cleanup(@NotNull Project project) {
+    TsLintBatchInspectionCache.getInstance(project).clear();
+    super.cleanup(project);
+  }
+
   @Override
   protected void ensureServiceStopped(@NotNull Project project) {
     TslintLanguageServiceManager.getInstance(project).terminateServices();
+    TsLintBatchInspectionCache.getInstance(project).clear();
   }
 
   @Override
@@ -18,6 +18,7 @@ import com.intellij.lang.javascript.service.*;
 import com.intellij.lang.javascript.service.protocol.*;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -27,15 +28,18 @@ import com.intellij.util.text.SemVer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 
 
 public final class TsLintLanguageService extends JSLanguageServiceBase {
   @NotNull private final static Logger LOG = RareLogger.wrap(Logger.getInstance(TsLintLanguageService.class), false);
+  /**
+   * Maximum number of files in one {@code GetErrorsBatch} request, results of a batch are reported once its last file is linted
+   */
+  private static final int BATCH_SIZE = 32;
   @NotNull private final VirtualFile myWorkingDirectory;
   @NotNull private final NodePackage myNodePackage;
 
@@ -66,6 +70,90 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     return createHighlightFuture(virtualFile, config, state, FixErrorsCommand::new);
   }
 
+  /**
+   * Lints {@code files} against one configuration, sharing the linter and the parsed configuration between them.
+   * Files are sent in chunks of {@link #BATCH_SIZE} in iteration order, and {@code consumer} gets the results of every file
+   * as soon as its chunk is linted, so the first files can be processed while the rest is still being linted.
+   * The consumer is not called for files which cannot be passed to the service.
+   *
+   * @param files file to lint -> its content, {@code null} content means the saved file is linted
+   */
+  @NotNull
+  public final CompletableFuture<Void> highlightBatch(@NotNull Map<VirtualFile, String> files,
+                                                      @Nullable VirtualFile config,
+                                                      @NotNull TsLintState state,
+                                                      @NotNull BiConsumer<? super VirtualFile, ? super List<TsLinterError>> consumer) {
+    String configFilePath = JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(config);
+    if (configFilePath == null) {
+      List<TsLinterError> result = state.getNodePackageRef() == AutodetectLinterPackage.INSTANCE
+                                   ? ContainerUtil.emptyList()
+                                   : Collections.singletonList(TsLinterError.createGlobalError(
+                                     TsLintBundle.message("tslint.inspection.message.config.file.was.not.found")));
+      files.keySet().forEach(file -> consumer.accept(file, result));
+      return CompletableFuture.completedFuture(null);
+    }
+
+    final JSLanguageServiceQueue process = getProcess();
+    if (process == null) {
+      List<TsLinterError> result = Collections.singletonList(
+        TsLinterError.createGlobalError(JSLanguageServiceUtil.getLanguageServiceCreationError(this)));
+      files.keySet().forEach(file -> consumer.accept(file, result));
+      return CompletableFuture.completedFuture(null);
+    }
+
+    List<CompletableFuture<?>> futures = new ArrayList<>();
+    Map<String, VirtualFile> chunk = new TreeMap<>(FileUtil::comparePaths);
+    GetErrorsBatchCommand command = new GetErrorsBatchCommand(LocalFilePath.create(configFilePath));
+    for (Map.Entry<VirtualFile, String> entry : files.entrySet()) {
+      String path = JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(entry.getKey());
+      if (path == null) continue;
+
+      chunk.put(path, entry.getKey());
+      command.files.add(new BatchFile(LocalFilePath.create(path), entry.getValue()));
+      if (command.files.size() == BATCH_SIZE) {
+        ContainerUtil.addIfNotNull(futures, executeBatch(process, command, chunk, consumer));
+        chunk = new TreeMap<>(FileUtil::comparePaths);
+        command = new GetErrorsBatchCommand(LocalFilePath.create(configFilePath));
+      }
+    }
+    if (!command.files.isEmpty()) {
+      ContainerUtil.addIfNotNull(futures, executeBatch(process, command, chunk, consumer));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+  }
+
+  @Nullable
+  private CompletableFuture<Void> executeBatch(@NotNull JSLanguageServiceQueue process,
+                                               @NotNull GetErrorsBatchCommand command,
+                                               @NotNull Map<String, VirtualFile> filesByPath,
+                                               @NotNull BiConsumer<? super VirtualFile, ? super List<TsLinterError>> consumer) {
+    Gson gson = JSLanguageServiceUtil.getGson(this);
+    CompletableFuture<List<TsLinterError>> future = process.execute(command, (object, answer) -> parseResults(answer, null, gson));
+    if (future == null) return null;
+
+    return future.thenAccept(errors -> {
+      Map<VirtualFile, List<TsLinterError>> result = new LinkedHashMap<>();
+      List<TsLinterError> commonErrors = new ArrayList<>();
+      for (VirtualFile file : filesByPath.values()) {
+        result.put(file, new ArrayList<>());
+      }
+      for (TsLinterError error : ContainerUtil.notNullize(errors)) {
+        String path = error.getAbsoluteFilePath();
+        VirtualFile file = path != null ? filesByPath.get(path) : null;
+        if (file != null) {
+          result.get(file).add(error);
+        }
+        else if (path == null) {
+          commonErrors.add(error);
+        }
+      }
+      result.forEach((file, fileErrors) -> {
+        fileErrors.addAll(commonErrors);
+        consumer.accept(file, fileErrors);
+      });
+    });
+  }
+
   private CompletableFuture<List<TsLinterError>> createHighlightFuture(@NotNull VirtualFile virtualFile,
                                                                        @Nullable VirtualFile config,
                                                                        @NotNull TsLintState state,
@@ -101,7 +189,7 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
   }
 
   @Nullable
-  private static List<TsLinterError> parseResults(@NotNull JSLanguageServiceAnswer answer, @NotNull String path, @NotNull Gson gson) {
+  private static List<TsLinterError> parseResults(@NotNull JSLanguageServiceAnswer answer, @Nullable String path, @NotNull Gson gson) {
     final JsonObject element = answer.getElement();
     final JsonElement error = element.get("error");
     if (error != null) {
@@ -193,6 +281,39 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     }
   }
 
+  private static final class GetErrorsBatchCommand implements JSLanguageServiceCommand, JSLanguageServiceSimpleCommand,
+                                                                JSLanguageServiceObject {
+    public final List<BatchFile> files = new ArrayList<>();
+    public LocalFilePath configPath;
+
+    private GetErrorsBatchCommand(LocalFilePath configPath) {
+      this.configPath = configPath;
+    }
+
+    @NotNull
+    @Override
+    public JSLanguageServiceObject toSerializableObject() {
+      return this;
+    }
+
+    @NotNull
+    @Override
+    public String getCommand() {
+      return "GetErrorsBatch";
+    }
+  }
+
+  private static final class BatchFile {
+    public LocalFilePath filePath;
+    @Nullable
+    public String content;
+
+    private BatchFile(LocalFilePath filePath, @Nullable String content) {
+      this.filePath = filePath;
+      this.content = content;
+    }
+  }
+
   private static final class Protocol extends JSLanguageServiceNodeStdProtocolBase {
     private final NodePackage myNodePackage;
     private final VirtualFile myWorkingDirectory;
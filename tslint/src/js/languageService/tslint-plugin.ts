@@ -6,6 +6,7 @@ import {readFileSync} from "fs"
 namespace TsLintCommands {
     export let GetErrors: string = "GetErrors";
     export let FixErrors: string = "FixErrors";
+    export let GetErrorsBatch: string = "GetErrorsBatch";
 }
 
 type LinterApi = {
@@ -39,6 +40,9 @@ export class TSLintPlugin implements LanguagePlugin {
             case TsLintCommands.FixErrors: {
                 return this.fixErrors(parsedObject.arguments);
             }
+            case TsLintCommands.GetErrorsBatch: {
+                return this.getErrorsBatch(parsedObject.arguments);
+            }
         }
 
         return null;
@@ -77,6 +81,37 @@ export class TSLintPlugin implements LanguagePlugin {
         return this.processLinting({...toProcess, content: contents}, this.getOptions(true));
     }
 
+    /**
+     * Lints all files with one linter and one configuration, failures of all files are reported together,
+     * each of them has the name of its file.
+     */
+    private getErrorsBatch(toProcess: GetErrorsBatchArguments): { output: string } {
+        let options = this.getOptions(false);
+        let major = this.linterApi.version.major || 0;
+        let files = toProcess.files;
+        if (files.length == 0) {
+            return {output: "[]"};
+        }
+
+        // the configuration file is given explicitly, so it is the same for all files of the batch
+        let configuration = this.getConfiguration(files[0].filePath, toProcess.configPath);
+        if (major >= 4) {
+            let tslint = new this.linterApi.linter(options);
+            for (let file of files) {
+                tslint.lint(file.filePath, getContent(file), configuration);
+            }
+            return tslint.getResult();
+        }
+
+        let failures: any[] = [];
+        (<any>options).configuration = configuration;
+        for (let file of files) {
+            let tslint = new (<any>this.linterApi.linter)(file.filePath, getContent(file), options);
+            failures.push(...JSON.parse(tslint.lint().output));
+        }
+        return {output: JSON.stringify(failures)};
+    }
+
     private getOptions(fix: boolean) {
         return {
             formatter: "json",
@@ -113,6 +148,10 @@ export class TSLintPlugin implements LanguagePlugin {
     }
 }
 
+function getContent(file: BatchFile): string {
+    return file.content != null ? file.content : readFileSync(file.filePath, "utf8");
+}
+
 function resolveTsLint(packagePath: string): LinterApi {
     const tslint: any = require(packagePath);
     const version = getVersion(tslint);
@@ -57,4 +57,28 @@ interface GetErrorsArguments extends CommandArguments {
 }
 
 interface FixErrorsArguments extends CommandArguments {
-}
\ No newline at end of file
+}
+
+interface BatchFile {
+    /**
+     * Absolute path for the file to check
+     */
+    readonly filePath: string;
+
+    /**
+     * Content of the file, the file is read from disk if it is absent
+     */
+    readonly content?: string;
+}
+
+interface GetErrorsBatchArguments {
+    /**
+     * Files to check with the same configuration
+     */
+    readonly files: BatchFile[];
+
+    /**
+     * Absolute config path
+     */
+    readonly configPath: string;
+}
@@ -0,0 +1,11 @@
+class Greeter {
+    constructor(public greeting: string) { }
+    greet() {
+        debugger;
+        if (this.greeting.length > 1) return "<h2>" + this.greeting + "</h2>";
+        return "<h1>" + this.greeting + "</h1>";
+    }
+};
+var greeter = new Greeter('Hello, world!');
+var str = greeter.greet();
+document.body.innerHTML = str;
\ No newline at end of file
@@ -0,0 +1,80 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.linter.tslint;
+
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.intellij.javascript.nodejs.util.NodePackageRef;
+import com.intellij.lang.javascript.linter.LinterHighlightingTest;
+import com.intellij.lang.javascript.linter.tslint.config.TsLintConfiguration;
+import com.intellij.lang.javascript.linter.tslint.config.TsLintState;
+import com.intellij.lang.javascript.linter.tslint.execution.TsLinterError;
+import com.intellij.lang.javascript.linter.tslint.highlight.TsLintInspection;
+import com.intellij.lang.javascript.linter.tslint.service.TsLintLanguageService;
+import com.intellij.lang.javascript.linter.tslint.service.TslintLanguageServiceManager;
+import com.intellij.lang.javascript.service.JSLanguageServiceUtil;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.PlatformTestUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.intellij.lang.javascript.linter.tslint.TsLintTestUtil.BASE_TEST_DATA_PATH;
+
+public class TsLintBatchHighlightingPerformanceTest extends LinterHighlightingTest {
+  private static final int FILE_COUNT = 300;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.setTestDataPath(BASE_TEST_DATA_PATH + "/batch/");
+  }
+
+  @NotNull
+  @Override
+  protected InspectionProfileEntry getInspection() {
+    return new TsLintInspection();
+  }
+
+  @NotNull
+  @Override
+  protected String getPackageName() {
+    return TslintUtil.PACKAGE_NAME;
+  }
+
+  public void testBatchHighlighting() throws Exception {
+    configureLinterForPackage(NodePackageRef.create(getNodePackage()));
+    myFixture.copyFileToProject("tslint.json");
+    String text = FileUtil.loadFile(new File(myFixture.getTestDataPath(), "greeter.ts"));
+    List<VirtualFile> files = new ArrayList<>();
+    for (int i = 0; i < FILE_COUNT; i++) {
+      files.add(myFixture.addFileToProject("src/greeter" + i + ".ts", text).getVirtualFile());
+    }
+
+    TsLintState state = TsLintConfiguration.getInstance(getProject()).getExtendedState().getState();
+    VirtualFile config = TslintUtil.getConfig(state, getProject(), files.get(0));
+    assertNotNull(config);
+    TsLintLanguageService service = TslintLanguageServiceManager.getInstance(getProject())
+      .useService(files.get(0), state.getNodePackageRef(), s -> s);
+    assertNotNull(service);
+    // starts the service, so that it is not measured
+    assertNotNull(JSLanguageServiceUtil.awaitLanguageService(
+      service.highlight(files.get(0), config, VfsUtilCore.loadText(files.get(0)), state), service, files.get(0)));
+
+    Map<VirtualFile, String> contents = new LinkedHashMap<>();
+    for (VirtualFile file : files) {
+      contents.put(file, null);
+    }
+    PlatformTestUtil.startPerformanceTest("TSLint batch highlighting", 10_000, () -> {
+      Map<VirtualFile, List<TsLinterError>> batched = new ConcurrentHashMap<>();
+      service.highlightBatch(contents, config, state, batched::put).get(1, TimeUnit.MINUTES);
+      assertEquals(FILE_COUNT, batched.size());
+    }).attempts(3).assertTiming();
+  }
+}
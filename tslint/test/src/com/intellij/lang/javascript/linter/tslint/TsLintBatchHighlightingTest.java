@@ -0,0 +1,146 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.linter.tslint;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.CommonProblemDescriptor;
+import com.intellij.codeInspection.InspectionProfileEntry;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ex.LocalInspectionToolWrapper;
+import com.intellij.javascript.nodejs.util.NodePackageRef;
+import com.intellij.lang.javascript.linter.LinterHighlightingTest;
+import com.intellij.lang.javascript.linter.tslint.config.TsLintConfiguration;
+import com.intellij.lang.javascript.linter.tslint.config.TsLintState;
+import com.intellij.lang.javascript.linter.tslint.execution.TsLinterError;
+import com.intellij.lang.javascript.linter.tslint.highlight.TsLintBatchInspectionCache;
+import com.intellij.lang.javascript.linter.tslint.highlight.TsLintInspection;
+import com.intellij.lang.javascript.linter.tslint.service.TsLintLanguageService;
+import com.intellij.lang.javascript.linter.tslint.service.TslintLanguageServiceManager;
+import com.intellij.lang.javascript.service.JSLanguageServiceUtil;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.testFramework.InspectionTestUtil;
+import com.intellij.testFramework.InspectionsKt;
+import com.intellij.testFramework.fixtures.impl.GlobalInspectionContextForTests;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.intellij.lang.javascript.linter.tslint.TsLintTestUtil.BASE_TEST_DATA_PATH;
+
+/**
+ * Checks that {@link TsLintLanguageService#highlightBatch} and batch inspection through {@link TsLintBatchInspectionCache}
+ * report the same problems as linting files one by one.
+ */
+public class TsLintBatchHighlightingTest extends LinterHighlightingTest {
+  private static final int FILE_COUNT = 20;
+  private static final int SCOPE_FILE_COUNT = 5;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.setTestDataPath(BASE_TEST_DATA_PATH + "/batch/");
+  }
+
+  @NotNull
+  @Override
+  protected InspectionProfileEntry getInspection() {
+    return new TsLintInspection();
+  }
+
+  @NotNull
+  @Override
+  protected String getPackageName() {
+    return TslintUtil.PACKAGE_NAME;
+  }
+
+  public void testBatchMatchesPerFileHighlighting() throws Exception {
+    List<VirtualFile> files = createFiles();
+    TsLintState state = getTsLintState();
+    VirtualFile config = TslintUtil.getConfig(state, getProject(), files.get(0));
+    assertNotNull(config);
+    TsLintLanguageService service = TslintLanguageServiceManager.getInstance(getProject())
+      .useService(files.get(0), state.getNodePackageRef(), s -> s);
+    assertNotNull(service);
+
+    Map<VirtualFile, String> contents = new LinkedHashMap<>();
+    for (VirtualFile file : files) {
+      contents.put(file, null);
+    }
+    Map<VirtualFile, List<TsLinterError>> batched = new ConcurrentHashMap<>();
+    service.highlightBatch(contents, config, state, batched::put).get(1, TimeUnit.MINUTES);
+
+    for (VirtualFile file : files) {
+      List<String> expected = describe(highlight(service, file, config, state));
+      assertNotEmpty(expected);
+      assertNotNull(file.getName(), batched.get(file));
+      assertOrderedEquals(describe(batched.get(file)), expected);
+    }
+  }
+
+  public void testBatchInspectionLintsOnlyScope() throws Exception {
+    List<VirtualFile> files = createFiles();
+    List<VirtualFile> scopeFiles = files.subList(0, SCOPE_FILE_COUNT);
+    TsLintBatchInspectionCache cache = TsLintBatchInspectionCache.getInstance(getProject());
+    int batchedBefore = cache.getBatchedFilesCount();
+
+    LocalInspectionToolWrapper toolWrapper = new LocalInspectionToolWrapper(new TsLintInspection());
+    AnalysisScope scope = new AnalysisScope(getProject(), scopeFiles);
+    GlobalInspectionContextForTests context =
+      InspectionsKt.createGlobalContextForTool(scope, getProject(), Collections.singletonList(toolWrapper));
+    InspectionTestUtil.runTool(toolWrapper, scope, context);
+
+    Set<VirtualFile> reported = new HashSet<>();
+    for (CommonProblemDescriptor descriptor : context.getPresentation(toolWrapper).getProblemDescriptors()) {
+      PsiElement element = ((ProblemDescriptor)descriptor).getPsiElement();
+      assertNotNull(element);
+      reported.add(element.getContainingFile().getVirtualFile());
+    }
+    assertSameElements(reported, scopeFiles);
+    assertEquals(SCOPE_FILE_COUNT, cache.getBatchedFilesCount() - batchedBefore);
+
+    context.cleanupTools();
+    assertTrue(cache.isEmpty());
+  }
+
+  @NotNull
+  private List<VirtualFile> createFiles() throws IOException {
+    configureLinterForPackage(NodePackageRef.create(getNodePackage()));
+    myFixture.copyFileToProject("tslint.json");
+    String text = FileUtil.loadFile(new File(myFixture.getTestDataPath(), "greeter.ts"));
+    List<VirtualFile> files = new ArrayList<>();
+    for (int i = 0; i < FILE_COUNT; i++) {
+      files.add(myFixture.addFileToProject("src/greeter" + i + ".ts", text).getVirtualFile());
+    }
+    return files;
+  }
+
+  @NotNull
+  private TsLintState getTsLintState() {
+    return TsLintConfiguration.getInstance(getProject()).getExtendedState().getState();
+  }
+
+  @NotNull
+  private static List<TsLinterError> highlight(@NotNull TsLintLanguageService service,
+                                               @NotNull VirtualFile file,
+                                               @NotNull VirtualFile config,
+                                               @NotNull TsLintState state) throws Exception {
+    List<TsLinterError> result =
+      JSLanguageServiceUtil.awaitLanguageService(service.highlight(file, config, VfsUtilCore.loadText(file), state), service, file);
+    assertNotNull(result);
+    return result;
+  }
+
+  @NotNull
+  private static List<String> describe(@NotNull List<TsLinterError> errors) {
+    List<String> result = ContainerUtil.map(errors, error -> error.getLine() + ":" + error.getColumn() + " " + error.getCode());
+    Collections.sort(result);
+    return result;
+  }
+}
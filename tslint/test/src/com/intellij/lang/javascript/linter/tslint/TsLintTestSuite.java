@@ -6,6 +6,7 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
   TsLintHighlightingTest.class,
+  TsLintBatchHighlightingTest.class,
   TsLintConfigCompletionTest.class,
   TsLintConfigHighlightingTest.class,
   TsLintResolveTest.class,
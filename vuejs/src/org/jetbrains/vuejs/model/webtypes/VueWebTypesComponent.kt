@@ -5,7 +5,9 @@ import org.jetbrains.vuejs.model.*
 import org.jetbrains.vuejs.model.webtypes.json.HtmlTag
 import java.util.*
 
-internal class VueWebTypesComponent(tag: HtmlTag, context: VueWebTypesEntitiesContainer.WebTypesContext)
+internal class VueWebTypesComponent(private val tag: Lazy<HtmlTag>,
+                                    override val defaultName: String,
+                                    context: VueWebTypesEntitiesContainer.WebTypesContext)
   : VueWebTypesSourceEntity(tag, context), VueRegularComponent {
 
   override val global: VueGlobal? get() = context.parent.global
@@ -14,30 +16,36 @@ internal class VueWebTypesComponent(tag: HtmlTag, context: VueWebTypesEntitiesCo
   override val data: List<VueDataProperty> = Collections.emptyList()
   override val computed: List<VueComputedProperty> = Collections.emptyList()
   override val methods: List<VueMethod> = Collections.emptyList()
-  override val props: List<VueInputProperty> = tag.attributes.asSequence()
-    .filter { it.name != null }
-    .map { VueWebTypesInputProperty(it, context) }
-    .toList()
-
-  override val emits: List<VueEmitCall> = tag.events.asSequence()
-    .filter { it.name != null }
-    .map { VueWebTypesEmitCall(it, context) }
-    .toList()
-
-  override val slots: List<VueSlot> = tag.slots.asSequence()
-    .plus(tag.vueScopedSlots)
-    .filter { it.name != null }
-    .map { VueWebTypesSlot(it, context) }
-    .toList()
+  override val props: List<VueInputProperty> by lazy {
+    tag.value.attributes.asSequence()
+      .filter { it.name != null }
+      .map { VueWebTypesInputProperty(it, context) }
+      .toList()
+  }
+
+  override val emits: List<VueEmitCall> by lazy {
+    tag.value.events.asSequence()
+      .filter { it.name != null }
+      .map { VueWebTypesEmitCall(it, context) }
+      .toList()
+  }
+
+  override val slots: List<VueSlot> by lazy {
+    tag.value.slots.asSequence()
+      .plus(tag.value.vueScopedSlots)
+      .filter { it.name != null }
+      .map { VueWebTypesSlot(it, context) }
+      .toList()
+  }
 
   override val extends: List<VueContainer> = emptyList()
   override val components: Map<String, VueComponent> = Collections.emptyMap()
   override val directives: Map<String, VueDirective> = Collections.emptyMap()
   override val filters: Map<String, VueFilter> = Collections.emptyMap()
   override val mixins: List<VueMixin> = Collections.emptyList()
-  override val model: VueModelDirectiveProperties =
-    tag.vueModel?.let { VueModelDirectiveProperties(it.prop, it.event) }
+  override val model: VueModelDirectiveProperties by lazy {
+    tag.value.vueModel?.let { VueModelDirectiveProperties(it.prop, it.event) }
     ?: VueModelDirectiveProperties()
-  override val defaultName: String = tag.name!!
+  }
 
 }
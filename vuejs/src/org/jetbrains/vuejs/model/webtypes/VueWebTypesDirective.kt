@@ -9,24 +9,29 @@ import org.jetbrains.vuejs.model.VueDirectiveModifier
 import org.jetbrains.vuejs.model.VueEntitiesContainer
 import org.jetbrains.vuejs.model.webtypes.json.HtmlAttribute
 
-internal class VueWebTypesDirective(attribute: HtmlAttribute,
+internal class VueWebTypesDirective(private val attribute: Lazy<HtmlAttribute>,
+                                    name: String,
                                     context: VueWebTypesEntitiesContainer.WebTypesContext)
   : VueWebTypesSourceEntity(attribute, context), VueDirective {
 
   init {
-    assert(attribute.name!!.startsWith(ATTR_DIRECTIVE_PREFIX)) {
-      attribute.name!!
+    assert(name.startsWith(ATTR_DIRECTIVE_PREFIX)) {
+      name
     }
   }
 
   override val parents: List<VueEntitiesContainer> = listOf(context.parent)
-  override val defaultName: String? = attribute.name!!.substring(2)
-  override val acceptsValue: Boolean = (attribute.value as? Map<*, *>)?.get("kind") != "no-value"
-  override val acceptsNoValue: Boolean = !acceptsValue || (attribute.value as? Map<*, *>)?.get("required") != true
-  override val jsType: JSType? = context.getType(attribute.value)
-  override val modifiers: List<VueDirectiveModifier> = attribute.vueModifiers.asSequence()
-    .filter { it.name != null }
-    .map { VueWebTypesDirectiveModifier(it, context) }
-    .toList()
-  override val argument: VueDirectiveArgument? = attribute.vueArgument?.let { VueWebTypesDirectiveArgument(it, context) }
+  override val defaultName: String? = name.substring(2)
+  override val acceptsValue: Boolean by lazy { (attribute.value.value as? Map<*, *>)?.get("kind") != "no-value" }
+  override val acceptsNoValue: Boolean by lazy { !acceptsValue || (attribute.value.value as? Map<*, *>)?.get("required") != true }
+  override val jsType: JSType? by lazy { context.getType(attribute.value.value) }
+  override val modifiers: List<VueDirectiveModifier> by lazy {
+    attribute.value.vueModifiers.asSequence()
+      .filter { it.name != null }
+      .map { VueWebTypesDirectiveModifier(it, context) }
+      .toList()
+  }
+  override val argument: VueDirectiveArgument? by lazy {
+    attribute.value.vueArgument?.let { VueWebTypesDirectiveArgument(it, context) }
+  }
 }
@@ -18,12 +18,12 @@ import org.jetbrains.vuejs.codeInsight.BOOLEAN_TYPE
 import org.jetbrains.vuejs.model.*
 import org.jetbrains.vuejs.model.webtypes.json.Html
 import org.jetbrains.vuejs.model.webtypes.json.Source
-import org.jetbrains.vuejs.model.webtypes.json.WebTypes
+import org.jetbrains.vuejs.model.webtypes.registry.VueWebTypesSnapshot
 import java.util.*
 import java.util.regex.PatternSyntaxException
 
 open class VueWebTypesEntitiesContainer(project: Project, packageJson: VirtualFile?,
-                                        webTypes: WebTypes, owner: VueEntitiesContainer) : VueEntitiesContainer {
+                                        webTypes: VueWebTypesSnapshot, owner: VueEntitiesContainer) : VueEntitiesContainer {
 
   override val source: PsiElement? = null
   override val parents: List<VueEntitiesContainer> = emptyList()
@@ -35,15 +35,15 @@ open class VueWebTypesEntitiesContainer(project: Project, packageJson: VirtualFi
     get() = Collections.emptyList()
 
   init {
-    assert(webTypes.framework == WebTypes.Framework.VUE)
+    assert(webTypes.isVue)
 
     val typeProvider: (Any?) -> JSType? =
-      if (webTypes.contributions?.html?.typesSyntax == Html.TypesSyntax.TYPESCRIPT)
+      if (webTypes.typesSyntax == Html.TypesSyntax.TYPESCRIPT)
         TypeScriptTypeProvider()::getType
       else
         { _: Any? -> null }
     val descriptionRenderer: (String) -> String? =
-      when (webTypes.contributions?.html?.descriptionMarkup) {
+      when (webTypes.descriptionMarkup) {
         Html.DescriptionMarkup.HTML -> { doc -> doc }
         Html.DescriptionMarkup.MARKDOWN -> { doc -> JSMarkdownUtil.toHtml(doc, false) }
         else -> { doc -> "<p>" + StringUtil.escapeXmlEntities(doc).replace(EOL_PATTERN, "<br>") }
@@ -65,46 +65,34 @@ open class VueWebTypesEntitiesContainer(project: Project, packageJson: VirtualFi
       override fun renderDescription(description: String): String? = descriptionRenderer(description)
     }
 
-    components = webTypes.contributions
-                   ?.html
-                   ?.tags
-                   ?.asSequence()
-                   ?.filter { it.name != null }
-                   ?.flatMap { tag ->
-                     tag.aliases
-                       .asSequence()
-                       .plus(tag.name!!)
-                       .map { Pair(it, VueWebTypesComponent(tag, support)) }
-                   }
-                   ?.toMap()
-                 ?: Collections.emptyMap()
-    directives = webTypes.contributions
-                   ?.html
-                   ?.attributes
-                   ?.asSequence()
-                   ?.filter { it.name != null }
-                   ?.flatMap { attribute ->
-                     attribute.aliases
-                       .asSequence()
-                       .plus(attribute.name!!)
-                       .filter { it.startsWith(ATTR_DIRECTIVE_PREFIX) }
-                       .map { Pair(it.substring(2), VueWebTypesDirective(attribute, support)) }
-                   }
-                   ?.toMap()
-                 ?: Collections.emptyMap()
-    filters = webTypes.contributions
-                ?.html
-                ?.vueFilters
-                ?.asSequence()
-                ?.filter { it.name != null }
-                ?.flatMap { filter ->
-                  filter.aliases
-                    .asSequence()
-                    .plus(filter.name!!)
-                    .map { Pair(it, VueWebTypesFilter(filter, support)) }
-                }
-                ?.toMap()
-              ?: Collections.emptyMap()
+    components = webTypes.tags
+      .asSequence()
+      .flatMap { tag ->
+        tag.aliases
+          .asSequence()
+          .plus(tag.name)
+          .map { Pair(it, VueWebTypesComponent(tag, tag.name, support)) }
+      }
+      .toMap()
+    directives = webTypes.attributes
+      .asSequence()
+      .flatMap { attribute ->
+        attribute.aliases
+          .asSequence()
+          .plus(attribute.name)
+          .filter { it.startsWith(ATTR_DIRECTIVE_PREFIX) }
+          .map { Pair(it.substring(2), VueWebTypesDirective(attribute, attribute.name, support)) }
+      }
+      .toMap()
+    filters = webTypes.filters
+      .asSequence()
+      .flatMap { filter ->
+        filter.aliases
+          .asSequence()
+          .plus(filter.name)
+          .map { Pair(it, VueWebTypesFilter(filter, filter.name, support)) }
+      }
+      .toMap()
   }
 
   private class TypeScriptTypeProvider {
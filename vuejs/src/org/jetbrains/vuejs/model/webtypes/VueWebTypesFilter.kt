@@ -5,13 +5,12 @@ import org.jetbrains.vuejs.model.VueEntitiesContainer
 import org.jetbrains.vuejs.model.VueGlobal
 import org.jetbrains.vuejs.model.webtypes.json.HtmlVueFilter
 
-internal class VueWebTypesFilter(filter: HtmlVueFilter,
+internal class VueWebTypesFilter(filter: Lazy<HtmlVueFilter>,
+                                 override val defaultName: String,
                                  context: VueWebTypesEntitiesContainer.WebTypesContext)
   : VueWebTypesSourceEntity(filter, context), org.jetbrains.vuejs.model.VueFilter {
 
   override val global: VueGlobal? get() = context.parent.global
   override val parents: List<VueEntitiesContainer> get() = listOf(context.parent)
 
-  override val defaultName: String = filter.name!!
-
 }
@@ -5,10 +5,10 @@ import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiElement
 import org.jetbrains.vuejs.model.*
-import org.jetbrains.vuejs.model.webtypes.json.WebTypes
+import org.jetbrains.vuejs.model.webtypes.registry.VueWebTypesSnapshot
 
 class VueWebTypesGlobal(override val project: Project, packageJson: VirtualFile,
-                        webTypes: WebTypes, owner: VueEntitiesContainer)
+                        webTypes: VueWebTypesSnapshot, owner: VueEntitiesContainer)
   : VueWebTypesEntitiesContainer(project, packageJson, webTypes, owner), VueGlobal {
 
   override val global: VueGlobal? = this
@@ -6,10 +6,10 @@ import com.intellij.openapi.vfs.VirtualFile
 import org.jetbrains.vuejs.model.VueEntitiesContainer
 import org.jetbrains.vuejs.model.VueGlobal
 import org.jetbrains.vuejs.model.VuePlugin
-import org.jetbrains.vuejs.model.webtypes.json.WebTypes
+import org.jetbrains.vuejs.model.webtypes.registry.VueWebTypesSnapshot
 
 class VueWebTypesPlugin(project: Project, packageJson: VirtualFile?,
-                        webTypes: WebTypes, owner: VueEntitiesContainer)
+                        webTypes: VueWebTypesSnapshot, owner: VueEntitiesContainer)
   : VueWebTypesEntitiesContainer(project, packageJson, webTypes, owner), VuePlugin {
 
   override val global: VueGlobal? = null
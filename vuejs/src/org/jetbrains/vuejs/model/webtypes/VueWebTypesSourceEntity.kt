@@ -6,20 +6,19 @@ import com.intellij.psi.PsiElement
 import com.intellij.psi.util.CachedValuesManager
 import org.jetbrains.vuejs.codeInsight.documentation.VueDocumentedItem
 import org.jetbrains.vuejs.codeInsight.documentation.VueItemDocumentation
-import org.jetbrains.vuejs.model.webtypes.json.Source
 import org.jetbrains.vuejs.model.webtypes.json.SourceEntity
 
-internal open class VueWebTypesSourceEntity(sourceEntity: SourceEntity,
+internal open class VueWebTypesSourceEntity(private val sourceEntity: Lazy<SourceEntity>,
                                             protected val context: VueWebTypesEntitiesContainer.WebTypesContext)
   : VueDocumentedItem, UserDataHolderBase() {
 
-  @Suppress("LeakingThis")
-  override val documentation: VueItemDocumentation = VueWebTypesItemDocumentation(sourceEntity, this, context)
+  override val documentation: VueItemDocumentation by lazy {
+    VueWebTypesItemDocumentation(sourceEntity.value, this, context)
+  }
 
-  private val sourceInfo: Source? = sourceEntity.source
   val source: PsiElement?
     get() {
-      return sourceInfo?.let {
+      return sourceEntity.value.source?.let {
         CachedValuesManager.getManager(context.project).getCachedValue(this) {
           context.resolveSourceSymbol(it)
         }
@@ -1,7 +1,6 @@
 // Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.vuejs.model.webtypes.registry
 
-import com.fasterxml.jackson.databind.DeserializationFeature
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.node.ArrayNode
 import com.fasterxml.jackson.databind.node.ObjectNode
@@ -34,7 +33,6 @@ import org.jetbrains.vuejs.model.VueGlobal
 import org.jetbrains.vuejs.model.VuePlugin
 import org.jetbrains.vuejs.model.webtypes.VueWebTypesGlobal
 import org.jetbrains.vuejs.model.webtypes.VueWebTypesPlugin
-import org.jetbrains.vuejs.model.webtypes.json.WebTypes
 import java.io.IOException
 import java.util.*
 import java.util.Collections.emptySortedMap
@@ -90,21 +88,18 @@ class VueWebTypesRegistry : PersistentStateComponent<Element> {
 
     private fun loadWebTypes(packageJsonFile: VirtualFile,
                              packageJson: PackageJsonData = PackageJsonData.getOrCreate(packageJsonFile))
-      : Pair<WebTypes, VirtualFile>? {
+      : Pair<VueWebTypesSnapshot, VirtualFile>? {
       val webTypesFile = packageJson.webTypes?.let {
         packageJsonFile.parent?.findFileByRelativePath(it)
       }
-      return webTypesFile?.inputStream?.let {
-        createObjectMapper().readValue(it, WebTypes::class.java)
-      }
-        ?.takeIf { it.framework == WebTypes.Framework.VUE }
+      return webTypesFile?.let { VueWebTypesSnapshot.load(it.url, it.contentsToByteArray()) }
+        ?.takeIf { it.isVue }
         ?.let { Pair(it, webTypesFile) }
     }
-
-    private fun createObjectMapper() = ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
   }
 
   private var myStateLock = Object()
+  @Volatile
   private var myState = State(emptySortedMap(), emptySet())
 
   @Volatile
@@ -112,8 +107,8 @@ class VueWebTypesRegistry : PersistentStateComponent<Element> {
   private var myStateTimestamp = 0L
   private var myStateUpdate: FutureResultProvider<Boolean>? = null
 
-  private var pluginLoadMap = HashMap<String, FutureResultProvider<WebTypes>>()
-  private var pluginCache: LoadingCache<String, WebTypes> = Caffeine.newBuilder()
+  private val pluginLoadMap = ConcurrentHashMap<String, FutureResultProvider<VueWebTypesSnapshot>>()
+  private val pluginCache: LoadingCache<String, VueWebTypesSnapshot> = Caffeine.newBuilder()
     .maximumSize(20)
     .expireAfterAccess(30, TimeUnit.MINUTES)
     .build { buildPackageWebTypes(it) }
@@ -205,42 +200,35 @@ class VueWebTypesRegistry : PersistentStateComponent<Element> {
     return webTypesVersionEntry.value
   }
 
-  private fun loadPackageWebTypes(fileUrl: String): WebTypes? {
-    synchronized(pluginLoadMap) {
-      pluginCache.getIfPresent(fileUrl)?.let { return it }
-      pluginLoadMap.computeIfAbsent(fileUrl) {
-        FutureResultProvider(Callable {
-          pluginCache.get(fileUrl)!!
-        })
-      }
-    }.result
-      ?.let {
-        synchronized(pluginLoadMap) {
-          pluginLoadMap.remove(fileUrl)
-        }
-        return it
-      }
-    ?: return null
+  private fun loadPackageWebTypes(fileUrl: String): VueWebTypesSnapshot? {
+    pluginCache.getIfPresent(fileUrl)?.let { return it }
+    // a single loader per URL, concurrent requests wait for the same future
+    val loader = pluginLoadMap.computeIfAbsent(fileUrl) {
+      FutureResultProvider(Callable {
+        pluginCache.get(fileUrl)!!
+      })
+    }
+    return loader.result?.also {
+      pluginLoadMap.remove(fileUrl, loader)
+    }
   }
 
-  private fun buildPackageWebTypes(fileUrl: String?): WebTypes? {
-    val webTypesJson = createObjectMapper().readValue(VueWebTypesJsonsCache.getWebTypesJson(fileUrl ?: return null), WebTypes::class.java)
-    if (webTypesJson.framework != WebTypes.Framework.VUE) {
+  private fun buildPackageWebTypes(fileUrl: String?): VueWebTypesSnapshot? {
+    val json = VueWebTypesJsonsCache.getWebTypesJson(fileUrl ?: return null).use { it.readBytes() }
+    val snapshot = VueWebTypesSnapshot.load(fileUrl, json)
+    if (!snapshot.isVue) {
       return null
     }
 
     incStateVersion()
-    return webTypesJson
+    return snapshot
   }
 
   private fun <T> processState(processor: (State, ModificationTracker) -> T): T {
-    val state: State
-    val tracker: ModificationTracker
     updateStateIfNeeded()
-    synchronized(myStateLock) {
-      state = myState
-      tracker = StateModificationTracker(myStateVersion)
-    }
+    // the version is read first, so a concurrent update can only make the tracker report a change too early
+    val tracker = StateModificationTracker(myStateVersion)
+    val state = myState
     return processor(state, tracker)
   }
 
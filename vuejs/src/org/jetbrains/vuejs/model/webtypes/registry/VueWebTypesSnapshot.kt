@@ -0,0 +1,256 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.vuejs.model.webtypes.registry
+
+import com.fasterxml.jackson.databind.DeserializationFeature
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.ObjectReader
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.util.io.FileUtil
+import org.jetbrains.annotations.TestOnly
+import org.jetbrains.vuejs.model.webtypes.json.Html
+import org.jetbrains.vuejs.model.webtypes.json.HtmlAttribute
+import org.jetbrains.vuejs.model.webtypes.json.HtmlTag
+import org.jetbrains.vuejs.model.webtypes.json.HtmlVueFilter
+import org.jetbrains.vuejs.model.webtypes.json.WebTypes
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.security.MessageDigest
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Contents of a web-types JSON in a binary form, which is stored under the system directory and keyed by the hashes
+ * of the JSON location and contents. Only the latest snapshot of a location is kept.
+ *
+ * The snapshot starts with the library name and HTML settings, followed by directories of tags, attributes and filters
+ * with their names and aliases. Each item is kept as a compact JSON record, which is deserialized only when the item
+ * is requested for the first time, so a project using a few components of a large library does not keep the rest in memory.
+ */
+class VueWebTypesSnapshot private constructor(private val buffer: ByteBuffer) {
+
+  val framework: String?
+  val name: String?
+  val typesSyntax: Html.TypesSyntax?
+  val descriptionMarkup: Html.DescriptionMarkup?
+  val tags: List<Item<HtmlTag>>
+  val attributes: List<Item<HtmlAttribute>>
+  val filters: List<Item<HtmlVueFilter>>
+
+  val isVue: Boolean get() = framework == WebTypes.Framework.VUE.value()
+
+  init {
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      throw IOException("Not a web-types snapshot")
+    }
+    framework = readString()
+    name = readString()
+    typesSyntax = readString()?.let { value -> Html.TypesSyntax.values().find { it.value() == value } }
+    descriptionMarkup = readString()?.let { value -> Html.DescriptionMarkup.values().find { it.value() == value } }
+    tags = readDirectory(TAG_READER)
+    attributes = readDirectory(ATTRIBUTE_READER)
+    filters = readDirectory(FILTER_READER)
+  }
+
+  /**
+   * Directory entry of a tag, an attribute or a filter. The value is deserialized on the first access.
+   */
+  class Item<T> internal constructor(val name: String,
+                                     val aliases: List<String>,
+                                     private val record: ByteBuffer,
+                                     private val reader: ObjectReader) : Lazy<T> {
+    @Volatile
+    private var myValue: T? = null
+
+    override val value: T
+      get() {
+        myValue?.let { return it }
+        val result = reader.readValue<T>(ByteBufferBackedInputStream(record.duplicate()))
+        myValue = result
+        return result
+      }
+
+    override fun isInitialized(): Boolean = myValue != null
+  }
+
+  private fun <T> readDirectory(reader: ObjectReader): List<Item<T>> {
+    val count = buffer.getInt()
+    val result = ArrayList<Item<T>>(count)
+    repeat(count) {
+      val itemName = readString()!!
+      val aliases = List(buffer.getInt()) { readString()!! }
+      val offset = buffer.getInt()
+      val length = buffer.getInt()
+
+      val record = buffer.duplicate()
+      record.position(offset)
+      record.limit(offset + length)
+      result.add(Item(itemName, aliases, record.slice(), reader))
+    }
+    return result
+  }
+
+  private fun readString(): String? {
+    val length = buffer.getInt()
+    if (length < 0) return null
+    val bytes = ByteArray(length)
+    buffer.get(bytes)
+    return String(bytes, Charsets.UTF_8)
+  }
+
+  companion object {
+    private val LOG = Logger.getInstance(VueWebTypesSnapshot::class.java)
+
+    private const val MAGIC = 0x56575453 // VWTS
+    private const val VERSION = 1
+    private const val SNAPSHOT_SUFFIX = ".bin"
+    private val UNUSED_SNAPSHOT_EXPIRATION = TimeUnit.DAYS.toMillis(30)
+
+    private val MAPPER = ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+
+    @TestOnly
+    val WEB_TYPES_READER: ObjectReader = MAPPER.readerFor(WebTypes::class.java)
+
+    private val TREE_READER: ObjectReader = MAPPER.reader()
+    private val TAG_READER: ObjectReader = MAPPER.readerFor(HtmlTag::class.java)
+    private val ATTRIBUTE_READER: ObjectReader = MAPPER.readerFor(HtmlAttribute::class.java)
+    private val FILTER_READER: ObjectReader = MAPPER.readerFor(HtmlVueFilter::class.java)
+
+    private val myExpiredSnapshotsDeleted = AtomicBoolean()
+
+    /**
+     * Opens the snapshot of the web-types JSON loaded from [source], the snapshot is built and stored on the first request
+     * for the given contents, replacing the snapshot of the previous contents of the [source].
+     */
+    fun load(source: String, json: ByteArray): VueWebTypesSnapshot {
+      if (myExpiredSnapshotsDeleted.compareAndSet(false, true)) {
+        deleteExpiredSnapshots()
+      }
+
+      val file = getSnapshotFile(source, json)
+      if (file.exists()) {
+        try {
+          val snapshot = open(file)
+          // the modification time marks the last use of the snapshot
+          file.setLastModified(System.currentTimeMillis())
+          return snapshot
+        }
+        catch (e: Exception) {
+          LOG.warn("Cannot read web-types snapshot $file, rebuilding it", e)
+        }
+      }
+
+      val snapshot = build(json)
+      try {
+        FileUtil.createParentDirs(file)
+        val tempFile = FileUtil.createTempFile(file.parentFile, file.name, ".tmp", true, false)
+        tempFile.writeBytes(snapshot)
+        // other processes may store the same snapshot concurrently, their contents are equal
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING)
+        deleteOtherSnapshots(file)
+        return open(file)
+      }
+      catch (e: IOException) {
+        LOG.warn("Cannot store web-types snapshot $file", e)
+        return VueWebTypesSnapshot(ByteBuffer.wrap(snapshot))
+      }
+    }
+
+    fun open(file: File): VueWebTypesSnapshot =
+      FileChannel.open(file.toPath(), StandardOpenOption.READ).use {
+        VueWebTypesSnapshot(it.map(FileChannel.MapMode.READ_ONLY, 0, it.size()))
+      }
+
+    @TestOnly
+    fun fromBytes(snapshot: ByteArray): VueWebTypesSnapshot = VueWebTypesSnapshot(ByteBuffer.wrap(snapshot))
+
+    fun build(json: ByteArray): ByteArray {
+      val root = TREE_READER.readTree(json)
+      val html = root?.get("contributions")?.get("html")
+
+      val header = ByteArrayOutputStream()
+      val records = ByteArrayOutputStream()
+      val out = DataOutputStream(header)
+      out.writeInt(MAGIC)
+      out.writeInt(VERSION)
+      writeString(out, root?.get("framework")?.textValue())
+      writeString(out, root?.get("name")?.textValue())
+      writeString(out, html?.get("types-syntax")?.textValue())
+      writeString(out, html?.get("description-markup")?.textValue() ?: Html.DescriptionMarkup.NONE.value())
+
+      // record offsets are relative to the end of the header, they are shifted once its size is known
+      val directory = mutableListOf<Pair<Int, Int>>()
+      for (section in listOf("tags", "attributes", "vue-filters")) {
+        val items = html?.get(section)?.takeIf { it.isArray }?.filter { it.isObject && it.get("name")?.isTextual == true }
+                    ?: emptyList()
+        out.writeInt(items.size)
+        for (item in items) {
+          writeString(out, item.get("name").textValue())
+          val aliases = item.get("aliases")?.mapNotNull { it.textValue() } ?: emptyList()
+          out.writeInt(aliases.size)
+          aliases.forEach { writeString(out, it) }
+
+          val record = MAPPER.writeValueAsBytes(item)
+          directory.add(Pair(out.size(), records.size()))
+          out.writeInt(0)
+          out.writeInt(record.size)
+          records.write(record)
+        }
+      }
+      out.flush()
+
+      val result = header.toByteArray()
+      val buffer = ByteBuffer.wrap(result)
+      for ((position, offset) in directory) {
+        buffer.putInt(position, result.size + offset)
+      }
+      return result + records.toByteArray()
+    }
+
+    private fun writeString(out: DataOutputStream, value: String?) {
+      if (value == null) {
+        out.writeInt(-1)
+        return
+      }
+      val bytes = value.toByteArray(Charsets.UTF_8)
+      out.writeInt(bytes.size)
+      out.write(bytes)
+    }
+
+    @TestOnly
+    fun getSnapshotFile(source: String, json: ByteArray): File =
+      File(getSnapshotsDir(), hash(source.toByteArray(Charsets.UTF_8)).take(16) + "-" + hash(json) + SNAPSHOT_SUFFIX)
+
+    private fun getSnapshotsDir() = File(PathManager.getSystemPath(), "web-types/snapshots")
+
+    /**
+     * Deletes the snapshots of the previous contents of the same source. A snapshot mapped by another process
+     * may fail to be deleted on Windows, it is deleted with the next update of the source or once it expires.
+     */
+    private fun deleteOtherSnapshots(file: File) {
+      val prefix = file.name.substringBefore('-') + "-"
+      file.parentFile.listFiles { _, name -> name.startsWith(prefix) && name.endsWith(SNAPSHOT_SUFFIX) && name != file.name }?.forEach { FileUtil.delete(it) }
+    }
+
+    /**
+     * Deletes the snapshots of sources which were not used for a long time, e.g. of removed projects or packages.
+     */
+    private fun deleteExpiredSnapshots() {
+      val expirationTime = System.currentTimeMillis() - UNUSED_SNAPSHOT_EXPIRATION
+      getSnapshotsDir().listFiles()
+        ?.filter { it.lastModified() < expirationTime }
+        ?.forEach { FileUtil.delete(it) }
+    }
+
+    private fun hash(json: ByteArray): String =
+      MessageDigest.getInstance("SHA-256").digest(json).joinToString("") { String.format("%02x", it) }
+  }
+}
@@ -0,0 +1,79 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.vuejs.model.webtypes
+
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.testFramework.PlatformTestUtil
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import org.jetbrains.vuejs.model.webtypes.json.WebTypes
+import org.jetbrains.vuejs.model.webtypes.registry.VueWebTypesSnapshot
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+class VueWebTypesSnapshotPerformanceTest : BasePlatformTestCase() {
+
+  fun testOpenStoredSnapshots() {
+    val snapshotFiles = createSnapshotFiles(VueWebTypesSnapshotTest.getWebTypesFiles().map { it.readBytes() })
+    PlatformTestUtil.startPerformanceTest(getTestName(false), 100) {
+      for (file in snapshotFiles) {
+        val snapshot = VueWebTypesSnapshot.open(file)
+        snapshot.tags.take(3).forEach { assertNotNull(it.value) }
+      }
+    }.attempts(3).assertTiming()
+  }
+
+  /**
+   * Compares the full deserialization of web-types with building and opening a snapshot,
+   * both by time and by the heap retained when only a few components are used.
+   */
+  fun testSnapshotComparedToFullDeserialization() {
+    val jsons = VueWebTypesSnapshotTest.getWebTypesFiles().map { it.readBytes() }
+    val snapshotFiles = createSnapshotFiles(jsons)
+    // warm up all paths
+    repeat(3) {
+      jsons.forEach { VueWebTypesSnapshot.WEB_TYPES_READER.readValue<WebTypes>(it) }
+      jsons.forEach { VueWebTypesSnapshot.build(it) }
+      snapshotFiles.forEach { VueWebTypesSnapshot.open(it) }
+    }
+
+    val fullTime = measure { jsons.forEach { VueWebTypesSnapshot.WEB_TYPES_READER.readValue<WebTypes>(it) } }
+    val coldTime = measure { jsons.forEach { VueWebTypesSnapshot.fromBytes(VueWebTypesSnapshot.build(it)) } }
+    val warmTime = measure { snapshotFiles.forEach { VueWebTypesSnapshot.open(it) } }
+
+    val fullHeap = retainedHeap { jsons.map { VueWebTypesSnapshot.WEB_TYPES_READER.readValue<WebTypes>(it) } }
+    val snapshotHeap = retainedHeap {
+      snapshotFiles.map { file -> VueWebTypesSnapshot.open(file).also { snapshot -> snapshot.tags.take(3).forEach { it.value } } }
+    }
+
+    System.out.printf("Web-types, %d files: full deserialization %d ms, snapshot build %d ms, snapshot open %d ms%n",
+                      jsons.size, TimeUnit.NANOSECONDS.toMillis(fullTime), TimeUnit.NANOSECONDS.toMillis(coldTime),
+                      TimeUnit.NANOSECONDS.toMillis(warmTime))
+    System.out.printf("Web-types, approximate retained heap: full model %d KB, snapshot with 3 components used %d KB%n",
+                      fullHeap / 1024, snapshotHeap / 1024)
+    assertTrue("full $fullTime ns, snapshot open $warmTime ns", warmTime < fullTime)
+    assertTrue("full $fullHeap bytes, snapshot $snapshotHeap bytes", snapshotHeap < fullHeap)
+  }
+
+  private fun createSnapshotFiles(jsons: List<ByteArray>): List<File> =
+    jsons.map { json -> FileUtil.createTempFile("web-types", ".bin", true).also { it.writeBytes(VueWebTypesSnapshot.build(json)) } }
+
+  private fun measure(action: () -> Unit): Long {
+    val start = System.nanoTime()
+    repeat(ITERATIONS) { action() }
+    return (System.nanoTime() - start) / ITERATIONS
+  }
+
+  private fun retainedHeap(action: () -> Any): Long {
+    val runtime = Runtime.getRuntime()
+    System.gc()
+    val before = runtime.totalMemory() - runtime.freeMemory()
+    val result = action()
+    System.gc()
+    val after = runtime.totalMemory() - runtime.freeMemory()
+    assertNotNull(result)
+    return after - before
+  }
+
+  companion object {
+    private const val ITERATIONS = 10
+  }
+}
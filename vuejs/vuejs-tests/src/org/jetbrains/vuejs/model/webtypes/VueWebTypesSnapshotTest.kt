@@ -0,0 +1,83 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.vuejs.model.webtypes
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import org.jetbrains.vuejs.lang.getVueTestDataPath
+import org.jetbrains.vuejs.model.webtypes.json.WebTypes
+import org.jetbrains.vuejs.model.webtypes.registry.VueWebTypesSnapshot
+import java.io.File
+
+class VueWebTypesSnapshotTest : BasePlatformTestCase() {
+
+  fun testMatchesFullDeserialization() {
+    for (file in getWebTypesFiles()) {
+      val json = file.readBytes()
+      val webTypes = VueWebTypesSnapshot.WEB_TYPES_READER.readValue<WebTypes>(json)
+      val snapshot = VueWebTypesSnapshot.fromBytes(VueWebTypesSnapshot.build(json))
+      val html = webTypes.contributions.html
+
+      assertEquals(webTypes.framework.value(), snapshot.framework)
+      assertEquals(webTypes.name, snapshot.name)
+      assertEquals(html.typesSyntax, snapshot.typesSyntax)
+      assertEquals(html.descriptionMarkup, snapshot.descriptionMarkup)
+
+      assertSameItems(file.name, html.tags.filter { it.name != null }.map { Triple(it.name, it.aliases, it) }, snapshot.tags)
+      assertSameItems(file.name, html.attributes.filter { it.name != null }.map { Triple(it.name, it.aliases, it) }, snapshot.attributes)
+      assertSameItems(file.name, html.vueFilters.filter { it.name != null }.map { Triple(it.name, it.aliases, it) }, snapshot.filters)
+    }
+  }
+
+  fun testItemsAreDecodedOnDemand() {
+    val snapshot = VueWebTypesSnapshot.fromBytes(VueWebTypesSnapshot.build(getWebTypesFiles()[0].readBytes()))
+    assertNotEmpty(snapshot.tags)
+    assertTrue(snapshot.tags.none { it.isInitialized() })
+
+    val tag = snapshot.tags[0].value
+    assertSame(tag, snapshot.tags[0].value)
+    assertTrue(snapshot.tags.drop(1).none { it.isInitialized() })
+  }
+
+  fun testStoredSnapshot() {
+    val json = getWebTypesFiles()[0].readBytes()
+    val first = VueWebTypesSnapshot.load(getTestName(false), json)
+    val second = VueWebTypesSnapshot.load(getTestName(false), json)
+    assertEquals(first.tags.map { it.name }, second.tags.map { it.name })
+    assertEquals(first.tags.map { MAPPER.writeValueAsString(it.value) },
+                 second.tags.map { MAPPER.writeValueAsString(it.value) })
+  }
+
+  fun testPreviousSnapshotOfSourceIsDeleted() {
+    val (oldJson, newJson) = getWebTypesFiles().map { it.readBytes() }
+    val source = getTestName(false)
+    VueWebTypesSnapshot.load(source, oldJson)
+    val oldFile = VueWebTypesSnapshot.getSnapshotFile(source, oldJson)
+    assertTrue(oldFile.isFile)
+
+    val snapshot = VueWebTypesSnapshot.load(source, newJson)
+    assertTrue(VueWebTypesSnapshot.getSnapshotFile(source, newJson).isFile)
+    assertFalse(oldFile.exists())
+    assertNotEmpty(snapshot.tags)
+
+    VueWebTypesSnapshot.load("$source-other", oldJson)
+    assertTrue(VueWebTypesSnapshot.getSnapshotFile(source, newJson).isFile)
+  }
+
+  private fun <T> assertSameItems(path: String, expected: List<Triple<String, List<String>, T>>, actual: List<VueWebTypesSnapshot.Item<T>>) {
+    assertEquals(path, expected.map { it.first }, actual.map { it.name })
+    for ((index, item) in actual.withIndex()) {
+      val (name, aliases, value) = expected[index]
+      assertEquals("$path: $name", aliases, item.aliases)
+      assertEquals("$path: $name", MAPPER.writeValueAsString(value), MAPPER.writeValueAsString(item.value))
+    }
+  }
+
+  companion object {
+    private val MAPPER = ObjectMapper()
+
+    fun getWebTypesFiles(): List<File> =
+      listOf("vuetify/1.3.7/node_modules/vuetify", "bootstrap-vue/node_modules/bootstrap-vue")
+        .map { File(getVueTestDataPath(), "modules/$it/web-types.json") }
+        .onEach { assertTrue(it.path, it.isFile) }
+  }
+}